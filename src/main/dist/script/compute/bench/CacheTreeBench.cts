@@ -0,0 +1,15 @@
+{
+	"m_minSlaves": 0,
+	"m_maxSlaves": 0,
+	"m_name": "CacheTreeBench",
+	"m_tasks": [
+		{
+			"m_task": "de.hhu.bsinfo.dxram.lookup.bench.CacheTreeTask",
+			"m_maxThreads": 16,
+			"m_numRanges": 100000,
+			"m_rangeSize": 100,
+			"m_opCount": 10000000,
+			"m_invalidatePercent": 10
+		}
+	]
+}
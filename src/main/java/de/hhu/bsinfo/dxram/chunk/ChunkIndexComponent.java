@@ -62,6 +62,19 @@ public class ChunkIndexComponent extends AbstractDXRAMComponent<ChunkIndexCompon
         }
     }
 
+    /**
+     * Internal chunk get for index data (e.g. to restore the index after a failure).
+     *
+     * @param p_chunk
+     *         Data structure to read into (ID must be set)
+     * @return True if successful, false otherwise
+     */
+    public boolean getIndexChunk(final AbstractChunk p_chunk) {
+        m_chunk.getMemory().get().get(p_chunk, ChunkLockOperation.ACQUIRE_OP_RELEASE, -1);
+
+        return p_chunk.isStateOk();
+    }
+
     /**
      * Internal chunk put for index data.
      *
@@ -24,7 +24,9 @@ import de.hhu.bsinfo.dxram.chunk.operation.Get;
 import de.hhu.bsinfo.dxram.chunk.operation.Put;
 import de.hhu.bsinfo.dxram.chunk.operation.Remove;
 import de.hhu.bsinfo.dxram.chunk.operation.Resize;
+import de.hhu.bsinfo.dxram.chunk.operation.Scan;
 import de.hhu.bsinfo.dxram.chunk.operation.Status;
+import de.hhu.bsinfo.dxram.chunk.operation.Traverse;
 import de.hhu.bsinfo.dxram.engine.AbstractDXRAMService;
 import de.hhu.bsinfo.dxram.engine.DXRAMComponentAccessor;
 import de.hhu.bsinfo.dxram.engine.DXRAMContext;
@@ -54,6 +56,8 @@ public class ChunkService extends AbstractDXRAMService<ChunkServiceConfig> {
     private Put m_put;
     private Remove m_remove;
     private Resize m_resize;
+    private Scan m_scan;
+    private Traverse m_traverse;
 
     /**
      * Constructor
@@ -125,6 +129,24 @@ public class ChunkService extends AbstractDXRAMService<ChunkServiceConfig> {
         return m_resize;
     }
 
+    /**
+     * Get the scan operation
+     *
+     * @return Operation
+     */
+    public Scan scan() {
+        return m_scan;
+    }
+
+    /**
+     * Get the traverse operation
+     *
+     * @return Operation
+     */
+    public Traverse traverse() {
+        return m_traverse;
+    }
+
     @Override
     protected boolean supportsSuperpeer() {
         return false;
@@ -150,17 +172,24 @@ public class ChunkService extends AbstractDXRAMService<ChunkServiceConfig> {
         m_status = new Status(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice);
         m_cidStatus = new CIDStatus(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice);
         m_create = new Create(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice);
-        m_get = new Get(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice);
-        m_put = new Put(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice);
+        m_get = new Get(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice,
+                p_config.getServiceConfig(ChunkServiceConfig.class).isOptimisticRouting());
+        m_put = new Put(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice,
+                p_config.getServiceConfig(ChunkServiceConfig.class).isOptimisticRouting());
         m_remove = new Remove(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice,
                 p_config.getServiceConfig(ChunkServiceConfig.class).getRemoverQueueSize());
         m_resize = new Resize(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice);
+        m_scan = new Scan(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice,
+                p_config.getServiceConfig(ChunkServiceConfig.class).getScanThreads());
+        m_traverse = new Traverse(getClass(), m_boot, m_backup, m_chunk, m_network, m_lookup, m_nameservice);
 
         return true;
     }
 
     @Override
     protected boolean shutdownService() {
+        m_scan.shutdown();
+
         return true;
     }
 }
@@ -25,6 +25,21 @@ public class ChunkServiceConfig extends DXRAMServiceConfig {
     @Expose
     private int m_removerQueueSize = 100000;
 
+    /**
+     * Number of threads evaluating scan predicates on the local chunks in parallel
+     */
+    @Expose
+    private int m_scanThreads = 4;
+
+    /**
+     * Send get and put requests for chunks not stored locally to the creator (or the last cached owner) without
+     * asking a superpeer first. If the chunk was migrated, the receiving peer answers with the current owner (if it
+     * is cached there) and the request is repeated once there. Otherwise, or if the guessed peer is not reachable,
+     * the owner is looked up on the superpeer
+     */
+    @Expose
+    private boolean m_optimisticRouting = false;
+
     @Override
     protected boolean verify(final DXRAMContext.Config p_config) {
         if (m_removerQueueSize < 1) {
@@ -33,6 +48,12 @@ public class ChunkServiceConfig extends DXRAMServiceConfig {
             return false;
         }
 
+        if (m_scanThreads < 1) {
+            LOGGER.error("Invalid value (%d) for m_scanThreads", m_scanThreads);
+
+            return false;
+        }
+
         return true;
     }
 
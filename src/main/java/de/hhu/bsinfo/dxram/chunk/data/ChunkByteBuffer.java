@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import de.hhu.bsinfo.dxmem.data.AbstractChunk;
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxmem.data.ChunkState;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxutils.ByteBufferHelper;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+
+/**
+ * Chunk backed by a caller supplied ByteBuffer, e.g. a direct buffer shared with native code. The payload of the
+ * chunk is a window of the buffer (by default from index 0 to the limit), the position of the buffer is not touched.
+ * Can be used with all get and put operations instead of a chunk with a heap byte array. Heap buffers are read and
+ * written through their backing array and data received from the network is written straight to the memory of
+ * direct buffers. The remaining transfers (direct buffers with the memory management, sending direct or read only
+ * buffers) are copied in small slices through a per thread scratch buffer, i.e. no byte array is allocated per
+ * operation. Read only buffers can be used with put operations, only.
+ */
+public final class ChunkByteBuffer extends AbstractChunk {
+    private static final int COPY_SLICE_SIZE = 4096;
+    private static final ThreadLocal<byte[]> COPY_SLICE = ThreadLocal.withInitial(() -> new byte[COPY_SLICE_SIZE]);
+
+    private final ByteBuffer m_buffer;
+    private int m_offset;
+    private final int m_size;
+
+    /**
+     * Constructor
+     * Wrap a buffer with a chunk without an ID assigned (e.g. for create operations)
+     *
+     * @param p_buffer
+     *         Buffer holding the payload of the chunk. Be careful with shared references.
+     */
+    public ChunkByteBuffer(final ByteBuffer p_buffer) {
+        this(ChunkID.INVALID_ID, p_buffer);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_id
+     *         ID the chunk is assigned to.
+     * @param p_buffer
+     *         Buffer holding the payload of the chunk. Be careful with shared references.
+     */
+    public ChunkByteBuffer(final long p_id, final ByteBuffer p_buffer) {
+        this(p_id, p_buffer, 0, p_buffer.limit());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_id
+     *         ID the chunk is assigned to.
+     * @param p_buffer
+     *         Buffer holding the payload of the chunk. Be careful with shared references.
+     * @param p_offset
+     *         Offset of the payload in the buffer
+     * @param p_size
+     *         Size of the payload
+     */
+    public ChunkByteBuffer(final long p_id, final ByteBuffer p_buffer, final int p_offset, final int p_size) {
+        super(p_id);
+
+        if (p_buffer == null) {
+            throw new IllegalArgumentException("p_buffer == null");
+        }
+
+        if (p_offset < 0 || p_size < 0 || p_offset + p_size > p_buffer.limit()) {
+            throw new IllegalArgumentException("Payload window exceeds buffer");
+        }
+
+        m_buffer = p_buffer;
+        m_offset = p_offset;
+        m_size = p_size;
+    }
+
+    /**
+     * Move the payload window to another position of the buffer and assign another ID. Allows reusing a single
+     * chunk object for many fixed size records stored consecutively in one buffer.
+     *
+     * @param p_id
+     *         ID the chunk is assigned to.
+     * @param p_offset
+     *         Offset of the payload in the buffer
+     */
+    public void moveTo(final long p_id, final int p_offset) {
+        if (p_offset < 0 || p_offset + m_size > m_buffer.limit()) {
+            throw new IllegalArgumentException("Payload window exceeds buffer");
+        }
+
+        setID(p_id);
+        setState(ChunkState.UNDEFINED);
+        m_offset = p_offset;
+    }
+
+    /**
+     * Get the buffer holding the chunk's payload
+     *
+     * @return Buffer
+     */
+    public ByteBuffer getBuffer() {
+        return m_buffer;
+    }
+
+    /**
+     * Get the offset of the payload in the buffer
+     *
+     * @return Offset in bytes
+     */
+    public int getOffset() {
+        return m_offset;
+    }
+
+    /**
+     * Gets the size of the data/payload.
+     *
+     * @return Payload size in bytes.
+     */
+    public int getDataSize() {
+        return m_size;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "[size " + getDataSize() + ", direct " + m_buffer.isDirect() + ']';
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        if (m_buffer.hasArray()) {
+            p_exporter.writeBytes(m_buffer.array(), m_buffer.arrayOffset() + m_offset, m_size);
+        } else {
+            ByteBuffer source = m_buffer.duplicate();
+            byte[] slice = COPY_SLICE.get();
+            source.position(m_offset);
+
+            for (int pos = 0; pos < m_size; pos += slice.length) {
+                int length = Math.min(slice.length, m_size - pos);
+
+                source.get(slice, 0, length);
+                p_exporter.writeBytes(slice, 0, length);
+            }
+        }
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        // read only heap buffers don't expose their array and must not be written through a direct address
+        if (m_buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+
+        if (m_buffer.hasArray()) {
+            p_importer.readBytes(m_buffer.array(), m_buffer.arrayOffset() + m_offset, m_size);
+        } else if (m_buffer.isDirect() && p_importer instanceof AbstractMessageImporter) {
+            // incoming network data: copy straight to the native memory of the buffer. Network importers might
+            // re-run import calls on partially received messages which the sliced copy below does not support
+            ((AbstractMessageImporter) p_importer).readBytes(ByteBufferHelper.getDirectAddress(m_buffer), m_offset,
+                    m_size);
+        } else {
+            ByteBuffer target = m_buffer.duplicate();
+            byte[] slice = COPY_SLICE.get();
+            target.position(m_offset);
+
+            for (int pos = 0; pos < m_size; pos += slice.length) {
+                int length = Math.min(slice.length, m_size - pos);
+
+                p_importer.readBytes(slice, 0, length);
+                target.put(slice, 0, length);
+            }
+        }
+    }
+
+    @Override
+    public int sizeofObject() {
+        return m_size;
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Simple predicate on the payload of a chunk which is sent to the peers storing the chunks and evaluated there.
+ * A predicate either compares a typed field at a fixed offset of the payload against a constant or combines
+ * multiple predicates with AND/OR.
+ */
+public final class ScanPredicate implements Importable, Exportable {
+    /**
+     * Kind of a predicate node
+     */
+    public enum Type {
+        COMPARE, AND, OR
+    }
+
+    /**
+     * Type of the field to compare
+     */
+    public enum FieldType {
+        BYTE(Byte.BYTES), SHORT(Short.BYTES), INT(Integer.BYTES), LONG(Long.BYTES), FLOAT(Float.BYTES),
+        DOUBLE(Double.BYTES);
+
+        private final int m_size;
+
+        /**
+         * Constructor
+         *
+         * @param p_size
+         *         Size of the field in bytes
+         */
+        FieldType(final int p_size) {
+            m_size = p_size;
+        }
+
+        /**
+         * Get the size of the field
+         *
+         * @return Size in bytes
+         */
+        public int getSize() {
+            return m_size;
+        }
+
+        /**
+         * Check if the field is a floating point number
+         *
+         * @return True if float or double
+         */
+        public boolean isFloatingPoint() {
+            return this == FLOAT || this == DOUBLE;
+        }
+    }
+
+    /**
+     * Comparison of the field (left hand side) with the constant (right hand side)
+     */
+    public enum Operator {
+        EQUALS, NOT_EQUALS, LESS, LESS_EQUALS, GREATER, GREATER_EQUALS
+    }
+
+    // doubles from here on are outside of the range of long
+    private static final double LONG_RANGE_END = 0x1p63;
+
+    private Type m_type = Type.COMPARE;
+    private FieldType m_fieldType = FieldType.BYTE;
+    private Operator m_operator = Operator.EQUALS;
+    private int m_offset;
+    // double values are stored as raw long bits
+    private long m_value;
+    private ScanPredicate[] m_children;
+    // set on import if the received predicate is malformed (never matches)
+    private boolean m_invalid;
+
+    /**
+     * Constructor
+     * Used when receiving the predicate with a message
+     */
+    public ScanPredicate() {
+    }
+
+    /**
+     * Create a predicate comparing a field with an integral constant. For floating point fields (FLOAT or DOUBLE),
+     * the constant is converted to a double.
+     *
+     * @param p_fieldType
+     *         Type of the field (any type)
+     * @param p_offset
+     *         Offset of the field in the payload
+     * @param p_operator
+     *         Comparison to apply
+     * @param p_value
+     *         Constant to compare the field with
+     * @return Predicate
+     */
+    public static ScanPredicate compare(final FieldType p_fieldType, final int p_offset, final Operator p_operator,
+            final long p_value) {
+        if (p_fieldType.isFloatingPoint()) {
+            return compare(p_fieldType, p_offset, p_operator, (double) p_value);
+        }
+
+        ScanPredicate predicate = new ScanPredicate();
+        predicate.m_fieldType = p_fieldType;
+        predicate.m_offset = p_offset;
+        predicate.m_operator = p_operator;
+        predicate.m_value = p_value;
+
+        return predicate;
+    }
+
+    /**
+     * Create a predicate comparing a field with a floating point constant. For integral fields (BYTE, SHORT, INT or
+     * LONG), the constant is rounded to the next integer keeping the result of the comparison (e.g. field < 2.5 is
+     * field < 3, field <= 2.5 is field <= 2) and a non-integral constant is never equal to the field.
+     *
+     * @param p_fieldType
+     *         Type of the field (any type, integral fields are compared with the rounded constant)
+     * @param p_offset
+     *         Offset of the field in the payload
+     * @param p_operator
+     *         Comparison to apply
+     * @param p_value
+     *         Constant to compare the field with
+     * @return Predicate
+     */
+    public static ScanPredicate compare(final FieldType p_fieldType, final int p_offset, final Operator p_operator,
+            final double p_value) {
+        if (!p_fieldType.isFloatingPoint()) {
+            return compareIntegral(p_fieldType, p_offset, p_operator, p_value);
+        }
+
+        ScanPredicate predicate = new ScanPredicate();
+        predicate.m_fieldType = p_fieldType;
+        predicate.m_offset = p_offset;
+        predicate.m_operator = p_operator;
+        predicate.m_value = Double.doubleToRawLongBits(p_value);
+
+        return predicate;
+    }
+
+    /**
+     * Create a predicate comparing an integral field with a floating point constant
+     *
+     * @param p_fieldType
+     *         Type of the field (BYTE, SHORT, INT or LONG)
+     * @param p_offset
+     *         Offset of the field in the payload
+     * @param p_operator
+     *         Comparison to apply
+     * @param p_value
+     *         Constant to compare the field with
+     * @return Predicate
+     */
+    private static ScanPredicate compareIntegral(final FieldType p_fieldType, final int p_offset,
+            final Operator p_operator, final double p_value) {
+        double bound;
+
+        switch (p_operator) {
+            case LESS:
+            case GREATER_EQUALS:
+                bound = Math.ceil(p_value);
+                break;
+            case LESS_EQUALS:
+            case GREATER:
+                bound = Math.floor(p_value);
+                break;
+            default:
+                bound = p_value;
+                break;
+        }
+
+        // false for NaN, non-integral values (EQUALS, NOT_EQUALS) and values out of the range of long
+        if (bound == Math.rint(bound) && bound >= -LONG_RANGE_END && bound < LONG_RANGE_END) {
+            return compare(p_fieldType, p_offset, p_operator, (long) bound);
+        }
+
+        boolean match;
+
+        if (p_operator == Operator.NOT_EQUALS) {
+            match = true;
+        } else if (p_operator == Operator.EQUALS || Double.isNaN(bound)) {
+            match = false;
+        } else if (bound > 0) {
+            match = p_operator == Operator.LESS || p_operator == Operator.LESS_EQUALS;
+        } else {
+            match = p_operator == Operator.GREATER || p_operator == Operator.GREATER_EQUALS;
+        }
+
+        // constant result (fields exceeding the payload still never match)
+        if (match) {
+            return compare(p_fieldType, p_offset, Operator.GREATER_EQUALS, Long.MIN_VALUE);
+        } else {
+            return compare(p_fieldType, p_offset, Operator.LESS, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Combine multiple predicates which all have to match
+     *
+     * @param p_predicates
+     *         Predicates to combine
+     * @return Predicate
+     */
+    public static ScanPredicate and(final ScanPredicate... p_predicates) {
+        ScanPredicate predicate = new ScanPredicate();
+        predicate.m_type = Type.AND;
+        predicate.m_children = p_predicates;
+
+        return predicate;
+    }
+
+    /**
+     * Combine multiple predicates of which at least one has to match
+     *
+     * @param p_predicates
+     *         Predicates to combine
+     * @return Predicate
+     */
+    public static ScanPredicate or(final ScanPredicate... p_predicates) {
+        ScanPredicate predicate = new ScanPredicate();
+        predicate.m_type = Type.OR;
+        predicate.m_children = p_predicates;
+
+        return predicate;
+    }
+
+    /**
+     * Evaluate the predicate on the payload of a chunk
+     *
+     * @param p_data
+     *         Payload of the chunk
+     * @return True if the payload matches the predicate. Fields exceeding the payload never match
+     */
+    public boolean evaluate(final byte[] p_data) {
+        // chunk data is written with the native byte order by the memory management
+        return evaluate(ByteBuffer.wrap(p_data).order(ByteOrder.nativeOrder()));
+    }
+
+    /**
+     * Evaluate the predicate on the payload of a chunk
+     *
+     * @param p_data
+     *         Buffer with the payload of the chunk (absolute offsets)
+     * @return True if the payload matches the predicate. Fields exceeding the payload never match
+     */
+    public boolean evaluate(final ByteBuffer p_data) {
+        if (m_invalid) {
+            return false;
+        }
+
+        switch (m_type) {
+            case AND:
+                for (ScanPredicate child : m_children) {
+                    if (!child.evaluate(p_data)) {
+                        return false;
+                    }
+                }
+
+                return true;
+            case OR:
+                for (ScanPredicate child : m_children) {
+                    if (child.evaluate(p_data)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            default:
+                break;
+        }
+
+        if (m_offset < 0 || (long) m_offset + m_fieldType.getSize() > p_data.limit()) {
+            return false;
+        }
+
+        int cmp;
+
+        switch (m_fieldType) {
+            case BYTE:
+                cmp = Long.compare(p_data.get(m_offset), m_value);
+                break;
+            case SHORT:
+                cmp = Long.compare(p_data.getShort(m_offset), m_value);
+                break;
+            case INT:
+                cmp = Long.compare(p_data.getInt(m_offset), m_value);
+                break;
+            case LONG:
+                cmp = Long.compare(p_data.getLong(m_offset), m_value);
+                break;
+            case FLOAT:
+                cmp = Double.compare(p_data.getFloat(m_offset), Double.longBitsToDouble(m_value));
+                break;
+            case DOUBLE:
+                cmp = Double.compare(p_data.getDouble(m_offset), Double.longBitsToDouble(m_value));
+                break;
+            default:
+                return false;
+        }
+
+        switch (m_operator) {
+            case EQUALS:
+                return cmp == 0;
+            case NOT_EQUALS:
+                return cmp != 0;
+            case LESS:
+                return cmp < 0;
+            case LESS_EQUALS:
+                return cmp <= 0;
+            case GREATER:
+                return cmp > 0;
+            case GREATER_EQUALS:
+                return cmp >= 0;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (m_invalid) {
+            return "INVALID";
+        }
+
+        if (m_type == Type.COMPARE) {
+            return m_fieldType + "@" + m_offset + ' ' + m_operator + ' ' +
+                    (m_fieldType.isFloatingPoint() ? Double.toString(Double.longBitsToDouble(m_value)) :
+                            Long.toString(m_value));
+        }
+
+        StringBuilder builder = new StringBuilder();
+        builder.append('(');
+
+        for (int i = 0; i < m_children.length; i++) {
+            if (i > 0) {
+                builder.append(' ').append(m_type).append(' ');
+            }
+
+            builder.append(m_children[i]);
+        }
+
+        builder.append(')');
+
+        return builder.toString();
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        p_exporter.writeByte((byte) m_type.ordinal());
+
+        if (m_type == Type.COMPARE) {
+            p_exporter.writeByte((byte) m_fieldType.ordinal());
+            p_exporter.writeByte((byte) m_operator.ordinal());
+            p_exporter.writeInt(m_offset);
+            p_exporter.writeLong(m_value);
+        } else {
+            p_exporter.writeCompactNumber(m_children.length);
+
+            for (ScanPredicate child : m_children) {
+                p_exporter.exportObject(child);
+            }
+        }
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        m_type = Type.values()[checkOrdinal(p_importer.readByte((byte) m_type.ordinal()), Type.values().length)];
+
+        if (m_type == Type.COMPARE) {
+            m_fieldType = FieldType.values()[checkOrdinal(p_importer.readByte((byte) m_fieldType.ordinal()),
+                    FieldType.values().length)];
+            m_operator = Operator.values()[checkOrdinal(p_importer.readByte((byte) m_operator.ordinal()),
+                    Operator.values().length)];
+            m_offset = p_importer.readInt(m_offset);
+            m_value = p_importer.readLong(m_value);
+        } else {
+            int count = p_importer.readCompactNumber(m_children == null ? 0 : m_children.length);
+
+            if (m_children == null) {
+                m_children = new ScanPredicate[count];
+
+                for (int i = 0; i < count; i++) {
+                    m_children[i] = new ScanPredicate();
+                }
+            }
+
+            for (ScanPredicate child : m_children) {
+                p_importer.importObject(child);
+            }
+        }
+    }
+
+    /**
+     * Check an enum ordinal received with a predicate. A malformed predicate is read as a comparison
+     * (to read the remaining fields) and never matches
+     *
+     * @param p_ordinal
+     *         Received ordinal
+     * @param p_count
+     *         Number of enum values
+     * @return The ordinal if valid, 0 otherwise
+     */
+    private int checkOrdinal(final byte p_ordinal, final int p_count) {
+        if (p_ordinal < 0 || p_ordinal >= p_count) {
+            m_invalid = true;
+            return 0;
+        }
+
+        return p_ordinal;
+    }
+
+    @Override
+    public int sizeofObject() {
+        int size = Byte.BYTES;
+
+        if (m_type == Type.COMPARE) {
+            size += 2 * Byte.BYTES + Integer.BYTES + Long.BYTES;
+        } else {
+            size += ObjectSizeUtil.sizeofCompactedNumber(m_children.length);
+
+            for (ScanPredicate child : m_children) {
+                size += child.sizeofObject();
+            }
+        }
+
+        return size;
+    }
+}
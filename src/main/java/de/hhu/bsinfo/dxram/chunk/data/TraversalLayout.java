@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
+import de.hhu.bsinfo.dxutils.serialization.Exportable;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importable;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+
+/**
+ * Describes where the IDs of neighbor chunks are stored within the payload of a chunk. Used by the
+ * traverse operation to resolve neighbors on the peer storing the chunk. The neighbor IDs are stored
+ * as a consecutive array of longs starting at a fixed offset. The number of neighbors is either fixed
+ * or read from an int field stored at a fixed offset of the payload.
+ */
+public final class TraversalLayout implements Importable, Exportable {
+    private static final int NO_COUNT_FIELD = -1;
+
+    private int m_countOffset = NO_COUNT_FIELD;
+    private int m_fixedCount;
+    private int m_idsOffset;
+
+    /**
+     * Constructor
+     * Used when receiving the layout with a message
+     */
+    public TraversalLayout() {
+    }
+
+    /**
+     * Create a layout with a variable number of neighbors. The number of neighbors is read from an int field
+     *
+     * @param p_countOffset
+     *         Offset of the int field storing the number of neighbor IDs in the payload
+     * @param p_idsOffset
+     *         Offset of the first neighbor ID in the payload
+     * @return Layout
+     */
+    public static TraversalLayout withCountField(final int p_countOffset, final int p_idsOffset) {
+        if (p_countOffset < 0 || p_idsOffset < 0) {
+            throw new IllegalArgumentException("Negative offset");
+        }
+
+        TraversalLayout layout = new TraversalLayout();
+        layout.m_countOffset = p_countOffset;
+        layout.m_idsOffset = p_idsOffset;
+
+        return layout;
+    }
+
+    /**
+     * Create a layout with a fixed number of neighbors per chunk
+     *
+     * @param p_count
+     *         Number of neighbor IDs stored in every chunk
+     * @param p_idsOffset
+     *         Offset of the first neighbor ID in the payload
+     * @return Layout
+     */
+    public static TraversalLayout withFixedCount(final int p_count, final int p_idsOffset) {
+        if (p_count < 0 || p_idsOffset < 0) {
+            throw new IllegalArgumentException("Negative count or offset");
+        }
+
+        TraversalLayout layout = new TraversalLayout();
+        layout.m_fixedCount = p_count;
+        layout.m_idsOffset = p_idsOffset;
+
+        return layout;
+    }
+
+    /**
+     * Read the neighbor IDs from the payload of a chunk. Invalid IDs and IDs exceeding the payload are skipped.
+     * The layout might be received from a remote node, so offsets and counts outside of the payload are ignored.
+     *
+     * @param p_data
+     *         Payload of the chunk
+     * @param p_neighbors
+     *         List to add the neighbor IDs to
+     */
+    public void readNeighbors(final byte[] p_data, final ArrayListLong p_neighbors) {
+        // chunk data is written with the native byte order by the memory management
+        ByteBuffer buffer = ByteBuffer.wrap(p_data).order(ByteOrder.nativeOrder());
+        int count = m_fixedCount;
+
+        if (m_idsOffset < 0) {
+            return;
+        }
+
+        if (m_countOffset != NO_COUNT_FIELD) {
+            if (m_countOffset < 0 || (long) m_countOffset + Integer.BYTES > p_data.length) {
+                return;
+            }
+
+            count = buffer.getInt(m_countOffset);
+        }
+
+        for (int i = 0; i < count; i++) {
+            long pos = m_idsOffset + (long) i * Long.BYTES;
+
+            if (pos + Long.BYTES > p_data.length) {
+                break;
+            }
+
+            long neighbor = buffer.getLong((int) pos);
+
+            if (neighbor != ChunkID.INVALID_ID) {
+                p_neighbors.add(neighbor);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TraversalLayout[m_countOffset " + m_countOffset + ", m_fixedCount " + m_fixedCount +
+                ", m_idsOffset " + m_idsOffset + ']';
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        p_exporter.writeInt(m_countOffset);
+        p_exporter.writeInt(m_fixedCount);
+        p_exporter.writeInt(m_idsOffset);
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        m_countOffset = p_importer.readInt(m_countOffset);
+        m_fixedCount = p_importer.readInt(m_fixedCount);
+        m_idsOffset = p_importer.readInt(m_idsOffset);
+    }
+
+    @Override
+    public int sizeofObject() {
+        return 3 * Integer.BYTES;
+    }
+}
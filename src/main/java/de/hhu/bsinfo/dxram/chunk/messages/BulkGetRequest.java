@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import java.nio.ByteBuffer;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Request;
+import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxram.chunk.data.ChunkByteBuffer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Request for getting multiple fixed size chunks from a remote node into one contiguous buffer
+ */
+public class BulkGetRequest extends Request {
+    private int m_recordSize;
+    private long[] m_chunkIDs;
+
+    // used when sending the request: the response writes the received records straight to the buffer
+    private int[] m_positions;
+    private ChunkByteBuffer m_target;
+
+    /**
+     * Creates an instance of BulkGetRequest.
+     * This constructor is used when receiving this message.
+     */
+    public BulkGetRequest() {
+        super();
+    }
+
+    /**
+     * Creates an instance of BulkGetRequest.
+     * This constructor is used when sending this message.
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_recordSize
+     *         Size of every chunk
+     * @param p_chunkIDs
+     *         IDs of the chunks to get
+     * @param p_positions
+     *         Record index in the target buffer for each chunk
+     * @param p_target
+     *         Buffer to write the records to
+     */
+    public BulkGetRequest(final short p_destination, final int p_recordSize, final long[] p_chunkIDs,
+            final int[] p_positions, final ByteBuffer p_target) {
+        super(p_destination, DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_BULK_GET_REQUEST);
+
+        m_recordSize = p_recordSize;
+        m_chunkIDs = p_chunkIDs;
+        m_positions = p_positions;
+        m_target = new ChunkByteBuffer(p_chunkIDs[0], p_target, 0, p_recordSize);
+    }
+
+    /**
+     * Get the size of every chunk
+     *
+     * @return Record size
+     */
+    public int getRecordSize() {
+        return m_recordSize;
+    }
+
+    /**
+     * Get the IDs of the chunks to get
+     *
+     * @return Chunk IDs
+     */
+    public long[] getChunkIDs() {
+        return m_chunkIDs;
+    }
+
+    /**
+     * Get the record index in the target buffer for each chunk (sender only)
+     *
+     * @return Record indices
+     */
+    public int[] getPositions() {
+        return m_positions;
+    }
+
+    /**
+     * Get the chunk used to write the received records to the target buffer (sender only)
+     *
+     * @return Chunk backed by the target buffer
+     */
+    ChunkByteBuffer getTarget() {
+        return m_target;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return Integer.BYTES + ObjectSizeUtil.sizeofLongArray(m_chunkIDs);
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeInt(m_recordSize);
+        p_exporter.writeLongArray(m_chunkIDs);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_recordSize = p_importer.readInt(m_recordSize);
+        m_chunkIDs = p_importer.readLongArray(m_chunkIDs);
+    }
+}
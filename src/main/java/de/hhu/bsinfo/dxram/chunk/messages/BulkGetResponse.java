@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import java.nio.ByteBuffer;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Response;
+import de.hhu.bsinfo.dxram.chunk.data.ChunkByteBuffer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Response to a BulkGetRequest. Contains a status bitmap (bit set if the chunk was read successfully) and the
+ * records of all successfully read chunks without any length fields
+ */
+public class BulkGetResponse extends Response {
+    private long[] m_status;
+
+    // used when sending the response, only
+    private ByteBuffer m_records;
+    private int m_recordSize;
+    private int m_count;
+
+    /**
+     * Creates an instance of BulkGetResponse.
+     * This constructor is used when receiving this message.
+     */
+    public BulkGetResponse() {
+        super();
+    }
+
+    /**
+     * Creates an instance of BulkGetResponse.
+     * This constructor is used when sending this message.
+     *
+     * @param p_request
+     *         the corresponding BulkGetRequest
+     * @param p_status
+     *         Status bitmap, bit set if the chunk at that index was read successfully
+     * @param p_records
+     *         Heap buffer with the records of all chunks of the request (record size each, same order)
+     */
+    public BulkGetResponse(final BulkGetRequest p_request, final long[] p_status, final ByteBuffer p_records) {
+        super(p_request, ChunkMessages.SUBTYPE_BULK_GET_RESPONSE);
+
+        m_status = p_status;
+        m_records = p_records;
+        m_recordSize = p_request.getRecordSize();
+        m_count = p_request.getChunkIDs().length;
+    }
+
+    /**
+     * Get the status bitmap
+     *
+     * @return Status bitmap, bit set if the chunk at that index was read successfully
+     */
+    public long[] getStatus() {
+        return m_status;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        int recordSize = m_recordSize;
+
+        if (m_records == null) {
+            recordSize = ((BulkGetRequest) getCorrespondingRequest()).getRecordSize();
+        }
+
+        int successful = 0;
+
+        for (long status : m_status) {
+            successful += Long.bitCount(status);
+        }
+
+        return ObjectSizeUtil.sizeofLongArray(m_status) + successful * recordSize;
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeLongArray(m_status);
+
+        for (int i = 0; i < m_count; i++) {
+            if ((m_status[i >>> 6] & 1L << i) != 0) {
+                p_exporter.writeBytes(m_records.array(), m_records.arrayOffset() + i * m_recordSize, m_recordSize);
+            }
+        }
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_status = p_importer.readLongArray(m_status);
+
+        // write the records straight to the target buffer of the request to avoid further copying
+        BulkGetRequest request = (BulkGetRequest) getCorrespondingRequest();
+        ChunkByteBuffer target = request.getTarget();
+
+        for (int i = 0; i < request.getChunkIDs().length; i++) {
+            if ((m_status[i >>> 6] & 1L << i) != 0) {
+                target.moveTo(request.getChunkIDs()[i], request.getPositions()[i] * request.getRecordSize());
+                p_importer.importObject(target);
+            }
+        }
+    }
+}
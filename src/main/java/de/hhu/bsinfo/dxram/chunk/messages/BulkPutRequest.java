@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import java.nio.ByteBuffer;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Request;
+import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxram.chunk.data.ChunkByteBuffer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Request for putting multiple fixed size chunks from one contiguous buffer to a remote node
+ */
+public class BulkPutRequest extends Request {
+    private static final int SKIP_BUFFER_SIZE = 4096;
+
+    private int m_recordSize;
+    private long[] m_chunkIDs;
+
+    // used when sending the request
+    private int[] m_positions;
+    private ChunkByteBuffer m_source;
+
+    // used when receiving the request
+    private byte[] m_records;
+
+    /**
+     * Creates an instance of BulkPutRequest.
+     * This constructor is used when receiving this message.
+     */
+    public BulkPutRequest() {
+        super();
+    }
+
+    /**
+     * Creates an instance of BulkPutRequest.
+     * This constructor is used when sending this message.
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_recordSize
+     *         Size of every chunk
+     * @param p_chunkIDs
+     *         IDs of the chunks to put
+     * @param p_positions
+     *         Record index in the source buffer for each chunk
+     * @param p_source
+     *         Buffer to read the records from
+     */
+    public BulkPutRequest(final short p_destination, final int p_recordSize, final long[] p_chunkIDs,
+            final int[] p_positions, final ByteBuffer p_source) {
+        super(p_destination, DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_BULK_PUT_REQUEST);
+
+        m_recordSize = p_recordSize;
+        m_chunkIDs = p_chunkIDs;
+        m_positions = p_positions;
+        m_source = new ChunkByteBuffer(p_chunkIDs[0], p_source, 0, p_recordSize);
+    }
+
+    /**
+     * Get the size of every chunk
+     *
+     * @return Record size
+     */
+    public int getRecordSize() {
+        return m_recordSize;
+    }
+
+    /**
+     * Get the IDs of the chunks to put
+     *
+     * @return Chunk IDs
+     */
+    public long[] getChunkIDs() {
+        return m_chunkIDs;
+    }
+
+    /**
+     * Get the records of the chunks to put when this request is received (record size each, same order as IDs)
+     *
+     * @return Records or null if they exceeded ChunkMessages.BULK_MAX_BYTES_PER_MESSAGE and were discarded
+     */
+    public byte[] getRecords() {
+        return m_records;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return Integer.BYTES + ObjectSizeUtil.sizeofLongArray(m_chunkIDs) + m_chunkIDs.length * m_recordSize;
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeInt(m_recordSize);
+        p_exporter.writeLongArray(m_chunkIDs);
+
+        for (int i = 0; i < m_chunkIDs.length; i++) {
+            m_source.moveTo(m_chunkIDs[i], m_positions[i] * m_recordSize);
+            p_exporter.exportObject(m_source);
+        }
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_recordSize = p_importer.readInt(m_recordSize);
+        m_chunkIDs = p_importer.readLongArray(m_chunkIDs);
+
+        long size = (long) m_chunkIDs.length * m_recordSize;
+
+        // requesters split their requests into batches of at most BULK_MAX_BYTES_PER_MESSAGE, do not allocate
+        // arbitrarily large buffers for anything larger but skip the records
+        if (m_recordSize < 0 || m_chunkIDs.length > 1 && size > ChunkMessages.BULK_MAX_BYTES_PER_MESSAGE ||
+                size > Integer.MAX_VALUE) {
+            byte[] skipped = new byte[SKIP_BUFFER_SIZE];
+
+            for (long skip = Math.max(size, 0); skip > 0; skip -= skipped.length) {
+                p_importer.readBytes(skipped, 0, (int) Math.min(skip, skipped.length));
+            }
+
+            return;
+        }
+
+        if (m_records == null) {
+            m_records = new byte[(int) size];
+        }
+
+        p_importer.readBytes(m_records);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Response;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Response to a BulkPutRequest
+ */
+public class BulkPutResponse extends Response {
+    private long[] m_status;
+
+    /**
+     * Creates an instance of BulkPutResponse.
+     * This constructor is used when receiving this message.
+     */
+    public BulkPutResponse() {
+        super();
+    }
+
+    /**
+     * Creates an instance of BulkPutResponse.
+     * This constructor is used when sending this message.
+     *
+     * @param p_request
+     *         the corresponding BulkPutRequest
+     * @param p_status
+     *         Status bitmap, bit set if the chunk at that index was put successfully
+     */
+    public BulkPutResponse(final BulkPutRequest p_request, final long[] p_status) {
+        super(p_request, ChunkMessages.SUBTYPE_BULK_PUT_RESPONSE);
+
+        m_status = p_status;
+    }
+
+    /**
+     * Get the status bitmap
+     *
+     * @return Status bitmap, bit set if the chunk at that index was put successfully
+     */
+    public long[] getStatus() {
+        return m_status;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return ObjectSizeUtil.sizeofLongArray(m_status);
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeLongArray(m_status);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_status = p_importer.readLongArray(m_status);
+    }
+}
@@ -46,6 +46,19 @@ public final class ChunkMessages {
     public static final byte SUBTYPE_RESET_MEMORY_MESSAGE = 22;
     public static final byte SUBTYPE_RESIZE_REQUEST = 23;
     public static final byte SUBTYPE_RESIZE_RESPONSE = 24;
+    public static final byte SUBTYPE_TRAVERSE_REQUEST = 25;
+    public static final byte SUBTYPE_TRAVERSE_RESPONSE = 26;
+    public static final byte SUBTYPE_SCAN_REQUEST = 27;
+    public static final byte SUBTYPE_SCAN_RESPONSE = 28;
+    public static final byte SUBTYPE_BULK_GET_REQUEST = 29;
+    public static final byte SUBTYPE_BULK_GET_RESPONSE = 30;
+    public static final byte SUBTYPE_BULK_PUT_REQUEST = 31;
+    public static final byte SUBTYPE_BULK_PUT_RESPONSE = 32;
+
+    /**
+     * Max size of the records transferred with one bulk get or put message (a single larger record is allowed)
+     */
+    public static final int BULK_MAX_BYTES_PER_MESSAGE = 1024 * 1024;
 
     /**
      * Static class
@@ -33,6 +33,8 @@ import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
 public class GetRequest extends Request {
     private ChunkLockOperation m_lockOperation = ChunkLockOperation.NONE;
     private int m_lockOperationTimeoutMs = -1;
+    // redirect to the current owner if a chunk is not stored on the destination
+    private boolean m_redirect;
     // the chunk is stored for the sender of the request
     // to write the incoming data of the response to it
     // the requesting IDs are taken from the chunk
@@ -63,10 +65,31 @@ public class GetRequest extends Request {
      */
     public GetRequest(final short p_destination, final ChunkLockOperation p_lockOperation,
             final int p_lockOperationTimeoutMs, final AbstractChunk... p_chunks) {
+        this(p_destination, p_lockOperation, p_lockOperationTimeoutMs, false, p_chunks);
+    }
+
+    /**
+     * Creates an instance of GetRequest.
+     * This constructor is used when sending this message.
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_lockOperation
+     *         Lock operation to execute with get operation
+     * @param p_lockOperationTimeoutMs
+     *         Timeout for lock operation. -1 for inifinte, 0 for one shot, > 0 timeout in ms
+     * @param p_redirect
+     *         True to get the current owner of chunks not stored on the destination with the response
+     * @param p_chunks
+     *         Chunks with the ID of the chunk data to get.
+     */
+    public GetRequest(final short p_destination, final ChunkLockOperation p_lockOperation,
+            final int p_lockOperationTimeoutMs, final boolean p_redirect, final AbstractChunk... p_chunks) {
         super(p_destination, DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_GET_REQUEST);
 
         m_lockOperation = p_lockOperation;
         m_lockOperationTimeoutMs = p_lockOperationTimeoutMs;
+        m_redirect = p_redirect;
         m_chunks = p_chunks;
     }
 
@@ -88,6 +111,15 @@ public class GetRequest extends Request {
         return m_lockOperationTimeoutMs;
     }
 
+    /**
+     * Check if the requester wants to be redirected to the current owner of chunks not stored on the destination
+     *
+     * @return True if redirects are requested
+     */
+    public boolean isRedirect() {
+        return m_redirect;
+    }
+
     /**
      * Get the chunk IDs of this request (when receiving it).
      *
@@ -112,7 +144,8 @@ public class GetRequest extends Request {
     protected final int getPayloadLength() {
         int size = 0;
 
-        size += Byte.BYTES;
+        // lock operation and redirect flag
+        size += 2 * Byte.BYTES;
 
         // omit timeout field if lock operation is none
         if (m_lockOperation != ChunkLockOperation.NONE) {
@@ -136,6 +169,7 @@ public class GetRequest extends Request {
             p_exporter.writeInt(m_lockOperationTimeoutMs);
         }
 
+        p_exporter.writeBoolean(m_redirect);
         p_exporter.writeCompactNumber(m_chunks.length);
 
         for (AbstractChunk chunk : m_chunks) {
@@ -151,6 +185,7 @@ public class GetRequest extends Request {
             m_lockOperationTimeoutMs = p_importer.readInt(m_lockOperationTimeoutMs);
         }
 
+        m_redirect = p_importer.readBoolean(m_redirect);
         m_chunkIDs = p_importer.readLongArray(m_chunkIDs);
     }
 }
@@ -37,6 +37,8 @@ public class GetResponse extends Response {
     // when the response is received, the chunk objects from the request are
     // used to directly write the data to them to avoid further copying
     private ChunkByteArray[] m_dataChunks;
+    // current owners of chunks not stored on the responding peer, only if requested
+    private short[] m_redirects;
 
     /**
      * Creates an instance of GetResponse.
@@ -58,9 +60,37 @@ public class GetResponse extends Response {
      *         Chunks read from the memory.
      */
     public GetResponse(final GetRequest p_request, final ChunkByteArray[] p_chunks) {
+        this(p_request, p_chunks, null);
+    }
+
+    /**
+     * Creates an instance of GetResponse.
+     * This constructor is used when sending this message.
+     *
+     * @param p_request
+     *         the corresponding GetRequest
+     * @param p_chunks
+     *         Chunks read from the memory.
+     * @param p_redirects
+     *         Current owner of every chunk not stored on this peer (NodeID.INVALID_ID if unknown). Must be set if
+     *         the request asks for redirects (an empty array if there are none) and null otherwise
+     */
+    public GetResponse(final GetRequest p_request, final ChunkByteArray[] p_chunks, final short[] p_redirects) {
         super(p_request, ChunkMessages.SUBTYPE_GET_RESPONSE);
 
+        assert p_request.isRedirect() == (p_redirects != null);
+
         m_dataChunks = p_chunks;
+        m_redirects = p_redirects;
+    }
+
+    /**
+     * Get the current owners of the chunks not stored on the responding peer
+     *
+     * @return Owner of every chunk (NodeID.INVALID_ID if unknown) or an empty array/null if there are none
+     */
+    public short[] getRedirects() {
+        return m_redirects;
     }
 
     @Override
@@ -94,6 +124,10 @@ public class GetResponse extends Response {
             }
         }
 
+        if (m_redirects != null) {
+            size += ObjectSizeUtil.sizeofShortArray(m_redirects);
+        }
+
         return size;
     }
 
@@ -109,6 +143,10 @@ public class GetResponse extends Response {
                 p_exporter.writeBytes(m_dataChunks[i].getData());
             }
         }
+
+        if (m_redirects != null) {
+            p_exporter.writeShortArray(m_redirects);
+        }
     }
 
     @Override
@@ -128,5 +166,9 @@ public class GetResponse extends Response {
                 p_importer.importObject(chunk);
             }
         }
+
+        if (request.isRedirect()) {
+            m_redirects = p_importer.readShortArray(m_redirects);
+        }
     }
 }
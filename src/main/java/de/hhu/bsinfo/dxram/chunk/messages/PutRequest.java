@@ -34,6 +34,8 @@ public class PutRequest extends Request {
     // used on both, sending and receiving
     private ChunkLockOperation m_lockOperation = ChunkLockOperation.NONE;
     private int m_lockOperationTimeoutMs = -1;
+    // redirect to the current owner if a chunk is not stored on the destination
+    private boolean m_redirect;
 
     // used when sending the request
     private AbstractChunk[] m_chunks;
@@ -64,10 +66,30 @@ public class PutRequest extends Request {
      */
     public PutRequest(final short p_destination, final ChunkLockOperation p_lockOperation,
             final int p_lockOperationTimeoutMs, final AbstractChunk... p_chunks) {
+        this(p_destination, p_lockOperation, p_lockOperationTimeoutMs, false, p_chunks);
+    }
+
+    /**
+     * Creates an instance of PutRequest
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_lockOperation
+     *         Lock operation to execute with put operation
+     * @param p_lockOperationTimeoutMs
+     *         Timeout for lock operation. -1 for infinite, 0 for one shot, > 0 timeout in ms
+     * @param p_redirect
+     *         True to get the current owner of chunks not stored on the destination with the response
+     * @param p_chunks
+     *         Chunks with the ID of the chunk data to put.
+     */
+    public PutRequest(final short p_destination, final ChunkLockOperation p_lockOperation,
+            final int p_lockOperationTimeoutMs, final boolean p_redirect, final AbstractChunk... p_chunks) {
         super(p_destination, DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_PUT_REQUEST);
 
         m_lockOperation = p_lockOperation;
         m_lockOperationTimeoutMs = p_lockOperationTimeoutMs;
+        m_redirect = p_redirect;
         m_chunks = p_chunks;
     }
 
@@ -89,6 +111,15 @@ public class PutRequest extends Request {
         return m_lockOperationTimeoutMs;
     }
 
+    /**
+     * Check if the requester wants to be redirected to the current owner of chunks not stored on the destination
+     *
+     * @return True if redirects are requested
+     */
+    public boolean isRedirect() {
+        return m_redirect;
+    }
+
     /**
      * Get the chunk IDs of the data to put when this request is received.
      *
@@ -111,7 +142,8 @@ public class PutRequest extends Request {
     protected final int getPayloadLength() {
         int size = 0;
 
-        size += Byte.BYTES;
+        // lock operation and redirect flag
+        size += 2 * Byte.BYTES;
 
         // omit timeout field if lock operation is none
         if (m_lockOperation != ChunkLockOperation.NONE) {
@@ -155,6 +187,7 @@ public class PutRequest extends Request {
             p_exporter.writeInt(m_lockOperationTimeoutMs);
         }
 
+        p_exporter.writeBoolean(m_redirect);
         p_exporter.writeCompactNumber(m_chunks.length);
 
         for (AbstractChunk chunk : m_chunks) {
@@ -174,6 +207,8 @@ public class PutRequest extends Request {
             m_lockOperationTimeoutMs = p_importer.readInt(m_lockOperationTimeoutMs);
         }
 
+        m_redirect = p_importer.readBoolean(m_redirect);
+
         int length = p_importer.readCompactNumber(0);
 
         if (m_chunkIDs == null) {
@@ -30,6 +30,8 @@ import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
 public class PutResponse extends Response {
 
     private byte[] m_chunkStatusCodes;
+    // current owners of chunks not stored on the responding peer, only if requested
+    private short[] m_redirects;
 
     /**
      * Creates an instance of PutResponse.
@@ -49,8 +51,28 @@ public class PutResponse extends Response {
      *         Status code for every single chunk put.
      */
     public PutResponse(final PutRequest p_request, final byte... p_statusCodes) {
+        this(p_request, null, p_statusCodes);
+    }
+
+    /**
+     * Creates an instance of PutResponse.
+     * This constructor is used when sending this message.
+     *
+     * @param p_request
+     *         the request
+     * @param p_redirects
+     *         Current owner of every chunk not stored on this peer (NodeID.INVALID_ID if unknown). Must be set if
+     *         the request asks for redirects (an empty array if there are none) and null otherwise
+     * @param p_statusCodes
+     *         Status code for every single chunk put.
+     */
+    public PutResponse(final PutRequest p_request, final short[] p_redirects, final byte... p_statusCodes) {
         super(p_request, ChunkMessages.SUBTYPE_PUT_RESPONSE);
+
+        assert p_request.isRedirect() == (p_redirects != null);
+
         m_chunkStatusCodes = p_statusCodes;
+        m_redirects = p_redirects;
     }
 
     /**
@@ -62,19 +84,42 @@ public class PutResponse extends Response {
         return m_chunkStatusCodes;
     }
 
+    /**
+     * Get the current owners of the chunks not stored on the responding peer
+     *
+     * @return Owner of every chunk (NodeID.INVALID_ID if unknown) or an empty array/null if there are none
+     */
+    public final short[] getRedirects() {
+        return m_redirects;
+    }
+
     @Override
     protected final int getPayloadLength() {
-        return ObjectSizeUtil.sizeofByteArray(m_chunkStatusCodes);
+        int size = ObjectSizeUtil.sizeofByteArray(m_chunkStatusCodes);
+
+        if (m_redirects != null) {
+            size += ObjectSizeUtil.sizeofShortArray(m_redirects);
+        }
+
+        return size;
     }
 
     @Override
     protected final void writePayload(final AbstractMessageExporter p_exporter) {
         p_exporter.writeByteArray(m_chunkStatusCodes);
+
+        if (m_redirects != null) {
+            p_exporter.writeShortArray(m_redirects);
+        }
     }
 
     @Override
     protected final void readPayload(final AbstractMessageImporter p_importer) {
         m_chunkStatusCodes = p_importer.readByteArray(m_chunkStatusCodes);
+
+        if (((PutRequest) getCorrespondingRequest()).isRedirect()) {
+            m_redirects = p_importer.readShortArray(m_redirects);
+        }
     }
 
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Request;
+import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxram.chunk.data.ScanPredicate;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Request to evaluate a predicate on the chunks stored on the remote node and get one page of matching chunks
+ */
+public class ScanRequest extends Request {
+    private ScanPredicate m_predicate;
+    private long m_cursor;
+    private int m_pageSize;
+    private boolean m_withPayloads;
+
+    /**
+     * Creates an instance of ScanRequest.
+     * This constructor is used when receiving this message.
+     */
+    public ScanRequest() {
+        super();
+    }
+
+    /**
+     * Creates an instance of ScanRequest.
+     * This constructor is used when sending this message.
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_predicate
+     *         Predicate to evaluate
+     * @param p_cursor
+     *         Chunk ID to continue the scan at (cursor of the previous page or 0 for the first page)
+     * @param p_pageSize
+     *         Max number of matching chunks to return
+     * @param p_withPayloads
+     *         True to return the payloads of matching chunks as well
+     */
+    public ScanRequest(final short p_destination, final ScanPredicate p_predicate, final long p_cursor,
+            final int p_pageSize, final boolean p_withPayloads) {
+        super(p_destination, DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_SCAN_REQUEST);
+
+        m_predicate = p_predicate;
+        m_cursor = p_cursor;
+        m_pageSize = p_pageSize;
+        m_withPayloads = p_withPayloads;
+    }
+
+    /**
+     * Get the predicate to evaluate
+     *
+     * @return Predicate
+     */
+    public ScanPredicate getPredicate() {
+        return m_predicate;
+    }
+
+    /**
+     * Get the chunk ID to continue the scan at
+     *
+     * @return Cursor
+     */
+    public long getCursor() {
+        return m_cursor;
+    }
+
+    /**
+     * Get the max number of matching chunks to return
+     *
+     * @return Page size
+     */
+    public int getPageSize() {
+        return m_pageSize;
+    }
+
+    /**
+     * Check if the payloads of the matching chunks are requested
+     *
+     * @return True if payloads are requested
+     */
+    public boolean isWithPayloads() {
+        return m_withPayloads;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return m_predicate.sizeofObject() + Long.BYTES + Integer.BYTES + ObjectSizeUtil.sizeofBoolean();
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.exportObject(m_predicate);
+        p_exporter.writeLong(m_cursor);
+        p_exporter.writeInt(m_pageSize);
+        p_exporter.writeBoolean(m_withPayloads);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        if (m_predicate == null) {
+            m_predicate = new ScanPredicate();
+        }
+
+        p_importer.importObject(m_predicate);
+        m_cursor = p_importer.readLong(m_cursor);
+        m_pageSize = p_importer.readInt(m_pageSize);
+        m_withPayloads = p_importer.readBoolean(m_withPayloads);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Response;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Response to a ScanRequest with one page of matching chunks
+ */
+public class ScanResponse extends Response {
+    private long[] m_chunkIDs;
+    private byte[][] m_payloads;
+    private long m_nextCursor;
+    private boolean m_finished;
+    private boolean m_failed;
+
+    /**
+     * Creates an instance of ScanResponse.
+     * This constructor is used when receiving this message.
+     */
+    public ScanResponse() {
+        super();
+    }
+
+    /**
+     * Creates an instance of ScanResponse.
+     * This constructor is used when sending this message.
+     *
+     * @param p_request
+     *         the corresponding ScanRequest
+     * @param p_chunkIDs
+     *         IDs of the matching chunks
+     * @param p_payloads
+     *         Payloads of the matching chunks or null if not requested
+     * @param p_nextCursor
+     *         Cursor to continue the scan with
+     * @param p_finished
+     *         True if all chunks of the node were scanned
+     * @param p_failed
+     *         True if evaluating the predicate failed (the scan of the node cannot be continued)
+     */
+    public ScanResponse(final ScanRequest p_request, final long[] p_chunkIDs, final byte[][] p_payloads,
+            final long p_nextCursor, final boolean p_finished, final boolean p_failed) {
+        super(p_request, ChunkMessages.SUBTYPE_SCAN_RESPONSE);
+
+        m_chunkIDs = p_chunkIDs;
+        m_payloads = p_payloads;
+        m_nextCursor = p_nextCursor;
+        m_finished = p_finished;
+        m_failed = p_failed;
+    }
+
+    /**
+     * Get the IDs of the matching chunks
+     *
+     * @return Chunk IDs
+     */
+    public long[] getChunkIDs() {
+        return m_chunkIDs;
+    }
+
+    /**
+     * Get the payloads of the matching chunks
+     *
+     * @return Payloads (same order as the chunk IDs) or null if not requested
+     */
+    public byte[][] getPayloads() {
+        return m_payloads;
+    }
+
+    /**
+     * Get the cursor to continue the scan with
+     *
+     * @return Cursor
+     */
+    public long getNextCursor() {
+        return m_nextCursor;
+    }
+
+    /**
+     * Check if all chunks of the remote node were scanned
+     *
+     * @return True if finished
+     */
+    public boolean isFinished() {
+        return m_finished;
+    }
+
+    /**
+     * Check if evaluating the predicate failed on the remote node
+     *
+     * @return True if failed (the chunks of the remote node were not scanned completely)
+     */
+    public boolean isFailed() {
+        return m_failed;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        int size = ObjectSizeUtil.sizeofLongArray(m_chunkIDs) + ObjectSizeUtil.sizeofBoolean() + Long.BYTES +
+                ObjectSizeUtil.sizeofBoolean() * 2;
+
+        if (m_payloads != null) {
+            for (byte[] payload : m_payloads) {
+                size += ObjectSizeUtil.sizeofByteArray(payload);
+            }
+        }
+
+        return size;
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeLongArray(m_chunkIDs);
+        p_exporter.writeBoolean(m_payloads != null);
+
+        if (m_payloads != null) {
+            for (byte[] payload : m_payloads) {
+                p_exporter.writeByteArray(payload);
+            }
+        }
+
+        p_exporter.writeLong(m_nextCursor);
+        p_exporter.writeBoolean(m_finished);
+        p_exporter.writeBoolean(m_failed);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_chunkIDs = p_importer.readLongArray(m_chunkIDs);
+
+        if (p_importer.readBoolean(m_payloads != null)) {
+            if (m_payloads == null) {
+                m_payloads = new byte[m_chunkIDs.length][];
+            }
+
+            for (int i = 0; i < m_payloads.length; i++) {
+                m_payloads[i] = p_importer.readByteArray(m_payloads[i]);
+            }
+        }
+
+        m_nextCursor = p_importer.readLong(m_nextCursor);
+        m_finished = p_importer.readBoolean(m_finished);
+        m_failed = p_importer.readBoolean(m_failed);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Request;
+import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxram.chunk.data.TraversalLayout;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Request to traverse the neighbor graph starting at chunks stored on the remote node
+ */
+public class TraverseRequest extends Request {
+    private TraversalLayout m_layout;
+    private long[] m_chunkIDs;
+    private int[] m_depths;
+
+    /**
+     * Creates an instance of TraverseRequest.
+     * This constructor is used when receiving this message.
+     */
+    public TraverseRequest() {
+        super();
+    }
+
+    /**
+     * Creates an instance of TraverseRequest.
+     * This constructor is used when sending this message.
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_layout
+     *         Layout of the neighbor IDs in the chunk payloads
+     * @param p_chunkIDs
+     *         Chunk IDs to start the traversal at
+     * @param p_depths
+     *         Remaining number of hops for each start chunk
+     */
+    public TraverseRequest(final short p_destination, final TraversalLayout p_layout, final long[] p_chunkIDs,
+            final int[] p_depths) {
+        super(p_destination, DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_TRAVERSE_REQUEST);
+
+        m_layout = p_layout;
+        m_chunkIDs = p_chunkIDs;
+        m_depths = p_depths;
+    }
+
+    /**
+     * Get the layout of the neighbor IDs
+     *
+     * @return Layout
+     */
+    public TraversalLayout getLayout() {
+        return m_layout;
+    }
+
+    /**
+     * Get the chunk IDs to start the traversal at
+     *
+     * @return Chunk IDs
+     */
+    public long[] getChunkIDs() {
+        return m_chunkIDs;
+    }
+
+    /**
+     * Get the remaining number of hops for each start chunk
+     *
+     * @return Remaining hops
+     */
+    public int[] getDepths() {
+        return m_depths;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return m_layout.sizeofObject() + ObjectSizeUtil.sizeofLongArray(m_chunkIDs) +
+                ObjectSizeUtil.sizeofIntArray(m_depths);
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.exportObject(m_layout);
+        p_exporter.writeLongArray(m_chunkIDs);
+        p_exporter.writeIntArray(m_depths);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        if (m_layout == null) {
+            m_layout = new TraversalLayout();
+        }
+
+        p_importer.importObject(m_layout);
+        m_chunkIDs = p_importer.readLongArray(m_chunkIDs);
+        m_depths = p_importer.readIntArray(m_depths);
+    }
+}
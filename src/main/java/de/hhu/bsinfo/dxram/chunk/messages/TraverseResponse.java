@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.messages;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Response;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Response to a TraverseRequest. Contains all chunks visited on the remote node and the frontier of
+ * neighbors which are not stored on the remote node (with their remaining number of hops)
+ */
+public class TraverseResponse extends Response {
+    private long[] m_visitedIDs;
+    private int[] m_visitedDepths;
+    private long[] m_frontierIDs;
+    private int[] m_frontierDepths;
+
+    /**
+     * Creates an instance of TraverseResponse.
+     * This constructor is used when receiving this message.
+     */
+    public TraverseResponse() {
+        super();
+    }
+
+    /**
+     * Creates an instance of TraverseResponse.
+     * This constructor is used when sending this message.
+     *
+     * @param p_request
+     *         the corresponding TraverseRequest
+     * @param p_visitedIDs
+     *         IDs of all chunks visited on the node
+     * @param p_visitedDepths
+     *         Remaining number of hops each chunk was visited with
+     * @param p_frontierIDs
+     *         IDs of neighbors not stored on the node
+     * @param p_frontierDepths
+     *         Remaining number of hops for each frontier ID
+     */
+    public TraverseResponse(final TraverseRequest p_request, final long[] p_visitedIDs,
+            final int[] p_visitedDepths, final long[] p_frontierIDs, final int[] p_frontierDepths) {
+        super(p_request, ChunkMessages.SUBTYPE_TRAVERSE_RESPONSE);
+
+        m_visitedIDs = p_visitedIDs;
+        m_visitedDepths = p_visitedDepths;
+        m_frontierIDs = p_frontierIDs;
+        m_frontierDepths = p_frontierDepths;
+    }
+
+    /**
+     * Get the IDs of all chunks visited on the remote node
+     *
+     * @return Visited chunk IDs
+     */
+    public long[] getVisitedIDs() {
+        return m_visitedIDs;
+    }
+
+    /**
+     * Get the remaining number of hops each chunk was visited with
+     *
+     * @return Remaining hops
+     */
+    public int[] getVisitedDepths() {
+        return m_visitedDepths;
+    }
+
+    /**
+     * Get the IDs of neighbors not stored on the remote node
+     *
+     * @return Frontier chunk IDs
+     */
+    public long[] getFrontierIDs() {
+        return m_frontierIDs;
+    }
+
+    /**
+     * Get the remaining number of hops for each frontier ID
+     *
+     * @return Remaining hops
+     */
+    public int[] getFrontierDepths() {
+        return m_frontierDepths;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return ObjectSizeUtil.sizeofLongArray(m_visitedIDs) + ObjectSizeUtil.sizeofIntArray(m_visitedDepths) +
+                ObjectSizeUtil.sizeofLongArray(m_frontierIDs) + ObjectSizeUtil.sizeofIntArray(m_frontierDepths);
+    }
+
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeLongArray(m_visitedIDs);
+        p_exporter.writeIntArray(m_visitedDepths);
+        p_exporter.writeLongArray(m_frontierIDs);
+        p_exporter.writeIntArray(m_frontierDepths);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_visitedIDs = p_importer.readLongArray(m_visitedIDs);
+        m_visitedDepths = p_importer.readIntArray(m_visitedDepths);
+        m_frontierIDs = p_importer.readLongArray(m_frontierIDs);
+        m_frontierDepths = p_importer.readIntArray(m_frontierDepths);
+    }
+}
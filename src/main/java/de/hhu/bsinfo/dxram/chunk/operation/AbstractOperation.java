@@ -1,15 +1,24 @@
 package de.hhu.bsinfo.dxram.chunk.operation;
 
+import java.util.ArrayList;
+import java.util.Map;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import de.hhu.bsinfo.dxmem.data.AbstractChunk;
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxmem.data.ChunkState;
 import de.hhu.bsinfo.dxram.backup.BackupComponent;
 import de.hhu.bsinfo.dxram.boot.AbstractBootComponent;
 import de.hhu.bsinfo.dxram.chunk.ChunkComponent;
 import de.hhu.bsinfo.dxram.engine.AbstractDXRAMService;
 import de.hhu.bsinfo.dxram.lookup.LookupComponent;
+import de.hhu.bsinfo.dxram.lookup.LookupRange;
+import de.hhu.bsinfo.dxram.lookup.LookupState;
 import de.hhu.bsinfo.dxram.nameservice.NameserviceComponent;
 import de.hhu.bsinfo.dxram.net.NetworkComponent;
+import de.hhu.bsinfo.dxutils.NodeID;
 
 /**
  * Base class for any key-value store related operation. Splitting per operation enforces a clean structure and avoids
@@ -56,4 +65,125 @@ class AbstractOperation {
         m_lookup = p_lookup;
         m_nameservice = p_nameservice;
     }
+
+    /**
+     * Guess the owner of a chunk not stored locally without asking a superpeer: the last cached owner or the creator
+     *
+     * @param p_chunkID
+     *         ChunkID
+     * @return Peer to send the request to or NodeID.INVALID_ID if the guess points to the current node
+     */
+    short getOptimisticPeer(final long p_chunkID) {
+        short peer = m_lookup.getCachedPrimaryPeer(p_chunkID);
+
+        if (peer == NodeID.INVALID_ID) {
+            peer = ChunkID.getCreatorID(p_chunkID);
+        }
+
+        return peer != m_boot.getNodeId() ? peer : NodeID.INVALID_ID;
+    }
+
+    /**
+     * Look up the current owner of a chunk not stored on the current node. Waits while the location is temporarily
+     * unavailable (e.g. during recovery)
+     *
+     * @param p_chunkID
+     *         ChunkID
+     * @return Owner of the chunk or NodeID.INVALID_ID if it does not exist or is lost
+     */
+    short lookupOwner(final long p_chunkID) {
+        LookupRange location = m_lookup.getLookupRange(p_chunkID);
+
+        while (location.getState() == LookupState.DATA_TEMPORARY_UNAVAILABLE) {
+            try {
+                Thread.sleep(100);
+            } catch (final InterruptedException ignore) {
+            }
+
+            location = m_lookup.getLookupRange(p_chunkID);
+        }
+
+        return location.getState() == LookupState.OK ? location.getPrimaryPeer() : NodeID.INVALID_ID;
+    }
+
+    /**
+     * Look up the owner of a chunk again after the peer it was expected on did not store it (stale cached location or
+     * answer of a backup superpeer)
+     *
+     * @param p_chunkID
+     *         ChunkID
+     * @param p_failedPeer
+     *         Peer that did not store the chunk
+     * @return Current owner of the chunk or NodeID.INVALID_ID if it does not exist, its location is unknown or it is
+     * still p_failedPeer
+     */
+    short relookupOwner(final long p_chunkID, final short p_failedPeer) {
+        LookupRange location = m_lookup.relookupRange(p_chunkID);
+
+        if (location == null || location.getState() != LookupState.OK || location.getPrimaryPeer() == p_failedPeer) {
+            return NodeID.INVALID_ID;
+        }
+
+        return location.getPrimaryPeer();
+    }
+
+    /**
+     * Queue a chunk which was not found on the peer it was expected on for another try on its current owner (if the
+     * location changed)
+     *
+     * @param p_chunk
+     *         Chunk not found
+     * @param p_failedPeer
+     *         Peer that did not store the chunk
+     * @param p_retryChunksByPeers
+     *         Chunks to retry sorted by their current owners
+     */
+    void retryOnCurrentOwner(final AbstractChunk p_chunk, final short p_failedPeer,
+            final Map<Short, ArrayList<AbstractChunk>> p_retryChunksByPeers) {
+        short owner = relookupOwner(p_chunk.getID(), p_failedPeer);
+
+        if (owner != NodeID.INVALID_ID) {
+            p_chunk.setState(ChunkState.UNDEFINED);
+            p_retryChunksByPeers.computeIfAbsent(owner, a -> new ArrayList<>()).add(p_chunk);
+        }
+    }
+
+    /**
+     * Queue a chunk for another try after the peer its owner was guessed on was not reachable. The owner is looked
+     * up like without optimistic routing
+     *
+     * @param p_chunk
+     *         Chunk to retry
+     * @param p_failedPeer
+     *         Guessed peer that was not reachable
+     * @param p_retryChunksByPeers
+     *         Chunks to retry sorted by their current owners
+     */
+    void retryOnLookedUpOwner(final AbstractChunk p_chunk, final short p_failedPeer,
+            final Map<Short, ArrayList<AbstractChunk>> p_retryChunksByPeers) {
+        short owner;
+
+        // drop the cached location and the migration filter's guess
+        m_lookup.invalidateRange(p_chunk.getID());
+        owner = lookupOwner(p_chunk.getID());
+
+        if (owner != NodeID.INVALID_ID && owner != p_failedPeer) {
+            p_chunk.setState(ChunkState.UNDEFINED);
+            p_retryChunksByPeers.computeIfAbsent(owner, a -> new ArrayList<>()).add(p_chunk);
+        }
+    }
+
+    /**
+     * Determine where to redirect a request for a chunk that is not stored on the current node. Only the local
+     * cache is used as this is called by message handlers which must not block on a superpeer lookup
+     *
+     * @param p_chunkID
+     *         ChunkID
+     * @return Cached owner of the chunk or NodeID.INVALID_ID if it is not cached (the requester looks it up)
+     */
+    short getRedirectPeer(final long p_chunkID) {
+        short owner = m_lookup.getCachedPrimaryPeer(p_chunkID);
+
+        return owner != m_boot.getNodeId() ? owner : NodeID.INVALID_ID;
+    }
 }
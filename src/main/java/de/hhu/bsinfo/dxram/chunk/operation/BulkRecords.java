@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.chunk.operation;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxmem.data.ChunkState;
+import de.hhu.bsinfo.dxram.chunk.messages.ChunkMessages;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
+import de.hhu.bsinfo.dxutils.NodeID;
+
+/**
+ * Routing of bulk record transfers (getInto, putFrom): records of local chunks are transferred directly, the
+ * remaining ones are looked up and sent to their owners in batches limited to MAX_BYTES_PER_MESSAGE. The limit
+ * bounds the buffers the owners allocate for a single request. Chunks not found on their owner are looked up again
+ * and retried once if they moved.
+ */
+final class BulkRecords {
+    static final int MAX_BYTES_PER_MESSAGE = ChunkMessages.BULK_MAX_BYTES_PER_MESSAGE;
+
+    /**
+     * Transfer of single records and batches of records
+     */
+    interface Access {
+
+        /**
+         * Transfer the record of a chunk stored on the current node
+         *
+         * @param p_chunkID
+         *         Chunk ID
+         * @param p_index
+         *         Index of the record in the buffer
+         * @return State of the chunk after the transfer
+         */
+        ChunkState local(long p_chunkID, int p_index);
+
+        /**
+         * Get the node currently storing a chunk
+         *
+         * @param p_chunkID
+         *         Chunk ID
+         * @return Node ID of the owner or NodeID.INVALID_ID if the chunk does not exist or is lost
+         */
+        short getOwner(long p_chunkID);
+
+        /**
+         * Transfer the records of chunks stored on a remote peer
+         *
+         * @param p_peer
+         *         Peer storing the chunks
+         * @param p_chunkIDs
+         *         Chunk IDs
+         * @param p_indices
+         *         Index of the record in the buffer for each chunk
+         * @return Status bitmap (bit set if the chunk at that index was transferred) or null if the peer is not
+         * reachable
+         */
+        long[] remote(short p_peer, long[] p_chunkIDs, int[] p_indices);
+
+        /**
+         * Drop the cached locations of chunks (e.g. of an unreachable peer)
+         *
+         * @param p_chunkIDs
+         *         Chunk IDs
+         */
+        void invalidate(long[] p_chunkIDs);
+
+        /**
+         * Look up the owner of a chunk again after it was not found on the peer it was expected on
+         *
+         * @param p_chunkID
+         *         Chunk ID
+         * @param p_failedPeer
+         *         Peer that did not store the chunk
+         * @return Node ID of the current owner or NodeID.INVALID_ID if the chunk does not exist or did not move
+         */
+        short relookupOwner(long p_chunkID, short p_failedPeer);
+    }
+
+    /**
+     * Utility class
+     */
+    private BulkRecords() {
+
+    }
+
+    /**
+     * Transfer the records of all chunks. Invalid chunk IDs are skipped
+     *
+     * @param p_access
+     *         Transfer of records
+     * @param p_nodeID
+     *         Node ID of the current node
+     * @param p_chunkIDs
+     *         IDs of the chunks, record i belongs to the chunk at index i
+     * @param p_recordSize
+     *         Size of every record
+     * @param p_status
+     *         Cleared status bitmap to set the bits of all successfully transferred records in
+     * @return Number of successfully transferred records
+     */
+    static int transfer(final Access p_access, final short p_nodeID, final long[] p_chunkIDs,
+            final int p_recordSize, final long[] p_status) {
+        int successful = 0;
+
+        // sort by local and remote data: process local first, remote further below
+        Map<Short, ArrayListLong> remoteIndicesByPeers = new TreeMap<>();
+
+        for (int i = 0; i < p_chunkIDs.length; i++) {
+            if (p_chunkIDs[i] == ChunkID.INVALID_ID) {
+                continue;
+            }
+
+            ChunkState state = p_access.local(p_chunkIDs[i], i);
+
+            if (state == ChunkState.OK) {
+                p_status[i >>> 6] |= 1L << i;
+                successful++;
+            } else if (state == ChunkState.DOES_NOT_EXIST) {
+                // seems like it's not available locally, check remotes for remote chunk or migrated
+                short owner = p_access.getOwner(p_chunkIDs[i]);
+
+                if (owner != NodeID.INVALID_ID) {
+                    addIndex(remoteIndicesByPeers, owner, i);
+                }
+            }
+        }
+
+        Map<Short, ArrayListLong> retryIndicesByPeers = new TreeMap<>();
+
+        successful += transferRemote(p_access, p_nodeID, p_chunkIDs, p_recordSize, remoteIndicesByPeers, p_status,
+                retryIndicesByPeers);
+
+        // one more try for chunks which were not stored on their cached owner
+        successful += transferRemote(p_access, p_nodeID, p_chunkIDs, p_recordSize, retryIndicesByPeers, p_status,
+                null);
+
+        return successful;
+    }
+
+    /**
+     * Transfer the records of chunks which are not stored on the current node (anymore)
+     *
+     * @param p_access
+     *         Transfer of records
+     * @param p_nodeID
+     *         Node ID of the current node
+     * @param p_chunkIDs
+     *         IDs of all chunks
+     * @param p_recordSize
+     *         Size of every record
+     * @param p_indicesByPeers
+     *         Indices of the chunks to transfer sorted by their owners
+     * @param p_status
+     *         Status bitmap to set the bits of all successfully transferred records in
+     * @param p_retryIndicesByPeers
+     *         Map to add the indices of chunks to which were not found but moved to another owner, null to not retry
+     * @return Number of successfully transferred records
+     */
+    private static int transferRemote(final Access p_access, final short p_nodeID, final long[] p_chunkIDs,
+            final int p_recordSize, final Map<Short, ArrayListLong> p_indicesByPeers, final long[] p_status,
+            final Map<Short, ArrayListLong> p_retryIndicesByPeers) {
+        int successful = 0;
+        int maxRecordsPerMessage = Math.max(1, MAX_BYTES_PER_MESSAGE / p_recordSize);
+
+        // go for remote ones by each peer
+        for (Map.Entry<Short, ArrayListLong> peerWithIndices : p_indicesByPeers.entrySet()) {
+            short peer = peerWithIndices.getKey();
+            ArrayListLong indices = peerWithIndices.getValue();
+
+            if (peer == p_nodeID) {
+                // migrated to the current node in the meantime
+                for (int i = 0; i < indices.getSize(); i++) {
+                    int index = (int) indices.get(i);
+
+                    if (p_access.local(p_chunkIDs[index], index) == ChunkState.OK) {
+                        p_status[index >>> 6] |= 1L << index;
+                        successful++;
+                    }
+                }
+
+                continue;
+            }
+
+            for (int start = 0; start < indices.getSize(); start += maxRecordsPerMessage) {
+                int count = Math.min(maxRecordsPerMessage, indices.getSize() - start);
+                long[] chunkIDs = new long[count];
+                int[] positions = new int[count];
+
+                for (int i = 0; i < count; i++) {
+                    positions[i] = (int) indices.get(start + i);
+                    chunkIDs[i] = p_chunkIDs[positions[i]];
+                }
+
+                long[] status = p_access.remote(peer, chunkIDs, positions);
+
+                if (status == null) {
+                    p_access.invalidate(chunkIDs);
+
+                    continue;
+                }
+
+                for (int i = 0; i < count; i++) {
+                    if ((status[i >>> 6] & 1L << i) != 0) {
+                        p_status[positions[i] >>> 6] |= 1L << positions[i];
+                        successful++;
+                    } else if (p_retryIndicesByPeers != null) {
+                        short owner = p_access.relookupOwner(chunkIDs[i], peer);
+
+                        if (owner != NodeID.INVALID_ID) {
+                            addIndex(p_retryIndicesByPeers, owner, positions[i]);
+                        }
+                    } else {
+                        p_access.invalidate(new long[] {chunkIDs[i]});
+                    }
+                }
+            }
+        }
+
+        return successful;
+    }
+
+    /**
+     * Add the index of a chunk to the indices of its owner
+     *
+     * @param p_indicesByPeers
+     *         Indices sorted by owners
+     * @param p_owner
+     *         Owner of the chunk
+     * @param p_index
+     *         Index of the chunk
+     */
+    private static void addIndex(final Map<Short, ArrayListLong> p_indicesByPeers, final short p_owner,
+            final int p_index) {
+        ArrayListLong indices = p_indicesByPeers.get(p_owner);
+
+        if (indices == null) {
+            indices = new ArrayListLong();
+            p_indicesByPeers.put(p_owner, indices);
+        }
+
+        indices.add(p_index);
+    }
+}
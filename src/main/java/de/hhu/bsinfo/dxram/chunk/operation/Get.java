@@ -1,6 +1,8 @@
 package de.hhu.bsinfo.dxram.chunk.operation;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -18,6 +20,9 @@ import de.hhu.bsinfo.dxram.backup.BackupComponent;
 import de.hhu.bsinfo.dxram.boot.AbstractBootComponent;
 import de.hhu.bsinfo.dxram.chunk.ChunkComponent;
 import de.hhu.bsinfo.dxram.chunk.ChunkService;
+import de.hhu.bsinfo.dxram.chunk.data.ChunkByteBuffer;
+import de.hhu.bsinfo.dxram.chunk.messages.BulkGetRequest;
+import de.hhu.bsinfo.dxram.chunk.messages.BulkGetResponse;
 import de.hhu.bsinfo.dxram.chunk.messages.ChunkMessages;
 import de.hhu.bsinfo.dxram.chunk.messages.GetRequest;
 import de.hhu.bsinfo.dxram.chunk.messages.GetResponse;
@@ -27,6 +32,7 @@ import de.hhu.bsinfo.dxram.lookup.LookupRange;
 import de.hhu.bsinfo.dxram.lookup.LookupState;
 import de.hhu.bsinfo.dxram.nameservice.NameserviceComponent;
 import de.hhu.bsinfo.dxram.net.NetworkComponent;
+import de.hhu.bsinfo.dxutils.NodeID;
 import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
 import de.hhu.bsinfo.dxutils.stats.ThroughputPool;
 import de.hhu.bsinfo.dxutils.stats.Value;
@@ -41,17 +47,26 @@ public class Get extends AbstractOperation implements MessageReceiver {
     private static final ThroughputPool SOP_DEFAULT = new ThroughputPool(ChunkService.class, "Get", Value.Base.B_10);
     private static final ThroughputPool SOP_INCOMING =
             new ThroughputPool(ChunkService.class, "GetIncoming", Value.Base.B_10);
+    private static final ThroughputPool SOP_INTO = new ThroughputPool(ChunkService.class, "GetInto", Value.Base.B_10);
+    private static final ThroughputPool SOP_INCOMING_INTO =
+            new ThroughputPool(ChunkService.class, "GetIntoIncoming", Value.Base.B_10);
 
     private static final ValuePool SOP_ERROR = new ValuePool(ChunkService.class, "GetError");
     private static final ValuePool SOP_INCOMING_ERROR = new ValuePool(ChunkService.class, "GetIncomingError");
+    private static final ValuePool SOP_REDIRECT = new ValuePool(ChunkService.class, "GetRedirect");
 
     static {
         StatisticsManager.get().registerOperation(Get.class, SOP_DEFAULT);
         StatisticsManager.get().registerOperation(Get.class, SOP_INCOMING);
+        StatisticsManager.get().registerOperation(Get.class, SOP_INTO);
+        StatisticsManager.get().registerOperation(Get.class, SOP_INCOMING_INTO);
         StatisticsManager.get().registerOperation(Get.class, SOP_ERROR);
         StatisticsManager.get().registerOperation(Get.class, SOP_INCOMING_ERROR);
+        StatisticsManager.get().registerOperation(Get.class, SOP_REDIRECT);
     }
 
+    private final boolean m_optimisticRouting;
+
     /**
      * Constructor
      *
@@ -69,18 +84,27 @@ public class Get extends AbstractOperation implements MessageReceiver {
      *         Instance of LookupComponent
      * @param p_nameservice
      *         Instance of NameserviceComponent
+     * @param p_optimisticRouting
+     *         True to send requests to the creator or last cached owner of a chunk without a lookup
      */
     public Get(final Class<? extends AbstractDXRAMService> p_parentService,
             final AbstractBootComponent p_boot, final BackupComponent p_backup, final ChunkComponent p_chunk,
             final NetworkComponent p_network, final LookupComponent p_lookup,
-            final NameserviceComponent p_nameservice) {
+            final NameserviceComponent p_nameservice, final boolean p_optimisticRouting) {
         super(p_parentService, p_boot, p_backup, p_chunk, p_network, p_lookup, p_nameservice);
 
+        m_optimisticRouting = p_optimisticRouting;
+
         m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_GET_REQUEST,
                 GetRequest.class);
         m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_GET_RESPONSE,
                 GetResponse.class);
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_BULK_GET_REQUEST,
+                BulkGetRequest.class);
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE,
+                ChunkMessages.SUBTYPE_BULK_GET_RESPONSE, BulkGetResponse.class);
         m_network.register(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_GET_REQUEST, this);
+        m_network.register(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_BULK_GET_REQUEST, this);
     }
 
     /**
@@ -157,6 +181,18 @@ public class Get extends AbstractOperation implements MessageReceiver {
             if (p_chunks[i].getState() == ChunkState.OK) {
                 totalChunksGot++;
             } else if (p_chunks[i].getState() == ChunkState.DOES_NOT_EXIST) {
+                if (m_optimisticRouting) {
+                    // skip the lookup and let the guessed owner redirect us if the chunk was migrated
+                    short peer = getOptimisticPeer(p_chunks[i].getID());
+
+                    if (peer != NodeID.INVALID_ID) {
+                        p_chunks[i].setState(ChunkState.UNDEFINED);
+                        remoteChunksByPeers.computeIfAbsent(peer, a -> new ArrayList<>()).add(p_chunks[i]);
+
+                        continue;
+                    }
+                }
+
                 // seems like it's not available locally, check remotes for remote chunk or migrated
                 LookupRange location = m_lookup.getLookupRange(p_chunks[i].getID());
 
@@ -187,7 +223,48 @@ public class Get extends AbstractOperation implements MessageReceiver {
         }
 
         // go for remote ones by each peer
-        for (final Map.Entry<Short, ArrayList<AbstractChunk>> peerWithChunks : remoteChunksByPeers.entrySet()) {
+        Map<Short, ArrayList<AbstractChunk>> redirectedChunksByPeers = new TreeMap<>();
+
+        totalChunksGot += getRemote(remoteChunksByPeers, p_lockOperation, p_lockOperationTimeoutMs,
+                m_optimisticRouting, redirectedChunksByPeers);
+
+        // one more hop for chunks that were not stored on the guessed or cached owner
+        if (!redirectedChunksByPeers.isEmpty()) {
+            totalChunksGot += getRemote(redirectedChunksByPeers, p_lockOperation, p_lockOperationTimeoutMs, false,
+                    null);
+        }
+
+        if (totalChunksGot < p_count) {
+            SOP_ERROR.add(p_count - totalChunksGot);
+        }
+
+        SOP_DEFAULT.stop(totalChunksGot);
+
+        return totalChunksGot;
+    }
+
+    /**
+     * Get the data of chunks sorted by the peers storing them
+     *
+     * @param p_chunksByPeers
+     *         Chunks to get sorted by peers
+     * @param p_lockOperation
+     *         Lock operation to execute for each get operation
+     * @param p_lockOperationTimeoutMs
+     *         Timeout for lock operation in ms
+     * @param p_redirect
+     *         True to ask the remote peers for the current owner of chunks they do not store
+     * @param p_retryChunksByPeers
+     *         Map to add chunks to which were not found but have another current owner (sorted by these owners,
+     *         known from a redirect or another lookup), null to not retry
+     * @return Number of successful operations
+     */
+    private int getRemote(final Map<Short, ArrayList<AbstractChunk>> p_chunksByPeers,
+            final ChunkLockOperation p_lockOperation, final int p_lockOperationTimeoutMs, final boolean p_redirect,
+            final Map<Short, ArrayList<AbstractChunk>> p_retryChunksByPeers) {
+        int totalChunksGot = 0;
+
+        for (final Map.Entry<Short, ArrayList<AbstractChunk>> peerWithChunks : p_chunksByPeers.entrySet()) {
             short peer = peerWithChunks.getKey();
             ArrayList<AbstractChunk> remoteChunks = peerWithChunks.getValue();
 
@@ -202,7 +279,7 @@ public class Get extends AbstractOperation implements MessageReceiver {
                 }
             } else {
                 // Remote get from specified peer
-                GetRequest request = new GetRequest(peer, p_lockOperation, p_lockOperationTimeoutMs,
+                GetRequest request = new GetRequest(peer, p_lockOperation, p_lockOperationTimeoutMs, p_redirect,
                         remoteChunks.toArray(new AbstractChunk[remoteChunks.size()]));
 
                 try {
@@ -210,11 +287,24 @@ public class Get extends AbstractOperation implements MessageReceiver {
 
                     // received data is stored to chunks in request instead of copied from response
 
-                    for (AbstractChunk chunk : remoteChunks) {
-                        if (chunk.getState() != ChunkState.OK) {
-                            m_lookup.invalidateRange(chunk.getID());
-                        } else {
+                    short[] redirects = p_redirect ? request.getResponse(GetResponse.class).getRedirects() : null;
+
+                    for (int i = 0; i < remoteChunks.size(); i++) {
+                        AbstractChunk chunk = remoteChunks.get(i);
+
+                        if (chunk.getState() == ChunkState.OK) {
                             totalChunksGot++;
+                        } else if (redirects != null && redirects.length > 0 && redirects[i] != NodeID.INVALID_ID) {
+                            SOP_REDIRECT.add(1);
+
+                            m_lookup.cacheChunkLocation(chunk.getID(), redirects[i]);
+                            chunk.setState(ChunkState.UNDEFINED);
+                            p_retryChunksByPeers.computeIfAbsent(redirects[i], a -> new ArrayList<>()).add(
+                                    chunk);
+                        } else if (p_retryChunksByPeers != null && chunk.getState() == ChunkState.DOES_NOT_EXIST) {
+                            retryOnCurrentOwner(chunk, peer, p_retryChunksByPeers);
+                        } else {
+                            m_lookup.invalidateRange(chunk.getID());
                         }
                     }
 
@@ -236,17 +326,109 @@ public class Get extends AbstractOperation implements MessageReceiver {
 
                     for (AbstractChunk chunk : remoteChunks) {
                         chunk.setState(errorState);
-                        m_lookup.invalidate(chunk.getID());
+
+                        if (p_redirect && p_retryChunksByPeers != null) {
+                            // the guessed owner is not reachable -> look up the owner on the superpeer
+                            retryOnLookedUpOwner(chunk, peer, p_retryChunksByPeers);
+                        } else {
+                            m_lookup.invalidate(chunk.getID());
+                        }
                     }
                 }
             }
         }
 
-        if (totalChunksGot < p_count) {
-            SOP_ERROR.add(p_count - totalChunksGot);
+        return totalChunksGot;
+    }
+
+    /**
+     * Get the data of many chunks of the same size into one contiguous buffer without creating a chunk object
+     * per chunk. The data of the chunk at index i of the ID array is written to the buffer at offset
+     * i * p_recordSize. All chunks must be stored with exactly p_recordSize bytes.
+     *
+     * @param p_chunkIDs
+     *         IDs of the chunks to get
+     * @param p_recordSize
+     *         Size of every chunk
+     * @param p_dst
+     *         Buffer to write the data to (heap or direct and writable, at least p_chunkIDs.length * p_recordSize
+     *         bytes)
+     * @param p_status
+     *         Status bitmap ((p_chunkIDs.length + 63) / 64 longs). The bit of an index is set if the chunk
+     *         was read successfully and cleared otherwise
+     * @return Number of successful operations
+     */
+    public int getInto(final long[] p_chunkIDs, final int p_recordSize, final ByteBuffer p_dst,
+            final long[] p_status) {
+        m_logger.trace("getInto[record size %d, chunks (%d): %s]", p_recordSize, p_chunkIDs.length,
+                ChunkID.chunkIDArrayToString(p_chunkIDs));
+
+        if (p_recordSize <= 0 || (long) p_chunkIDs.length * p_recordSize > p_dst.limit() ||
+                p_status.length < (p_chunkIDs.length + Long.SIZE - 1) / Long.SIZE) {
+            throw new IllegalArgumentException("Buffer or status bitmap too small for " + p_chunkIDs.length +
+                    " records of size " + p_recordSize);
         }
 
-        SOP_DEFAULT.stop(totalChunksGot);
+        if (p_dst.isReadOnly()) {
+            throw new IllegalArgumentException("Read only buffer");
+        }
+
+        SOP_INTO.start();
+
+        for (int i = 0; i < (p_chunkIDs.length + Long.SIZE - 1) / Long.SIZE; i++) {
+            p_status[i] = 0;
+        }
+
+        // one chunk object moved over the buffer for all local chunks
+        ChunkByteBuffer record = new ChunkByteBuffer(ChunkID.INVALID_ID, p_dst, 0, p_recordSize);
+
+        int totalChunksGot = BulkRecords.transfer(new BulkRecords.Access() {
+            @Override
+            public ChunkState local(final long p_chunkID, final int p_index) {
+                record.moveTo(p_chunkID, p_index * p_recordSize);
+                m_chunk.getMemory().get().get(record, ChunkLockOperation.NONE, -1);
+
+                return record.getState();
+            }
+
+            @Override
+            public short getOwner(final long p_chunkID) {
+                return lookupOwner(p_chunkID);
+            }
+
+            @Override
+            public long[] remote(final short p_peer, final long[] p_ids, final int[] p_indices) {
+                // received data is written straight to the buffer
+                BulkGetRequest request = new BulkGetRequest(p_peer, p_recordSize, p_ids, p_indices, p_dst);
+
+                try {
+                    m_network.sendSync(request);
+                } catch (final NetworkException e) {
+                    m_logger.error("Sending BulkGetRequest with %d chunks to 0x%X failed: %s", p_ids.length,
+                            p_peer, e);
+
+                    return null;
+                }
+
+                return request.getResponse(BulkGetResponse.class).getStatus();
+            }
+
+            @Override
+            public void invalidate(final long[] p_ids) {
+                m_lookup.invalidate(p_ids);
+            }
+
+            @Override
+            public short relookupOwner(final long p_chunkID, final short p_failedPeer) {
+                return Get.this.relookupOwner(p_chunkID, p_failedPeer);
+            }
+        }, m_boot.getNodeId(), p_chunkIDs, p_recordSize, p_status);
+
+        if (totalChunksGot < p_chunkIDs.length) {
+            SOP_ERROR.add(p_chunkIDs.length - totalChunksGot);
+        }
+
+        SOP_INTO.stop(totalChunksGot);
 
         return totalChunksGot;
     }
@@ -254,6 +436,9 @@ public class Get extends AbstractOperation implements MessageReceiver {
     @Override
     public void onIncomingMessage(final Message p_message) {
         if (p_message.getType() == DXRAMMessageTypes.CHUNK_MESSAGES_TYPE &&
+                p_message.getSubtype() == ChunkMessages.SUBTYPE_BULK_GET_REQUEST) {
+            incomingBulkGetRequest((BulkGetRequest) p_message);
+        } else if (p_message.getType() == DXRAMMessageTypes.CHUNK_MESSAGES_TYPE &&
                 p_message.getSubtype() == ChunkMessages.SUBTYPE_GET_REQUEST) {
             GetRequest request = (GetRequest) p_message;
 
@@ -264,6 +449,7 @@ public class Get extends AbstractOperation implements MessageReceiver {
             SOP_INCOMING.start(request.getChunkIDs().length);
 
             ChunkByteArray[] chunks = new ChunkByteArray[request.getChunkIDs().length];
+            short[] redirects = request.isRedirect() ? new short[0] : null;
             int successfulGets = 0;
 
             for (int i = 0; i < chunks.length; i++) {
@@ -272,10 +458,21 @@ public class Get extends AbstractOperation implements MessageReceiver {
 
                 if (chunks[i].isStateOk()) {
                     successfulGets++;
+                } else if (redirects != null && chunks[i].getState() == ChunkState.DOES_NOT_EXIST) {
+                    short owner = getRedirectPeer(request.getChunkIDs()[i]);
+
+                    if (owner != NodeID.INVALID_ID) {
+                        if (redirects.length == 0) {
+                            redirects = new short[chunks.length];
+                            Arrays.fill(redirects, NodeID.INVALID_ID);
+                        }
+
+                        redirects[i] = owner;
+                    }
                 }
             }
 
-            GetResponse response = new GetResponse(request, chunks);
+            GetResponse response = new GetResponse(request, chunks, redirects);
 
             try {
                 m_network.sendMessage(response);
@@ -292,4 +489,68 @@ public class Get extends AbstractOperation implements MessageReceiver {
             SOP_INCOMING.stop();
         }
     }
+
+    /**
+     * Handle an incoming BulkGetRequest
+     *
+     * @param p_request
+     *         Request to handle
+     */
+    private void incomingBulkGetRequest(final BulkGetRequest p_request) {
+        long[] chunkIDs = p_request.getChunkIDs();
+        int recordSize = p_request.getRecordSize();
+
+        m_logger.trace("incoming getInto[record size %d, chunks (%d): %s]", recordSize, chunkIDs.length,
+                ChunkID.chunkIDArrayToString(chunkIDs));
+
+        SOP_INCOMING_INTO.start(chunkIDs.length);
+
+        // requesters split their requests into batches of at most BulkRecords.MAX_BYTES_PER_MESSAGE, refuse
+        // anything larger instead of allocating an arbitrarily large response buffer
+        if (chunkIDs.length > 1 && (long) chunkIDs.length * recordSize > BulkRecords.MAX_BYTES_PER_MESSAGE) {
+            m_logger.error("Refusing getInto for %d records of size %d, exceeds %d bytes per message",
+                    chunkIDs.length, recordSize, BulkRecords.MAX_BYTES_PER_MESSAGE);
+
+            try {
+                m_network.sendMessage(new BulkGetResponse(p_request,
+                        new long[(chunkIDs.length + Long.SIZE - 1) / Long.SIZE], ByteBuffer.allocate(0)));
+            } catch (final NetworkException e) {
+                m_logger.error("Sending BulkGetResponse for %d chunks failed: %s", chunkIDs.length, e);
+            }
+
+            SOP_INCOMING_ERROR.add(chunkIDs.length);
+            SOP_INCOMING_INTO.stop();
+
+            return;
+        }
+
+        ByteBuffer records = ByteBuffer.allocate(chunkIDs.length * recordSize);
+        ChunkByteBuffer record = new ChunkByteBuffer(ChunkID.INVALID_ID, records, 0, recordSize);
+        long[] status = new long[(chunkIDs.length + Long.SIZE - 1) / Long.SIZE];
+        int successfulGets = 0;
+
+        for (int i = 0; i < chunkIDs.length; i++) {
+            record.moveTo(chunkIDs[i], i * recordSize);
+            m_chunk.getMemory().get().get(record, ChunkLockOperation.NONE, -1);
+
+            if (record.isStateOk()) {
+                status[i >>> 6] |= 1L << i;
+                successfulGets++;
+            }
+        }
+
+        try {
+            m_network.sendMessage(new BulkGetResponse(p_request, status, records));
+        } catch (final NetworkException e) {
+            m_logger.error("Sending BulkGetResponse for %d chunks failed: %s", chunkIDs.length, e);
+
+            successfulGets = 0;
+        }
+
+        if (successfulGets < chunkIDs.length) {
+            SOP_INCOMING_ERROR.add(chunkIDs.length - successfulGets);
+        }
+
+        SOP_INCOMING_INTO.stop();
+    }
 }
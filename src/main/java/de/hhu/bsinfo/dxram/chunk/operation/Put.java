@@ -1,6 +1,8 @@
 package de.hhu.bsinfo.dxram.chunk.operation;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -19,6 +21,9 @@ import de.hhu.bsinfo.dxram.backup.BackupRange;
 import de.hhu.bsinfo.dxram.boot.AbstractBootComponent;
 import de.hhu.bsinfo.dxram.chunk.ChunkComponent;
 import de.hhu.bsinfo.dxram.chunk.ChunkService;
+import de.hhu.bsinfo.dxram.chunk.data.ChunkByteBuffer;
+import de.hhu.bsinfo.dxram.chunk.messages.BulkPutRequest;
+import de.hhu.bsinfo.dxram.chunk.messages.BulkPutResponse;
 import de.hhu.bsinfo.dxram.chunk.messages.ChunkMessages;
 import de.hhu.bsinfo.dxram.chunk.messages.PutRequest;
 import de.hhu.bsinfo.dxram.chunk.messages.PutResponse;
@@ -28,6 +33,7 @@ import de.hhu.bsinfo.dxram.lookup.LookupRange;
 import de.hhu.bsinfo.dxram.lookup.LookupState;
 import de.hhu.bsinfo.dxram.nameservice.NameserviceComponent;
 import de.hhu.bsinfo.dxram.net.NetworkComponent;
+import de.hhu.bsinfo.dxutils.NodeID;
 import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
 import de.hhu.bsinfo.dxutils.stats.ThroughputPool;
 import de.hhu.bsinfo.dxutils.stats.Value;
@@ -42,17 +48,26 @@ public class Put extends AbstractOperation implements MessageReceiver {
     private static final ThroughputPool SOP_DEFAULT = new ThroughputPool(ChunkService.class, "Put", Value.Base.B_10);
     private static final ThroughputPool SOP_INCOMING =
             new ThroughputPool(ChunkService.class, "PutIncoming", Value.Base.B_10);
+    private static final ThroughputPool SOP_FROM = new ThroughputPool(ChunkService.class, "PutFrom", Value.Base.B_10);
+    private static final ThroughputPool SOP_INCOMING_FROM =
+            new ThroughputPool(ChunkService.class, "PutFromIncoming", Value.Base.B_10);
 
     private static final ValuePool SOP_ERROR = new ValuePool(ChunkService.class, "PutError");
     private static final ValuePool SOP_INCOMING_ERROR = new ValuePool(ChunkService.class, "PutIncomingError");
+    private static final ValuePool SOP_REDIRECT = new ValuePool(ChunkService.class, "PutRedirect");
 
     static {
         StatisticsManager.get().registerOperation(Put.class, SOP_DEFAULT);
         StatisticsManager.get().registerOperation(Put.class, SOP_INCOMING);
+        StatisticsManager.get().registerOperation(Put.class, SOP_FROM);
+        StatisticsManager.get().registerOperation(Put.class, SOP_INCOMING_FROM);
         StatisticsManager.get().registerOperation(Put.class, SOP_ERROR);
         StatisticsManager.get().registerOperation(Put.class, SOP_INCOMING_ERROR);
+        StatisticsManager.get().registerOperation(Put.class, SOP_REDIRECT);
     }
 
+    private final boolean m_optimisticRouting;
+
     /**
      * Constructor
      *
@@ -70,19 +85,28 @@ public class Put extends AbstractOperation implements MessageReceiver {
      *         Instance of LookupComponent
      * @param p_nameservice
      *         Instance of NameserviceComponent
+     * @param p_optimisticRouting
+     *         True to send requests to the creator or last cached owner of a chunk without a lookup
      */
     public Put(final Class<? extends AbstractDXRAMService> p_parentService,
             final AbstractBootComponent p_boot, final BackupComponent p_backup, final ChunkComponent p_chunk,
             final NetworkComponent p_network, final LookupComponent p_lookup,
-            final NameserviceComponent p_nameservice) {
+            final NameserviceComponent p_nameservice, final boolean p_optimisticRouting) {
         super(p_parentService, p_boot, p_backup, p_chunk, p_network, p_lookup, p_nameservice);
 
+        m_optimisticRouting = p_optimisticRouting;
+
         m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_PUT_REQUEST,
                 PutRequest.class);
         m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_PUT_RESPONSE,
                 PutResponse.class);
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_BULK_PUT_REQUEST,
+                BulkPutRequest.class);
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE,
+                ChunkMessages.SUBTYPE_BULK_PUT_RESPONSE, BulkPutResponse.class);
 
         m_network.register(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_PUT_REQUEST, this);
+        m_network.register(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_BULK_PUT_REQUEST, this);
     }
 
     /**
@@ -169,6 +193,18 @@ public class Put extends AbstractOperation implements MessageReceiver {
                     remoteChunksOfBackupRange.add(p_chunks[i + p_offset]);
                 }
             } else if (p_chunks[i].getState() == ChunkState.DOES_NOT_EXIST) {
+                if (m_optimisticRouting) {
+                    // skip the lookup and let the guessed owner redirect us if the chunk was migrated
+                    short peer = getOptimisticPeer(p_chunks[i].getID());
+
+                    if (peer != NodeID.INVALID_ID) {
+                        p_chunks[i].setState(ChunkState.UNDEFINED);
+                        remoteChunksByPeers.computeIfAbsent(peer, a -> new ArrayList<>()).add(p_chunks[i]);
+
+                        continue;
+                    }
+                }
+
                 // seems like it's not available locally, check remotes for remote chunk or migrated
                 LookupRange location = m_lookup.getLookupRange(p_chunks[i].getID());
 
@@ -199,7 +235,48 @@ public class Put extends AbstractOperation implements MessageReceiver {
         }
 
         // go for remote ones by each peer
-        for (final Map.Entry<Short, ArrayList<AbstractChunk>> peerWithChunks : remoteChunksByPeers.entrySet()) {
+        Map<Short, ArrayList<AbstractChunk>> redirectedChunksByPeers = new TreeMap<>();
+
+        totalChunksPut += putRemote(remoteChunksByPeers, p_lockOperation, p_lockOperationTimeoutMs,
+                m_optimisticRouting, redirectedChunksByPeers);
+
+        // one more hop for chunks that were not stored on the guessed or cached owner
+        if (!redirectedChunksByPeers.isEmpty()) {
+            totalChunksPut += putRemote(redirectedChunksByPeers, p_lockOperation, p_lockOperationTimeoutMs, false,
+                    null);
+        }
+
+        if (totalChunksPut < p_count) {
+            SOP_ERROR.add(p_count - totalChunksPut);
+        }
+
+        SOP_DEFAULT.stop();
+
+        return totalChunksPut;
+    }
+
+    /**
+     * Put the data of chunks sorted by the peers storing them
+     *
+     * @param p_chunksByPeers
+     *         Chunks to put sorted by peers
+     * @param p_lockOperation
+     *         Lock operation to execute for each put operation
+     * @param p_lockOperationTimeoutMs
+     *         Timeout for lock operation in ms
+     * @param p_redirect
+     *         True to ask the remote peers for the current owner of chunks they do not store
+     * @param p_retryChunksByPeers
+     *         Map to add chunks to which were not found but have another current owner (sorted by these owners,
+     *         known from a redirect or another lookup), null to not retry
+     * @return Number of successful operations
+     */
+    private int putRemote(final Map<Short, ArrayList<AbstractChunk>> p_chunksByPeers,
+            final ChunkLockOperation p_lockOperation, final int p_lockOperationTimeoutMs, final boolean p_redirect,
+            final Map<Short, ArrayList<AbstractChunk>> p_retryChunksByPeers) {
+        int totalChunksPut = 0;
+
+        for (final Map.Entry<Short, ArrayList<AbstractChunk>> peerWithChunks : p_chunksByPeers.entrySet()) {
             short peer = peerWithChunks.getKey();
             ArrayList<AbstractChunk> remoteChunks = peerWithChunks.getValue();
 
@@ -214,7 +291,7 @@ public class Put extends AbstractOperation implements MessageReceiver {
                 }
             } else {
                 // Remote get from specified peer
-                PutRequest request = new PutRequest(peer, p_lockOperation, p_lockOperationTimeoutMs,
+                PutRequest request = new PutRequest(peer, p_lockOperation, p_lockOperationTimeoutMs, p_redirect,
                         remoteChunks.toArray(new AbstractChunk[remoteChunks.size()]));
 
                 try {
@@ -223,6 +300,7 @@ public class Put extends AbstractOperation implements MessageReceiver {
                     PutResponse response = request.getResponse(PutResponse.class);
 
                     byte[] statusCodes = response.getStatusCodes();
+                    short[] redirects = response.getRedirects();
 
                     // try short cut, i.e. all puts successful
                     if (statusCodes.length == 1 && statusCodes[0] == ChunkState.OK.ordinal()) {
@@ -233,12 +311,25 @@ public class Put extends AbstractOperation implements MessageReceiver {
                         }
                     } else {
                         for (int i = 0; i < statusCodes.length; i++) {
-                            remoteChunks.get(i).setState(ChunkState.values()[statusCodes[i]]);
+                            AbstractChunk chunk = remoteChunks.get(i);
+
+                            chunk.setState(ChunkState.values()[statusCodes[i]]);
 
                             if (statusCodes[i] == ChunkState.OK.ordinal()) {
                                 totalChunksPut++;
+                            } else if (redirects != null && redirects.length > 0 &&
+                                    redirects[i] != NodeID.INVALID_ID) {
+                                SOP_REDIRECT.add(1);
+
+                                m_lookup.cacheChunkLocation(chunk.getID(), redirects[i]);
+                                chunk.setState(ChunkState.UNDEFINED);
+                                p_retryChunksByPeers.computeIfAbsent(redirects[i], a -> new ArrayList<>()).add(
+                                        chunk);
+                            } else if (p_retryChunksByPeers != null &&
+                                    chunk.getState() == ChunkState.DOES_NOT_EXIST) {
+                                retryOnCurrentOwner(chunk, peer, p_retryChunksByPeers);
                             } else {
-                                m_lookup.invalidateRange(remoteChunks.get(i).getID());
+                                m_lookup.invalidateRange(chunk.getID());
                             }
                         }
                     }
@@ -259,17 +350,104 @@ public class Put extends AbstractOperation implements MessageReceiver {
 
                     for (AbstractChunk chunk : remoteChunks) {
                         chunk.setState(errorState);
-                        m_lookup.invalidate(chunk.getID());
+
+                        if (p_redirect && p_retryChunksByPeers != null) {
+                            // the guessed owner is not reachable -> look up the owner on the superpeer
+                            retryOnLookedUpOwner(chunk, peer, p_retryChunksByPeers);
+                        } else {
+                            m_lookup.invalidate(chunk.getID());
+                        }
                     }
                 }
             }
         }
 
-        if (totalChunksPut < p_count) {
-            SOP_ERROR.add(p_count - totalChunksPut);
+        return totalChunksPut;
+    }
+
+    /**
+     * Put the data of many chunks of the same size from one contiguous buffer without creating a chunk object
+     * per chunk. The data of the chunk at index i of the ID array is read from the buffer at offset
+     * i * p_recordSize. All chunks must be stored with exactly p_recordSize bytes.
+     *
+     * @param p_chunkIDs
+     *         IDs of the chunks to put
+     * @param p_recordSize
+     *         Size of every chunk
+     * @param p_src
+     *         Buffer to read the data from (heap or direct, at least p_chunkIDs.length * p_recordSize bytes)
+     * @param p_status
+     *         Status bitmap ((p_chunkIDs.length + 63) / 64 longs). The bit of an index is set if the chunk
+     *         was put successfully and cleared otherwise
+     * @return Number of successful operations
+     */
+    public int putFrom(final long[] p_chunkIDs, final int p_recordSize, final ByteBuffer p_src,
+            final long[] p_status) {
+        m_logger.trace("putFrom[record size %d, chunks (%d): %s]", p_recordSize, p_chunkIDs.length,
+                ChunkID.chunkIDArrayToString(p_chunkIDs));
+
+        if (p_recordSize <= 0 || (long) p_chunkIDs.length * p_recordSize > p_src.limit() ||
+                p_status.length < (p_chunkIDs.length + Long.SIZE - 1) / Long.SIZE) {
+            throw new IllegalArgumentException("Buffer or status bitmap too small for " + p_chunkIDs.length +
+                    " records of size " + p_recordSize);
         }
 
-        SOP_DEFAULT.stop();
+        SOP_FROM.start();
+
+        for (int i = 0; i < (p_chunkIDs.length + Long.SIZE - 1) / Long.SIZE; i++) {
+            p_status[i] = 0;
+        }
+
+        // one chunk object moved over the buffer for all local chunks
+        ChunkByteBuffer record = new ChunkByteBuffer(ChunkID.INVALID_ID, p_src, 0, p_recordSize);
+
+        int totalChunksPut = BulkRecords.transfer(new BulkRecords.Access() {
+            @Override
+            public ChunkState local(final long p_chunkID, final int p_index) {
+                record.moveTo(p_chunkID, p_index * p_recordSize);
+                m_chunk.getMemory().put().put(record, ChunkLockOperation.NONE, -1);
+
+                return record.getState();
+            }
+
+            @Override
+            public short getOwner(final long p_chunkID) {
+                return lookupOwner(p_chunkID);
+            }
+
+            @Override
+            public long[] remote(final short p_peer, final long[] p_ids, final int[] p_indices) {
+                // records are written straight from the buffer to the network
+                BulkPutRequest request = new BulkPutRequest(p_peer, p_recordSize, p_ids, p_indices, p_src);
+
+                try {
+                    m_network.sendSync(request);
+                } catch (final NetworkException e) {
+                    m_logger.error("Sending BulkPutRequest with %d chunks to 0x%X failed: %s", p_ids.length,
+                            p_peer, e);
+
+                    return null;
+                }
+
+                return request.getResponse(BulkPutResponse.class).getStatus();
+            }
+
+            @Override
+            public void invalidate(final long[] p_ids) {
+                m_lookup.invalidate(p_ids);
+            }
+
+            @Override
+            public short relookupOwner(final long p_chunkID, final short p_failedPeer) {
+                return Put.this.relookupOwner(p_chunkID, p_failedPeer);
+            }
+        }, m_boot.getNodeId(), p_chunkIDs, p_recordSize, p_status);
+
+        if (totalChunksPut < p_chunkIDs.length) {
+            SOP_ERROR.add(p_chunkIDs.length - totalChunksPut);
+        }
+
+        SOP_FROM.stop(totalChunksPut);
 
         return totalChunksPut;
     }
@@ -277,6 +455,9 @@ public class Put extends AbstractOperation implements MessageReceiver {
     @Override
     public void onIncomingMessage(final Message p_message) {
         if (p_message.getType() == DXRAMMessageTypes.CHUNK_MESSAGES_TYPE &&
+                p_message.getSubtype() == ChunkMessages.SUBTYPE_BULK_PUT_REQUEST) {
+            incomingBulkPutRequest((BulkPutRequest) p_message);
+        } else if (p_message.getType() == DXRAMMessageTypes.CHUNK_MESSAGES_TYPE &&
                 p_message.getSubtype() == ChunkMessages.SUBTYPE_PUT_REQUEST) {
             PutRequest request = (PutRequest) p_message;
 
@@ -290,6 +471,7 @@ public class Put extends AbstractOperation implements MessageReceiver {
             byte[][] data = request.getChunkData();
 
             byte[] statusChunks = new byte[chunkIDs.length];
+            short[] redirects = request.isRedirect() ? new short[0] : null;
             int successfulPuts = 0;
 
             Map<BackupRange, ArrayList<AbstractChunk>> remoteChunksByBackupRange = new TreeMap<>();
@@ -309,6 +491,17 @@ public class Put extends AbstractOperation implements MessageReceiver {
                     }
 
                     successfulPuts++;
+                } else if (redirects != null && state == ChunkState.DOES_NOT_EXIST) {
+                    short owner = getRedirectPeer(chunkIDs[i]);
+
+                    if (owner != NodeID.INVALID_ID) {
+                        if (redirects.length == 0) {
+                            redirects = new short[chunkIDs.length];
+                            Arrays.fill(redirects, NodeID.INVALID_ID);
+                        }
+
+                        redirects[i] = owner;
+                    }
                 }
             }
 
@@ -317,10 +510,10 @@ public class Put extends AbstractOperation implements MessageReceiver {
 
             // cut message length if all were successful
             if (successfulPuts == chunkIDs.length) {
-                response = new PutResponse(request, (byte) ChunkState.OK.ordinal());
+                response = new PutResponse(request, redirects, (byte) ChunkState.OK.ordinal());
             } else {
                 // we got errors, default message
-                response = new PutResponse(request, statusChunks);
+                response = new PutResponse(request, redirects, statusChunks);
             }
 
             try {
@@ -338,4 +531,66 @@ public class Put extends AbstractOperation implements MessageReceiver {
             SOP_INCOMING.stop();
         }
     }
+
+    /**
+     * Handle an incoming BulkPutRequest
+     *
+     * @param p_request
+     *         Request to handle
+     */
+    private void incomingBulkPutRequest(final BulkPutRequest p_request) {
+        long[] chunkIDs = p_request.getChunkIDs();
+        int recordSize = p_request.getRecordSize();
+
+        m_logger.trace("incoming putFrom[record size %d, chunks (%d): %s]", recordSize, chunkIDs.length,
+                ChunkID.chunkIDArrayToString(chunkIDs));
+
+        SOP_INCOMING_FROM.start(chunkIDs.length);
+
+        if (p_request.getRecords() == null) {
+            m_logger.error("Refusing putFrom for %d records of size %d, exceeds %d bytes per message",
+                    chunkIDs.length, recordSize, BulkRecords.MAX_BYTES_PER_MESSAGE);
+
+            try {
+                m_network.sendMessage(
+                        new BulkPutResponse(p_request, new long[(chunkIDs.length + Long.SIZE - 1) / Long.SIZE]));
+            } catch (final NetworkException e) {
+                m_logger.error("Sending BulkPutResponse for %d chunks failed: %s", chunkIDs.length, e);
+            }
+
+            SOP_INCOMING_ERROR.add(chunkIDs.length);
+            SOP_INCOMING_FROM.stop();
+
+            return;
+        }
+
+        ChunkByteBuffer record =
+                new ChunkByteBuffer(ChunkID.INVALID_ID, ByteBuffer.wrap(p_request.getRecords()), 0, recordSize);
+        long[] status = new long[(chunkIDs.length + Long.SIZE - 1) / Long.SIZE];
+        int successfulPuts = 0;
+
+        for (int i = 0; i < chunkIDs.length; i++) {
+            record.moveTo(chunkIDs[i], i * recordSize);
+            m_chunk.getMemory().put().put(record, ChunkLockOperation.NONE, -1);
+
+            if (record.isStateOk()) {
+                status[i >>> 6] |= 1L << i;
+                successfulPuts++;
+            }
+        }
+
+        try {
+            m_network.sendMessage(new BulkPutResponse(p_request, status));
+        } catch (final NetworkException e) {
+            m_logger.error("Sending BulkPutResponse for %d chunks failed: %s", chunkIDs.length, e);
+
+            successfulPuts = 0;
+        }
+
+        if (successfulPuts < chunkIDs.length) {
+            SOP_INCOMING_ERROR.add(chunkIDs.length - successfulPuts);
+        }
+
+        SOP_INCOMING_FROM.stop();
+    }
 }
@@ -0,0 +1,501 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.hhu.bsinfo.dxmem.data.ChunkByteArray;
+import de.hhu.bsinfo.dxmem.data.ChunkIDRanges;
+import de.hhu.bsinfo.dxmem.data.ChunkLockOperation;
+import de.hhu.bsinfo.dxnet.MessageReceiver;
+import de.hhu.bsinfo.dxnet.core.Message;
+import de.hhu.bsinfo.dxnet.core.NetworkException;
+import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxram.backup.BackupComponent;
+import de.hhu.bsinfo.dxram.boot.AbstractBootComponent;
+import de.hhu.bsinfo.dxram.chunk.ChunkComponent;
+import de.hhu.bsinfo.dxram.chunk.ChunkService;
+import de.hhu.bsinfo.dxram.chunk.data.ScanPredicate;
+import de.hhu.bsinfo.dxram.chunk.messages.ChunkMessages;
+import de.hhu.bsinfo.dxram.chunk.messages.ScanRequest;
+import de.hhu.bsinfo.dxram.chunk.messages.ScanResponse;
+import de.hhu.bsinfo.dxram.engine.AbstractDXRAMService;
+import de.hhu.bsinfo.dxram.lookup.LookupComponent;
+import de.hhu.bsinfo.dxram.nameservice.NameserviceComponent;
+import de.hhu.bsinfo.dxram.net.NetworkComponent;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.stats.ThroughputPool;
+import de.hhu.bsinfo.dxutils.stats.Value;
+
+/**
+ * Evaluate a predicate on all chunks stored in the key-value store. The predicate is sent to every peer which
+ * evaluates it on its local (and migrated) chunks in parallel and returns the matching chunks page by page.
+ */
+public class Scan extends AbstractOperation implements MessageReceiver {
+    private static final ThroughputPool SOP_DEFAULT = new ThroughputPool(ChunkService.class, "Scan", Value.Base.B_10);
+    private static final ThroughputPool SOP_INCOMING =
+            new ThroughputPool(ChunkService.class, "ScanIncoming", Value.Base.B_10);
+
+    static {
+        StatisticsManager.get().registerOperation(Scan.class, SOP_DEFAULT);
+        StatisticsManager.get().registerOperation(Scan.class, SOP_INCOMING);
+    }
+
+    /**
+     * Default number of matching chunks returned per page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private static final int MAX_PAGE_SIZE = 100000;
+    // number of chunk IDs evaluated by all scan threads together in one step
+    private static final int SCAN_WINDOW_SIZE = 16384;
+    // max number of windows evaluated for one page, a page might be short or empty afterwards (bounds the time a
+    // message handler spends on one request)
+    private static final int MAX_WINDOWS_PER_PAGE = 4;
+    // cursor value marking the end of a scan (no chunk can be created on the invalid node ID 0xFFFF)
+    private static final long CURSOR_END = -1;
+    // cursor value marking a failed evaluation (no scan can continue on the invalid node ID 0xFFFF either)
+    private static final long CURSOR_ERROR = -2;
+
+    /**
+     * Handler for the pages of matching chunks
+     */
+    public interface ResultHandler {
+        /**
+         * Called for every page of matching chunks received from a peer
+         *
+         * @param p_peer
+         *         Peer the chunks are stored on
+         * @param p_chunkIDs
+         *         IDs of the matching chunks
+         * @param p_payloads
+         *         Payloads of the matching chunks or null if not requested
+         */
+        void onResults(short p_peer, long[] p_chunkIDs, byte[][] p_payloads);
+    }
+
+    private final ExecutorService m_executor;
+    private final int m_threads;
+
+    /**
+     * Constructor
+     *
+     * @param p_parentService
+     *         Instance of parent service this operation belongs to
+     * @param p_boot
+     *         Instance of BootComponent
+     * @param p_backup
+     *         Instance of BackupComponent
+     * @param p_chunk
+     *         Instance of ChunkComponent
+     * @param p_network
+     *         Instance of NetworkComponent
+     * @param p_lookup
+     *         Instance of LookupComponent
+     * @param p_nameservice
+     *         Instance of NameserviceComponent
+     * @param p_threads
+     *         Number of threads to evaluate predicates on local chunks with
+     */
+    public Scan(final Class<? extends AbstractDXRAMService> p_parentService,
+            final AbstractBootComponent p_boot, final BackupComponent p_backup, final ChunkComponent p_chunk,
+            final NetworkComponent p_network, final LookupComponent p_lookup,
+            final NameserviceComponent p_nameservice, final int p_threads) {
+        super(p_parentService, p_boot, p_backup, p_chunk, p_network, p_lookup, p_nameservice);
+
+        m_threads = p_threads;
+
+        AtomicInteger threadCounter = new AtomicInteger(1);
+        m_executor = Executors.newFixedThreadPool(p_threads, p_runnable -> {
+            Thread thread = new Thread(p_runnable, "ChunkScan-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_SCAN_REQUEST,
+                ScanRequest.class);
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_SCAN_RESPONSE,
+                ScanResponse.class);
+        m_network.register(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_SCAN_REQUEST, this);
+    }
+
+    /**
+     * Shut down the scan threads
+     */
+    public void shutdown() {
+        m_executor.shutdownNow();
+    }
+
+    /**
+     * Get the IDs of all chunks of all peers matching a predicate
+     *
+     * @param p_predicate
+     *         Predicate to evaluate
+     * @return IDs of all matching chunks, null if not all peers could be scanned completely (check the log)
+     */
+    public long[] scan(final ScanPredicate p_predicate) {
+        ArrayListLong result = new ArrayListLong();
+        List<Short> peers = m_boot.getOnlinePeerIds();
+
+        int peersScanned = scan(p_predicate, false, DEFAULT_PAGE_SIZE, (p_peer, p_chunkIDs, p_payloads) -> {
+            for (long chunkID : p_chunkIDs) {
+                result.add(chunkID);
+            }
+        }, peers);
+
+        if (peersScanned < peers.size()) {
+            m_logger.error("Scanning %d of %d peers failed, results are incomplete", peers.size() - peersScanned,
+                    peers.size());
+
+            return null;
+        }
+
+        long[] chunkIDs = new long[result.getSize()];
+
+        for (int i = 0; i < chunkIDs.length; i++) {
+            chunkIDs[i] = result.get(i);
+        }
+
+        return chunkIDs;
+    }
+
+    /**
+     * Evaluate a predicate on all chunks of the specified peers. The matching chunks are passed to the handler
+     * page by page as soon as they arrive
+     *
+     * @param p_predicate
+     *         Predicate to evaluate
+     * @param p_withPayloads
+     *         True to get the payloads of the matching chunks as well
+     * @param p_pageSize
+     *         Max number of matching chunks per page. Pages are smaller if they reach the payload size limit of a
+     *         message or the max number of chunks a peer evaluates for one page
+     * @param p_handler
+     *         Handler for the pages of matching chunks
+     * @param p_peers
+     *         Peers to scan
+     * @return Number of peers scanned completely. If less than expected, the results are incomplete (a peer was
+     * not reachable or failed to evaluate the predicate, check the log for errors)
+     */
+    public int scan(final ScanPredicate p_predicate, final boolean p_withPayloads, final int p_pageSize,
+            final ResultHandler p_handler, final List<Short> p_peers) {
+        m_logger.trace("scan[predicate %s, payloads %b, page size %d, peers %d]", p_predicate, p_withPayloads,
+                p_pageSize, p_peers.size());
+
+        int pageSize = Math.max(1, Math.min(p_pageSize, MAX_PAGE_SIZE));
+        int peersScanned = 0;
+        int totalMatches = 0;
+
+        SOP_DEFAULT.start();
+
+        for (short peer : p_peers) {
+            long cursor = 0;
+            boolean finished = false;
+
+            while (!finished) {
+                long[] chunkIDs;
+                byte[][] payloads;
+
+                if (peer == m_boot.getNodeId()) {
+                    ArrayListLong matches = new ArrayListLong();
+                    ArrayList<byte[]> matchPayloads = p_withPayloads ? new ArrayList<>() : null;
+
+                    cursor = scanLocal(p_predicate, cursor, pageSize, matches, matchPayloads);
+
+                    if (cursor == CURSOR_ERROR) {
+                        m_logger.error("Scanning local chunks failed");
+                        break;
+                    }
+
+                    finished = cursor == CURSOR_END;
+                    chunkIDs = toArray(matches);
+                    payloads = matchPayloads != null ? matchPayloads.toArray(new byte[0][]) : null;
+                } else {
+                    ScanRequest request = new ScanRequest(peer, p_predicate, cursor, pageSize, p_withPayloads);
+
+                    try {
+                        m_network.sendSync(request);
+                    } catch (final NetworkException e) {
+                        m_logger.error("Sending ScanRequest to 0x%X failed: %s", peer, e);
+                        break;
+                    }
+
+                    ScanResponse response = (ScanResponse) request.getResponse();
+
+                    if (response.isFailed()) {
+                        m_logger.error("Scanning chunks of 0x%X failed", peer);
+                        break;
+                    }
+
+                    chunkIDs = response.getChunkIDs();
+                    payloads = response.getPayloads();
+                    cursor = response.getNextCursor();
+                    finished = response.isFinished();
+                }
+
+                if (chunkIDs.length > 0) {
+                    p_handler.onResults(peer, chunkIDs, payloads);
+                }
+
+                totalMatches += chunkIDs.length;
+            }
+
+            if (finished) {
+                peersScanned++;
+            }
+        }
+
+        SOP_DEFAULT.stop(totalMatches);
+
+        return peersScanned;
+    }
+
+    @Override
+    public void onIncomingMessage(final Message p_message) {
+        if (p_message.getType() == DXRAMMessageTypes.CHUNK_MESSAGES_TYPE &&
+                p_message.getSubtype() == ChunkMessages.SUBTYPE_SCAN_REQUEST) {
+            ScanRequest request = (ScanRequest) p_message;
+
+            m_logger.trace("incoming scan[predicate %s, cursor 0x%X, page size %d]", request.getPredicate(),
+                    request.getCursor(), request.getPageSize());
+
+            SOP_INCOMING.start();
+
+            ArrayListLong matches = new ArrayListLong();
+            ArrayList<byte[]> payloads = request.isWithPayloads() ? new ArrayList<>() : null;
+
+            long cursor = scanLocal(request.getPredicate(), request.getCursor(),
+                    Math.max(1, Math.min(request.getPageSize(), MAX_PAGE_SIZE)), matches, payloads);
+
+            ScanResponse response;
+
+            if (cursor == CURSOR_ERROR) {
+                // do not return the partial page, the requester stops scanning this node
+                response = new ScanResponse(request, new long[0], payloads != null ? new byte[0][] : null,
+                        CURSOR_END, false, true);
+            } else {
+                response = new ScanResponse(request, toArray(matches),
+                        payloads != null ? payloads.toArray(new byte[0][]) : null, cursor, cursor == CURSOR_END,
+                        false);
+            }
+
+            try {
+                m_network.sendMessage(response);
+            } catch (final NetworkException e) {
+                m_logger.error("Sending ScanResponse for %d chunks failed: %s", matches.getSize(), e);
+            }
+
+            SOP_INCOMING.stop(matches.getSize());
+        }
+    }
+
+    /**
+     * Evaluate a predicate on the chunks stored on the current node starting at the cursor until a page of
+     * matching chunks is filled, all chunks are scanned or MAX_WINDOWS_PER_PAGE windows are evaluated. Pages with
+     * payloads are limited to BulkRecords.MAX_BYTES_PER_MESSAGE bytes of payload (but contain at least one chunk)
+     *
+     * @param p_predicate
+     *         Predicate to evaluate
+     * @param p_cursor
+     *         Chunk ID to start at (unsigned order)
+     * @param p_pageSize
+     *         Max number of matching chunks
+     * @param p_matches
+     *         List to add the IDs of the matching chunks to
+     * @param p_payloads
+     *         List to add the payloads of the matching chunks to or null if not requested
+     * @return Cursor to continue the scan with, CURSOR_END if all chunks are scanned or CURSOR_ERROR if
+     * evaluating the predicate failed
+     */
+    private long scanLocal(final ScanPredicate p_predicate, final long p_cursor, final int p_pageSize,
+            final ArrayListLong p_matches, final List<byte[]> p_payloads) {
+        long[] ranges = getLocalRanges();
+        long cursor = p_cursor;
+        long payloadBytes = 0;
+
+        for (int windows = 0; windows < MAX_WINDOWS_PER_PAGE && p_matches.getSize() < p_pageSize; windows++) {
+            long[] window = collectWindow(ranges, cursor);
+
+            if (window.length == 0) {
+                return CURSOR_END;
+            }
+
+            // evaluate consecutive slices of the window in parallel
+            int sliceSize = (window.length + m_threads - 1) / m_threads;
+            List<Future<List<ChunkByteArray>>> slices = new ArrayList<>(m_threads);
+
+            for (int start = 0; start < window.length; start += sliceSize) {
+                int from = start;
+                int to = Math.min(start + sliceSize, window.length);
+
+                slices.add(m_executor.submit(() -> evaluateSlice(p_predicate, window, from, to)));
+            }
+
+            for (Future<List<ChunkByteArray>> slice : slices) {
+                List<ChunkByteArray> chunks;
+
+                try {
+                    chunks = slice.get();
+                } catch (final InterruptedException e) {
+                    m_logger.error("Evaluating scan predicate interrupted");
+                    Thread.currentThread().interrupt();
+                    return CURSOR_ERROR;
+                } catch (final ExecutionException e) {
+                    m_logger.error("Evaluating scan predicate failed: %s", e.getCause());
+                    return CURSOR_ERROR;
+                }
+
+                for (ChunkByteArray chunk : chunks) {
+                    if (p_matches.getSize() == p_pageSize || p_payloads != null && p_matches.getSize() > 0 &&
+                            payloadBytes + chunk.getData().length > BulkRecords.MAX_BYTES_PER_MESSAGE) {
+                        // page full, continue after the last match with the next page
+                        return chunk.getID();
+                    }
+
+                    p_matches.add(chunk.getID());
+
+                    if (p_payloads != null) {
+                        p_payloads.add(chunk.getData());
+                        payloadBytes += chunk.getData().length;
+                    }
+                }
+            }
+
+            cursor = window[window.length - 1] + 1;
+
+            if (cursor == CURSOR_END) {
+                return CURSOR_END;
+            }
+        }
+
+        return cursor;
+    }
+
+    /**
+     * Evaluate a predicate on a slice of chunk IDs
+     *
+     * @param p_predicate
+     *         Predicate to evaluate
+     * @param p_chunkIDs
+     *         Chunk IDs
+     * @param p_from
+     *         Start index in the array (including)
+     * @param p_to
+     *         End index in the array (excluding)
+     * @return Matching chunks
+     */
+    private List<ChunkByteArray> evaluateSlice(final ScanPredicate p_predicate, final long[] p_chunkIDs,
+            final int p_from, final int p_to) {
+        List<ChunkByteArray> matches = new ArrayList<>();
+
+        for (int i = p_from; i < p_to; i++) {
+            ChunkByteArray chunk = m_chunk.getMemory().get().get(p_chunkIDs[i], ChunkLockOperation.NONE, -1);
+
+            if (chunk.isStateOk() && p_predicate.evaluate(chunk.getData())) {
+                matches.add(chunk);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Get all chunk ID ranges of chunks stored on the current node (created and migrated)
+     *
+     * @return Ranges as pairs of start and end (including) sorted by start in unsigned order
+     */
+    private long[] getLocalRanges() {
+        ChunkIDRanges localRanges = m_chunk.getMemory().cidStatus().getCIDRangesOfLocalChunks();
+        ChunkIDRanges migratedRanges = m_chunk.getMemory().cidStatus().getAllMigratedChunkIDRanges();
+
+        long[][] ranges = new long[localRanges.size() + migratedRanges.size()][];
+        int index = 0;
+
+        for (int i = 0; i < localRanges.size(); i++) {
+            ranges[index++] = new long[] {localRanges.getRangeStart(i), localRanges.getRangeEnd(i)};
+        }
+
+        for (int i = 0; i < migratedRanges.size(); i++) {
+            ranges[index++] = new long[] {migratedRanges.getRangeStart(i), migratedRanges.getRangeEnd(i)};
+        }
+
+        Arrays.sort(ranges, (p_a, p_b) -> Long.compareUnsigned(p_a[0], p_b[0]));
+
+        long[] flat = new long[ranges.length * 2];
+
+        for (int i = 0; i < ranges.length; i++) {
+            flat[i * 2] = ranges[i][0];
+            flat[i * 2 + 1] = ranges[i][1];
+        }
+
+        return flat;
+    }
+
+    /**
+     * Collect the next chunk IDs to scan starting at the cursor
+     *
+     * @param p_ranges
+     *         Sorted ranges of local chunk IDs
+     * @param p_cursor
+     *         Chunk ID to start at (unsigned order)
+     * @return Up to SCAN_WINDOW_SIZE chunk IDs in ascending order
+     */
+    private static long[] collectWindow(final long[] p_ranges, final long p_cursor) {
+        ArrayListLong window = new ArrayListLong();
+
+        for (int i = 0; i < p_ranges.length && window.getSize() < SCAN_WINDOW_SIZE; i += 2) {
+            if (Long.compareUnsigned(p_ranges[i + 1], p_cursor) < 0) {
+                continue;
+            }
+
+            long start = Long.compareUnsigned(p_ranges[i], p_cursor) < 0 ? p_cursor : p_ranges[i];
+
+            for (long chunkID = start; Long.compareUnsigned(chunkID, p_ranges[i + 1]) <= 0 &&
+                    window.getSize() < SCAN_WINDOW_SIZE; chunkID++) {
+                window.add(chunkID);
+            }
+        }
+
+        return toArray(window);
+    }
+
+    /**
+     * Copy the contents of a list to an array
+     *
+     * @param p_list
+     *         List to copy
+     * @return Array with the elements of the list
+     */
+    private static long[] toArray(final ArrayListLong p_list) {
+        long[] array = new long[p_list.getSize()];
+
+        for (int i = 0; i < array.length; i++) {
+            array[i] = p_list.get(i);
+        }
+
+        return array;
+    }
+}
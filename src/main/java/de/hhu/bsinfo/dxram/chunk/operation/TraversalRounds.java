@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.chunk.operation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxutils.NodeID;
+
+/**
+ * Rounds of a traversal on the requesting peer: sorts the frontier by owners, hands every batch to the owner and
+ * collects the visited chunks and the next frontier. Chunks the owner did not find (e.g. migrated during the
+ * traversal) and chunks of unreachable owners are looked up again and re-queued once.
+ */
+final class TraversalRounds {
+
+    /**
+     * Access to the chunk locations and the peers storing the chunks
+     */
+    interface Peers {
+
+        /**
+         * Get the node currently storing a chunk
+         *
+         * @param p_chunkID
+         *         Chunk ID
+         * @return Node ID of the owner or NodeID.INVALID_ID if the chunk does not exist or is lost
+         */
+        short getOwner(long p_chunkID);
+
+        /**
+         * Drop the cached location of a chunk that was not found on its owner
+         *
+         * @param p_chunkID
+         *         Chunk ID
+         */
+        void invalidate(long p_chunkID);
+
+        /**
+         * Traverse starting at chunks stored on a peer
+         *
+         * @param p_peer
+         *         Peer storing the chunks
+         * @param p_chunkIDs
+         *         IDs of the chunks to start at
+         * @param p_depths
+         *         Remaining number of hops for each start chunk
+         * @param p_visited
+         *         Map to add the visited chunks with their remaining number of hops to
+         * @param p_frontier
+         *         Map to add the neighbors stored on other nodes with their remaining number of hops to
+         * @return True if successful, false if the peer is not reachable
+         */
+        boolean traverse(short p_peer, long[] p_chunkIDs, int[] p_depths, Map<Long, Integer> p_visited,
+                Map<Long, Integer> p_frontier);
+    }
+
+    /**
+     * Utility class
+     */
+    private TraversalRounds() {
+
+    }
+
+    /**
+     * Traverse the graph of chunks starting at the specified chunks (breadth first)
+     *
+     * @param p_peers
+     *         Access to the chunk locations and peers
+     * @param p_depth
+     *         Max number of hops to follow from the start chunks
+     * @param p_startIDs
+     *         IDs of the chunks to start the traversal at
+     * @return IDs of all existing chunks reached within the specified number of hops
+     */
+    static long[] traverse(final Peers p_peers, final int p_depth, final long[] p_startIDs) {
+        // remaining hops each chunk was visited with or sent to its owner with
+        Map<Long, Integer> visited = new LinkedHashMap<>();
+        Map<Long, Integer> dispatched = new HashMap<>();
+        Map<Long, Integer> pending = new HashMap<>();
+        Set<Long> requeued = new HashSet<>();
+
+        for (long startID : p_startIDs) {
+            if (startID != ChunkID.INVALID_ID) {
+                pending.merge(startID, p_depth, Math::max);
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            // sort the frontier by owners and skip everything already covered by a previous round
+            Map<Short, Map<Long, Integer>> pendingByPeers = new TreeMap<>();
+
+            for (Map.Entry<Long, Integer> entry : pending.entrySet()) {
+                long chunkID = entry.getKey();
+                int depth = entry.getValue();
+
+                if (isCovered(visited, chunkID, depth) || isCovered(dispatched, chunkID, depth)) {
+                    continue;
+                }
+
+                dispatched.put(chunkID, depth);
+
+                short peer = p_peers.getOwner(chunkID);
+
+                if (peer != NodeID.INVALID_ID) {
+                    Map<Long, Integer> chunks = pendingByPeers.get(peer);
+
+                    if (chunks == null) {
+                        chunks = new HashMap<>();
+                        pendingByPeers.put(peer, chunks);
+                    }
+
+                    chunks.put(chunkID, depth);
+                }
+            }
+
+            pending = new HashMap<>();
+
+            for (Map.Entry<Short, Map<Long, Integer>> peerWithChunks : pendingByPeers.entrySet()) {
+                Map<Long, Integer> chunks = peerWithChunks.getValue();
+
+                long[] chunkIDs = new long[chunks.size()];
+                int[] depths = new int[chunks.size()];
+                int index = 0;
+
+                for (Map.Entry<Long, Integer> entry : chunks.entrySet()) {
+                    chunkIDs[index] = entry.getKey();
+                    depths[index] = entry.getValue();
+                    index++;
+                }
+
+                boolean success = p_peers.traverse(peerWithChunks.getKey(), chunkIDs, depths, visited, pending);
+
+                // chunks not found on the peer were migrated or removed: look them up again once
+                for (int i = 0; i < chunkIDs.length; i++) {
+                    if (!isCovered(visited, chunkIDs[i], depths[i])) {
+                        if (success) {
+                            p_peers.invalidate(chunkIDs[i]);
+                        }
+
+                        if (requeued.add(chunkIDs[i])) {
+                            dispatched.remove(chunkIDs[i]);
+                            pending.merge(chunkIDs[i], depths[i], Math::max);
+                        }
+                    }
+                }
+            }
+        }
+
+        long[] result = new long[visited.size()];
+        int index = 0;
+
+        for (long chunkID : visited.keySet()) {
+            result[index++] = chunkID;
+        }
+
+        return result;
+    }
+
+    /**
+     * Check if a chunk was already processed with at least the specified number of remaining hops
+     *
+     * @param p_depths
+     *         Map with the remaining hops of processed chunks
+     * @param p_chunkID
+     *         Chunk ID to check
+     * @param p_depth
+     *         Remaining hops
+     * @return True if the chunk does not have to be processed again
+     */
+    static boolean isCovered(final Map<Long, Integer> p_depths, final long p_chunkID, final int p_depth) {
+        Integer depth = p_depths.get(p_chunkID);
+
+        return depth != null && depth >= p_depth;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.operation;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.hhu.bsinfo.dxmem.data.ChunkByteArray;
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxmem.data.ChunkLockOperation;
+import de.hhu.bsinfo.dxnet.MessageReceiver;
+import de.hhu.bsinfo.dxnet.core.Message;
+import de.hhu.bsinfo.dxnet.core.NetworkException;
+import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxram.backup.BackupComponent;
+import de.hhu.bsinfo.dxram.boot.AbstractBootComponent;
+import de.hhu.bsinfo.dxram.chunk.ChunkComponent;
+import de.hhu.bsinfo.dxram.chunk.ChunkService;
+import de.hhu.bsinfo.dxram.chunk.data.TraversalLayout;
+import de.hhu.bsinfo.dxram.chunk.messages.ChunkMessages;
+import de.hhu.bsinfo.dxram.chunk.messages.TraverseRequest;
+import de.hhu.bsinfo.dxram.chunk.messages.TraverseResponse;
+import de.hhu.bsinfo.dxram.engine.AbstractDXRAMService;
+import de.hhu.bsinfo.dxram.lookup.LookupComponent;
+import de.hhu.bsinfo.dxram.lookup.LookupRange;
+import de.hhu.bsinfo.dxram.lookup.LookupState;
+import de.hhu.bsinfo.dxram.nameservice.NameserviceComponent;
+import de.hhu.bsinfo.dxram.net.NetworkComponent;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
+import de.hhu.bsinfo.dxutils.NodeID;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.stats.ThroughputPool;
+import de.hhu.bsinfo.dxutils.stats.Value;
+
+/**
+ * Traverse a graph of chunks storing the IDs of their neighbors. The peers storing the chunks follow the
+ * neighbor IDs of local chunks themselves. Only the frontier of neighbors stored on other peers is returned
+ * and sent to their owners in one batch per peer and round. This replaces one get round trip per hop with
+ * one round trip per change of the storing peer.
+ */
+public class Traverse extends AbstractOperation implements MessageReceiver {
+    private static final ThroughputPool SOP_DEFAULT =
+            new ThroughputPool(ChunkService.class, "Traverse", Value.Base.B_10);
+    private static final ThroughputPool SOP_INCOMING =
+            new ThroughputPool(ChunkService.class, "TraverseIncoming", Value.Base.B_10);
+
+    static {
+        StatisticsManager.get().registerOperation(Traverse.class, SOP_DEFAULT);
+        StatisticsManager.get().registerOperation(Traverse.class, SOP_INCOMING);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_parentService
+     *         Instance of parent service this operation belongs to
+     * @param p_boot
+     *         Instance of BootComponent
+     * @param p_backup
+     *         Instance of BackupComponent
+     * @param p_chunk
+     *         Instance of ChunkComponent
+     * @param p_network
+     *         Instance of NetworkComponent
+     * @param p_lookup
+     *         Instance of LookupComponent
+     * @param p_nameservice
+     *         Instance of NameserviceComponent
+     */
+    public Traverse(final Class<? extends AbstractDXRAMService> p_parentService,
+            final AbstractBootComponent p_boot, final BackupComponent p_backup, final ChunkComponent p_chunk,
+            final NetworkComponent p_network, final LookupComponent p_lookup,
+            final NameserviceComponent p_nameservice) {
+        super(p_parentService, p_boot, p_backup, p_chunk, p_network, p_lookup, p_nameservice);
+
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_TRAVERSE_REQUEST,
+                TraverseRequest.class);
+        m_network.registerMessageType(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_TRAVERSE_RESPONSE,
+                TraverseResponse.class);
+        m_network.register(DXRAMMessageTypes.CHUNK_MESSAGES_TYPE, ChunkMessages.SUBTYPE_TRAVERSE_REQUEST, this);
+    }
+
+    /**
+     * Traverse the graph of chunks starting at the specified chunks (breadth first)
+     *
+     * @param p_layout
+     *         Layout describing where the neighbor IDs are stored in the chunk payloads
+     * @param p_depth
+     *         Max number of hops to follow from the start chunks (0 to visit the start chunks, only)
+     * @param p_startIDs
+     *         IDs of the chunks to start the traversal at
+     * @return IDs of all existing chunks reached within the specified number of hops
+     */
+    public long[] traverse(final TraversalLayout p_layout, final int p_depth, final long... p_startIDs) {
+        if (p_depth < 0) {
+            throw new IllegalArgumentException("Negative traversal depth " + p_depth);
+        }
+
+        m_logger.trace("traverse[layout %s, depth %d, start IDs (%d): %s]", p_layout, p_depth, p_startIDs.length,
+                ChunkID.chunkIDArrayToString(p_startIDs));
+
+        SOP_DEFAULT.start();
+
+        long[] result = TraversalRounds.traverse(new TraversalRounds.Peers() {
+            @Override
+            public short getOwner(final long p_chunkID) {
+                return Traverse.this.getOwner(p_chunkID);
+            }
+
+            @Override
+            public void invalidate(final long p_chunkID) {
+                m_lookup.invalidateRange(p_chunkID);
+            }
+
+            @Override
+            public boolean traverse(final short p_peer, final long[] p_chunkIDs, final int[] p_depths,
+                    final Map<Long, Integer> p_visited, final Map<Long, Integer> p_frontier) {
+                return traversePeer(p_layout, p_peer, p_chunkIDs, p_depths, p_visited, p_frontier);
+            }
+        }, p_depth, p_startIDs);
+
+        SOP_DEFAULT.stop(result.length);
+
+        return result;
+    }
+
+    @Override
+    public void onIncomingMessage(final Message p_message) {
+        if (p_message.getType() == DXRAMMessageTypes.CHUNK_MESSAGES_TYPE &&
+                p_message.getSubtype() == ChunkMessages.SUBTYPE_TRAVERSE_REQUEST) {
+            TraverseRequest request = (TraverseRequest) p_message;
+
+            m_logger.trace("incoming traverse[layout %s, start IDs (%d): %s]", request.getLayout(),
+                    request.getChunkIDs().length, ChunkID.chunkIDArrayToString(request.getChunkIDs()));
+
+            SOP_INCOMING.start(request.getChunkIDs().length);
+
+            Map<Long, Integer> visited = new LinkedHashMap<>();
+            Map<Long, Integer> frontier = new HashMap<>();
+
+            traverseLocal(request.getLayout(), request.getChunkIDs(), request.getDepths(), visited, frontier);
+
+            long[] visitedIDs = new long[visited.size()];
+            int[] visitedDepths = new int[visited.size()];
+            long[] frontierIDs = new long[frontier.size()];
+            int[] frontierDepths = new int[frontier.size()];
+            int index = 0;
+
+            for (Map.Entry<Long, Integer> entry : visited.entrySet()) {
+                visitedIDs[index] = entry.getKey();
+                visitedDepths[index] = entry.getValue();
+                index++;
+            }
+
+            index = 0;
+
+            for (Map.Entry<Long, Integer> entry : frontier.entrySet()) {
+                frontierIDs[index] = entry.getKey();
+                frontierDepths[index] = entry.getValue();
+                index++;
+            }
+
+            TraverseResponse response =
+                    new TraverseResponse(request, visitedIDs, visitedDepths, frontierIDs, frontierDepths);
+
+            try {
+                m_network.sendMessage(response);
+            } catch (final NetworkException e) {
+                m_logger.error("Sending TraverseResponse for %d chunks failed: %s", visitedIDs.length, e);
+            }
+
+            SOP_INCOMING.stop();
+        }
+    }
+
+    /**
+     * Traverse starting at chunks stored on the specified peer
+     *
+     * @param p_layout
+     *         Layout of the neighbor IDs in the chunk payloads
+     * @param p_peer
+     *         Peer storing the chunks
+     * @param p_chunkIDs
+     *         IDs of the chunks to start at
+     * @param p_depths
+     *         Remaining number of hops for each start chunk
+     * @param p_visited
+     *         Map to add the visited chunks with their remaining number of hops to
+     * @param p_frontier
+     *         Map to add the neighbors stored on other nodes with their remaining number of hops to
+     * @return True if successful, false if the peer is not reachable
+     */
+    private boolean traversePeer(final TraversalLayout p_layout, final short p_peer, final long[] p_chunkIDs,
+            final int[] p_depths, final Map<Long, Integer> p_visited, final Map<Long, Integer> p_frontier) {
+        if (p_peer == m_boot.getNodeId()) {
+            traverseLocal(p_layout, p_chunkIDs, p_depths, p_visited, p_frontier);
+
+            return true;
+        }
+
+        TraverseRequest request = new TraverseRequest(p_peer, p_layout, p_chunkIDs, p_depths);
+
+        try {
+            m_network.sendSync(request);
+        } catch (final NetworkException e) {
+            m_logger.error("Sending TraverseRequest with %d chunks to 0x%X failed: %s", p_chunkIDs.length, p_peer,
+                    e);
+
+            for (long chunkID : p_chunkIDs) {
+                m_lookup.invalidate(chunkID);
+            }
+
+            return false;
+        }
+
+        TraverseResponse response = (TraverseResponse) request.getResponse();
+
+        for (int i = 0; i < response.getVisitedIDs().length; i++) {
+            p_visited.merge(response.getVisitedIDs()[i], response.getVisitedDepths()[i], Math::max);
+        }
+
+        for (int i = 0; i < response.getFrontierIDs().length; i++) {
+            p_frontier.merge(response.getFrontierIDs()[i], response.getFrontierDepths()[i], Math::max);
+        }
+
+        return true;
+    }
+
+    /**
+     * Traverse all chunks reachable from the specified chunks without leaving the current node
+     *
+     * @param p_layout
+     *         Layout of the neighbor IDs in the chunk payloads
+     * @param p_chunkIDs
+     *         IDs of the chunks to start at
+     * @param p_depths
+     *         Remaining number of hops for each start chunk
+     * @param p_visited
+     *         Map to add the visited chunks with their remaining number of hops to
+     * @param p_frontier
+     *         Map to add the neighbors stored on other nodes with their remaining number of hops to
+     */
+    private void traverseLocal(final TraversalLayout p_layout, final long[] p_chunkIDs, final int[] p_depths,
+            final Map<Long, Integer> p_visited, final Map<Long, Integer> p_frontier) {
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        ArrayDeque<Integer> queueDepths = new ArrayDeque<>();
+
+        for (int i = 0; i < p_chunkIDs.length; i++) {
+            queue.add(p_chunkIDs[i]);
+            queueDepths.add(p_depths[i]);
+        }
+
+        while (!queue.isEmpty()) {
+            long chunkID = queue.poll();
+            int depth = queueDepths.poll();
+
+            if (TraversalRounds.isCovered(p_visited, chunkID, depth)) {
+                continue;
+            }
+
+            ChunkByteArray chunk = m_chunk.getMemory().get().get(chunkID, ChunkLockOperation.NONE, -1);
+
+            if (!chunk.isStateOk()) {
+                continue;
+            }
+
+            p_visited.put(chunkID, depth);
+
+            // depths received with a request are not trusted to be positive
+            if (depth <= 0) {
+                continue;
+            }
+
+            ArrayListLong neighbors = new ArrayListLong();
+            p_layout.readNeighbors(chunk.getData(), neighbors);
+
+            for (int i = 0; i < neighbors.getSize(); i++) {
+                long neighbor = neighbors.get(i);
+
+                if (m_chunk.getMemory().exists().exists(neighbor)) {
+                    queue.add(neighbor);
+                    queueDepths.add(depth - 1);
+                } else {
+                    p_frontier.merge(neighbor, depth - 1, Math::max);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the node currently storing a chunk
+     *
+     * @param p_chunkID
+     *         Chunk ID
+     * @return Node ID of the owner or NodeID.INVALID_ID if the chunk does not exist or is lost
+     */
+    private short getOwner(final long p_chunkID) {
+        if (m_chunk.getMemory().exists().exists(p_chunkID)) {
+            return m_boot.getNodeId();
+        }
+
+        LookupRange location = m_lookup.getLookupRange(p_chunkID);
+
+        while (location.getState() == LookupState.DATA_TEMPORARY_UNAVAILABLE) {
+            try {
+                Thread.sleep(100);
+            } catch (final InterruptedException ignore) {
+            }
+
+            location = m_lookup.getLookupRange(p_chunkID);
+        }
+
+        if (location.getState() == LookupState.OK) {
+            return location.getPrimaryPeer();
+        }
+
+        return NodeID.INVALID_ID;
+    }
+}
@@ -17,6 +17,8 @@
 package de.hhu.bsinfo.dxram.lookup;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import de.hhu.bsinfo.dxmem.data.AbstractChunk;
 import de.hhu.bsinfo.dxmem.data.ChunkID;
@@ -36,10 +38,15 @@ import de.hhu.bsinfo.dxram.event.AbstractEvent;
 import de.hhu.bsinfo.dxram.event.EventComponent;
 import de.hhu.bsinfo.dxram.event.EventListener;
 import de.hhu.bsinfo.dxram.failure.events.NodeFailureEvent;
+import de.hhu.bsinfo.dxram.lookup.events.MigrationCacheUpdateEvent;
 import de.hhu.bsinfo.dxram.lookup.events.NameserviceCacheEntryUpdateEvent;
 import de.hhu.bsinfo.dxram.lookup.overlay.OverlayPeer;
 import de.hhu.bsinfo.dxram.lookup.overlay.OverlaySuperpeer;
+import de.hhu.bsinfo.dxram.lookup.overlay.cache.ApplicationIDCache;
 import de.hhu.bsinfo.dxram.lookup.overlay.cache.CacheTree;
+import de.hhu.bsinfo.dxram.lookup.overlay.cache.MigrationFilter;
+import de.hhu.bsinfo.dxram.lookup.overlay.cache.NegativeLookupCache;
+import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierReduction;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierStatus;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.LookupTree;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.NameserviceEntry;
@@ -50,8 +57,9 @@ import de.hhu.bsinfo.dxram.sync.SynchronizationServiceConfig;
 import de.hhu.bsinfo.dxram.tmp.TemporaryStorageServiceConfig;
 import de.hhu.bsinfo.dxram.util.NodeRole;
 import de.hhu.bsinfo.dxutils.ArrayListLong;
-import de.hhu.bsinfo.dxutils.Cache;
 import de.hhu.bsinfo.dxutils.NodeID;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.stats.ValuePool;
 import de.hhu.bsinfo.dxutils.unit.IPV4Unit;
 
 /**
@@ -61,7 +69,34 @@ import de.hhu.bsinfo.dxutils.unit.IPV4Unit;
  */
 public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfig>
         implements EventListener<AbstractEvent> {
+    // Cursors for listing nameservice entries page by page
+    public static final long NAMESERVICE_CURSOR_START = 0;
+    public static final long NAMESERVICE_CURSOR_END = -1;
+    public static final long NAMESERVICE_CURSOR_ERROR = -2;
+    public static final int NAMESERVICE_MAX_PAGE_SIZE = 4096;
+
     private static final short ORDER = 10;
+    // marks lookup answers which must not be used to track creators in the migration filter
+    private static final long NO_EPOCH = -1;
+
+    private static final ValuePool SOP_CHUNKID_CACHE_HIT = new ValuePool(LookupComponent.class, "ChunkIDCacheHit");
+    private static final ValuePool SOP_CHUNKID_CACHE_MISS = new ValuePool(LookupComponent.class, "ChunkIDCacheMiss");
+    private static final ValuePool SOP_NEGATIVE_CACHE_HIT = new ValuePool(LookupComponent.class, "NegativeCacheHit");
+    private static final ValuePool SOP_MIGRATION_FILTER_HIT =
+            new ValuePool(LookupComponent.class, "MigrationFilterHit");
+    private static final ValuePool SOP_AID_CACHE_HIT = new ValuePool(LookupComponent.class, "AIDCacheHit");
+    private static final ValuePool SOP_AID_CACHE_MISS = new ValuePool(LookupComponent.class, "AIDCacheMiss");
+    private static final ValuePool SOP_CACHE_PUSH_UPDATE = new ValuePool(LookupComponent.class, "CachePushUpdate");
+
+    static {
+        StatisticsManager.get().registerOperation(LookupComponent.class, SOP_CHUNKID_CACHE_HIT);
+        StatisticsManager.get().registerOperation(LookupComponent.class, SOP_CHUNKID_CACHE_MISS);
+        StatisticsManager.get().registerOperation(LookupComponent.class, SOP_NEGATIVE_CACHE_HIT);
+        StatisticsManager.get().registerOperation(LookupComponent.class, SOP_MIGRATION_FILTER_HIT);
+        StatisticsManager.get().registerOperation(LookupComponent.class, SOP_AID_CACHE_HIT);
+        StatisticsManager.get().registerOperation(LookupComponent.class, SOP_AID_CACHE_MISS);
+        StatisticsManager.get().registerOperation(LookupComponent.class, SOP_CACHE_PUSH_UPDATE);
+    }
 
     // component dependencies
     private AbstractBootComponent m_boot;
@@ -74,7 +109,10 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
     private OverlayPeer m_peer;
 
     private CacheTree m_chunkIDCacheTree;
-    private Cache<Integer, Long> m_applicationIDCache;
+    private NegativeLookupCache m_negativeCache;
+    private MigrationFilter m_migrationFilter;
+    private ApplicationIDCache m_applicationIDCache;
+    private Map<Short, Long> m_lastCacheUpdateSequenceNumbers;
 
     /**
      * Creates the lookup component
@@ -100,9 +138,42 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
      * @return List of nameservice entries or null on error.
      */
     public ArrayList<NameserviceEntry> getNameserviceEntries() {
+        ArrayList<NameserviceEntry> entries = new ArrayList<>();
+        long cursor = NAMESERVICE_CURSOR_START;
+
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        while (cursor != NAMESERVICE_CURSOR_END) {
+            cursor = m_peer.getNameserviceEntries(cursor, NAMESERVICE_MAX_PAGE_SIZE, entries);
+
+            if (cursor == NAMESERVICE_CURSOR_ERROR) {
+                return null;
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Get one page of the available nameservice entries. Pages are fetched from one superpeer after another.
+     * Entries inserted while iterating might be missed or returned twice.
+     *
+     * @param p_cursor
+     *         NAMESERVICE_CURSOR_START for the first page or the cursor returned for the previous page
+     * @param p_pageSize
+     *         Maximum number of entries of the page (at most NAMESERVICE_MAX_PAGE_SIZE). Pages might contain
+     *         fewer entries (even none) although there are more entries left.
+     * @param p_entries
+     *         List to add the entries of the page to
+     * @return Cursor for the next page, NAMESERVICE_CURSOR_END if all entries were returned or
+     *         NAMESERVICE_CURSOR_ERROR if a superpeer could not be reached
+     */
+    public long getNameserviceEntries(final long p_cursor, final int p_pageSize,
+            final ArrayList<NameserviceEntry> p_entries) {
         NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
 
-        return m_peer.getNameserviceEntries();
+        return m_peer.getNameserviceEntries(p_cursor, Math.max(1, Math.min(p_pageSize, NAMESERVICE_MAX_PAGE_SIZE)),
+                p_entries);
     }
 
     /**
@@ -140,14 +211,33 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
             // Read from cache
             ret = m_chunkIDCacheTree.getMetadata(p_chunkID);
             if (ret == null) {
+                if (m_negativeCache.contains(p_chunkID)) {
+                    SOP_NEGATIVE_CACHE_HIT.add(1);
+
+                    return new LookupRange(LookupState.DOES_NOT_EXIST);
+                }
+
+                // Never migrated -> stored on creator, no need to ask the superpeer
+                ret = m_migrationFilter.getCreatorRange(p_chunkID);
+                if (ret != null) {
+                    SOP_MIGRATION_FILTER_HIT.add(1);
+                    cacheLookupRange(p_chunkID, ret, NO_EPOCH);
+
+                    return ret;
+                }
+
+                SOP_CHUNKID_CACHE_MISS.add(1);
+
                 // Cache miss -> get LookupRange from superpeer
+                long epoch = getMigrationFilterEpoch();
                 ret = m_peer.getLookupRange(p_chunkID);
 
                 // Add response to cache
-                if (ret != null && ret.getState() == LookupState.OK) {
-                    m_chunkIDCacheTree.cacheRange(((long) ChunkID.getCreatorID(p_chunkID) << 48) + ret.getRange()[0],
-                            ((long) ChunkID.getCreatorID(p_chunkID) << 48) + ret.getRange()[1], ret.getPrimaryPeer());
+                if (ret != null) {
+                    cacheLookupRange(p_chunkID, ret, epoch);
                 }
+            } else {
+                SOP_CHUNKID_CACHE_HIT.add(1);
             }
         } else {
             ret = m_peer.getLookupRange(p_chunkID);
@@ -158,6 +248,39 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
         return ret;
     }
 
+    /**
+     * Get the LookupRange for a ChunkID again after the chunk was not found at its cached location. The cached
+     * location is dropped and the responsible superpeer is asked, never a backup superpeer (which might not know
+     * about the latest migration, yet) or the migration filter.
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     * @return the current location and the range borders
+     */
+    public LookupRange relookupRange(final long p_chunkID) {
+        LookupRange ret;
+
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        LOGGER.trace("Entering relookupRange with: p_chunkID=0x%X", p_chunkID);
+
+        invalidateRange(p_chunkID);
+
+        if (getConfig().isCachesEnabled()) {
+            long epoch = m_migrationFilter.getEpoch();
+            ret = m_peer.getLookupRange(p_chunkID, false);
+            if (ret != null) {
+                cacheLookupRange(p_chunkID, ret, epoch);
+            }
+        } else {
+            ret = m_peer.getLookupRange(p_chunkID, false);
+        }
+
+        LOGGER.trace("Exiting relookupRange");
+
+        return ret;
+    }
+
     /**
      * Remove the ChunkIDs from range after deletion of that chunks
      *
@@ -187,7 +310,7 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
      * @param p_chunkID
      *         the ChunkID
      */
-    public void insertNameserviceEntry(final int p_id, final long p_chunkID) {
+    public void insertNameserviceEntry(final long p_id, final long p_chunkID) {
         NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
 
         // Insert ChunkID <-> ApplicationID mapping
@@ -214,7 +337,7 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
      *         set this to -1 for infinite loop if you know for sure, that the entry has to exist
      * @return the corresponding ChunkID
      */
-    public long getChunkIDForNameserviceEntry(final int p_id, final int p_timeoutMs) {
+    public long getChunkIDForNameserviceEntry(final long p_id, final int p_timeoutMs) {
         long ret;
 
         NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
@@ -225,19 +348,22 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
 
         if (getConfig().isCachesEnabled()) {
             // Read from application cache first
-            final Long chunkID = m_applicationIDCache.get(p_id);
+            ret = m_applicationIDCache.get(p_id);
 
-            if (chunkID == null) {
+            if (ret == ChunkID.INVALID_ID) {
                 // Cache miss -> ask superpeer
+                SOP_AID_CACHE_MISS.add(1);
 
                 LOGGER.trace("Value not cached for application cache: %d", p_id);
 
                 ret = m_peer.getChunkIDForNameserviceEntry(p_id, p_timeoutMs);
 
                 // Cache response
-                m_applicationIDCache.put(p_id, ret);
+                if (ret != ChunkID.INVALID_ID) {
+                    m_applicationIDCache.put(p_id, ret);
+                }
             } else {
-                ret = chunkID;
+                SOP_AID_CACHE_HIT.add(1);
             }
         } else {
             ret = m_peer.getChunkIDForNameserviceEntry(p_id, p_timeoutMs);
@@ -249,7 +375,97 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
     }
 
     /**
-     * Store migration of given ChunkID to a new location
+     * Insert multiple name service entries with one request per responsible superpeer
+     *
+     * @param p_ids
+     *         the AIDs
+     * @param p_chunkIDs
+     *         the ChunkID of every AID
+     */
+    public void insertNameserviceEntries(final long[] p_ids, final long[] p_chunkIDs) {
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        LOGGER.trace("Entering insertIDs with: %d ids", p_ids.length);
+
+        if (getConfig().isCachesEnabled()) {
+            for (int i = 0; i < p_ids.length; i++) {
+                m_applicationIDCache.put(p_ids[i], p_chunkIDs[i]);
+            }
+        }
+
+        m_peer.insertNameserviceEntries(p_ids, p_chunkIDs);
+
+        LOGGER.trace("Exiting insertIDs");
+    }
+
+    /**
+     * Get ChunkIDs for multiple AIDs with one request per responsible superpeer
+     *
+     * @param p_ids
+     *         the AIDs
+     * @param p_timeoutMs
+     *         Timeout for trying to get the entries (if they do not exist, yet).
+     *         set this to -1 for infinite loop if you know for sure, that all entries have to exist
+     * @return the corresponding ChunkIDs (ChunkID.INVALID_ID for every AID that could not be resolved)
+     */
+    public long[] getChunkIDsForNameserviceEntries(final long[] p_ids, final int p_timeoutMs) {
+        long[] ret;
+
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        LOGGER.trace("Entering getChunkIDs with: %d ids", p_ids.length);
+
+        if (getConfig().isCachesEnabled()) {
+            ret = new long[p_ids.length];
+            int misses = 0;
+
+            // Read from application cache first
+            for (int i = 0; i < p_ids.length; i++) {
+                ret[i] = m_applicationIDCache.get(p_ids[i]);
+                if (ret[i] == ChunkID.INVALID_ID) {
+                    misses++;
+                }
+            }
+
+            SOP_AID_CACHE_HIT.add(p_ids.length - misses);
+
+            if (misses > 0) {
+                // Cache misses -> ask superpeers
+                SOP_AID_CACHE_MISS.add(misses);
+
+                long[] missedIDs = new long[misses];
+                int[] missedIndices = new int[misses];
+                int j = 0;
+                for (int i = 0; i < p_ids.length; i++) {
+                    if (ret[i] == ChunkID.INVALID_ID) {
+                        missedIDs[j] = p_ids[i];
+                        missedIndices[j] = i;
+                        j++;
+                    }
+                }
+
+                long[] chunkIDs = m_peer.getChunkIDsForNameserviceEntries(missedIDs, p_timeoutMs);
+
+                // Cache responses
+                for (j = 0; j < misses; j++) {
+                    ret[missedIndices[j]] = chunkIDs[j];
+                    if (chunkIDs[j] != ChunkID.INVALID_ID) {
+                        m_applicationIDCache.put(missedIDs[j], chunkIDs[j]);
+                    }
+                }
+            }
+        } else {
+            ret = m_peer.getChunkIDsForNameserviceEntries(p_ids, p_timeoutMs);
+        }
+
+        LOGGER.trace("Exiting getChunkIDs");
+
+        return ret;
+    }
+
+    /**
+     * Store migration of given ChunkID to a new location. The new location is cached to redirect requests for the
+     * chunk which still arrive at this peer
      *
      * @param p_chunkID
      *         the ChunkID
@@ -267,12 +483,17 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
 
         m_peer.migrate(p_chunkID, p_nodeID);
 
+        if (getConfig().isCachesEnabled()) {
+            m_chunkIDCacheTree.cacheRange(p_chunkID, p_chunkID, p_nodeID);
+        }
+
         LOGGER.trace("Exiting migrate");
 
     }
 
     /**
-     * Store migration of a range of ChunkIDs to a new location
+     * Store migration of a range of ChunkIDs to a new location. The new location is cached to redirect requests for
+     * the chunks which still arrive at this peer
      *
      * @param p_startCID
      *         the first ChunkID
@@ -293,6 +514,10 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
 
         m_peer.migrateRange(p_startCID, p_endCID, p_nodeID);
 
+        if (getConfig().isCachesEnabled()) {
+            m_chunkIDCacheTree.cacheRange(p_startCID, p_endCID, p_nodeID);
+        }
+
         LOGGER.trace("Exiting migrateRange");
 
     }
@@ -361,6 +586,7 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
             for (long chunkID : p_chunkIDs) {
                 assert chunkID != ChunkID.INVALID_ID;
                 m_chunkIDCacheTree.invalidateChunkID(chunkID);
+                m_negativeCache.invalidate(chunkID);
             }
         }
     }
@@ -376,6 +602,7 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
             for (int i = 0; i < p_chunkIDs.getSize(); i++) {
                 assert p_chunkIDs.get(i) != ChunkID.INVALID_ID;
                 m_chunkIDCacheTree.invalidateChunkID(p_chunkIDs.get(i));
+                m_negativeCache.invalidate(p_chunkIDs.get(i));
             }
         }
     }
@@ -390,6 +617,9 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
         if (getConfig().isCachesEnabled()) {
             assert p_chunkID != ChunkID.INVALID_ID;
             m_chunkIDCacheTree.invalidateRange(p_chunkID);
+            m_negativeCache.invalidate(p_chunkID);
+            // the access failed, the creator's migrations might not be up to date
+            m_migrationFilter.invalidate(ChunkID.getCreatorID(p_chunkID));
         }
     }
 
@@ -450,7 +680,7 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
     public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData, final boolean p_waitForRelease) {
         NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
 
-        return m_peer.barrierSignOn(p_barrierId, p_customData, p_waitForRelease);
+        return m_peer.barrierSignOn(p_barrierId, p_customData, p_waitForRelease, BarrierReduction.NONE);
     }
 
     /**
@@ -466,7 +696,49 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
     public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData) {
         NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
 
-        return m_peer.barrierSignOn(p_barrierId, p_customData, true);
+        return m_peer.barrierSignOn(p_barrierId, p_customData, true, BarrierReduction.NONE);
+    }
+
+    /**
+     * Sign on to a barrier with a reduction of the custom data of all peers and wait for it getting released.
+     *
+     * @param p_barrierId
+     *         Id of the barrier to sign on to.
+     * @param p_customData
+     *         Custom data to pass along with the sign on
+     * @param p_reduction
+     *         Reduction to apply to the custom data (must be the same for all peers)
+     * @return BarrierStatus with the reduced custom data, null on error
+     */
+    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData,
+            final BarrierReduction p_reduction) {
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        return m_peer.barrierSignOn(p_barrierId, p_customData, true, p_reduction);
+    }
+
+    /**
+     * Sign on to a barrier using a combining tree over all participants and wait for it getting released.
+     *
+     * @param p_barrierId
+     *         Id of the barrier to sign on to.
+     * @param p_customData
+     *         Custom data to pass along with the sign on
+     * @param p_participants
+     *         Node ids of all peers signing on to the barrier (including this one)
+     * @param p_fanOut
+     *         Max number of children of a peer in the tree
+     * @param p_reduction
+     *         Reduction to apply to the custom data (must be the same for all peers), NONE for no reduction
+     * @param p_timeoutMs
+     *         Max time to wait for the sign ons of the children and for the release (each) in ms
+     * @return BarrierStatus of all participants, null on error or timeout
+     */
+    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData, final short[] p_participants,
+            final int p_fanOut, final BarrierReduction p_reduction, final long p_timeoutMs) {
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        return m_peer.barrierSignOn(p_barrierId, p_customData, p_participants, p_fanOut, p_reduction, p_timeoutMs);
     }
 
     /**
@@ -668,6 +940,8 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
             if (event.getRole() == NodeRole.PEER) {
                 if (getConfig().isCachesEnabled()) {
                     m_chunkIDCacheTree.invalidatePeer(event.getNodeID());
+                    // chunks of the failed peer are recovered on other peers
+                    m_migrationFilter.invalidate(event.getNodeID());
                 }
             }
 
@@ -675,8 +949,41 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
 
             NameserviceCacheEntryUpdateEvent event = (NameserviceCacheEntryUpdateEvent) p_event;
             // update if available to avoid caching all entries
-            if (m_applicationIDCache.contains(event.getId())) {
-                m_applicationIDCache.put(event.getId(), event.getChunkID());
+            if (getConfig().isCachesEnabled()) {
+                m_applicationIDCache.updateAll(event.getIds(), event.getChunkIDs());
+            }
+        } else if (p_event instanceof MigrationCacheUpdateEvent) {
+
+            MigrationCacheUpdateEvent event = (MigrationCacheUpdateEvent) p_event;
+            if (getConfig().isCachesEnabled()) {
+                long[] ranges = event.getChunkIDRanges();
+                short[] owners = event.getOwners();
+
+                // Events are fired asynchronously and might overtake each other
+                synchronized (m_lastCacheUpdateSequenceNumbers) {
+                    Long last = m_lastCacheUpdateSequenceNumbers.get(event.getSuperpeer());
+                    boolean inOrder = last == null || event.getSequenceNumber() > last;
+                    if (inOrder) {
+                        m_lastCacheUpdateSequenceNumbers.put(event.getSuperpeer(), event.getSequenceNumber());
+                    }
+
+                    for (int i = 0; i < owners.length; i++) {
+                        // update the migration filter first to change its epoch before the CacheTree is
+                        // changed, concurrent inserts of outdated lookup results check it afterwards
+                        if (inOrder && owners[i] != NodeID.INVALID_ID) {
+                            m_migrationFilter.update(ranges[i * 2], ranges[i * 2 + 1], owners[i]);
+                            // update cached ranges in place only, the chunks exist for sure
+                            if (m_chunkIDCacheTree.updateRange(ranges[i * 2], ranges[i * 2 + 1], owners[i])) {
+                                SOP_CACHE_PUSH_UPDATE.add(1);
+                            }
+                        } else {
+                            // a newer update might have been applied already -> the owner is unknown
+                            m_migrationFilter.invalidate(ChunkID.getCreatorID(ranges[i * 2]));
+                            m_chunkIDCacheTree.invalidateRange(ranges[i * 2], ranges[i * 2 + 1]);
+                        }
+                        m_negativeCache.invalidateRange(ranges[i * 2], ranges[i * 2 + 1]);
+                    }
+                }
             }
         }
     }
@@ -725,9 +1032,16 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
                     getConfig().getMaxCacheEntries());
 
             // TODO: Check cache! If number of entries is smaller than number of entries in nameservice, bg won't terminate.
-            m_applicationIDCache = new Cache<>(
-                    p_config.getComponentConfig(NameserviceComponentConfig.class).getNameserviceCacheEntries());
-            // m_aidCache.enableTTL();
+            m_negativeCache = new NegativeLookupCache(getConfig().getNegativeCacheEntries(),
+                    getConfig().getNegativeCacheTtl().getMs());
+
+            m_migrationFilter = new MigrationFilter(getConfig().getMigrationFilterMaxRanges(),
+                    getConfig().getMigrationFilterTtl().getMs());
+            m_lastCacheUpdateSequenceNumbers = new HashMap<>();
+
+            m_applicationIDCache = new ApplicationIDCache(
+                    p_config.getComponentConfig(NameserviceComponentConfig.class).getNameserviceCacheEntries(),
+                    getConfig().getCacheTtl().getMs());
 
             m_event.registerListener(this, NodeFailureEvent.class);
         }
@@ -736,15 +1050,20 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
             m_superpeer = new OverlaySuperpeer(m_boot.getNodeId(), m_boot.getBootstrapId(),
                     m_boot.getNumberOfAvailableSuperpeers(),
                     (int) getConfig().getStabilizationBreakTime().getMs(),
+                    (int) getConfig().getStabilizationMaxBreakTime().getMs(),
                     p_config.getServiceConfig(SynchronizationServiceConfig.class).getMaxBarriersPerSuperpeer(),
                     p_config.getServiceConfig(TemporaryStorageServiceConfig.class).getStorageMaxNumEntries(),
                     (int) p_config.getServiceConfig(TemporaryStorageServiceConfig.class).getStorageMaxSize().getBytes(),
-                    p_config.getComponentConfig(BackupComponentConfig.class).isBackupActive(), m_boot, m_network,
-                    m_event);
+                    p_config.getComponentConfig(BackupComponentConfig.class).isBackupActive(),
+                    getConfig().getSuperpeerLookupThreads(), getConfig().getSuperpeerMetadataThreads(),
+                    getConfig().getSuperpeerNotificationThreads(), getConfig().getSuperpeerQueueCapacity(),
+                    getConfig().getSuperpeerQueueTimeout().getMs(), m_boot, m_network, m_event);
         } else {
             m_peer = new OverlayPeer(m_boot.getNodeId(), m_boot.getBootstrapId(),
-                    m_boot.getNumberOfAvailableSuperpeers(), m_boot, m_network, m_event);
+                    m_boot.getNumberOfAvailableSuperpeers(), getConfig().isBackupSuperpeerLookups(), m_boot,
+                    m_network, m_event);
             m_event.registerListener(this, NameserviceCacheEntryUpdateEvent.class);
+            m_event.registerListener(this, MigrationCacheUpdateEvent.class);
         }
 
         return true;
@@ -761,6 +1080,14 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
                 m_chunkIDCacheTree.close();
                 m_chunkIDCacheTree = null;
             }
+            if (m_negativeCache != null) {
+                m_negativeCache.clear();
+                m_negativeCache = null;
+            }
+            if (m_migrationFilter != null) {
+                m_migrationFilter.clear();
+                m_migrationFilter = null;
+            }
             if (m_applicationIDCache != null) {
                 m_applicationIDCache.clear();
                 m_applicationIDCache = null;
@@ -798,18 +1125,35 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
             // Read from cache
             ret = m_chunkIDCacheTree.getPrimaryPeer(p_chunkID);
             if (ret == NodeID.INVALID_ID) {
+                if (m_negativeCache.contains(p_chunkID)) {
+                    SOP_NEGATIVE_CACHE_HIT.add(1);
+
+                    return NodeID.INVALID_ID;
+                }
+
+                // Never migrated -> stored on creator, no need to ask the superpeer
+                lookupRange = m_migrationFilter.getCreatorRange(p_chunkID);
+                if (lookupRange != null) {
+                    SOP_MIGRATION_FILTER_HIT.add(1);
+                    cacheLookupRange(p_chunkID, lookupRange, NO_EPOCH);
+
+                    return lookupRange.getPrimaryPeer();
+                }
+
+                SOP_CHUNKID_CACHE_MISS.add(1);
+
                 // Cache miss -> get LookupRange from superpeer
+                long epoch = getMigrationFilterEpoch();
                 lookupRange = m_peer.getLookupRange(p_chunkID);
 
                 // Add response to cache
                 if (lookupRange != null) {
-                    m_chunkIDCacheTree.cacheRange(((long) ChunkID.getCreatorID(p_chunkID) << 48) +
-                                    lookupRange.getRange()[0],
-                            ((long) ChunkID.getCreatorID(p_chunkID) << 48) + lookupRange.getRange()[1],
-                            lookupRange.getPrimaryPeer());
+                    cacheLookupRange(p_chunkID, lookupRange, epoch);
 
                     ret = lookupRange.getPrimaryPeer();
                 }
+            } else {
+                SOP_CHUNKID_CACHE_HIT.add(1);
             }
         } else {
             lookupRange = m_peer.getLookupRange(p_chunkID);
@@ -823,6 +1167,40 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
         return ret;
     }
 
+    /**
+     * Get the primary peer of a chunk from the local cache only, i.e. without asking a superpeer
+     *
+     * @param p_chunkID
+     *         ChunkID
+     * @return the cached primary peer or NodeID.INVALID_ID if the location is not cached
+     */
+    public short getCachedPrimaryPeer(final long p_chunkID) {
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        if (!getConfig().isCachesEnabled()) {
+            return NodeID.INVALID_ID;
+        }
+
+        return m_chunkIDCacheTree.getPrimaryPeer(p_chunkID);
+    }
+
+    /**
+     * Caches the location of a single chunk learned from another peer (e.g. a redirect of a chunk operation)
+     *
+     * @param p_chunkID
+     *         ChunkID
+     * @param p_nodeID
+     *         the peer storing the chunk
+     */
+    public void cacheChunkLocation(final long p_chunkID, final short p_nodeID) {
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        if (getConfig().isCachesEnabled()) {
+            m_chunkIDCacheTree.cacheRange(p_chunkID, p_chunkID, p_nodeID);
+            m_negativeCache.invalidateRange(p_chunkID, p_chunkID);
+        }
+    }
+
     // --------------------------------------------------------------------------------
 
     /**
@@ -838,15 +1216,74 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
         return m_peer.getResponsibleSuperpeer(p_nodeID);
     }
 
+    /**
+     * Caches all ranges of a creator's LookupTree at once, e.g. to avoid many cold misses for an application
+     * accessing all chunks of that creator. Cached ranges are replaced, i.e. this can be used to refresh them.
+     *
+     * @param p_creator
+     *         the creator
+     * @param p_lookupTree
+     *         the LookupTree of the creator from its responsible superpeer
+     * @param p_epoch
+     *         the lookup cache's epoch before the LookupTree was requested (see getLookupCacheEpoch)
+     * @return the number of cached ranges (0 if a migration was pushed meanwhile and the LookupTree is outdated)
+     */
+    public int cacheLookupTree(final short p_creator, final LookupTree p_lookupTree, final long p_epoch) {
+        int ret = 0;
+        long startCID;
+        long endCID;
+
+        NodeRole.assertNodeRole(NodeRole.PEER, m_boot.getNodeRole());
+
+        if (getConfig().isCachesEnabled()) {
+            ArrayList<LookupRange> ranges = p_lookupTree.getRanges();
+
+            if (!m_migrationFilter.put(p_creator, ranges, p_epoch) && m_migrationFilter.getEpoch() != p_epoch) {
+                return 0;
+            }
+
+            for (LookupRange range : ranges) {
+                startCID = ((long) p_creator << 48) + range.getRange()[0];
+                endCID = ((long) p_creator << 48) + range.getRange()[1];
+
+                m_chunkIDCacheTree.cacheRange(startCID, endCID, range.getPrimaryPeer());
+                m_negativeCache.invalidateRange(startCID, endCID);
+                ret++;
+            }
+
+            // A push might have been overwritten by an outdated range -> check again after inserting
+            if (m_migrationFilter.getEpoch() != p_epoch) {
+                m_migrationFilter.invalidate(p_creator);
+                m_chunkIDCacheTree.invalidateRange((long) p_creator << 48,
+                        ((long) p_creator << 48) + ChunkID.MAX_LOCALID);
+                ret = 0;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the lookup cache's epoch to pass to cacheLookupTree. Must be read before requesting the LookupTree.
+     * The epoch changes with every pushed migration.
+     *
+     * @return the epoch
+     */
+    long getLookupCacheEpoch() {
+        return getConfig().isCachesEnabled() ? m_migrationFilter.getEpoch() : NO_EPOCH;
+    }
+
     /**
      * Get Lookup Tree from Superpeer
      *
      * @param p_nodeID
      *         the NodeID
+     * @param p_requester
+     *         the peer requesting the LookupTree to cache it
      * @return LookupTree from SuperPeerOverlay
      * @note This method must be called by a superpeer
      */
-    LookupTree superPeerGetLookUpTree(final short p_nodeID) {
+    LookupTree superPeerGetLookUpTree(final short p_nodeID, final short p_requester) {
         LookupTree ret;
 
         NodeRole.assertNodeRole(NodeRole.SUPERPEER, m_boot.getNodeRole());
@@ -854,11 +1291,56 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
         LOGGER.trace("Entering getSuperPeerLookUpTree with: p_nodeID=0x%X", p_nodeID);
 
         ret = m_superpeer.getLookupTree(p_nodeID);
+        if (ret != null) {
+            m_superpeer.registerCachingPeer(p_nodeID, p_requester);
+        }
 
         LOGGER.trace("Exiting getSuperPeerLookUpTree");
         return ret;
     }
 
+    /**
+     * Caches the LookupRange the superpeer returned for given ChunkID. Existing ranges are cached in the CacheTree
+     * (which also drops stale negative entries of that range), non-existing ChunkIDs in the negative cache.
+     *
+     * @param p_chunkID
+     *         the requested ChunkID
+     * @param p_lookupRange
+     *         the superpeer's response
+     * @param p_epoch
+     *         the migration filter's epoch before the responsible superpeer was asked or NO_EPOCH if the response
+     *         might be from a backup superpeer or the migration filter itself
+     */
+    private void cacheLookupRange(final long p_chunkID, final LookupRange p_lookupRange, final long p_epoch) {
+        long startCID;
+        long endCID;
+
+        if (p_lookupRange.getState() == LookupState.OK) {
+            startCID = ((long) ChunkID.getCreatorID(p_chunkID) << 48) + p_lookupRange.getRange()[0];
+            endCID = ((long) ChunkID.getCreatorID(p_chunkID) << 48) + p_lookupRange.getRange()[1];
+
+            m_chunkIDCacheTree.cacheRange(startCID, endCID, p_lookupRange.getPrimaryPeer());
+            m_negativeCache.invalidateRange(startCID, endCID);
+
+            if (p_epoch != NO_EPOCH && p_lookupRange.getPrimaryPeer() == ChunkID.getCreatorID(p_chunkID) &&
+                    p_lookupRange.getRange()[0] == 0 && p_lookupRange.getRange()[1] >= ChunkID.MAX_LOCALID) {
+                // the creator's LookupTree is empty -> nothing was migrated (unless a push arrived meanwhile)
+                m_migrationFilter.putNeverMigrated(ChunkID.getCreatorID(p_chunkID), p_epoch);
+            }
+        } else if (p_lookupRange.getState() == LookupState.DOES_NOT_EXIST) {
+            m_negativeCache.put(p_chunkID);
+        }
+    }
+
+    /**
+     * Returns the migration filter's epoch to track creators with the answer of the next superpeer lookup
+     *
+     * @return the epoch or NO_EPOCH if backup superpeers might answer (they might not know about all migrations)
+     */
+    private long getMigrationFilterEpoch() {
+        return getConfig().isBackupSuperpeerLookups() ? NO_EPOCH : m_migrationFilter.getEpoch();
+    }
+
     /**
      * Invalidates the cache entry for given ChunkID range
      *
@@ -880,8 +1362,9 @@ public class LookupComponent extends AbstractDXRAMComponent<LookupComponentConfi
     @SuppressWarnings("unused")
     private void clear() {
         if (getConfig().isCachesEnabled()) {
-            m_chunkIDCacheTree = new CacheTree(ORDER, getConfig().getCacheTtl().getMs(),
-                    getConfig().getMaxCacheEntries());
+            m_chunkIDCacheTree.clear();
+            m_negativeCache.clear();
+            m_migrationFilter.clear();
             m_applicationIDCache.clear();
         }
     }
@@ -27,35 +27,152 @@ public class LookupComponentConfig extends DXRAMComponentConfig {
     private boolean m_cachesEnabled = true;
 
     /**
-     * Maximum number of entries in cache tree. Currently unused!
+     * Maximum number of entries in cache tree. Least recently used ranges are evicted if exceeded.
      */
     @Expose
     private long m_maxCacheEntries = 1000L;
 
     /**
-     * Time to live for btree nodes in cache tree.
+     * Time to live for btree nodes in cache tree and for cached nameservice entries.
      */
     @Expose
     private TimeUnit m_cacheTtl = new TimeUnit(1, TimeUnit.SEC);
 
     /**
-     * The break time between superpeer stabilization routines (such as pinging all peers and check neighbors).
+     * Maximum number of ChunkIDs cached as non-existent.
+     */
+    @Expose
+    private int m_negativeCacheEntries = 4096;
+
+    /**
+     * Time to live for ChunkIDs cached as non-existent. Keep this short as remote chunks might be created meanwhile.
+     */
+    @Expose
+    private TimeUnit m_negativeCacheTtl = new TimeUnit(100, TimeUnit.MS);
+
+    /**
+     * Maximum number of migrated ranges tracked per creator to route never-migrated chunks directly to the creator.
+     * Creators with more migrated ranges are looked up on the superpeers.
+     */
+    @Expose
+    private int m_migrationFilterMaxRanges = 1024;
+
+    /**
+     * Time to live for creators tracked by the migration filter. Pushed migrations might get lost, expiring creators
+     * bounds the time chunks are routed to a stale owner.
+     */
+    @Expose
+    private TimeUnit m_migrationFilterTtl = new TimeUnit(10, TimeUnit.SEC);
+
+    /**
+     * Spread lookups across the responsible superpeer and its backup superpeers. Backups are updated asynchronously:
+     * if a chunk is not found at the location a backup returned, the responsible superpeer is asked again.
+     */
+    @Expose
+    private boolean m_backupSuperpeerLookups = false;
+
+    /**
+     * The break time between pinging all peers. Also the break time between superpeer stabilization routines (such
+     * as checking neighbors) after joins, failures and overlay changes.
      */
     @Expose
     private TimeUnit m_stabilizationBreakTime = new TimeUnit(1, TimeUnit.SEC);
 
+    /**
+     * The max break time between superpeer stabilization routines. The break time is doubled up to this value while
+     * the overlay does not change. Peers are still pinged every m_stabilizationBreakTime.
+     */
+    @Expose
+    private TimeUnit m_stabilizationMaxBreakTime = new TimeUnit(8, TimeUnit.SEC);
+
+    /**
+     * Number of threads processing lookup requests on a superpeer.
+     */
+    @Expose
+    private int m_superpeerLookupThreads = 2;
+
+    /**
+     * Number of threads processing metadata updates on a superpeer. All updates of one node are processed by the
+     * same thread, in order.
+     */
+    @Expose
+    private int m_superpeerMetadataThreads = 1;
+
+    /**
+     * Number of threads sending notifications to peers and backup superpeers.
+     */
+    @Expose
+    private int m_superpeerNotificationThreads = 2;
+
+    /**
+     * Max number of queued messages per message class (and per thread for metadata updates) on a superpeer. If
+     * exceeded, the network's message handler waits for a free slot which throttles the intake of new messages.
+     */
+    @Expose
+    private int m_superpeerQueueCapacity = 1024;
+
+    /**
+     * Time the network's message handler waits for a free queue slot on a superpeer. Afterwards, lookups are processed
+     * by the message handler itself. Metadata updates and notifications are never dropped, the message handler keeps
+     * waiting to preserve their order.
+     */
+    @Expose
+    private TimeUnit m_superpeerQueueTimeout = new TimeUnit(100, TimeUnit.MS);
+
     @Override
     protected boolean verify(final DXRAMContext.Config p_config) {
         if (m_cacheTtl.getMs() < 1000L) {
             LOGGER.warn("A high effort is needed to satisfy TTL!");
         }
 
+        if (m_negativeCacheEntries < 1) {
+            LOGGER.error("Invalid value (%d) for m_negativeCacheEntries", m_negativeCacheEntries);
+            return false;
+        }
+
+        if (m_migrationFilterMaxRanges < 0) {
+            LOGGER.error("Invalid value (%d) for m_migrationFilterMaxRanges", m_migrationFilterMaxRanges);
+            return false;
+        }
+
+        if (m_superpeerLookupThreads < 1) {
+            LOGGER.error("Invalid value (%d) for m_superpeerLookupThreads", m_superpeerLookupThreads);
+            return false;
+        }
+
+        if (m_superpeerMetadataThreads < 1) {
+            LOGGER.error("Invalid value (%d) for m_superpeerMetadataThreads", m_superpeerMetadataThreads);
+            return false;
+        }
+
+        if (m_superpeerNotificationThreads < 1) {
+            LOGGER.error("Invalid value (%d) for m_superpeerNotificationThreads", m_superpeerNotificationThreads);
+            return false;
+        }
+
+        if (m_superpeerQueueCapacity < 1) {
+            LOGGER.error("Invalid value (%d) for m_superpeerQueueCapacity", m_superpeerQueueCapacity);
+            return false;
+        }
+
         if (m_stabilizationBreakTime.getMs() < 100L) {
             LOGGER.warn("Low break time might cause high CPU load!");
         } else if (m_stabilizationBreakTime.getMs() > 1000L) {
             LOGGER.warn("Failure detection might be impeded by high break time!");
         }
 
+        // only superpeers back off, peers are pinged every m_stabilizationBreakTime regardless
+        if (m_stabilizationMaxBreakTime.getMs() > 30000L) {
+            LOGGER.warn("Superpeers might check their neighbors only every %d ms, detecting failed neighbor " +
+                    "superpeers might be delayed accordingly", m_stabilizationMaxBreakTime.getMs());
+        }
+
+        if (m_stabilizationMaxBreakTime.getMs() < m_stabilizationBreakTime.getMs()) {
+            LOGGER.error("Max stabilization break time (%d ms) must not be smaller than the break time (%d ms)",
+                    m_stabilizationMaxBreakTime.getMs(), m_stabilizationBreakTime.getMs());
+            return false;
+        }
+
         return true;
     }
 }
@@ -17,6 +17,7 @@
 package de.hhu.bsinfo.dxram.lookup;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import de.hhu.bsinfo.dxnet.MessageReceiver;
 import de.hhu.bsinfo.dxnet.core.Message;
@@ -33,6 +34,7 @@ import de.hhu.bsinfo.dxram.lookup.messages.GetMetadataSummaryResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.LookupMessages;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.LookupTree;
 import de.hhu.bsinfo.dxram.net.NetworkComponent;
+import de.hhu.bsinfo.dxram.util.NodeRole;
 
 /**
  * Look up service providing look ups for e.g. use in TCMDs
@@ -141,6 +143,54 @@ public class LookupService extends AbstractDXRAMService<LookupServiceConfig> imp
         return retTree;
     }
 
+    /**
+     * Prefetches the lookup trees of the given creators into the local lookup cache to avoid a cold miss per range
+     * on first access. Calling this again refreshes the cached ranges.
+     *
+     * @param p_creators
+     *         the creators to prefetch the lookup trees of
+     * @return the number of cached ranges or -1 if at least one lookup tree could not be fetched
+     */
+    public int warmUpLookupCache(final short... p_creators) {
+        int ret = 0;
+        long epoch;
+        LookupTree tree;
+
+        for (short creator : p_creators) {
+            // read before requesting the tree to detect migrations pushed while the tree is on its way
+            epoch = m_lookup.getLookupCacheEpoch();
+            tree = getLookupTreeFromSuperpeer(m_lookup.getResponsibleSuperpeer(creator), creator);
+            if (tree == null) {
+                LOGGER.warn("Could not fetch lookup tree of 0x%X for cache warm-up", creator);
+                ret = -1;
+                continue;
+            }
+
+            int ranges = m_lookup.cacheLookupTree(creator, tree, epoch);
+            if (ret != -1) {
+                ret += ranges;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Prefetches the lookup trees of all online peers into the local lookup cache
+     *
+     * @return the number of cached ranges or -1 if at least one lookup tree could not be fetched
+     */
+    public int warmUpLookupCache() {
+        List<Short> peers = m_boot.getOnlinePeerIds();
+        short[] creators = new short[peers.size()];
+
+        for (int i = 0; i < creators.length; i++) {
+            creators[i] = peers.get(i);
+        }
+
+        return warmUpLookupCache(creators);
+    }
+
     /**
      * Sends a request to given superpeer to get a metadata summary
      *
@@ -189,6 +239,18 @@ public class LookupService extends AbstractDXRAMService<LookupServiceConfig> imp
         registerNetworkMessages();
         registerNetworkMessageListener();
 
+        if (getConfig().isWarmUpLookupCacheOnStartup() && m_boot.getNodeRole() == NodeRole.PEER) {
+            // Don't delay the startup, the cache is filled in the background
+            Thread warmUp = new Thread(() -> {
+                int ranges = warmUpLookupCache();
+
+                LOGGER.info("Lookup cache warm-up finished, cached ranges: %d", ranges);
+            });
+            warmUp.setName("LookupCacheWarmUp");
+            warmUp.setDaemon(true);
+            warmUp.start();
+        }
+
         return true;
     }
 
@@ -207,7 +269,7 @@ public class LookupService extends AbstractDXRAMService<LookupServiceConfig> imp
      *         the LookupTreeRequest
      */
     private void incomingRequestLookupTreeOnServerMessage(final GetLookupTreeRequest p_message) {
-        LookupTree tree = m_lookup.superPeerGetLookUpTree(p_message.getTreeNodeID());
+        LookupTree tree = m_lookup.superPeerGetLookUpTree(p_message.getTreeNodeID(), p_message.getSource());
 
         try {
             m_network.sendMessage(new GetLookupTreeResponse(p_message, tree));
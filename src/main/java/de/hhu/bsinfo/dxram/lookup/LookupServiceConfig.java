@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
 
+import com.google.gson.annotations.Expose;
+
 import de.hhu.bsinfo.dxram.engine.DXRAMServiceConfig;
 
 /**
@@ -16,5 +18,10 @@ import de.hhu.bsinfo.dxram.engine.DXRAMServiceConfig;
 @EqualsAndHashCode(callSuper = false)
 @DXRAMServiceConfig.Settings(service = LookupService.class, supportsSuperpeer = true, supportsPeer = true)
 public class LookupServiceConfig extends DXRAMServiceConfig {
-
+    /**
+     * Prefetch the lookup trees of all online peers into the lookup cache on startup (peers only). Use a cache TTL
+     * long enough to keep the prefetched ranges.
+     */
+    @Expose
+    private boolean m_warmUpLookupCacheOnStartup = false;
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.gson.annotations.Expose;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.hhu.bsinfo.dxram.lookup.overlay.cache.CacheTree;
+import de.hhu.bsinfo.dxram.ms.Signal;
+import de.hhu.bsinfo.dxram.ms.Task;
+import de.hhu.bsinfo.dxram.ms.TaskContext;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+
+/**
+ * Task to benchmark the ChunkID cache (CacheTree) with a mixed load of lookups and invalidations. Every run is
+ * executed twice: once with the optimistic (StampedLock) reads of the CacheTree and once with all operations
+ * serialized by a ReentrantReadWriteLock like the CacheTree did before (readers share the lock, writers are
+ * exclusive). The thread count is doubled from one thread up to the maximum number of threads.
+ */
+public class CacheTreeTask implements Task {
+    private static final Logger LOGGER = LogManager.getFormatterLogger(CacheTreeTask.class.getSimpleName());
+
+    private static final short ORDER = 10;
+    private static final short OWNER = 0x1234;
+    private static final short OTHER_OWNER = 0x4321;
+    private static final long RANGE_GAP = 10;
+    // entries are not evicted while benchmarking
+    private static final long TTL = 60 * 60 * 1000;
+
+    @Expose
+    private int m_maxThreads = 16;
+
+    @Expose
+    private int m_numRanges = 100000;
+
+    @Expose
+    private int m_rangeSize = 100;
+
+    @Expose
+    private long m_opCount = 10000000;
+
+    @Expose
+    private int m_invalidatePercent = 10;
+
+    @Override
+    public int execute(final TaskContext p_ctx) {
+        if (m_maxThreads < 1 || m_numRanges < 1 || m_rangeSize < 1 || m_opCount < 1 || m_invalidatePercent < 0 ||
+                m_invalidatePercent > 100) {
+
+            LOGGER.error("Invalid parameters");
+
+            return -1;
+        }
+
+        System.out.printf("Benchmarking CacheTree with %d ranges, %d operations per run and %d%% invalidations...\n",
+                m_numRanges, m_opCount, m_invalidatePercent);
+
+        // warm up (JIT) with both variants before measuring
+        if (run(1, false) < 0 || run(1, true) < 0) {
+            return -1;
+        }
+
+        for (int threads = 1; threads <= m_maxThreads; threads *= 2) {
+            double optimistic = run(threads, false);
+            double locked = run(threads, true);
+
+            if (optimistic < 0 || locked < 0) {
+                return -1;
+            }
+
+            System.out.printf("Threads %d: StampedLock %f ops/sec, ReentrantReadWriteLock %f ops/sec (%f x)\n",
+                    threads, optimistic, locked, optimistic / locked);
+        }
+
+        return 0;
+    }
+
+    @Override
+    public void handleSignal(final Signal p_signal) {
+
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        p_exporter.writeInt(m_maxThreads);
+        p_exporter.writeInt(m_numRanges);
+        p_exporter.writeInt(m_rangeSize);
+        p_exporter.writeLong(m_opCount);
+        p_exporter.writeInt(m_invalidatePercent);
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        m_maxThreads = p_importer.readInt(m_maxThreads);
+        m_numRanges = p_importer.readInt(m_numRanges);
+        m_rangeSize = p_importer.readInt(m_rangeSize);
+        m_opCount = p_importer.readLong(m_opCount);
+        m_invalidatePercent = p_importer.readInt(m_invalidatePercent);
+    }
+
+    @Override
+    public int sizeofObject() {
+        return Integer.BYTES * 4 + Long.BYTES;
+    }
+
+    /**
+     * Runs the mixed load on a new CacheTree
+     *
+     * @param p_numThreads
+     *         number of threads to run the operations with
+     * @param p_locked
+     *         whether to serialize all operations with a ReentrantReadWriteLock
+     * @return throughput in operations per second, -1 on failure
+     */
+    private double run(final int p_numThreads, final boolean p_locked) {
+        CacheTree tree = new CacheTree(ORDER, TTL, Long.MAX_VALUE);
+        ReadWriteLock lock = p_locked ? new ReentrantReadWriteLock() : null;
+        long base = (long) OWNER << 48;
+
+        for (int i = 0; i < m_numRanges; i++) {
+            long start = getRangeStart(base, i);
+            tree.cacheRange(start, start + m_rangeSize - 1, i % 2 == 0 ? OWNER : OTHER_OWNER);
+        }
+
+        Thread[] threads = new Thread[p_numThreads];
+        long opsPerThread = m_opCount / p_numThreads;
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                for (long j = 0; j < opsPerThread; j++) {
+                    int range = random.nextInt(m_numRanges);
+                    long start = getRangeStart(base, range);
+
+                    if (random.nextInt(100) < m_invalidatePercent) {
+                        // invalidate the range and cache it again (like after a failed lookup)
+                        if (lock != null) {
+                            lock.writeLock().lock();
+                        }
+
+                        tree.invalidateRange(start, start + m_rangeSize - 1);
+                        tree.cacheRange(start, start + m_rangeSize - 1, range % 2 == 0 ? OWNER : OTHER_OWNER);
+
+                        if (lock != null) {
+                            lock.writeLock().unlock();
+                        }
+                    } else {
+                        if (lock != null) {
+                            lock.readLock().lock();
+                        }
+
+                        tree.getPrimaryPeer(start + random.nextInt(m_rangeSize));
+
+                        if (lock != null) {
+                            lock.readLock().unlock();
+                        }
+                    }
+                }
+            });
+        }
+
+        long timeStart = System.nanoTime();
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        boolean threadJoinFailed = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                LOGGER.error("Joining thread failed", e);
+                threadJoinFailed = true;
+            }
+        }
+
+        long totalTime = System.nanoTime() - timeStart;
+        tree.close();
+
+        if (threadJoinFailed) {
+            return -1;
+        }
+
+        return 1000.0 * 1000.0 * 1000.0 / ((double) totalTime / (opsPerThread * p_numThreads));
+    }
+
+    /**
+     * Gets the first ChunkID of a cached range
+     *
+     * @param p_base
+     *         the first ChunkID of the creator
+     * @param p_range
+     *         index of the range
+     * @return the first ChunkID
+     */
+    private long getRangeStart(final long p_base, final int p_range) {
+        return p_base + 1 + p_range * (m_rangeSize + RANGE_GAP);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.events;
+
+import de.hhu.bsinfo.dxram.event.AbstractEvent;
+
+/**
+ * This event is fired when a superpeer notifies about migrated ChunkID ranges.
+ */
+public class MigrationCacheUpdateEvent extends AbstractEvent {
+
+    private short m_superpeer;
+    private long m_sequenceNumber;
+    private long[] m_chunkIDRanges;
+    private short[] m_owners;
+
+    /**
+     * Constructor
+     *
+     * @param p_sourceClass
+     *         The calling class
+     * @param p_superpeer
+     *         The superpeer which sent the update
+     * @param p_sequenceNumber
+     *         Sequence number of the update, increasing per superpeer
+     * @param p_chunkIDRanges
+     *         Migrated ChunkID ranges (start and end ChunkID alternating)
+     * @param p_owners
+     *         New owner of every range (NodeID.INVALID_ID to invalidate the range)
+     */
+    public MigrationCacheUpdateEvent(final String p_sourceClass, final short p_superpeer,
+            final long p_sequenceNumber, final long[] p_chunkIDRanges, final short[] p_owners) {
+        super(p_sourceClass);
+
+        m_superpeer = p_superpeer;
+        m_sequenceNumber = p_sequenceNumber;
+
+        m_chunkIDRanges = p_chunkIDRanges;
+        m_owners = p_owners;
+    }
+
+    /**
+     * Get the superpeer which sent the update.
+     *
+     * @return NodeID of the superpeer.
+     */
+    public short getSuperpeer() {
+        return m_superpeer;
+    }
+
+    /**
+     * Get the sequence number.
+     *
+     * @return Sequence number of the update.
+     */
+    public long getSequenceNumber() {
+        return m_sequenceNumber;
+    }
+
+    /**
+     * Get the migrated ChunkID ranges.
+     *
+     * @return ChunkID ranges (start and end ChunkID alternating).
+     */
+    public long[] getChunkIDRanges() {
+        return m_chunkIDRanges;
+    }
+
+    /**
+     * Get the new owners.
+     *
+     * @return New owner of every range.
+     */
+    public short[] getOwners() {
+        return m_owners;
+    }
+}
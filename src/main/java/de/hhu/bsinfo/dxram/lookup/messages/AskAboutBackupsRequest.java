@@ -33,9 +33,7 @@ public class AskAboutBackupsRequest extends Request {
 
     // Attributes
     private ArrayList<Short> m_peers;
-    private int m_numberOfNameserviceEntries;
-    private int m_numberOfStorages;
-    private int m_numberOfBarriers;
+    private long m_acknowledgedChange;
 
     private int m_length; // Used for serialization, only
 
@@ -57,21 +55,15 @@ public class AskAboutBackupsRequest extends Request {
      *         the destination
      * @param p_peers
      *         all peers for which this superpeer stores backups
-     * @param p_numberOfNameserviceEntries
-     *         the number of expected nameservice entries
-     * @param p_numberOfStorages
-     *         the number of expected storages
-     * @param p_numberOfBarriers
-     *         the number of expected barriers
+     * @param p_acknowledgedChange
+     *         the change sequence number of the destination this superpeer is up to date with (0 if unknown)
      */
     public AskAboutBackupsRequest(final short p_destination, final ArrayList<Short> p_peers,
-            final int p_numberOfNameserviceEntries, final int p_numberOfStorages, final int p_numberOfBarriers) {
+            final long p_acknowledgedChange) {
         super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_ASK_ABOUT_BACKUPS_REQUEST);
 
         m_peers = p_peers;
-        m_numberOfNameserviceEntries = p_numberOfNameserviceEntries;
-        m_numberOfStorages = p_numberOfStorages;
-        m_numberOfBarriers = p_numberOfBarriers;
+        m_acknowledgedChange = p_acknowledgedChange;
     }
 
     // Getters
@@ -86,30 +78,12 @@ public class AskAboutBackupsRequest extends Request {
     }
 
     /**
-     * Get the expected number of nameservice entries
+     * Get the change sequence number the superpeer is up to date with
      *
-     * @return the peers
-     */
-    public final int getNumberOfNameserviceEntries() {
-        return m_numberOfNameserviceEntries;
-    }
-
-    /**
-     * Get the expected number of storages
-     *
-     * @return the peers
-     */
-    public final int getNumberOfStorages() {
-        return m_numberOfStorages;
-    }
-
-    /**
-     * Get the expected number of barriers
-     *
-     * @return the peers
+     * @return the change sequence number
      */
-    public final int getNumberOfBarriers() {
-        return m_numberOfBarriers;
+    public final long getAcknowledgedChange() {
+        return m_acknowledgedChange;
     }
 
     @Override
@@ -121,7 +95,7 @@ public class AskAboutBackupsRequest extends Request {
         } else {
             ret = Byte.BYTES;
         }
-        ret += 3 * Integer.BYTES;
+        ret += Long.BYTES;
 
         return ret;
     }
@@ -137,9 +111,7 @@ public class AskAboutBackupsRequest extends Request {
                 p_exporter.writeShort(peer);
             }
         }
-        p_exporter.writeInt(m_numberOfNameserviceEntries);
-        p_exporter.writeInt(m_numberOfStorages);
-        p_exporter.writeInt(m_numberOfBarriers);
+        p_exporter.writeLong(m_acknowledgedChange);
     }
 
     @Override
@@ -154,9 +126,7 @@ public class AskAboutBackupsRequest extends Request {
                 m_peers.add(peer);
             }
         }
-        m_numberOfNameserviceEntries = p_importer.readInt(m_numberOfNameserviceEntries);
-        m_numberOfStorages = p_importer.readInt(m_numberOfStorages);
-        m_numberOfBarriers = p_importer.readInt(m_numberOfBarriers);
+        m_acknowledgedChange = p_importer.readLong(m_acknowledgedChange);
     }
 
 }
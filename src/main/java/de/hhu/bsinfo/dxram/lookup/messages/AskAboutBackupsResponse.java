@@ -30,6 +30,7 @@ public class AskAboutBackupsResponse extends Response {
 
     // Attributes
     private byte[] m_missingMetadata;
+    private long m_changeSequence;
 
     // Constructors
 
@@ -49,11 +50,15 @@ public class AskAboutBackupsResponse extends Response {
      *         the corresponding AskAboutBackupsRequest
      * @param p_missingMetadata
      *         the missing metadata
+     * @param p_changeSequence
+     *         the change sequence number the missing metadata is up to date with
      */
-    public AskAboutBackupsResponse(final AskAboutBackupsRequest p_request, final byte[] p_missingMetadata) {
+    public AskAboutBackupsResponse(final AskAboutBackupsRequest p_request, final byte[] p_missingMetadata,
+            final long p_changeSequence) {
         super(p_request, LookupMessages.SUBTYPE_ASK_ABOUT_BACKUPS_RESPONSE);
 
         m_missingMetadata = p_missingMetadata;
+        m_changeSequence = p_changeSequence;
     }
 
     // Getters
@@ -67,12 +72,21 @@ public class AskAboutBackupsResponse extends Response {
         return m_missingMetadata;
     }
 
+    /**
+     * Get the change sequence number the missing metadata is up to date with
+     *
+     * @return the change sequence number
+     */
+    public final long getChangeSequence() {
+        return m_changeSequence;
+    }
+
     @Override
     protected final int getPayloadLength() {
         if (m_missingMetadata != null && m_missingMetadata.length > 0) {
-            return ObjectSizeUtil.sizeofByteArray(m_missingMetadata);
+            return ObjectSizeUtil.sizeofByteArray(m_missingMetadata) + Long.BYTES;
         } else {
-            return Byte.BYTES;
+            return Byte.BYTES + Long.BYTES;
         }
     }
 
@@ -84,11 +98,13 @@ public class AskAboutBackupsResponse extends Response {
         } else {
             p_exporter.writeByteArray(m_missingMetadata);
         }
+        p_exporter.writeLong(m_changeSequence);
     }
 
     @Override
     protected final void readPayload(final AbstractMessageImporter p_importer) {
         m_missingMetadata = p_importer.readByteArray(m_missingMetadata);
+        m_changeSequence = p_importer.readLong(m_changeSequence);
     }
 
 }
@@ -20,15 +20,26 @@ import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
 import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
 import de.hhu.bsinfo.dxnet.core.Request;
 import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierReduction;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
 
 /**
- * Request to sign on at a barrier
+ * Request to sign on at a barrier. A sign on either counts for the sending peer only or, with a combining tree
+ * barrier, for all peers of the sender's subtree (aggregated sign on). Optionally, the custom data of all peers
+ * is reduced.
  *
  * @author Stefan Nothaas, stefan.nothaas@hhu.de, 03.05.2016
  */
 public class BarrierSignOnRequest extends Request {
+    // set in the reduction byte for an aggregated sign on (node ids and custom data of multiple peers instead of
+    // the custom data of the sender)
+    private static final byte AGGREGATED = (byte) 0x80;
+
     private int m_barrierId = -1;
     private long m_customData = -1;
+    private short[] m_nodeIDs = new short[0];
+    private long[] m_customDataOfNodes = new long[0];
+    private byte m_reduction = (byte) BarrierReduction.NONE.ordinal();
 
     /**
      * Creates an instance of SlaveSyncBarrierSignOnMessage.
@@ -56,6 +67,53 @@ public class BarrierSignOnRequest extends Request {
         m_customData = p_customData;
     }
 
+    /**
+     * Creates an instance of BarrierSignOnRequest with a reduction of the custom data.
+     * This constructor is used when sending this message.
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_barrierId
+     *         Id of the barrier to sign on
+     * @param p_customData
+     *         Custom data to pass along with the sign on
+     * @param p_reduction
+     *         Reduction to apply to the custom data of all peers
+     */
+    public BarrierSignOnRequest(final short p_destination, final int p_barrierId, final long p_customData,
+            final BarrierReduction p_reduction) {
+        super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_BARRIER_SIGN_ON_REQUEST);
+
+        m_barrierId = p_barrierId;
+        m_customData = p_customData;
+        m_reduction = (byte) p_reduction.ordinal();
+    }
+
+    /**
+     * Creates an instance of BarrierSignOnRequest for an aggregated sign on of multiple peers.
+     * This constructor is used when sending this message.
+     *
+     * @param p_destination
+     *         the destination node id.
+     * @param p_barrierId
+     *         Id of the barrier to sign on
+     * @param p_nodeIDs
+     *         Node ids of all peers to sign on (including the sender)
+     * @param p_customData
+     *         Custom data of every peer to sign on (with a reduction, the partially reduced custom data is sufficient)
+     * @param p_reduction
+     *         Reduction to apply to the custom data of all peers
+     */
+    public BarrierSignOnRequest(final short p_destination, final int p_barrierId, final short[] p_nodeIDs,
+            final long[] p_customData, final BarrierReduction p_reduction) {
+        super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_BARRIER_SIGN_ON_REQUEST);
+
+        m_barrierId = p_barrierId;
+        m_nodeIDs = p_nodeIDs;
+        m_customDataOfNodes = p_customData;
+        m_reduction = (byte) (p_reduction.ordinal() | AGGREGATED);
+    }
+
     /**
      * Get the id of the barrier to sign on.
      *
@@ -74,20 +132,73 @@ public class BarrierSignOnRequest extends Request {
         return m_customData;
     }
 
+    /**
+     * Get the reduction to apply to the custom data.
+     *
+     * @return Reduction
+     */
+    public BarrierReduction getReduction() {
+        return BarrierReduction.values()[m_reduction & ~AGGREGATED];
+    }
+
+    /**
+     * Check if this is an aggregated sign on of multiple peers.
+     *
+     * @return True if getNodeIDs and getCustomDataOfNodes have to be used instead of the source and getCustomData
+     */
+    public boolean isAggregated() {
+        return (m_reduction & AGGREGATED) != 0;
+    }
+
+    /**
+     * Get the node ids of all peers to sign on (aggregated sign on only).
+     *
+     * @return Node ids
+     */
+    public short[] getNodeIDs() {
+        return m_nodeIDs;
+    }
+
+    /**
+     * Get the custom data of all peers to sign on (aggregated sign on only).
+     *
+     * @return Custom data (indices match node id array)
+     */
+    public long[] getCustomDataOfNodes() {
+        return m_customDataOfNodes;
+    }
+
     @Override
     protected final int getPayloadLength() {
-        return Integer.BYTES + Long.BYTES;
+        if (isAggregated()) {
+            return Integer.BYTES + Byte.BYTES + ObjectSizeUtil.sizeofShortArray(m_nodeIDs) +
+                    ObjectSizeUtil.sizeofLongArray(m_customDataOfNodes);
+        } else {
+            return Integer.BYTES + Byte.BYTES + Long.BYTES;
+        }
     }
 
     @Override
     protected final void writePayload(final AbstractMessageExporter p_exporter) {
         p_exporter.writeInt(m_barrierId);
-        p_exporter.writeLong(m_customData);
+        p_exporter.writeByte(m_reduction);
+        if (isAggregated()) {
+            p_exporter.writeShortArray(m_nodeIDs);
+            p_exporter.writeLongArray(m_customDataOfNodes);
+        } else {
+            p_exporter.writeLong(m_customData);
+        }
     }
 
     @Override
     protected final void readPayload(final AbstractMessageImporter p_importer) {
         m_barrierId = p_importer.readInt(m_barrierId);
-        m_customData = p_importer.readLong(m_customData);
+        m_reduction = p_importer.readByte(m_reduction);
+        if (isAggregated()) {
+            m_nodeIDs = p_importer.readShortArray(m_nodeIDs);
+            m_customDataOfNodes = p_importer.readLongArray(m_customDataOfNodes);
+        } else {
+            m_customData = p_importer.readLong(m_customData);
+        }
     }
 }
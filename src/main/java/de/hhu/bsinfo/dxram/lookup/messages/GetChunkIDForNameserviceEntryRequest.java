@@ -29,7 +29,7 @@ import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
 public class GetChunkIDForNameserviceEntryRequest extends Request {
 
     // Attributes
-    private int m_id;
+    private long m_id;
 
     // Constructors
 
@@ -50,7 +50,7 @@ public class GetChunkIDForNameserviceEntryRequest extends Request {
      * @param p_id
      *         the id
      */
-    public GetChunkIDForNameserviceEntryRequest(final short p_destination, final int p_id) {
+    public GetChunkIDForNameserviceEntryRequest(final short p_destination, final long p_id) {
         super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_CHUNKID_FOR_NAMESERVICE_ENTRY_REQUEST);
 
@@ -64,24 +64,24 @@ public class GetChunkIDForNameserviceEntryRequest extends Request {
      *
      * @return the id to store
      */
-    public final int getID() {
+    public final long getID() {
         return m_id;
     }
 
     @Override
     protected final int getPayloadLength() {
-        return Integer.BYTES;
+        return Long.BYTES;
     }
 
     // Methods
     @Override
     protected final void writePayload(final AbstractMessageExporter p_exporter) {
-        p_exporter.writeInt(m_id);
+        p_exporter.writeLong(m_id);
     }
 
     @Override
     protected final void readPayload(final AbstractMessageImporter p_importer) {
-        m_id = p_importer.readInt(m_id);
+        m_id = p_importer.readLong(m_id);
     }
 
 }
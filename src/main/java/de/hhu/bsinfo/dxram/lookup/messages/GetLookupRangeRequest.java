@@ -31,6 +31,7 @@ public class GetLookupRangeRequest extends Request {
 
     // Attributes
     private long m_chunkID;
+    private boolean m_isBackupRead;
 
     // Constructors
 
@@ -41,6 +42,7 @@ public class GetLookupRangeRequest extends Request {
         super();
 
         m_chunkID = ChunkID.INVALID_ID;
+        m_isBackupRead = false;
     }
 
     /**
@@ -52,11 +54,26 @@ public class GetLookupRangeRequest extends Request {
      *         the ChunkID of the requested object
      */
     public GetLookupRangeRequest(final short p_destination, final long p_chunkID) {
+        this(p_destination, p_chunkID, false);
+    }
+
+    /**
+     * Creates an instance of LookupRequest
+     *
+     * @param p_destination
+     *         the destination
+     * @param p_chunkID
+     *         the ChunkID of the requested object
+     * @param p_isBackupRead
+     *         whether the destination is a backup superpeer of the creator
+     */
+    public GetLookupRangeRequest(final short p_destination, final long p_chunkID, final boolean p_isBackupRead) {
         super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_GET_LOOKUP_RANGE_REQUEST);
 
         assert p_chunkID != ChunkID.INVALID_ID;
 
         m_chunkID = p_chunkID;
+        m_isBackupRead = p_isBackupRead;
     }
 
     // Getters
@@ -70,20 +87,31 @@ public class GetLookupRangeRequest extends Request {
         return m_chunkID;
     }
 
+    /**
+     * Returns whether the request was sent to a backup superpeer of the creator
+     *
+     * @return whether this is a backup read or not
+     */
+    public final boolean isBackupRead() {
+        return m_isBackupRead;
+    }
+
     @Override
     protected final int getPayloadLength() {
-        return Long.BYTES;
+        return Long.BYTES + Byte.BYTES;
     }
 
     // Methods
     @Override
     protected final void writePayload(final AbstractMessageExporter p_exporter) {
         p_exporter.writeLong(m_chunkID);
+        p_exporter.writeBoolean(m_isBackupRead);
     }
 
     @Override
     protected final void readPayload(final AbstractMessageImporter p_importer) {
         m_chunkID = p_importer.readLong(m_chunkID);
+        m_isBackupRead = p_importer.readBoolean(m_isBackupRead);
     }
 
 }
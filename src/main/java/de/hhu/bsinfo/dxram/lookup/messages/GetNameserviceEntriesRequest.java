@@ -16,34 +16,85 @@
 
 package de.hhu.bsinfo.dxram.lookup.messages;
 
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
 import de.hhu.bsinfo.dxnet.core.Request;
 import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
 
 /**
- * Request for getting the number of mappings
+ * Request for getting one page of the nameservice entries of a superpeer
  *
  * @author Florian Klein, florian.klein@hhu.de, 26.03.2015
  */
 public class GetNameserviceEntriesRequest extends Request {
 
+    // Attributes
+    private int m_cursor;
+    private int m_maxEntries;
+
     // Constructors
 
     /**
-     * Creates an instance of GetMappingCountRequest
+     * Creates an instance of GetNameserviceEntriesRequest
      */
     public GetNameserviceEntriesRequest() {
         super();
     }
 
     /**
-     * Creates an instance of GetMappingCountRequest
+     * Creates an instance of GetNameserviceEntriesRequest
      *
      * @param p_destination
      *         the destination
+     * @param p_cursor
+     *         the position to continue from (0 for the first page)
+     * @param p_maxEntries
+     *         the maximum number of entries to return
      */
-    public GetNameserviceEntriesRequest(final short p_destination) {
+    public GetNameserviceEntriesRequest(final short p_destination, final int p_cursor, final int p_maxEntries) {
         super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRIES_REQUEST);
+
+        m_cursor = p_cursor;
+        m_maxEntries = p_maxEntries;
+    }
+
+    // Getters
+
+    /**
+     * Get the position to continue from
+     *
+     * @return the cursor
+     */
+    public final int getCursor() {
+        return m_cursor;
+    }
+
+    /**
+     * Get the maximum number of entries to return
+     *
+     * @return the maximum number of entries
+     */
+    public final int getMaxEntries() {
+        return m_maxEntries;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return 2 * Integer.BYTES;
+    }
+
+    // Methods
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeInt(m_cursor);
+        p_exporter.writeInt(m_maxEntries);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_cursor = p_importer.readInt(m_cursor);
+        m_maxEntries = p_importer.readInt(m_maxEntries);
     }
 
 }
@@ -22,13 +22,16 @@ import de.hhu.bsinfo.dxnet.core.Response;
 import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
 
 /**
- * Response to a GetMappingCountRequest
+ * Response to a GetNameserviceEntriesRequest
  *
  * @author Florian Klein, florian.klein@hhu.de, 26.03.2015
  */
 public class GetNameserviceEntriesResponse extends Response {
 
-    private byte[] m_entries;
+    // Attributes
+    private long[] m_ids;
+    private long[] m_chunkIDs;
+    private int m_nextCursor;
 
     // Constructors
 
@@ -44,40 +47,69 @@ public class GetNameserviceEntriesResponse extends Response {
      *
      * @param p_request
      *         the request
-     * @param p_entries
-     *         the count
+     * @param p_ids
+     *         the nameservice ids of the page
+     * @param p_chunkIDs
+     *         the ChunkID of every id
+     * @param p_nextCursor
+     *         the position to continue from or -1 if all entries were returned
      */
-    public GetNameserviceEntriesResponse(final GetNameserviceEntriesRequest p_request, final byte[] p_entries) {
+    public GetNameserviceEntriesResponse(final GetNameserviceEntriesRequest p_request, final long[] p_ids,
+            final long[] p_chunkIDs, final int p_nextCursor) {
         super(p_request, LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRIES_RESPONSE);
 
-        m_entries = p_entries;
+        m_ids = p_ids;
+        m_chunkIDs = p_chunkIDs;
+        m_nextCursor = p_nextCursor;
     }
 
     // Getters
 
     /**
-     * Get the entries.
+     * Get the nameservice ids
      *
-     * @return Entries
+     * @return the ids
      */
-    public byte[] getEntries() {
-        return m_entries;
+    public final long[] getIDs() {
+        return m_ids;
+    }
+
+    /**
+     * Get the ChunkIDs
+     *
+     * @return the ChunkID of every id
+     */
+    public final long[] getChunkIDs() {
+        return m_chunkIDs;
+    }
+
+    /**
+     * Get the position to continue from
+     *
+     * @return the next cursor or -1 if all entries were returned
+     */
+    public final int getNextCursor() {
+        return m_nextCursor;
     }
 
     @Override
     protected final int getPayloadLength() {
-        return ObjectSizeUtil.sizeofByteArray(m_entries);
+        return ObjectSizeUtil.sizeofLongArray(m_ids) + ObjectSizeUtil.sizeofLongArray(m_chunkIDs) + Integer.BYTES;
     }
 
     // Methods
     @Override
     protected final void writePayload(final AbstractMessageExporter p_exporter) {
-        p_exporter.writeByteArray(m_entries);
+        p_exporter.writeLongArray(m_ids);
+        p_exporter.writeLongArray(m_chunkIDs);
+        p_exporter.writeInt(m_nextCursor);
     }
 
     @Override
     protected final void readPayload(final AbstractMessageImporter p_importer) {
-        m_entries = p_importer.readByteArray(m_entries);
+        m_ids = p_importer.readLongArray(m_ids);
+        m_chunkIDs = p_importer.readLongArray(m_chunkIDs);
+        m_nextCursor = p_importer.readInt(m_nextCursor);
     }
 
 }
@@ -16,22 +16,22 @@
 
 package de.hhu.bsinfo.dxram.lookup.messages;
 
-import de.hhu.bsinfo.dxmem.data.ChunkID;
 import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
 import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
 import de.hhu.bsinfo.dxnet.core.Request;
 import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
 
 /**
- * Request for storing an id to ChunkID mapping on a remote node
+ * Request for storing id to ChunkID mappings on a remote node. All ids must belong to the same superpeer.
  *
  * @author Florian Klein, florian.klein@hhu.de, 09.03.2012
  */
 public class InsertNameserviceEntriesRequest extends Request {
 
     // Attributes
-    private int m_id;
-    private long m_chunkID;
+    private long[] m_ids;
+    private long[] m_chunkIDs;
     private boolean m_isBackup;
 
     // Constructors
@@ -42,8 +42,8 @@ public class InsertNameserviceEntriesRequest extends Request {
     public InsertNameserviceEntriesRequest() {
         super();
 
-        m_id = -1;
-        m_chunkID = ChunkID.INVALID_ID;
+        m_ids = null;
+        m_chunkIDs = null;
         m_isBackup = false;
     }
 
@@ -52,41 +52,43 @@ public class InsertNameserviceEntriesRequest extends Request {
      *
      * @param p_destination
      *         the destination
-     * @param p_id
-     *         the id to store
-     * @param p_chunkID
-     *         the ChunkID to store
+     * @param p_ids
+     *         the ids to store
+     * @param p_chunkIDs
+     *         the ChunkID of every id
      * @param p_isBackup
      *         whether this is a backup message or not
      */
-    public InsertNameserviceEntriesRequest(final short p_destination, final int p_id, final long p_chunkID,
+    public InsertNameserviceEntriesRequest(final short p_destination, final long[] p_ids, final long[] p_chunkIDs,
             final boolean p_isBackup) {
         super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_INSERT_NAMESERVICE_ENTRIES_REQUEST);
 
-        m_id = p_id;
-        m_chunkID = p_chunkID;
+        assert p_ids.length == p_chunkIDs.length;
+
+        m_ids = p_ids;
+        m_chunkIDs = p_chunkIDs;
         m_isBackup = p_isBackup;
     }
 
     // Getters
 
     /**
-     * Get the id to store
+     * Get the ids to store
      *
-     * @return the id to store
+     * @return the ids to store
      */
-    public final int getID() {
-        return m_id;
+    public final long[] getIDs() {
+        return m_ids;
     }
 
     /**
-     * Get the ChunkID to store
+     * Get the ChunkIDs to store
      *
-     * @return the ChunkID to store
+     * @return the ChunkID of every id
      */
-    public final long getChunkID() {
-        return m_chunkID;
+    public final long[] getChunkIDs() {
+        return m_chunkIDs;
     }
 
     /**
@@ -100,21 +102,21 @@ public class InsertNameserviceEntriesRequest extends Request {
 
     @Override
     protected final int getPayloadLength() {
-        return Integer.BYTES + Long.BYTES + Byte.BYTES;
+        return ObjectSizeUtil.sizeofLongArray(m_ids) + ObjectSizeUtil.sizeofLongArray(m_chunkIDs) + Byte.BYTES;
     }
 
     // Methods
     @Override
     protected final void writePayload(final AbstractMessageExporter p_exporter) {
-        p_exporter.writeInt(m_id);
-        p_exporter.writeLong(m_chunkID);
+        p_exporter.writeLongArray(m_ids);
+        p_exporter.writeLongArray(m_chunkIDs);
         p_exporter.writeBoolean(m_isBackup);
     }
 
     @Override
     protected final void readPayload(final AbstractMessageImporter p_importer) {
-        m_id = p_importer.readInt(m_id);
-        m_chunkID = p_importer.readLong(m_chunkID);
+        m_ids = p_importer.readLongArray(m_ids);
+        m_chunkIDs = p_importer.readLongArray(m_chunkIDs);
         m_isBackup = p_importer.readBoolean(m_isBackup);
     }
 
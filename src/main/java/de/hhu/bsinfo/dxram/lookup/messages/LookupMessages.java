@@ -96,6 +96,10 @@ public final class LookupMessages {
     public static final byte SUBTYPE_GET_LOOKUP_TREE_RESPONSE = 65;
     public static final byte SUBTYPE_GET_METADATA_SUMMARY_REQUEST = 66;
     public static final byte SUBTYPE_GET_METADATA_SUMMARY_RESPONSE = 67;
+    public static final byte SUBTYPE_MIGRATION_UPDATE_PEER_CACHES_MESSAGE = 68;
+    public static final byte SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_REQUEST = 69;
+    public static final byte SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_RESPONSE = 70;
+    public static final byte SUBTYPE_BARRIER_TREE_SIGN_ON_MESSAGE = 71;
 
     /**
      * Hidden constructor
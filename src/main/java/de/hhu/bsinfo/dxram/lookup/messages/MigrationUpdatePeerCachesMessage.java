@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.messages;
+
+import de.hhu.bsinfo.dxnet.core.AbstractMessageExporter;
+import de.hhu.bsinfo.dxnet.core.AbstractMessageImporter;
+import de.hhu.bsinfo.dxnet.core.Message;
+import de.hhu.bsinfo.dxram.DXRAMMessageTypes;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Message to notify peers about migrated ChunkID ranges to update their local caches. An owner NodeID.INVALID_ID
+ * means the range has to be invalidated.
+ */
+public class MigrationUpdatePeerCachesMessage extends Message {
+
+    // Attributes
+    private long[] m_chunkIDRanges;
+    private short[] m_owners;
+    private long m_sequenceNumber;
+
+    // Constructors
+
+    /**
+     * Creates an instance of MigrationUpdatePeerCachesMessage
+     */
+    public MigrationUpdatePeerCachesMessage() {
+        super();
+
+        m_chunkIDRanges = null;
+        m_owners = null;
+        m_sequenceNumber = 0;
+    }
+
+    /**
+     * Creates an instance of MigrationUpdatePeerCachesMessage
+     *
+     * @param p_destination
+     *         the destination
+     * @param p_chunkIDRanges
+     *         the migrated ChunkID ranges (start and end ChunkID alternating)
+     * @param p_owners
+     *         the new owner of every range
+     * @param p_sequenceNumber
+     *         the sequence number of this message, increasing per sending superpeer
+     */
+    public MigrationUpdatePeerCachesMessage(final short p_destination, final long[] p_chunkIDRanges,
+            final short[] p_owners, final long p_sequenceNumber) {
+        super(p_destination, DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_MIGRATION_UPDATE_PEER_CACHES_MESSAGE);
+
+        assert p_chunkIDRanges.length == p_owners.length * 2;
+
+        m_chunkIDRanges = p_chunkIDRanges;
+        m_owners = p_owners;
+        m_sequenceNumber = p_sequenceNumber;
+    }
+
+    // Getters
+
+    /**
+     * Get the migrated ChunkID ranges
+     *
+     * @return the ChunkID ranges (start and end ChunkID alternating)
+     */
+    public final long[] getChunkIDRanges() {
+        return m_chunkIDRanges;
+    }
+
+    /**
+     * Get the new owners
+     *
+     * @return the new owner of every range
+     */
+    public final short[] getOwners() {
+        return m_owners;
+    }
+
+    /**
+     * Get the sequence number
+     *
+     * @return the sequence number of this message
+     */
+    public final long getSequenceNumber() {
+        return m_sequenceNumber;
+    }
+
+    @Override
+    protected final int getPayloadLength() {
+        return ObjectSizeUtil.sizeofLongArray(m_chunkIDRanges) + ObjectSizeUtil.sizeofShortArray(m_owners) +
+                Long.BYTES;
+    }
+
+    // Methods
+    @Override
+    protected final void writePayload(final AbstractMessageExporter p_exporter) {
+        p_exporter.writeLongArray(m_chunkIDRanges);
+        p_exporter.writeShortArray(m_owners);
+        p_exporter.writeLong(m_sequenceNumber);
+    }
+
+    @Override
+    protected final void readPayload(final AbstractMessageImporter p_importer) {
+        m_chunkIDRanges = p_importer.readLongArray(m_chunkIDRanges);
+        m_owners = p_importer.readShortArray(m_owners);
+        m_sequenceNumber = p_importer.readLong(m_sequenceNumber);
+    }
+
+}
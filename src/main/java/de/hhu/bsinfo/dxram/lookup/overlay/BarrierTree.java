@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay;
+
+/**
+ * Index math of the combining tree used to sign on to a barrier. The participants (sorted by node id) are
+ * laid out like a heap: the participant at index 0 is the root and the children of the participant at index i
+ * are at the indices i * fanOut + 1 to i * fanOut + fanOut.
+ */
+final class BarrierTree {
+
+    /**
+     * Utility class
+     */
+    private BarrierTree() {
+
+    }
+
+    /**
+     * Get the index of the parent of a participant
+     *
+     * @param p_index
+     *         the index of the participant
+     * @param p_fanOut
+     *         max number of children of a participant
+     * @return the index of the parent, -1 for the root
+     */
+    static int getParent(final int p_index, final int p_fanOut) {
+        if (p_index == 0) {
+            return -1;
+        }
+
+        return (p_index - 1) / p_fanOut;
+    }
+
+    /**
+     * Get the index of the first child of a participant
+     *
+     * @param p_index
+     *         the index of the participant
+     * @param p_fanOut
+     *         max number of children of a participant
+     * @param p_numParticipants
+     *         the number of participants
+     * @return the index of the first child, the number of participants if the participant is a leaf
+     */
+    static int getFirstChild(final int p_index, final int p_fanOut, final int p_numParticipants) {
+        return (int) Math.min(p_numParticipants, (long) p_index * p_fanOut + 1);
+    }
+
+    /**
+     * Get the number of children of a participant
+     *
+     * @param p_index
+     *         the index of the participant
+     * @param p_fanOut
+     *         max number of children of a participant
+     * @param p_numParticipants
+     *         the number of participants
+     * @return the number of children (0 for a leaf)
+     */
+    static int getNumberOfChildren(final int p_index, final int p_fanOut, final int p_numParticipants) {
+        return Math.min(p_fanOut, p_numParticipants - getFirstChild(p_index, p_fanOut, p_numParticipants));
+    }
+}
@@ -17,8 +17,13 @@
 package de.hhu.bsinfo.dxram.lookup.overlay;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.logging.log4j.LogManager;
@@ -34,8 +39,10 @@ import de.hhu.bsinfo.dxram.backup.BackupRange;
 import de.hhu.bsinfo.dxram.boot.AbstractBootComponent;
 import de.hhu.bsinfo.dxram.chunk.data.ChunkAnon;
 import de.hhu.bsinfo.dxram.event.EventComponent;
+import de.hhu.bsinfo.dxram.lookup.LookupComponent;
 import de.hhu.bsinfo.dxram.lookup.LookupRange;
 import de.hhu.bsinfo.dxram.lookup.LookupState;
+import de.hhu.bsinfo.dxram.lookup.events.MigrationCacheUpdateEvent;
 import de.hhu.bsinfo.dxram.lookup.events.NameserviceCacheEntryUpdateEvent;
 import de.hhu.bsinfo.dxram.lookup.events.NodeJoinEvent;
 import de.hhu.bsinfo.dxram.lookup.messages.AskAboutSuccessorRequest;
@@ -51,11 +58,14 @@ import de.hhu.bsinfo.dxram.lookup.messages.BarrierGetStatusResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.BarrierReleaseMessage;
 import de.hhu.bsinfo.dxram.lookup.messages.BarrierSignOnRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.BarrierSignOnResponse;
+import de.hhu.bsinfo.dxram.lookup.messages.BarrierTreeSignOnMessage;
 import de.hhu.bsinfo.dxram.lookup.messages.FinishedStartupMessage;
 import de.hhu.bsinfo.dxram.lookup.messages.GetAllBackupRangesRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.GetAllBackupRangesResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDForNameserviceEntryRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDForNameserviceEntryResponse;
+import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDsForNameserviceEntriesRequest;
+import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDsForNameserviceEntriesResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.GetLookupRangeRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.GetLookupRangeResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.GetNameserviceEntriesRequest;
@@ -73,6 +83,7 @@ import de.hhu.bsinfo.dxram.lookup.messages.MigrateRangeRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.MigrateRangeResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.MigrateRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.MigrateResponse;
+import de.hhu.bsinfo.dxram.lookup.messages.MigrationUpdatePeerCachesMessage;
 import de.hhu.bsinfo.dxram.lookup.messages.NameserviceUpdatePeerCachesMessage;
 import de.hhu.bsinfo.dxram.lookup.messages.NodeJoinEventRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.NodeJoinEventResponse;
@@ -97,6 +108,7 @@ import de.hhu.bsinfo.dxram.lookup.messages.SuperpeerStorageStatusRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.SuperpeerStorageStatusResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.UpdateMetadataAfterRecoveryMessage;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierID;
+import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierReduction;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierStatus;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.NameserviceEntry;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.NameserviceHashTable;
@@ -117,6 +129,7 @@ public class OverlayPeer implements MessageReceiver {
     private static final Logger LOGGER = LogManager.getFormatterLogger(OverlayPeer.class.getSimpleName());
 
     private static final int MSG_TIMEOUT_MS = 100;
+    private static final int MAX_NAMESERVICE_ENTRIES_PER_MESSAGE = 1024;
 
     // Attributes
     private AbstractBootComponent m_boot;
@@ -127,8 +140,14 @@ public class OverlayPeer implements MessageReceiver {
     private short m_mySuperpeer = NodeID.INVALID_ID;
     private ArrayList<Short> m_superpeers;
     private int m_initialNumberOfSuperpeers;
+    private boolean m_backupSuperpeerLookups;
     private ReentrantReadWriteLock m_overlayLock;
 
+    // Subtree sign ons of combining tree barriers (children might sign on before this peer does)
+    private final Map<Integer, TreeBarrierSignOns> m_treeBarrierSignOns = new HashMap<>();
+    // Last sign on round of every combining tree barrier started by this peer (guarded by m_treeBarrierSignOns)
+    private final Map<Integer, Integer> m_treeBarrierRounds = new HashMap<>();
+
     /**
      * Creates an instance of OverlayPeer
      *
@@ -138,6 +157,8 @@ public class OverlayPeer implements MessageReceiver {
      *         the superpeer to contact for joining
      * @param p_initialNumberOfSuperpeers
      *         the number of expeced superpeers
+     * @param p_backupSuperpeerLookups
+     *         whether lookups may be served by backup superpeers
      * @param p_boot
      *         the BootComponent
      * @param p_network
@@ -146,12 +167,14 @@ public class OverlayPeer implements MessageReceiver {
      *         the EventComponent
      */
     public OverlayPeer(final short p_nodeID, final short p_contactSuperpeer, final int p_initialNumberOfSuperpeers,
-            final AbstractBootComponent p_boot, final NetworkComponent p_network, final EventComponent p_event) {
+            final boolean p_backupSuperpeerLookups, final AbstractBootComponent p_boot,
+            final NetworkComponent p_network, final EventComponent p_event) {
         m_boot = p_boot;
         m_network = p_network;
         m_event = p_event;
 
         m_initialNumberOfSuperpeers = p_initialNumberOfSuperpeers;
+        m_backupSuperpeerLookups = p_backupSuperpeerLookups;
 
         m_nodeID = p_nodeID;
 
@@ -214,37 +237,100 @@ public class OverlayPeer implements MessageReceiver {
     }
 
     /**
-     * Get all available nameservice entries.
+     * Get one page of the available nameservice entries. The cursor encodes the superpeer and the position in its
+     * nameservice table.
      *
-     * @return List of nameservice entries or null on error;
+     * @param p_cursor
+     *         LookupComponent.NAMESERVICE_CURSOR_START or the cursor returned for the previous page
+     * @param p_pageSize
+     *         the maximum number of entries
+     * @param p_entries
+     *         the list to add the entries to
+     * @return the cursor for the next page, LookupComponent.NAMESERVICE_CURSOR_END if all entries were returned or
+     *         LookupComponent.NAMESERVICE_CURSOR_ERROR on error
      */
-    public ArrayList<NameserviceEntry> getNameserviceEntries() {
-        ArrayList<NameserviceEntry> entries = new ArrayList<>();
+    public long getNameserviceEntries(final long p_cursor, final int p_pageSize,
+            final ArrayList<NameserviceEntry> p_entries) {
         Short[] superpeers;
+        short superpeer;
+        int index;
+        int position;
+        long[] ids;
+        long[] chunkIDs;
         GetNameserviceEntriesRequest request;
         GetNameserviceEntriesResponse response;
 
+        if (p_cursor == LookupComponent.NAMESERVICE_CURSOR_END ||
+                p_cursor == LookupComponent.NAMESERVICE_CURSOR_ERROR) {
+            return p_cursor;
+        }
+
         m_overlayLock.readLock().lock();
         superpeers = m_superpeers.toArray(new Short[m_superpeers.size()]);
         m_overlayLock.readLock().unlock();
 
-        for (short superpeer : superpeers) {
-            request = new GetNameserviceEntriesRequest(superpeer);
-            try {
-                m_network.sendSync(request);
-            } catch (final NetworkException ignored) {
-
-                LOGGER.error("Could not determine nameservice entries");
+        if (p_cursor == LookupComponent.NAMESERVICE_CURSOR_START) {
+            index = 0;
+            position = 0;
+        } else {
+            superpeer = (short) (p_cursor >>> 32);
+            position = (int) p_cursor;
 
-                entries = null;
-                break;
+            // Continue with the superpeer of the cursor or its successor if it left the overlay meanwhile
+            index = 0;
+            while (index < superpeers.length && superpeers[index] < superpeer) {
+                index++;
+            }
+            if (index < superpeers.length && superpeers[index] != superpeer) {
+                position = 0;
             }
+        }
 
-            response = request.getResponse(GetNameserviceEntriesResponse.class);
-            entries.addAll(NameserviceHashTable.convert(response.getEntries()));
+        if (index >= superpeers.length) {
+            return LookupComponent.NAMESERVICE_CURSOR_END;
         }
 
-        return entries;
+        superpeer = superpeers[index];
+        request = new GetNameserviceEntriesRequest(superpeer, position, p_pageSize);
+        try {
+            m_network.sendSync(request);
+        } catch (final NetworkException ignored) {
+
+            LOGGER.error("Could not determine nameservice entries of superpeer 0x%X", superpeer);
+
+            return LookupComponent.NAMESERVICE_CURSOR_ERROR;
+        }
+
+        response = request.getResponse(GetNameserviceEntriesResponse.class);
+
+        ids = response.getIDs();
+        chunkIDs = response.getChunkIDs();
+        for (int i = 0; i < ids.length; i++) {
+            p_entries.add(new NameserviceEntry(ids[i], chunkIDs[i]));
+        }
+
+        if (response.getNextCursor() != -1) {
+            return getNameserviceCursor(superpeer, response.getNextCursor());
+        }
+
+        if (index + 1 < superpeers.length) {
+            return getNameserviceCursor(superpeers[index + 1], 0);
+        }
+
+        return LookupComponent.NAMESERVICE_CURSOR_END;
+    }
+
+    /**
+     * Encodes a cursor for listing nameservice entries
+     *
+     * @param p_superpeer
+     *         the superpeer to continue with
+     * @param p_position
+     *         the position in the nameservice table of the superpeer
+     * @return the cursor (never equals one of the special cursors)
+     */
+    private static long getNameserviceCursor(final short p_superpeer, final int p_position) {
+        return 1L << 48 | (long) (p_superpeer & 0xFFFF) << 32 | p_position & 0xFFFFFFFFL;
     }
 
     /* Name Service */
@@ -257,9 +343,25 @@ public class OverlayPeer implements MessageReceiver {
      * @return the current location and the range borders
      */
     public LookupRange getLookupRange(final long p_chunkID) {
+        return getLookupRange(p_chunkID, m_backupSuperpeerLookups);
+    }
+
+    /**
+     * Get the corresponding LookupRange for the given ChunkID
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     * @param p_allowBackups
+     *         whether a backup superpeer may answer instead of the responsible superpeer. Backups are updated
+     *         asynchronously and might not know about the latest migrations
+     * @return the current location and the range borders
+     */
+    public LookupRange getLookupRange(final long p_chunkID, final boolean p_allowBackups) {
         LookupRange ret = null;
         short nodeID;
         short responsibleSuperpeer;
+        short targetSuperpeer = NodeID.INVALID_ID;
+        short[] backupSuperpeers;
         boolean check = false;
 
         GetLookupRangeRequest request;
@@ -271,8 +373,35 @@ public class OverlayPeer implements MessageReceiver {
         }
         nodeID = ChunkID.getCreatorID(p_chunkID);
         responsibleSuperpeer = getResponsibleSuperpeer(nodeID, check);
+        if (p_allowBackups && !check && responsibleSuperpeer != NodeID.INVALID_ID &&
+                m_superpeers.size() > 1) {
+            // Pick one out of the responsible superpeer and its backup superpeers to spread the load
+            backupSuperpeers = OverlayHelper.getBackupSuperpeers(responsibleSuperpeer, m_superpeers);
+            int index = ThreadLocalRandom.current().nextInt(backupSuperpeers.length + 1);
+            if (index < backupSuperpeers.length) {
+                targetSuperpeer = backupSuperpeers[index];
+            }
+        }
         m_overlayLock.readLock().unlock();
 
+        if (targetSuperpeer != NodeID.INVALID_ID && targetSuperpeer != responsibleSuperpeer) {
+            request = new GetLookupRangeRequest(targetSuperpeer, p_chunkID, true);
+            try {
+                m_network.sendSync(request);
+
+                ret = request.getResponse(GetLookupRangeResponse.class).getLookupRange();
+                if (ret != null && ret.getState() == LookupState.OK) {
+                    return ret;
+                }
+            } catch (final NetworkException ignored) {
+                // Backup superpeer is not available, fall back to responsible superpeer
+            }
+
+            LOGGER.trace("Backup superpeer 0x%X could not answer lookup for 0x%X, asking responsible superpeer 0x%X",
+                    targetSuperpeer, p_chunkID, responsibleSuperpeer);
+            ret = null;
+        }
+
         if (responsibleSuperpeer != NodeID.INVALID_ID) {
             request = new GetLookupRangeRequest(responsibleSuperpeer, p_chunkID);
             try {
@@ -370,51 +499,82 @@ public class OverlayPeer implements MessageReceiver {
      * @param p_chunkID
      *         the ChunkID
      */
-    public void insertNameserviceEntry(final int p_id, final long p_chunkID) {
-        short responsibleSuperpeer;
+    public void insertNameserviceEntry(final long p_id, final long p_chunkID) {
+        insertNameserviceEntries(new long[] {p_id}, new long[] {p_chunkID});
+    }
+
+    /**
+     * Insert multiple name service entries. The entries are grouped by responsible superpeer and sent with one
+     * request per superpeer (and backup superpeer).
+     *
+     * @param p_ids
+     *         the AIDs
+     * @param p_chunkIDs
+     *         the ChunkID of every AID
+     */
+    public void insertNameserviceEntries(final long[] p_ids, final long[] p_chunkIDs) {
+        ArrayList<Integer> pending;
+        ArrayList<Integer> failed;
         short[] backupSuperpeers;
-        boolean check = false;
+        long[] ids;
+        long[] chunkIDs;
         InsertNameserviceEntriesRequest request;
         InsertNameserviceEntriesResponse response;
 
-        // Insert ChunkID <-> ApplicationID mapping
-        assert p_id < Math.pow(2, 31) && p_id >= 0;
+        assert p_ids.length == p_chunkIDs.length;
 
-        m_overlayLock.readLock().lock();
-        if (!OverlayHelper.isOverlayStable(m_initialNumberOfSuperpeers, m_superpeers.size())) {
-            check = true;
+        // Insert ChunkID <-> ApplicationID mappings
+        pending = new ArrayList<>(p_ids.length);
+        for (int i = 0; i < p_ids.length; i++) {
+            assert p_ids[i] >= 0;
+            pending.add(i);
         }
-        responsibleSuperpeer = getResponsibleSuperpeer(CRC16.hash(p_id), check);
-        m_overlayLock.readLock().unlock();
 
-        while (true) {
-            if (responsibleSuperpeer != NodeID.INVALID_ID) {
-                request = new InsertNameserviceEntriesRequest(responsibleSuperpeer, p_id, p_chunkID, false);
-                try {
-                    m_network.sendSync(request);
-                } catch (final NetworkException e) {
-                    // Responsible superpeer is not available, try again (superpeers will be updated
-                    // automatically by network thread)
-                    try {
-                        Thread.sleep(MSG_TIMEOUT_MS);
-                    } catch (final InterruptedException ignored) {
-                    }
+        while (!pending.isEmpty()) {
+            failed = new ArrayList<>();
 
-                    m_overlayLock.readLock().lock();
-                    responsibleSuperpeer = getResponsibleSuperpeer(CRC16.hash(p_id), check);
-                    m_overlayLock.readLock().unlock();
+            for (Map.Entry<Short, ArrayList<Integer>> group : groupByResponsibleSuperpeer(p_ids, pending).entrySet()) {
+                short responsibleSuperpeer = group.getKey();
+                ArrayList<Integer> indices = group.getValue();
 
+                if (responsibleSuperpeer == NodeID.INVALID_ID) {
+                    failed.addAll(indices);
                     continue;
                 }
 
-                response = request.getResponse(InsertNameserviceEntriesResponse.class);
+                for (int from = 0; from < indices.size(); from += MAX_NAMESERVICE_ENTRIES_PER_MESSAGE) {
+                    int to = Math.min(indices.size(), from + MAX_NAMESERVICE_ENTRIES_PER_MESSAGE);
+
+                    ids = new long[to - from];
+                    chunkIDs = new long[to - from];
+                    for (int i = from; i < to; i++) {
+                        ids[i - from] = p_ids[indices.get(i)];
+                        chunkIDs[i - from] = p_chunkIDs[indices.get(i)];
+                    }
+
+                    request = new InsertNameserviceEntriesRequest(responsibleSuperpeer, ids, chunkIDs, false);
+                    try {
+                        m_network.sendSync(request);
+                    } catch (final NetworkException e) {
+                        // Responsible superpeer is not available, try again (superpeers will be updated
+                        // automatically by network thread)
+                        failed.addAll(indices.subList(from, to));
+                        continue;
+                    }
+
+                    response = request.getResponse(InsertNameserviceEntriesResponse.class);
+
+                    backupSuperpeers = response.getBackupSuperpeers();
+                    if (backupSuperpeers == null) {
+                        // Superpeer is not responsible for all entries (anymore), regroup
+                        failed.addAll(indices.subList(from, to));
+                        continue;
+                    }
 
-                backupSuperpeers = response.getBackupSuperpeers();
-                if (backupSuperpeers != null) {
                     if (backupSuperpeers[0] != NodeID.INVALID_ID) {
                         // Send backups
                         for (short backupSuperpeer : backupSuperpeers) {
-                            request = new InsertNameserviceEntriesRequest(backupSuperpeer, p_id, p_chunkID, true);
+                            request = new InsertNameserviceEntriesRequest(backupSuperpeer, ids, chunkIDs, true);
                             try {
                                 m_network.sendSync(request);
                             } catch (final NetworkException e) {
@@ -422,13 +582,17 @@ public class OverlayPeer implements MessageReceiver {
                             }
                         }
                     }
-                    break;
                 }
             }
 
-            m_overlayLock.readLock().lock();
-            responsibleSuperpeer = getResponsibleSuperpeer(CRC16.hash(p_id), check);
-            m_overlayLock.readLock().unlock();
+            if (!failed.isEmpty()) {
+                try {
+                    Thread.sleep(MSG_TIMEOUT_MS);
+                } catch (final InterruptedException ignored) {
+                }
+            }
+
+            pending = failed;
         }
     }
 
@@ -445,7 +609,7 @@ public class OverlayPeer implements MessageReceiver {
      *         set this to -1 for infinite loop if you know for sure, that the entry has to exist
      * @return the corresponding ChunkID
      */
-    public long getChunkIDForNameserviceEntry(final int p_id, final int p_timeoutMs) {
+    public long getChunkIDForNameserviceEntry(final long p_id, final int p_timeoutMs) {
         long ret = ChunkID.INVALID_ID;
         short responsibleSuperpeer;
         boolean check = false;
@@ -456,7 +620,7 @@ public class OverlayPeer implements MessageReceiver {
         if (!OverlayHelper.isOverlayStable(m_initialNumberOfSuperpeers, m_superpeers.size())) {
             check = true;
         }
-        responsibleSuperpeer = getResponsibleSuperpeer(CRC16.hash(p_id), check);
+        responsibleSuperpeer = getResponsibleSuperpeer(NameserviceHashTable.hash(p_id), check);
         m_overlayLock.readLock().unlock();
 
         long start = System.currentTimeMillis();
@@ -474,7 +638,7 @@ public class OverlayPeer implements MessageReceiver {
                     }
 
                     m_overlayLock.readLock().lock();
-                    responsibleSuperpeer = getResponsibleSuperpeer(CRC16.hash(p_id), check);
+                    responsibleSuperpeer = getResponsibleSuperpeer(NameserviceHashTable.hash(p_id), check);
                     m_overlayLock.readLock().unlock();
 
                     continue;
@@ -488,13 +652,102 @@ public class OverlayPeer implements MessageReceiver {
             }
 
             m_overlayLock.readLock().lock();
-            responsibleSuperpeer = getResponsibleSuperpeer(CRC16.hash(p_id), check);
+            responsibleSuperpeer = getResponsibleSuperpeer(NameserviceHashTable.hash(p_id), check);
             m_overlayLock.readLock().unlock();
         } while (p_timeoutMs == -1 || System.currentTimeMillis() - start < p_timeoutMs);
 
         return ret;
     }
 
+    /**
+     * Get ChunkIDs for multiple nameservice ids. The ids are grouped by responsible superpeer and resolved with one
+     * request per superpeer.
+     *
+     * @param p_ids
+     *         the nameservice ids
+     * @param p_timeoutMs
+     *         Timeout for trying to get the entries (if they do not exist, yet).
+     *         set this to -1 for infinite loop if you know for sure, that all entries have to exist
+     * @return the corresponding ChunkIDs (ChunkID.INVALID_ID for every id that could not be resolved)
+     */
+    public long[] getChunkIDsForNameserviceEntries(final long[] p_ids, final int p_timeoutMs) {
+        long[] ret;
+        ArrayList<Integer> pending;
+        ArrayList<Integer> unresolved;
+        long[] ids;
+        long[] chunkIDs;
+        GetChunkIDsForNameserviceEntriesRequest request;
+
+        ret = new long[p_ids.length];
+        pending = new ArrayList<>(p_ids.length);
+        for (int i = 0; i < p_ids.length; i++) {
+            ret[i] = ChunkID.INVALID_ID;
+            pending.add(i);
+        }
+
+        long start = System.currentTimeMillis();
+        while (!pending.isEmpty()) {
+            unresolved = new ArrayList<>();
+
+            for (Map.Entry<Short, ArrayList<Integer>> group : groupByResponsibleSuperpeer(p_ids, pending).entrySet()) {
+                short responsibleSuperpeer = group.getKey();
+                ArrayList<Integer> indices = group.getValue();
+
+                if (responsibleSuperpeer == NodeID.INVALID_ID) {
+                    unresolved.addAll(indices);
+                    continue;
+                }
+
+                for (int from = 0; from < indices.size(); from += MAX_NAMESERVICE_ENTRIES_PER_MESSAGE) {
+                    int to = Math.min(indices.size(), from + MAX_NAMESERVICE_ENTRIES_PER_MESSAGE);
+
+                    ids = new long[to - from];
+                    for (int i = from; i < to; i++) {
+                        ids[i - from] = p_ids[indices.get(i)];
+                    }
+
+                    request = new GetChunkIDsForNameserviceEntriesRequest(responsibleSuperpeer, ids);
+                    try {
+                        m_network.sendSync(request);
+                    } catch (final NetworkException e) {
+                        // Responsible superpeer is not available, try again (superpeers will be updated
+                        // automatically by network thread)
+                        try {
+                            Thread.sleep(MSG_TIMEOUT_MS);
+                        } catch (final InterruptedException ignored) {
+                        }
+
+                        unresolved.addAll(indices.subList(from, to));
+                        continue;
+                    }
+
+                    chunkIDs = request.getResponse(GetChunkIDsForNameserviceEntriesResponse.class).getChunkIDs();
+                    if (chunkIDs.length != ids.length) {
+                        // Superpeer is not responsible for all entries (anymore), regroup
+                        unresolved.addAll(indices.subList(from, to));
+                        continue;
+                    }
+
+                    for (int i = from; i < to; i++) {
+                        if (chunkIDs[i - from] != ChunkID.INVALID_ID) {
+                            ret[indices.get(i)] = chunkIDs[i - from];
+                        } else {
+                            unresolved.add(indices.get(i));
+                        }
+                    }
+                }
+            }
+
+            pending = unresolved;
+
+            if (p_timeoutMs != -1 && System.currentTimeMillis() - start >= p_timeoutMs) {
+                break;
+            }
+        }
+
+        return ret;
+    }
+
     /**
      * Store migration of given ChunkID to a new location
      *
@@ -808,10 +1061,13 @@ public class OverlayPeer implements MessageReceiver {
      * @param p_waitForRelease
      *         True to wait for the barrier to be released, false to just sign on and don't wait for release
      *         (e.g. signal for remotes)
+     * @param p_reduction
+     *         Reduction to apply to the custom data of all peers (same for all peers), NONE to get all custom data
      * @return A pair consisting of the list of signed on peers and their custom data passed along with the sign ons,
      * null on error
      */
-    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData, final boolean p_waitForRelease) {
+    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData, final boolean p_waitForRelease,
+            final BarrierReduction p_reduction) {
         if (p_barrierId == BarrierID.INVALID_ID) {
             return null;
         }
@@ -845,7 +1101,8 @@ public class OverlayPeer implements MessageReceiver {
         }
 
         short responsibleSuperpeer = BarrierID.getOwnerID(p_barrierId);
-        BarrierSignOnRequest request = new BarrierSignOnRequest(responsibleSuperpeer, p_barrierId, p_customData);
+        BarrierSignOnRequest request =
+                new BarrierSignOnRequest(responsibleSuperpeer, p_barrierId, p_customData, p_reduction);
         try {
             m_network.sendSync(request);
         } catch (final NetworkException e) {
@@ -889,6 +1146,141 @@ public class OverlayPeer implements MessageReceiver {
         }
     }
 
+    /**
+     * Sign on to a barrier using a combining tree and wait for it getting released. The participants form a tree
+     * with the given fan out (ordered by node id): every peer waits for the sign ons of its children, signs on its
+     * whole subtree at its parent and the root signs on all participants at the superpeer with a single request.
+     * The release is passed down the tree the same way, so the number of sequential steps grows logarithmically
+     * with the number of participants. All participants have to use the same participants and fan out.
+     *
+     * @param p_barrierId
+     *         Id of the barrier to sign on to.
+     * @param p_customData
+     *         Custom data to pass along with the sign on
+     * @param p_participants
+     *         Node ids of all peers signing on to the barrier (including this one; as many as the barrier size)
+     * @param p_fanOut
+     *         Max number of children of a peer in the tree
+     * @param p_reduction
+     *         Reduction to apply to the custom data of all peers (same for all peers), NONE to get all custom data.
+     *         With a reduction, every peer passes on the reduced value of its subtree only.
+     * @param p_timeoutMs
+     *         Max time to wait for the sign ons of the children and for the release (each) in ms
+     * @return BarrierStatus of all participants, null on error or timeout (the failure is passed down the tree)
+     */
+    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData, final short[] p_participants,
+            final int p_fanOut, final BarrierReduction p_reduction, final long p_timeoutMs) {
+        if (p_barrierId == BarrierID.INVALID_ID) {
+            return null;
+        }
+
+        // every participant derives the same tree from the sorted participants
+        short[] participants = Arrays.copyOf(p_participants, p_participants.length);
+        Arrays.sort(participants);
+
+        int index = Arrays.binarySearch(participants, m_nodeID);
+        if (index < 0) {
+
+            LOGGER.error("Sign on barrier 0x%X failed: 0x%X is not a participant", p_barrierId, m_nodeID);
+
+            return null;
+        }
+
+        int fanOut = Math.max(2, p_fanOut);
+        int firstChild = BarrierTree.getFirstChild(index, fanOut, participants.length);
+        int numChildren = BarrierTree.getNumberOfChildren(index, fanOut, participants.length);
+
+        Semaphore waitForRelease = new Semaphore(0);
+        final BarrierReleaseMessage[] releaseMessage = {null};
+        MessageReceiver msg = p_message -> {
+            if (p_message != null && p_message.getType() == DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE &&
+                    p_message.getSubtype() == LookupMessages.SUBTYPE_BARRIER_RELEASE_MESSAGE) {
+                BarrierReleaseMessage message = (BarrierReleaseMessage) p_message;
+                if (message.getBarrierId() == p_barrierId) {
+                    releaseMessage[0] = message;
+                    waitForRelease.release();
+                }
+            }
+        };
+
+        // make sure to register the listener BEFORE signing on to not miss the release message
+        m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_BARRIER_RELEASE_MESSAGE,
+                msg);
+
+        // wait for the subtrees of all children (their sign ons might have arrived already)
+        TreeBarrierSignOns signOns = startTreeBarrierRound(p_barrierId);
+        boolean received = waitForTreeBarrier(signOns.m_received, numChildren, p_timeoutMs);
+
+        // sign ons of this round arriving from now on (after a timeout) are dropped
+        synchronized (m_treeBarrierSignOns) {
+            m_treeBarrierSignOns.remove(p_barrierId, signOns);
+        }
+
+        if (!received) {
+
+            LOGGER.error("Sign on barrier 0x%X failed: Sign ons of the children timed out", p_barrierId);
+
+            return failTreeBarrier(p_barrierId, participants, firstChild, numChildren, msg);
+        }
+
+        signOns.add(new short[] {m_nodeID}, new long[] {p_customData});
+        short[] nodeIDs = signOns.getNodeIDs();
+        long[] customData = signOns.getCustomData();
+        if (p_reduction != BarrierReduction.NONE) {
+            customData = new long[] {p_reduction.reduce(customData, customData.length)};
+        }
+
+        try {
+            if (index == 0) {
+                // root: sign on all participants at the superpeer
+                short responsibleSuperpeer = BarrierID.getOwnerID(p_barrierId);
+                BarrierSignOnRequest request =
+                        new BarrierSignOnRequest(responsibleSuperpeer, p_barrierId, nodeIDs, customData, p_reduction);
+                m_network.sendSync(request);
+
+                BarrierSignOnResponse response = (BarrierSignOnResponse) request.getResponse();
+                if (response.getBarrierId() != p_barrierId || response.getStatus() != 0) {
+
+                    LOGGER.error("Sign on barrier 0x%X failed", p_barrierId);
+
+                    return failTreeBarrier(p_barrierId, participants, firstChild, numChildren, msg);
+                }
+            } else {
+                m_network.sendMessage(new BarrierTreeSignOnMessage(
+                        participants[BarrierTree.getParent(index, fanOut)], p_barrierId, signOns.m_round, nodeIDs,
+                        customData));
+            }
+        } catch (final NetworkException e) {
+
+            LOGGER.error("Sign on barrier 0x%X failed: %s", p_barrierId, e);
+
+            return failTreeBarrier(p_barrierId, participants, firstChild, numChildren, msg);
+        }
+
+        if (!waitForTreeBarrier(waitForRelease, 1, p_timeoutMs)) {
+
+            LOGGER.error("Sign on barrier 0x%X failed: Release timed out", p_barrierId);
+
+            return failTreeBarrier(p_barrierId, participants, firstChild, numChildren, msg);
+        }
+
+        m_network.unregister(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_BARRIER_RELEASE_MESSAGE,
+                msg);
+
+        // pass the release (or the failure of an ancestor) down the tree
+        BarrierStatus status = releaseMessage[0].getBarrierResults();
+        releaseTreeBarrierChildren(p_barrierId, participants, firstChild, numChildren, status);
+
+        if (status.isFailure()) {
+
+            LOGGER.error("Sign on barrier 0x%X failed: Released with failure", p_barrierId);
+
+            return null;
+        }
+
+        return status;
+    }
+
     /**
      * Get the status of a barrier.
      *
@@ -1356,9 +1748,15 @@ public class OverlayPeer implements MessageReceiver {
                     case LookupMessages.SUBTYPE_NAMESERVICE_UPDATE_PEER_CACHES_MESSAGE:
                         incomingNameserviceUpdatePeerCachesMessage((NameserviceUpdatePeerCachesMessage) p_message);
                         break;
+                    case LookupMessages.SUBTYPE_MIGRATION_UPDATE_PEER_CACHES_MESSAGE:
+                        incomingMigrationUpdatePeerCachesMessage((MigrationUpdatePeerCachesMessage) p_message);
+                        break;
                     case LookupMessages.SUBTYPE_NODE_JOIN_EVENT_REQUEST:
                         incomingNodeJoinEventRequest((NodeJoinEventRequest) p_message);
                         break;
+                    case LookupMessages.SUBTYPE_BARRIER_TREE_SIGN_ON_MESSAGE:
+                        incomingBarrierTreeSignOnMessage((BarrierTreeSignOnMessage) p_message);
+                        break;
                     default:
                         break;
                 }
@@ -1366,6 +1764,133 @@ public class OverlayPeer implements MessageReceiver {
         }
     }
 
+    /**
+     * Starts the next sign on round of a combining tree barrier. Every participant counts the rounds of a barrier
+     * itself, so the rounds of parent and children match.
+     *
+     * @param p_barrierId
+     *         the barrier
+     * @return the collected sign ons of the new round (children might have signed on already)
+     */
+    private TreeBarrierSignOns startTreeBarrierRound(final int p_barrierId) {
+        synchronized (m_treeBarrierSignOns) {
+            int round = m_treeBarrierRounds.getOrDefault(p_barrierId, 0) + 1;
+            m_treeBarrierRounds.put(p_barrierId, round);
+
+            TreeBarrierSignOns ret = m_treeBarrierSignOns.get(p_barrierId);
+            if (ret == null || ret.m_round != round) {
+                ret = new TreeBarrierSignOns(round);
+                m_treeBarrierSignOns.put(p_barrierId, ret);
+            }
+
+            return ret;
+        }
+    }
+
+    /**
+     * Gets (or creates) the collected subtree sign ons of a round of a combining tree barrier
+     *
+     * @param p_barrierId
+     *         the barrier
+     * @param p_round
+     *         the round of the sign on
+     * @return the collected sign ons, null if the round is over already (e.g. a late sign on after a timeout)
+     */
+    private TreeBarrierSignOns getTreeBarrierSignOns(final int p_barrierId, final int p_round) {
+        synchronized (m_treeBarrierSignOns) {
+            TreeBarrierSignOns ret = m_treeBarrierSignOns.get(p_barrierId);
+            if (ret != null && ret.m_round == p_round) {
+                return ret;
+            }
+
+            if (p_round <= m_treeBarrierRounds.getOrDefault(p_barrierId, 0) ||
+                    ret != null && ret.m_round > p_round) {
+                return null;
+            }
+
+            // the child is ahead of this peer
+            ret = new TreeBarrierSignOns(p_round);
+            m_treeBarrierSignOns.put(p_barrierId, ret);
+
+            return ret;
+        }
+    }
+
+    /**
+     * Waits for permits of a combining tree barrier
+     *
+     * @param p_semaphore
+     *         the semaphore to acquire the permits from
+     * @param p_permits
+     *         the number of permits
+     * @param p_timeoutMs
+     *         max time to wait in ms
+     * @return true if all permits were acquired, false on timeout or interrupt
+     */
+    private static boolean waitForTreeBarrier(final Semaphore p_semaphore, final int p_permits,
+            final long p_timeoutMs) {
+        try {
+            return p_semaphore.tryAcquire(p_permits, p_timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Aborts a sign on to a combining tree barrier: stops listening for the release and releases the children
+     * with a failure (which they pass on to their subtrees) instead of leaving them waiting for a release
+     *
+     * @param p_barrierId
+     *         the barrier
+     * @param p_participants
+     *         the sorted participants
+     * @param p_firstChild
+     *         index of the first child
+     * @param p_numChildren
+     *         number of children
+     * @param p_receiver
+     *         the release listener to unregister
+     * @return null
+     */
+    private BarrierStatus failTreeBarrier(final int p_barrierId, final short[] p_participants, final int p_firstChild,
+            final int p_numChildren, final MessageReceiver p_receiver) {
+        m_network.unregister(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_BARRIER_RELEASE_MESSAGE,
+                p_receiver);
+
+        releaseTreeBarrierChildren(p_barrierId, p_participants, p_firstChild, p_numChildren,
+                BarrierStatus.createFailureStatus());
+
+        return null;
+    }
+
+    /**
+     * Passes the release of a combining tree barrier on to the children
+     *
+     * @param p_barrierId
+     *         the barrier
+     * @param p_participants
+     *         the sorted participants
+     * @param p_firstChild
+     *         index of the first child
+     * @param p_numChildren
+     *         number of children
+     * @param p_status
+     *         the status to release the children with
+     */
+    private void releaseTreeBarrierChildren(final int p_barrierId, final short[] p_participants,
+            final int p_firstChild, final int p_numChildren, final BarrierStatus p_status) {
+        for (int i = p_firstChild; i < p_firstChild + p_numChildren; i++) {
+            try {
+                m_network.sendMessage(new BarrierReleaseMessage(p_participants[i], p_barrierId, p_status));
+            } catch (final NetworkException e) {
+
+                LOGGER.error("Releasing peer 0x%X of barrier 0x%X failed: %s", p_participants[i], p_barrierId, e);
+
+            }
+        }
+    }
+
     /**
      * Informs responsible superpeer about finished startup
      */
@@ -1443,6 +1968,48 @@ public class OverlayPeer implements MessageReceiver {
         return true;
     }
 
+    /**
+     * Groups nameservice ids by their responsible superpeer
+     *
+     * @param p_ids
+     *         all nameservice ids
+     * @param p_indices
+     *         the indices of the ids to group
+     * @return the indices of the ids per responsible superpeer (NodeID.INVALID_ID if the superpeer is unknown)
+     */
+    private HashMap<Short, ArrayList<Integer>> groupByResponsibleSuperpeer(final long[] p_ids,
+            final ArrayList<Integer> p_indices) {
+        HashMap<Short, ArrayList<Integer>> ret = new HashMap<>();
+        HashMap<Short, Short> superpeerOfHash = new HashMap<>();
+        boolean check = false;
+
+        m_overlayLock.readLock().lock();
+        if (!OverlayHelper.isOverlayStable(m_initialNumberOfSuperpeers, m_superpeers.size())) {
+            check = true;
+        }
+
+        for (int index : p_indices) {
+            short hash = NameserviceHashTable.hash(p_ids[index]);
+
+            // Determine the superpeer only once per hash (might involve asking other superpeers)
+            Short responsibleSuperpeer = superpeerOfHash.get(hash);
+            if (responsibleSuperpeer == null) {
+                responsibleSuperpeer = getResponsibleSuperpeer(hash, check);
+                superpeerOfHash.put(hash, responsibleSuperpeer);
+            }
+
+            ArrayList<Integer> indices = ret.get(responsibleSuperpeer);
+            if (indices == null) {
+                indices = new ArrayList<>();
+                ret.put(responsibleSuperpeer, indices);
+            }
+            indices.add(index);
+        }
+        m_overlayLock.readLock().unlock();
+
+        return ret;
+    }
+
     /**
      * Determines the responsible superpeer for given NodeID
      *
@@ -1549,8 +2116,39 @@ public class OverlayPeer implements MessageReceiver {
      *         the NameserviceUpdatePeerCachesMessage
      */
     private void incomingNameserviceUpdatePeerCachesMessage(final NameserviceUpdatePeerCachesMessage p_message) {
-        m_event.fireEvent(new NameserviceCacheEntryUpdateEvent(getClass().getSimpleName(), p_message.getID(),
-                p_message.getChunkID()));
+        m_event.fireEvent(new NameserviceCacheEntryUpdateEvent(getClass().getSimpleName(), p_message.getIDs(),
+                p_message.getChunkIDs()));
+    }
+
+    /**
+     * Handles an incoming MigrationUpdatePeerCachesMessage
+     *
+     * @param p_message
+     *         the MigrationUpdatePeerCachesMessage
+     */
+    private void incomingMigrationUpdatePeerCachesMessage(final MigrationUpdatePeerCachesMessage p_message) {
+        m_event.fireEvent(new MigrationCacheUpdateEvent(getClass().getSimpleName(), p_message.getSource(),
+                p_message.getSequenceNumber(), p_message.getChunkIDRanges(), p_message.getOwners()));
+    }
+
+    /**
+     * Handles an incoming BarrierTreeSignOnMessage
+     *
+     * @param p_message
+     *         the BarrierTreeSignOnMessage
+     */
+    private void incomingBarrierTreeSignOnMessage(final BarrierTreeSignOnMessage p_message) {
+        TreeBarrierSignOns signOns = getTreeBarrierSignOns(p_message.getBarrierId(), p_message.getRound());
+        if (signOns == null) {
+
+            LOGGER.warn("Dropping late sign on of 0x%X to barrier 0x%X (round %d is over)", p_message.getSource(),
+                    p_message.getBarrierId(), p_message.getRound());
+
+            return;
+        }
+
+        signOns.add(p_message.getNodeIDs(), p_message.getCustomData());
+        signOns.m_received.release();
     }
 
     /**
@@ -1606,6 +2204,14 @@ public class OverlayPeer implements MessageReceiver {
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_CHUNKID_FOR_NAMESERVICE_ENTRY_RESPONSE,
                 GetChunkIDForNameserviceEntryResponse.class);
+        m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_REQUEST,
+                GetChunkIDsForNameserviceEntriesRequest.class);
+        m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_RESPONSE,
+                GetChunkIDsForNameserviceEntriesResponse.class);
+        m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_BARRIER_TREE_SIGN_ON_MESSAGE, BarrierTreeSignOnMessage.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRY_COUNT_REQUEST, GetNameserviceEntryCountRequest.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
@@ -1617,6 +2223,8 @@ public class OverlayPeer implements MessageReceiver {
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_NAMESERVICE_UPDATE_PEER_CACHES_MESSAGE,
                 NameserviceUpdatePeerCachesMessage.class);
+        m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_MIGRATION_UPDATE_PEER_CACHES_MESSAGE, MigrationUpdatePeerCachesMessage.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_MIGRATE_REQUEST,
                 MigrateRequest.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_MIGRATE_RESPONSE,
@@ -1711,10 +2319,70 @@ public class OverlayPeer implements MessageReceiver {
     private void registerNetworkMessageListener() {
         m_network
                 .register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_SEND_SUPERPEERS_MESSAGE, this);
+        m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_BARRIER_TREE_SIGN_ON_MESSAGE, this);
         m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_NAMESERVICE_UPDATE_PEER_CACHES_MESSAGE, this);
+        m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_MIGRATION_UPDATE_PEER_CACHES_MESSAGE, this);
         m_network
                 .register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_NODE_JOIN_EVENT_REQUEST, this);
     }
 
+
+    /**
+     * Sign ons of the subtrees of a peer in a combining tree barrier
+     */
+    private static final class TreeBarrierSignOns {
+
+        private final int m_round;
+        private final Semaphore m_received = new Semaphore(0);
+        private short[] m_nodeIDs = new short[0];
+        private long[] m_customData = new long[0];
+
+        /**
+         * Creates an instance of TreeBarrierSignOns
+         *
+         * @param p_round
+         *         the sign on round
+         */
+        private TreeBarrierSignOns(final int p_round) {
+            m_round = p_round;
+        }
+
+        /**
+         * Adds the sign ons of a subtree
+         *
+         * @param p_nodeIDs
+         *         the node ids
+         * @param p_customData
+         *         the custom data of every node id
+         */
+        private synchronized void add(final short[] p_nodeIDs, final long[] p_customData) {
+            int size = m_nodeIDs.length;
+
+            m_nodeIDs = Arrays.copyOf(m_nodeIDs, size + p_nodeIDs.length);
+            m_customData = Arrays.copyOf(m_customData, size + p_customData.length);
+            System.arraycopy(p_nodeIDs, 0, m_nodeIDs, size, p_nodeIDs.length);
+            System.arraycopy(p_customData, 0, m_customData, size, p_customData.length);
+        }
+
+        /**
+         * Get the node ids of all sign ons
+         *
+         * @return the node ids
+         */
+        private synchronized short[] getNodeIDs() {
+            return m_nodeIDs;
+        }
+
+        /**
+         * Get the custom data of all sign ons
+         *
+         * @return the custom data
+         */
+        private synchronized long[] getCustomData() {
+            return m_customData;
+        }
+    }
 }
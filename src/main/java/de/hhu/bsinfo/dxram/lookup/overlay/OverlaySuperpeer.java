@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.logging.log4j.LogManager;
@@ -45,6 +46,7 @@ import de.hhu.bsinfo.dxram.failure.messages.FailureRequest;
 import de.hhu.bsinfo.dxram.failure.messages.FailureResponse;
 import de.hhu.bsinfo.dxram.lookup.LookupComponent;
 import de.hhu.bsinfo.dxram.lookup.LookupRange;
+import de.hhu.bsinfo.dxram.lookup.LookupState;
 import de.hhu.bsinfo.dxram.lookup.events.NodeJoinEvent;
 import de.hhu.bsinfo.dxram.lookup.messages.AskAboutBackupsRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.AskAboutBackupsResponse;
@@ -66,6 +68,8 @@ import de.hhu.bsinfo.dxram.lookup.messages.GetAllBackupRangesRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.GetAllBackupRangesResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDForNameserviceEntryRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDForNameserviceEntryResponse;
+import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDsForNameserviceEntriesRequest;
+import de.hhu.bsinfo.dxram.lookup.messages.GetChunkIDsForNameserviceEntriesResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.GetLookupRangeRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.GetLookupRangeResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.GetMetadataSummaryRequest;
@@ -85,6 +89,7 @@ import de.hhu.bsinfo.dxram.lookup.messages.MigrateRangeRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.MigrateRangeResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.MigrateRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.MigrateResponse;
+import de.hhu.bsinfo.dxram.lookup.messages.MigrationUpdatePeerCachesMessage;
 import de.hhu.bsinfo.dxram.lookup.messages.NameserviceUpdatePeerCachesMessage;
 import de.hhu.bsinfo.dxram.lookup.messages.NodeJoinEventRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.NodeJoinEventResponse;
@@ -112,6 +117,7 @@ import de.hhu.bsinfo.dxram.lookup.messages.SuperpeerStorageStatusRequest;
 import de.hhu.bsinfo.dxram.lookup.messages.SuperpeerStorageStatusResponse;
 import de.hhu.bsinfo.dxram.lookup.messages.UpdateMetadataAfterRecoveryMessage;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierID;
+import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierReduction;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierStatus;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarriersTable;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.LookupTree;
@@ -168,8 +174,18 @@ public class OverlaySuperpeer implements MessageReceiver {
     private ArrayList<Short> m_assignedPeersIncludingBackups;
 
     private MetadataHandler m_metadata;
+    // Peers signed on to a barrier by their leader in a combining tree (released by the leader, not by us)
+    private Map<Integer, Set<Short>> m_barrierTreeCoveredPeers = new ConcurrentHashMap<>();
 
     private SuperpeerStabilizationThread m_stabilizationThread;
+    private PeerCacheUpdateThread m_peerCacheUpdateThread;
+
+    // Incoming messages are processed on separate executors per message class to keep lookups from waiting
+    // behind metadata updates and fan-out notifications
+    private SuperpeerMessageExecutor m_lookupExecutor;
+    private SuperpeerMessageExecutor m_metadataExecutor;
+    private SuperpeerMessageExecutor m_notificationExecutor;
+    private SuperpeerMessageExecutor m_stabilizationExecutor;
 
     private ReentrantReadWriteLock m_overlayLock;
 
@@ -183,7 +199,9 @@ public class OverlaySuperpeer implements MessageReceiver {
      * @param p_initialNumberOfSuperpeers
      *         the number of expeced superpeers
      * @param p_sleepInterval
-     *         the ping interval in ms
+     *         the min break time between stabilization rounds in ms
+     * @param p_maxSleepInterval
+     *         the max break time between stabilization rounds in ms (while the overlay does not change)
      * @param p_maxNumOfBarriers
      *         Max number of barriers
      * @param p_storageMaxNumEntries
@@ -192,15 +210,28 @@ public class OverlaySuperpeer implements MessageReceiver {
      *         Max size for the superpeer storage in bytes
      * @param p_backupActive
      *         whether backup component is active or not
+     * @param p_lookupThreads
+     *         the number of threads processing lookup requests
+     * @param p_metadataThreads
+     *         the number of threads processing metadata updates
+     * @param p_notificationThreads
+     *         the number of threads sending notifications to peers and backup superpeers
+     * @param p_queueCapacity
+     *         the max number of queued messages per message class (and per thread for ordered message classes)
+     * @param p_queueTimeoutMs
+     *         the time in ms a message handler waits for a free queue slot before it processes a lookup itself
      * @param p_boot
      *         the BootComponent
      * @param p_network
      *         the NetworkComponent
      */
     public OverlaySuperpeer(final short p_nodeID, final short p_contactSuperpeer, final int p_initialNumberOfSuperpeers,
-            final int p_sleepInterval, final int p_maxNumOfBarriers, final int p_storageMaxNumEntries,
-            final int p_storageMaxSizeBytes, final boolean p_backupActive, final AbstractBootComponent p_boot,
-            final NetworkComponent p_network, final EventComponent p_event) {
+            final int p_sleepInterval, final int p_maxSleepInterval, final int p_maxNumOfBarriers,
+            final int p_storageMaxNumEntries,
+            final int p_storageMaxSizeBytes, final boolean p_backupActive, final int p_lookupThreads,
+            final int p_metadataThreads, final int p_notificationThreads, final int p_queueCapacity,
+            final long p_queueTimeoutMs, final AbstractBootComponent p_boot, final NetworkComponent p_network,
+            final EventComponent p_event) {
         m_boot = p_boot;
         m_network = p_network;
         m_event = p_event;
@@ -222,10 +253,20 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         m_initialNumberOfSuperpeers--;
 
+        m_lookupExecutor = new SuperpeerMessageExecutor("SuperpeerLookup", p_lookupThreads, p_queueCapacity,
+                p_queueTimeoutMs, false);
+        // Metadata updates of a node and their replication to backup superpeers are applied in order
+        m_metadataExecutor = new SuperpeerMessageExecutor("SuperpeerMetadata", p_metadataThreads, p_queueCapacity,
+                p_queueTimeoutMs, true);
+        m_notificationExecutor = new SuperpeerMessageExecutor("SuperpeerNotification", p_notificationThreads,
+                p_queueCapacity, p_queueTimeoutMs, true);
+        m_stabilizationExecutor = new SuperpeerMessageExecutor("SuperpeerStabilization", 1, p_queueCapacity,
+                p_queueTimeoutMs, true);
+
         registerNetworkMessages();
         registerNetworkMessageListener();
 
-        createOrJoinSuperpeerOverlay(p_contactSuperpeer, p_sleepInterval);
+        createOrJoinSuperpeerOverlay(p_contactSuperpeer, p_sleepInterval, p_maxSleepInterval);
     }
 
     /**
@@ -258,7 +299,7 @@ public class OverlaySuperpeer implements MessageReceiver {
     }
 
     /**
-     * Shuts down the stabilization thread
+     * Shuts down the stabilization thread, the peer cache update thread and the message executors
      */
     public void shutdown() {
         m_stabilizationThread.interrupt();
@@ -270,19 +311,46 @@ public class OverlaySuperpeer implements MessageReceiver {
         } catch (final InterruptedException ignored) {
             LOGGER.warn("Could not wait for stabilization thread to finish. Interrupted");
         }
+
+        m_peerCacheUpdateThread.interrupt();
+        m_peerCacheUpdateThread.shutdown();
+        try {
+            m_peerCacheUpdateThread.join();
+        } catch (final InterruptedException ignored) {
+            LOGGER.warn("Could not wait for peer cache update thread to finish. Interrupted");
+        }
+
+        m_stabilizationExecutor.shutdown();
+        m_lookupExecutor.shutdown();
+        m_metadataExecutor.shutdown();
+        m_notificationExecutor.shutdown();
     }
 
     /**
-     * Returns the corresponding lookup tree
+     * Returns a snapshot of the corresponding lookup tree
      *
      * @param p_nodeID
      *         the NodeID
-     * @return the lookup tree
+     * @return a copy of the lookup tree
      */
     public LookupTree getLookupTree(final short p_nodeID) {
         return m_metadata.getLookupTree(p_nodeID);
     }
 
+    /**
+     * Registers a peer which caches ranges of given creator to get ownership changes of these ranges pushed
+     *
+     * @param p_creator
+     *         the creator
+     * @param p_peer
+     *         the caching peer
+     */
+    public void registerCachingPeer(final short p_creator, final short p_peer) {
+        if (m_peerCacheUpdateThread != null) {
+            m_peerCacheUpdateThread.registerCachingPeer(p_creator, p_peer);
+        }
+    }
+
     /**
      * Determines if this superpeer is responsible for failure handling
      *
@@ -293,6 +361,8 @@ public class OverlaySuperpeer implements MessageReceiver {
      * @return true if superpeer is responsible for failed node, false otherwise
      */
     public boolean nodeFailureHandling(final short p_failedNode, final NodeRole p_nodeRole) {
+        accelerateStabilization();
+
         if (p_nodeRole == NodeRole.SUPERPEER) {
             return superpeerFailureHandling(p_failedNode);
         } else {
@@ -308,6 +378,89 @@ public class OverlaySuperpeer implements MessageReceiver {
      */
     @Override
     public void onIncomingMessage(final Message p_message) {
+        SuperpeerMessageExecutor executor;
+
+        if (p_message != null) {
+            executor = getExecutor(p_message);
+            if (executor != null) {
+                executor.execute(p_message.getSource(), () -> handleMessage(p_message));
+            } else {
+                handleMessage(p_message);
+            }
+        }
+    }
+
+    /**
+     * Determines the executor processing an incoming Message. Replicated updates from other superpeers are
+     * processed by the message handler directly as they are cheap and the sending superpeer is waiting for them
+     *
+     * @param p_message
+     *         the Message
+     * @return the executor or null to process the message in the calling thread
+     */
+    private SuperpeerMessageExecutor getExecutor(final Message p_message) {
+        if (p_message.getType() != DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE) {
+            return null;
+        }
+
+        switch (p_message.getSubtype()) {
+            case LookupMessages.SUBTYPE_GET_LOOKUP_RANGE_REQUEST:
+            case LookupMessages.SUBTYPE_GET_CHUNKID_FOR_NAMESERVICE_ENTRY_REQUEST:
+            case LookupMessages.SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_REQUEST:
+            case LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRY_COUNT_REQUEST:
+            case LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRIES_REQUEST:
+            case LookupMessages.SUBTYPE_GET_ALL_BACKUP_RANGES_REQUEST:
+            case LookupMessages.SUBTYPE_BARRIER_STATUS_REQUEST:
+            case LookupMessages.SUBTYPE_SUPERPEER_STORAGE_GET_REQUEST:
+            case LookupMessages.SUBTYPE_SUPERPEER_STORAGE_GET_ANON_REQUEST:
+            case LookupMessages.SUBTYPE_SUPERPEER_STORAGE_STATUS_REQUEST:
+            case LookupMessages.SUBTYPE_GET_METADATA_SUMMARY_REQUEST:
+                return m_lookupExecutor;
+            case LookupMessages.SUBTYPE_REMOVE_CHUNKIDS_REQUEST:
+                return ((RemoveChunkIDsRequest) p_message).isBackup() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_INSERT_NAMESERVICE_ENTRIES_REQUEST:
+                return ((InsertNameserviceEntriesRequest) p_message).isBackup() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_MIGRATE_REQUEST:
+                return ((MigrateRequest) p_message).isBackup() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_MIGRATE_RANGE_REQUEST:
+                return ((MigrateRangeRequest) p_message).isBackup() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_INIT_RANGE_REQUEST:
+                return ((InitRangeRequest) p_message).isBackup() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_REPLACE_BACKUP_PEER_REQUEST:
+                return ((ReplaceBackupPeerRequest) p_message).isBackup() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_BARRIER_ALLOC_REQUEST:
+                return ((BarrierAllocRequest) p_message).isReplicate() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_BARRIER_FREE_REQUEST:
+                return ((BarrierFreeRequest) p_message).isReplicate() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_BARRIER_CHANGE_SIZE_REQUEST:
+                return ((BarrierChangeSizeRequest) p_message).isReplicate() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_SUPERPEER_STORAGE_CREATE_REQUEST:
+                return ((SuperpeerStorageCreateRequest) p_message).isReplicate() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_SUPERPEER_STORAGE_PUT_REQUEST:
+                return ((SuperpeerStoragePutRequest) p_message).isReplicate() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_SUPERPEER_STORAGE_PUT_ANON_REQUEST:
+                return ((SuperpeerStoragePutAnonRequest) p_message).isReplicate() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_SUPERPEER_STORAGE_REMOVE_MESSAGE:
+                return ((SuperpeerStorageRemoveMessage) p_message).isReplicate() ? null : m_metadataExecutor;
+            case LookupMessages.SUBTYPE_BARRIER_SIGN_ON_REQUEST:
+            case LookupMessages.SUBTYPE_UPDATE_METADATA_AFTER_RECOVERY_MESSAGE:
+                return m_metadataExecutor;
+            case LookupMessages.SUBTYPE_JOIN_REQUEST:
+            case LookupMessages.SUBTYPE_FINISHED_STARTUP_MESSAGE:
+            case LookupMessages.SUBTYPE_NODE_JOIN_EVENT_REQUEST:
+                return m_stabilizationExecutor;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Processes an incoming Message
+     *
+     * @param p_message
+     *         the Message
+     */
+    private void handleMessage(final Message p_message) {
 
         LOGGER.trace("Entering incomingMessage with: p_message=%s", p_message);
 
@@ -332,6 +485,10 @@ public class OverlaySuperpeer implements MessageReceiver {
                     case LookupMessages.SUBTYPE_GET_CHUNKID_FOR_NAMESERVICE_ENTRY_REQUEST:
                         incomingGetChunkIDForNameserviceEntryRequest((GetChunkIDForNameserviceEntryRequest) p_message);
                         break;
+                    case LookupMessages.SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_REQUEST:
+                        incomingGetChunkIDsForNameserviceEntriesRequest(
+                                (GetChunkIDsForNameserviceEntriesRequest) p_message);
+                        break;
                     case LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRY_COUNT_REQUEST:
                         incomingGetNameserviceEntryCountRequest((GetNameserviceEntryCountRequest) p_message);
                         break;
@@ -426,6 +583,11 @@ public class OverlaySuperpeer implements MessageReceiver {
      * @lock overlay lock must be write-locked
      */
     protected void setPredecessor(final short p_nodeID) {
+        if (m_predecessor != p_nodeID) {
+            // Responsible area changed -> backup superpeers need all metadata of the new area
+            m_metadata.resetChangeTracking();
+            accelerateStabilization();
+        }
         m_predecessor = p_nodeID;
         if (m_predecessor != m_successor) {
             OverlayHelper.insertSuperpeer(m_predecessor, m_superpeers);
@@ -450,6 +612,9 @@ public class OverlaySuperpeer implements MessageReceiver {
      * @lock overlay lock must be write-locked
      */
     protected void setSuccessor(final short p_nodeID) {
+        if (m_successor != p_nodeID) {
+            accelerateStabilization();
+        }
         m_successor = p_nodeID;
         if (m_successor != NodeID.INVALID_ID && m_nodeID != m_successor) {
             OverlayHelper.insertSuperpeer(m_successor, m_superpeers);
@@ -513,57 +678,27 @@ public class OverlaySuperpeer implements MessageReceiver {
     }
 
     /**
-     * Returns the number of nameservice entries in given area
+     * Returns the current metadata change sequence number
      *
-     * @param p_responsibleArea
-     *         the area
-     * @return the number of nameservice entries
+     * @return the change sequence number
      */
-    int getNumberOfNameserviceEntries(final short[] p_responsibleArea) {
-        return m_metadata.getNumberOfNameserviceEntries(p_responsibleArea);
+    long getChangeSequence() {
+        return m_metadata.getChangeSequence();
     }
 
     /**
-     * Returns the number of storages in given area
-     *
-     * @param p_responsibleArea
-     *         the area
-     * @return the number of storages
-     */
-    int getNumberOfStorages(final short[] p_responsibleArea) {
-        return m_metadata.getNumberOfStorages(p_responsibleArea);
-    }
-
-    /**
-     * Returns the number of barriers in given area
-     *
-     * @param p_responsibleArea
-     *         the area
-     * @return the number of barriers
-     */
-    int getNumberOfBarriers(final short[] p_responsibleArea) {
-        return m_metadata.getNumberOfBarriers(p_responsibleArea);
-    }
-
-    /**
-     * Compares given peer list with local list and returns all missing backup data
+     * Returns all backup data that changed since given change sequence number or belongs to a peer missing in given
+     * peer list
      *
      * @param p_peers
      *         all peers the requesting superpeer stores backups for
-     * @param p_numberOfNameserviceEntries
-     *         the number of expected nameservice entries
-     * @param p_numberOfStorages
-     *         the number of expected storages
-     * @param p_numberOfBarriers
-     *         the number of expected barriers
-     * @return the backup data of missing peers in given peer list
-     * @lock overlay lock must be write-locked
+     * @param p_acknowledgedChange
+     *         the change sequence number the requesting superpeer is up to date with (0 if unknown)
+     * @return the changed and missing backup data
+     * @lock overlay lock must be read-locked
      */
-    byte[] compareAndReturnBackups(final ArrayList<Short> p_peers, final int p_numberOfNameserviceEntries,
-            final int p_numberOfStorages, final int p_numberOfBarriers) {
-        return m_metadata
-                .compareAndReturnBackups(p_peers, p_numberOfNameserviceEntries, p_numberOfStorages, p_numberOfBarriers,
-                        m_predecessor, m_nodeID);
+    byte[] compareAndReturnBackups(final ArrayList<Short> p_peers, final long p_acknowledgedChange) {
+        return m_metadata.compareAndReturnBackups(p_peers, p_acknowledgedChange, m_predecessor, m_nodeID);
     }
 
     /**
@@ -720,6 +855,15 @@ public class OverlaySuperpeer implements MessageReceiver {
         }
     }
 
+    /**
+     * Switches the stabilization thread to fast rounds after a membership change
+     */
+    private void accelerateStabilization() {
+        if (m_stabilizationThread != null) {
+            m_stabilizationThread.accelerate();
+        }
+    }
+
     /**
      * Handles a superpeer failure for the superpeer overlay
      *
@@ -1130,11 +1274,14 @@ public class OverlaySuperpeer implements MessageReceiver {
      * @param p_contactSuperpeer
      *         NodeID of a known superpeer
      * @param p_sleepInterval
-     *         the ping interval in ms
+     *         the min break time between stabilization rounds in ms
+     * @param p_maxSleepInterval
+     *         the max break time between stabilization rounds in ms
      * @return whether the joining was successful
      * @lock no need for acquiring overlay lock in this method
      */
-    private boolean createOrJoinSuperpeerOverlay(final short p_contactSuperpeer, final int p_sleepInterval) {
+    private boolean createOrJoinSuperpeerOverlay(final short p_contactSuperpeer, final int p_sleepInterval,
+            final int p_maxSleepInterval) {
         short contactSuperpeer;
         JoinRequest joinRequest;
         JoinResponse joinResponse = null;
@@ -1201,12 +1348,18 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         m_stabilizationThread =
                 new SuperpeerStabilizationThread(this, m_nodeID, m_overlayLock, m_initialNumberOfSuperpeers,
-                        m_superpeers, p_sleepInterval, m_network);
+                        m_superpeers, p_sleepInterval, p_maxSleepInterval, m_network);
         m_stabilizationThread.setName(
                 SuperpeerStabilizationThread.class.getSimpleName() + " for " + LookupComponent.class.getSimpleName());
         m_stabilizationThread.setDaemon(true);
         m_stabilizationThread.start();
 
+        m_peerCacheUpdateThread = new PeerCacheUpdateThread(m_nodeID, m_boot, m_network);
+        m_peerCacheUpdateThread.setName(
+                PeerCacheUpdateThread.class.getSimpleName() + " for " + LookupComponent.class.getSimpleName());
+        m_peerCacheUpdateThread.setDaemon(true);
+        m_peerCacheUpdateThread.start();
+
         // Inform all peers and superpeers about joining
         m_overlayLock.readLock().lock();
         // Inform all superpeers
@@ -1459,7 +1612,7 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         newPeer = p_finishedStartupMessage.getSource();
 
-        // Outsource informing other superpeers/peers to another thread to avoid blocking a message handler
+        // Outsource informing other superpeers/peers to the notification executor to avoid blocking the message handler
         Runnable task = () -> {
             m_overlayLock.readLock().lock();
             // Inform all superpeers
@@ -1498,7 +1651,9 @@ public class OverlaySuperpeer implements MessageReceiver {
             m_overlayLock.readLock().unlock();
         };
 
-        new Thread(task).start();
+        m_notificationExecutor.execute(p_finishedStartupMessage.getSource(), task);
+
+        accelerateStabilization();
 
         // Notify other components/services
         m_event.fireEvent(
@@ -1516,6 +1671,8 @@ public class OverlaySuperpeer implements MessageReceiver {
      */
     private void incomingGetLookupRangeRequest(final GetLookupRangeRequest p_getLookupRangeRequest) {
         long chunkID;
+        short creator;
+        boolean responsible;
         LookupRange result;
 
         chunkID = p_getLookupRangeRequest.getChunkID();
@@ -1523,11 +1680,31 @@ public class OverlaySuperpeer implements MessageReceiver {
         LOGGER.trace("Got request: GET_LOOKUP_RANGE_REQUEST 0x%X chunkID: 0x%X", p_getLookupRangeRequest.getSource(),
                 chunkID);
 
-        result = m_metadata.getLookupRangeFromLookupTree(chunkID, m_backupActive);
+        if (p_getLookupRangeRequest.isBackupRead()) {
+            creator = ChunkID.getCreatorID(chunkID);
+
+            m_overlayLock.readLock().lock();
+            responsible = OverlayHelper.isPeerInSuperpeerRange(creator, m_predecessor, m_nodeID);
+            m_overlayLock.readLock().unlock();
+
+            if (!responsible && !m_metadata.hasLookupTree(creator)) {
+                // Not (yet) a backup for this creator, the peer has to ask the responsible superpeer
+                result = new LookupRange(LookupState.DATA_TEMPORARY_UNAVAILABLE);
+            } else {
+                result = m_metadata.getLookupRangeFromLookupTree(chunkID, m_backupActive);
+            }
+        } else {
+            result = m_metadata.getLookupRangeFromLookupTree(chunkID, m_backupActive);
+        }
 
         LOGGER.trace("GET_LOOKUP_RANGE_REQUEST 0x%X chunkID 0x%X reply location: %s",
                 p_getLookupRangeRequest.getSource(), chunkID, result);
 
+        if (result.getState() == LookupState.OK && !p_getLookupRangeRequest.isBackupRead()) {
+            // The peer caches the range -> push ownership changes to it
+            registerCachingPeer(ChunkID.getCreatorID(chunkID), p_getLookupRangeRequest.getSource());
+        }
+
         try {
             m_network.sendMessage(new GetLookupRangeResponse(p_getLookupRangeRequest, result));
         } catch (final NetworkException e) {
@@ -1614,37 +1791,49 @@ public class OverlaySuperpeer implements MessageReceiver {
      *         the InsertIDRequest
      */
     private void incomingInsertNameserviceEntriesRequest(final InsertNameserviceEntriesRequest p_insertIDRequest) {
-        int id;
+        long[] ids;
+        long[] chunkIDs;
+        boolean responsible;
         short[] backupSuperpeers;
+        short[] peers;
 
-        id = p_insertIDRequest.getID();
+        ids = p_insertIDRequest.getIDs();
+        chunkIDs = p_insertIDRequest.getChunkIDs();
 
-        LOGGER.trace("Got request: INSERT_ID_REQUEST from 0x%X, id %d", p_insertIDRequest.getSource(), id);
+        LOGGER.trace("Got request: INSERT_ID_REQUEST from 0x%X, %d ids", p_insertIDRequest.getSource(), ids.length);
 
         m_overlayLock.readLock().lock();
-        if (OverlayHelper.isHashInSuperpeerRange(CRC16.hash(id), m_predecessor, m_nodeID)) {
-            m_metadata.putNameserviceEntry(id, p_insertIDRequest.getChunkID());
+        // A batch is stored completely or not at all; the peer regroups its ids if the overlay changed meanwhile
+        responsible = true;
+        for (long id : ids) {
+            if (!OverlayHelper.isHashInSuperpeerRange(NameserviceHashTable.hash(id), m_predecessor, m_nodeID)) {
+                responsible = false;
+                break;
+            }
+        }
+
+        if (responsible) {
+            m_metadata.putNameserviceEntries(ids, chunkIDs);
 
             backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
+            peers = new short[m_peers.size()];
+            for (int i = 0; i < peers.length; i++) {
+                peers[i] = m_peers.get(i);
+            }
+            m_overlayLock.readLock().unlock();
+
             try {
                 m_network.sendMessage(new InsertNameserviceEntriesResponse(p_insertIDRequest, backupSuperpeers));
             } catch (final NetworkException e) {
                 // Requesting peer is not available anymore, ignore it
             }
 
-            ArrayList<Short> peers = m_peers;
-            // notify peers about this to update caches
-            for (short peer : peers) {
-                NameserviceUpdatePeerCachesMessage message =
-                        new NameserviceUpdatePeerCachesMessage(peer, id, p_insertIDRequest.getChunkID());
-                try {
-                    m_network.sendMessage(message);
-                } catch (final NetworkException e) {
-                    // peer is not available anymore, ignore it
-                }
-            }
+            // notify peers about this to update caches (batched with other updates)
+            m_peerCacheUpdateThread.pushNameserviceEntries(peers, ids, chunkIDs);
         } else if (p_insertIDRequest.isBackup()) {
-            m_metadata.putNameserviceEntry(id, p_insertIDRequest.getChunkID());
+            m_overlayLock.readLock().unlock();
+
+            m_metadata.putNameserviceEntries(ids, chunkIDs);
 
             try {
                 m_network.sendMessage(new InsertNameserviceEntriesResponse(p_insertIDRequest, null));
@@ -1652,14 +1841,15 @@ public class OverlaySuperpeer implements MessageReceiver {
                 // Requesting peer is not available anymore, ignore it
             }
         } else {
-            // Not responsible for that chunk
+            m_overlayLock.readLock().unlock();
+
+            // Not responsible for (all) ids
             try {
                 m_network.sendMessage(new InsertNameserviceEntriesResponse(p_insertIDRequest, null));
             } catch (final NetworkException e) {
                 // Requesting peer is not available anymore, ignore it
             }
         }
-        m_overlayLock.readLock().unlock();
     }
 
     /**
@@ -1670,7 +1860,7 @@ public class OverlaySuperpeer implements MessageReceiver {
      */
     private void incomingGetChunkIDForNameserviceEntryRequest(
             final GetChunkIDForNameserviceEntryRequest p_getChunkIDForNameserviceEntryRequest) {
-        int id;
+        long id;
         long chunkID = ChunkID.INVALID_ID;
 
         id = p_getChunkIDForNameserviceEntryRequest.getID();
@@ -1678,7 +1868,7 @@ public class OverlaySuperpeer implements MessageReceiver {
         LOGGER.trace("Got request: GET_CHUNKID_FOR_NAMESERVICE_ENTRY_REQUEST from 0x%X, id %d",
                 p_getChunkIDForNameserviceEntryRequest.getSource(), id);
 
-        if (OverlayHelper.isHashInSuperpeerRange(CRC16.hash(id), m_predecessor, m_nodeID)) {
+        if (OverlayHelper.isHashInSuperpeerRange(NameserviceHashTable.hash(id), m_predecessor, m_nodeID)) {
             chunkID = m_metadata.getNameserviceEntry(id);
 
             LOGGER.trace("GET_CHUNKID_REQUEST from 0x%X, id %d, reply chunkID 0x%X",
@@ -1694,6 +1884,45 @@ public class OverlaySuperpeer implements MessageReceiver {
         }
     }
 
+    /**
+     * Handles an incoming GetChunkIDsForNameserviceEntriesRequest
+     *
+     * @param p_request
+     *         the GetChunkIDsForNameserviceEntriesRequest
+     */
+    private void incomingGetChunkIDsForNameserviceEntriesRequest(
+            final GetChunkIDsForNameserviceEntriesRequest p_request) {
+        long[] ids;
+        long[] chunkIDs;
+        boolean responsible;
+
+        ids = p_request.getIDs();
+
+        LOGGER.trace("Got request: GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_REQUEST from 0x%X, %d ids",
+                p_request.getSource(), ids.length);
+
+        responsible = true;
+        for (long id : ids) {
+            if (!OverlayHelper.isHashInSuperpeerRange(NameserviceHashTable.hash(id), m_predecessor, m_nodeID)) {
+                responsible = false;
+                break;
+            }
+        }
+
+        if (responsible) {
+            chunkIDs = m_metadata.getNameserviceEntries(ids);
+        } else {
+            // Not responsible for (all) ids -> the peer regroups
+            chunkIDs = new long[0];
+        }
+
+        try {
+            m_network.sendMessage(new GetChunkIDsForNameserviceEntriesResponse(p_request, chunkIDs));
+        } catch (final NetworkException e) {
+            // Requesting peer is not available anymore, ignore it
+        }
+    }
+
     /**
      * Handles an incoming GetNameserviceEntryCountRequest
      *
@@ -1722,12 +1951,31 @@ public class OverlaySuperpeer implements MessageReceiver {
      */
     private void incomingGetNameserviceEntriesRequest(
             final GetNameserviceEntriesRequest p_getNameserviceEntriesRequest) {
+        ArrayListLong entries;
+        long[] ids;
+        long[] chunkIDs;
+        int maxEntries;
+        int nextCursor;
+
+        LOGGER.trace("Got request: GET_NAMESERVICE_ENTRIES from 0x%X, cursor %d",
+                p_getNameserviceEntriesRequest.getSource(), p_getNameserviceEntriesRequest.getCursor());
 
-        LOGGER.trace("Got request: GET_NAMESERVICE_ENTRIES from 0x%X", p_getNameserviceEntriesRequest.getSource());
+        maxEntries = Math.max(1, Math.min(p_getNameserviceEntriesRequest.getMaxEntries(),
+                LookupComponent.NAMESERVICE_MAX_PAGE_SIZE));
+        entries = new ArrayListLong();
+        nextCursor = m_metadata.getNameserviceEntries(m_predecessor, m_nodeID,
+                p_getNameserviceEntriesRequest.getCursor(), maxEntries, entries);
+
+        ids = new long[entries.getSize() / 2];
+        chunkIDs = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries.get(2 * i);
+            chunkIDs[i] = entries.get(2 * i + 1);
+        }
 
         try {
-            m_network.sendMessage(new GetNameserviceEntriesResponse(p_getNameserviceEntriesRequest,
-                    m_metadata.getAllNameserviceEntries(m_predecessor, m_nodeID)));
+            m_network.sendMessage(
+                    new GetNameserviceEntriesResponse(p_getNameserviceEntriesRequest, ids, chunkIDs, nextCursor));
         } catch (final NetworkException e) {
             // Requesting peer is not available anymore, ignore it
         }
@@ -1758,8 +2006,12 @@ public class OverlaySuperpeer implements MessageReceiver {
             if (m_metadata.putChunkIDInLookupTree(chunkID, nodeID, m_backupActive)) {
                 backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
                 m_overlayLock.readLock().unlock();
+
+                // Let peers update their caches in place
+                m_peerCacheUpdateThread.pushRangeOwner(chunkID, chunkID, nodeID);
+
                 if (backupSuperpeers[0] != NodeID.INVALID_ID) {
-                    // Outsource informing backups to another thread to avoid blocking a message handler
+                    // Outsource informing backups to the notification executor to avoid blocking the message handler
                     Runnable task = () -> {
                         // Send backups
                         for (short backupSuperpeer : backupSuperpeers) {
@@ -1772,7 +2024,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                             }
                         }
                     };
-                    new Thread(task).start();
+                    m_notificationExecutor.execute(p_migrateRequest.getSource(), task);
                 }
 
                 try {
@@ -1850,8 +2102,12 @@ public class OverlaySuperpeer implements MessageReceiver {
             if (m_metadata.putChunkIDRangeInLookupTree(startChunkID, endChunkID, nodeID, m_backupActive)) {
                 backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
                 m_overlayLock.readLock().unlock();
+
+                // Let peers update their caches in place
+                m_peerCacheUpdateThread.pushRangeOwner(startChunkID, endChunkID, nodeID);
+
                 if (backupSuperpeers[0] != NodeID.INVALID_ID) {
-                    // Outsource informing backups to another thread to avoid blocking a message handler
+                    // Outsource informing backups to the notification executor to avoid blocking the message handler
                     Runnable task = () -> {
                         // Send backups
                         for (short backupSuperpeer : backupSuperpeers) {
@@ -1865,7 +2121,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                             }
                         }
                     };
-                    new Thread(task).start();
+                    m_notificationExecutor.execute(p_migrateRangeRequest.getSource(), task);
                 }
 
                 try {
@@ -1937,7 +2193,7 @@ public class OverlaySuperpeer implements MessageReceiver {
             backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
             m_overlayLock.writeLock().unlock();
             if (backupSuperpeers[0] != NodeID.INVALID_ID) {
-                // Outsource informing backups to another thread to avoid blocking a message handler
+                // Outsource informing backups to the notification executor to avoid blocking the message handler
                 Runnable task = () -> {
                     // Send backups
                     for (short backupSuperpeer : backupSuperpeers) {
@@ -1950,7 +2206,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                         }
                     }
                 };
-                new Thread(task).start();
+                m_notificationExecutor.execute(p_initRangeRequest.getSource(), task);
             }
 
             try {
@@ -2028,7 +2284,7 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         LOGGER.trace("Got request: NodeJoinEventRequest 0x%X", p_peerJoinEventRequest.getSource());
 
-        // Outsource informing other peers to another thread to avoid blocking a message handler
+        // Outsource informing other peers to the notification executor to avoid blocking the message handler
         Runnable task = () -> {
             m_overlayLock.readLock().lock();
             // Inform own peers
@@ -2048,7 +2304,7 @@ public class OverlaySuperpeer implements MessageReceiver {
             }
             m_overlayLock.readLock().unlock();
         };
-        new Thread(task).start();
+        m_notificationExecutor.execute(p_peerJoinEventRequest.getSource(), task);
 
         try {
             m_network.sendMessage(new NodeJoinEventResponse(p_peerJoinEventRequest));
@@ -2056,6 +2312,8 @@ public class OverlaySuperpeer implements MessageReceiver {
             // Superpeer is not available anymore, ignore it as stabilization will fix it
         }
 
+        accelerateStabilization();
+
         // Notify other components/services
         m_event.fireEvent(new NodeJoinEvent(getClass().getSimpleName(), p_peerJoinEventRequest.getJoinedPeer(),
                 p_peerJoinEventRequest.getRole(), p_peerJoinEventRequest.getCapabilities(),
@@ -2092,7 +2350,7 @@ public class OverlaySuperpeer implements MessageReceiver {
         }
 
         if (!p_request.isReplicate()) {
-            // Outsource informing backups to another thread to avoid blocking a message handler
+            // Outsource informing backups to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2113,7 +2371,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_request.getSource(), task);
         }
     }
 
@@ -2151,7 +2409,7 @@ public class OverlaySuperpeer implements MessageReceiver {
         }
 
         if (!p_request.isReplicate()) {
-            // Outsource informing backups to another thread to avoid blocking a message handler
+            // Outsource informing backups to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2172,7 +2430,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_request.getSource(), task);
         }
     }
 
@@ -2184,7 +2442,36 @@ public class OverlaySuperpeer implements MessageReceiver {
      */
     private void incomingBarrierSignOnRequest(final BarrierSignOnRequest p_request) {
         int barrierId = p_request.getBarrierId();
-        int res = m_metadata.signOnBarrier(m_nodeID, barrierId, p_request.getSource(), p_request.getCustomData());
+        int res;
+
+        if (p_request.isAggregated()) {
+            // Sign on of a whole subtree: only its root (the sender) is released by us, it releases the others
+            Set<Short> coveredPeers =
+                    m_barrierTreeCoveredPeers.computeIfAbsent(barrierId, p_id -> ConcurrentHashMap.newKeySet());
+            for (short nodeID : p_request.getNodeIDs()) {
+                if (nodeID != p_request.getSource()) {
+                    coveredPeers.add(nodeID);
+                }
+            }
+
+            res = m_metadata.signOnBarrier(m_nodeID, barrierId, p_request.getNodeIDs(),
+                    p_request.getCustomDataOfNodes(), p_request.getReduction());
+
+            if (res < 0) {
+                // nobody of the subtree was signed on, the sender passes the failure down the tree itself
+                m_barrierTreeCoveredPeers.computeIfPresent(barrierId, (p_id, p_peers) -> {
+                    for (short nodeID : p_request.getNodeIDs()) {
+                        p_peers.remove(nodeID);
+                    }
+
+                    return p_peers.isEmpty() ? null : p_peers;
+                });
+            }
+        } else {
+            res = m_metadata.signOnBarrier(m_nodeID, barrierId, p_request.getSource(), p_request.getCustomData(),
+                    p_request.getReduction());
+        }
+
         BarrierSignOnResponse response = new BarrierSignOnResponse(p_request, (byte) (res >= 0 ? 0 : -1));
         try {
             m_network.sendMessage(response);
@@ -2197,9 +2484,17 @@ public class OverlaySuperpeer implements MessageReceiver {
         // release all if this was the last sign on
         if (res == 0) {
             BarrierStatus barrierStatus = m_metadata.getSignOnStatusOfBarrier(m_nodeID, barrierId);
+            Set<Short> coveredPeers = m_barrierTreeCoveredPeers.remove(barrierId);
+            // with a reduction, the peers get the reduced value only instead of the custom data of all peers
+            BarrierStatus releaseStatus = barrierStatus.getReduction() != BarrierReduction.NONE ?
+                    barrierStatus.toReducedStatus() : barrierStatus;
 
             barrierStatus.forEachSignedOnPeer((p_nodeId, p_customData) -> {
-                BarrierReleaseMessage message = new BarrierReleaseMessage(p_nodeId, barrierId, barrierStatus);
+                if (coveredPeers != null && coveredPeers.contains(p_nodeId)) {
+                    return;
+                }
+
+                BarrierReleaseMessage message = new BarrierReleaseMessage(p_nodeId, barrierId, releaseStatus);
 
                 try {
                     m_network.sendMessage(message);
@@ -2272,7 +2567,7 @@ public class OverlaySuperpeer implements MessageReceiver {
         }
 
         if (!p_request.isReplicate()) {
-            // Outsource informing backups to another thread to avoid blocking a message handler
+            // Outsource informing backups to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2294,7 +2589,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_request.getSource(), task);
         }
     }
 
@@ -2320,7 +2615,7 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         // replicate to next 3 superpeers
         if (ret != 0 && !p_request.isReplicate()) {
-            // Outsource informing backups to another thread to avoid blocking a message handler
+            // Outsource informing backups to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2342,7 +2637,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_request.getSource(), task);
         }
     }
 
@@ -2435,7 +2730,7 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         // replicate to next 3 superpeers
         if (res != 0 && !p_request.isReplicate()) {
-            // Outsource informing backups to another thread to avoid blocking a message handler
+            // Outsource informing backups to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2456,7 +2751,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_request.getSource(), task);
         }
     }
 
@@ -2489,7 +2784,7 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         // replicate to next 3 superpeers
         if (res != 0 && !p_request.isReplicate()) {
-            // Outsource informing backups to another thread to avoid blocking a message handler
+            // Outsource informing backups to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2511,7 +2806,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_request.getSource(), task);
         }
     }
 
@@ -2530,7 +2825,7 @@ public class OverlaySuperpeer implements MessageReceiver {
 
         // replicate to next 3 superpeers
         if (res && !p_request.isReplicate()) {
-            // Outsource informing backups to another thread to avoid blocking a message handler
+            // Outsource informing backups to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2551,7 +2846,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_request.getSource(), task);
         }
     }
 
@@ -2621,7 +2916,7 @@ public class OverlaySuperpeer implements MessageReceiver {
         }
 
         if (!p_replaceBackupPeerRequest.isBackup()) {
-            // Outsource updating all backup superpeers to another thread to avoid blocking a message handler
+            // Outsource updating all backup superpeers to the notification executor to avoid blocking the message handler
             Runnable task = () -> {
                 m_overlayLock.readLock().lock();
                 short[] backupSuperpeers = OverlayHelper.getBackupSuperpeers(m_nodeID, m_superpeers);
@@ -2642,7 +2937,7 @@ public class OverlaySuperpeer implements MessageReceiver {
                     }
                 }
             };
-            new Thread(task).start();
+            m_notificationExecutor.execute(p_replaceBackupPeerRequest.getSource(), task);
         }
     }
 
@@ -2676,6 +2971,12 @@ public class OverlaySuperpeer implements MessageReceiver {
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_CHUNKID_FOR_NAMESERVICE_ENTRY_RESPONSE,
                 GetChunkIDForNameserviceEntryResponse.class);
+        m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_REQUEST,
+                GetChunkIDsForNameserviceEntriesRequest.class);
+        m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_RESPONSE,
+                GetChunkIDsForNameserviceEntriesResponse.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRY_COUNT_REQUEST, GetNameserviceEntryCountRequest.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
@@ -2687,6 +2988,8 @@ public class OverlaySuperpeer implements MessageReceiver {
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_NAMESERVICE_UPDATE_PEER_CACHES_MESSAGE,
                 NameserviceUpdatePeerCachesMessage.class);
+        m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_MIGRATION_UPDATE_PEER_CACHES_MESSAGE, MigrationUpdatePeerCachesMessage.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_MIGRATE_REQUEST,
                 MigrateRequest.class);
         m_network.registerMessageType(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE, LookupMessages.SUBTYPE_MIGRATE_RESPONSE,
@@ -2812,6 +3115,8 @@ public class OverlaySuperpeer implements MessageReceiver {
                 LookupMessages.SUBTYPE_INSERT_NAMESERVICE_ENTRIES_REQUEST, this);
         m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_CHUNKID_FOR_NAMESERVICE_ENTRY_REQUEST, this);
+        m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
+                LookupMessages.SUBTYPE_GET_CHUNKIDS_FOR_NAMESERVICE_ENTRIES_REQUEST, this);
         m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
                 LookupMessages.SUBTYPE_GET_NAMESERVICE_ENTRY_COUNT_REQUEST, this);
         m_network.register(DXRAMMessageTypes.LOOKUP_MESSAGES_TYPE,
@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxnet.core.NetworkException;
+import de.hhu.bsinfo.dxram.boot.AbstractBootComponent;
+import de.hhu.bsinfo.dxram.lookup.messages.MigrationUpdatePeerCachesMessage;
+import de.hhu.bsinfo.dxram.lookup.messages.NameserviceUpdatePeerCachesMessage;
+import de.hhu.bsinfo.dxram.net.NetworkComponent;
+import de.hhu.bsinfo.dxutils.NodeID;
+
+/**
+ * Collects ownership changes of migrated ChunkID ranges on a superpeer and pushes them in batches to the peers which
+ * looked up ranges of the affected creator. Peers update their CacheTree in place instead of running into a failed
+ * access and a lookup per range. Every message carries a sequence number so peers can detect reordered pushes.
+ * Nameservice updates are buffered per destination peer and pushed in batches, as well.
+ */
+class PeerCacheUpdateThread extends Thread {
+
+    private static final Logger LOGGER = LogManager.getFormatterLogger(PeerCacheUpdateThread.class.getSimpleName());
+
+    private static final int FLUSH_INTERVAL_MS = 10;
+    private static final int MAX_RANGES_PER_MESSAGE = 1024;
+    private static final int MAX_PENDING_RANGES = 64 * MAX_RANGES_PER_MESSAGE;
+    private static final int MAX_NAMESERVICE_ENTRIES_PER_MESSAGE = 1024;
+
+    // Attributes
+    private AbstractBootComponent m_boot;
+    private NetworkComponent m_network;
+
+    private short m_nodeID;
+
+    private long[] m_pendingRanges;
+    private short[] m_pendingOwners;
+    private int m_pendingCount;
+
+    private Map<Short, Set<Short>> m_cachingPeers;
+    private long m_sequenceNumber;
+
+    private Map<Short, NameserviceUpdates> m_pendingNameserviceUpdates;
+    private boolean m_flushRequested;
+
+    private volatile boolean m_shutdown;
+
+    // Constructors
+
+    /**
+     * Creates an instance of PeerCacheUpdateThread
+     *
+     * @param p_nodeID
+     *         the own NodeID
+     * @param p_boot
+     *         the BootComponent
+     * @param p_network
+     *         the NetworkComponent
+     */
+    PeerCacheUpdateThread(final short p_nodeID, final AbstractBootComponent p_boot,
+            final NetworkComponent p_network) {
+        m_boot = p_boot;
+        m_network = p_network;
+
+        m_nodeID = p_nodeID;
+
+        m_pendingRanges = new long[MAX_RANGES_PER_MESSAGE * 2];
+        m_pendingOwners = new short[MAX_RANGES_PER_MESSAGE];
+        m_pendingCount = 0;
+
+        m_cachingPeers = new ConcurrentHashMap<>();
+        // Start with the current time to keep sequence numbers increasing if this superpeer is restarted
+        m_sequenceNumber = System.currentTimeMillis() << 20;
+
+        m_pendingNameserviceUpdates = new HashMap<>();
+    }
+
+    /**
+     * Registers a peer which looked up (and cached) ranges of given creator. Only these peers get ownership changes
+     * of the creator's ranges pushed.
+     *
+     * @param p_creator
+     *         the creator
+     * @param p_peer
+     *         the peer
+     */
+    void registerCachingPeer(final short p_creator, final short p_peer) {
+        Set<Short> peers = m_cachingPeers.get(p_creator);
+        if (peers == null) {
+            peers = ConcurrentHashMap.newKeySet();
+            Set<Short> existing = m_cachingPeers.putIfAbsent(p_creator, peers);
+            if (existing != null) {
+                peers = existing;
+            }
+        }
+
+        peers.add(p_peer);
+    }
+
+    /**
+     * Queues an ownership change to be pushed with the next batch. A change is merged with the previous one if both
+     * affect the same range or adjacent ranges with the same owner. If more than MAX_PENDING_RANGES changes are
+     * pending, all of them are replaced by an invalidation of every affected creator's whole ChunkID range.
+     *
+     * @param p_startCID
+     *         the first ChunkID of the migrated range
+     * @param p_endCID
+     *         the last ChunkID of the migrated range
+     * @param p_owner
+     *         the new owner
+     */
+    void pushRangeOwner(final long p_startCID, final long p_endCID, final short p_owner) {
+        int last;
+
+        synchronized (this) {
+            last = m_pendingCount - 1;
+            if (last >= 0 && m_pendingRanges[last * 2] == p_startCID && m_pendingRanges[last * 2 + 1] == p_endCID) {
+                // Same range migrated again -> the last owner wins
+                m_pendingOwners[last] = p_owner;
+                return;
+            }
+
+            if (last >= 0 && m_pendingOwners[last] == p_owner && m_pendingRanges[last * 2 + 1] + 1 == p_startCID &&
+                    ChunkID.getCreatorID(m_pendingRanges[last * 2]) == ChunkID.getCreatorID(p_startCID)) {
+                // Consecutive range migrated to the same owner -> extend the last range
+                m_pendingRanges[last * 2 + 1] = p_endCID;
+                return;
+            }
+
+            if (m_pendingCount == MAX_PENDING_RANGES) {
+                LOGGER.warn("More than %d range ownership changes pending, invalidating all affected creators",
+                        MAX_PENDING_RANGES);
+
+                collapsePendingRanges();
+            }
+
+            addPendingRange(p_startCID, p_endCID, p_owner);
+        }
+    }
+
+    /**
+     * Queues a nameservice update for the given peers to be pushed with the next batch
+     *
+     * @param p_peers
+     *         the peers to notify
+     * @param p_id
+     *         the nameservice id
+     * @param p_chunkID
+     *         the ChunkID
+     */
+    void pushNameserviceEntry(final short[] p_peers, final long p_id, final long p_chunkID) {
+        pushNameserviceEntries(p_peers, new long[] {p_id}, new long[] {p_chunkID});
+    }
+
+    /**
+     * Queues multiple nameservice updates for the given peers to be pushed with the next batch
+     *
+     * @param p_peers
+     *         the peers to notify
+     * @param p_ids
+     *         the nameservice ids
+     * @param p_chunkIDs
+     *         the ChunkID of every id
+     */
+    void pushNameserviceEntries(final short[] p_peers, final long[] p_ids, final long[] p_chunkIDs) {
+        synchronized (this) {
+            for (short peer : p_peers) {
+                NameserviceUpdates updates = m_pendingNameserviceUpdates.get(peer);
+                if (updates == null) {
+                    updates = new NameserviceUpdates();
+                    m_pendingNameserviceUpdates.put(peer, updates);
+                }
+
+                for (int i = 0; i < p_ids.length; i++) {
+                    updates.add(p_ids[i], p_chunkIDs[i]);
+                }
+
+                if (updates.m_count >= MAX_NAMESERVICE_ENTRIES_PER_MESSAGE && !m_flushRequested) {
+                    // Do not wait for the flush interval if a batch is full
+                    m_flushRequested = true;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Shutdown
+     */
+    void shutdown() {
+        m_shutdown = true;
+    }
+
+    @Override
+    public void run() {
+        while (!m_shutdown) {
+            try {
+                synchronized (this) {
+                    if (!m_flushRequested) {
+                        wait(FLUSH_INTERVAL_MS);
+                    }
+                    m_flushRequested = false;
+                }
+            } catch (final InterruptedException ignored) {
+                m_shutdown = true;
+                break;
+            }
+
+            flush();
+            flushNameserviceUpdates();
+        }
+    }
+
+    /**
+     * Appends an ownership change to the pending changes
+     *
+     * @param p_startCID
+     *         the first ChunkID of the migrated range
+     * @param p_endCID
+     *         the last ChunkID of the migrated range
+     * @param p_owner
+     *         the new owner or NodeID.INVALID_ID to invalidate the range
+     * @note assumes this has been locked
+     */
+    private void addPendingRange(final long p_startCID, final long p_endCID, final short p_owner) {
+        if (m_pendingCount == m_pendingOwners.length) {
+            m_pendingRanges = Arrays.copyOf(m_pendingRanges, m_pendingRanges.length * 2);
+            m_pendingOwners = Arrays.copyOf(m_pendingOwners, m_pendingOwners.length * 2);
+        }
+
+        m_pendingRanges[m_pendingCount * 2] = p_startCID;
+        m_pendingRanges[m_pendingCount * 2 + 1] = p_endCID;
+        m_pendingOwners[m_pendingCount] = p_owner;
+        m_pendingCount++;
+    }
+
+    /**
+     * Replaces all pending ownership changes by one invalidation of the whole ChunkID range of every affected creator
+     *
+     * @note assumes this has been locked
+     */
+    private void collapsePendingRanges() {
+        Set<Short> creators = new HashSet<>();
+
+        for (int i = 0; i < m_pendingCount; i++) {
+            creators.add(ChunkID.getCreatorID(m_pendingRanges[i * 2]));
+        }
+
+        m_pendingRanges = new long[MAX_RANGES_PER_MESSAGE * 2];
+        m_pendingOwners = new short[MAX_RANGES_PER_MESSAGE];
+        m_pendingCount = 0;
+
+        for (short creator : creators) {
+            addPendingRange(ChunkID.getChunkID(creator, 0), ChunkID.getChunkID(creator, ChunkID.MAX_LOCALID),
+                    NodeID.INVALID_ID);
+        }
+    }
+
+    /**
+     * Sends all queued ownership changes to the peers caching ranges of the affected creators (at most
+     * MAX_RANGES_PER_MESSAGE ranges per message). The order of the changes is kept per peer.
+     */
+    private void flush() {
+        long[] ranges;
+        short[] owners;
+        int count;
+        List<Short> onlinePeers;
+        Map<Short, PendingRanges> changesPerPeer;
+
+        synchronized (this) {
+            if (m_pendingCount == 0) {
+                return;
+            }
+
+            count = m_pendingCount;
+            ranges = m_pendingRanges;
+            owners = m_pendingOwners;
+
+            m_pendingRanges = new long[MAX_RANGES_PER_MESSAGE * 2];
+            m_pendingOwners = new short[MAX_RANGES_PER_MESSAGE];
+            m_pendingCount = 0;
+        }
+
+        onlinePeers = m_boot.getOnlinePeerIds();
+        changesPerPeer = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            Set<Short> peers = m_cachingPeers.get(ChunkID.getCreatorID(ranges[i * 2]));
+            if (peers == null) {
+                continue;
+            }
+
+            for (Short peer : new ArrayList<>(peers)) {
+                if (!onlinePeers.contains(peer)) {
+                    // peer left or failed, it will register again when looking up ranges after a rejoin
+                    peers.remove(peer);
+                    continue;
+                }
+
+                if (peer == m_nodeID) {
+                    continue;
+                }
+
+                PendingRanges changes = changesPerPeer.get(peer);
+                if (changes == null) {
+                    changes = new PendingRanges();
+                    changesPerPeer.put(peer, changes);
+                }
+
+                changes.add(i);
+            }
+        }
+
+        LOGGER.trace("Pushing %d range ownership changes to %d peers", count, changesPerPeer.size());
+
+        for (Map.Entry<Short, PendingRanges> entry : changesPerPeer.entrySet()) {
+            short peer = entry.getKey();
+            PendingRanges changes = entry.getValue();
+
+            for (int i = 0; i < changes.m_count; i += MAX_RANGES_PER_MESSAGE) {
+                int end = Math.min(changes.m_count, i + MAX_RANGES_PER_MESSAGE);
+                long[] batchRanges = new long[(end - i) * 2];
+                short[] batchOwners = new short[end - i];
+
+                for (int j = i; j < end; j++) {
+                    int index = changes.m_indices[j];
+                    batchRanges[(j - i) * 2] = ranges[index * 2];
+                    batchRanges[(j - i) * 2 + 1] = ranges[index * 2 + 1];
+                    batchOwners[j - i] = owners[index];
+                }
+
+                try {
+                    m_network.sendMessage(
+                            new MigrationUpdatePeerCachesMessage(peer, batchRanges, batchOwners, ++m_sequenceNumber));
+                } catch (final NetworkException e) {
+                    // peer is not available anymore, ignore it
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends all queued nameservice updates to their destination peers (at most MAX_NAMESERVICE_ENTRIES_PER_MESSAGE
+     * entries per message)
+     */
+    private void flushNameserviceUpdates() {
+        Map<Short, NameserviceUpdates> pending;
+
+        synchronized (this) {
+            if (m_pendingNameserviceUpdates.isEmpty()) {
+                return;
+            }
+
+            pending = m_pendingNameserviceUpdates;
+            m_pendingNameserviceUpdates = new HashMap<>();
+        }
+
+        for (Map.Entry<Short, NameserviceUpdates> entry : pending.entrySet()) {
+            short peer = entry.getKey();
+            NameserviceUpdates updates = entry.getValue();
+
+            LOGGER.trace("Pushing %d nameservice updates to 0x%X", updates.m_count, peer);
+
+            for (int i = 0; i < updates.m_count; i += MAX_NAMESERVICE_ENTRIES_PER_MESSAGE) {
+                int end = Math.min(updates.m_count, i + MAX_NAMESERVICE_ENTRIES_PER_MESSAGE);
+
+                try {
+                    m_network.sendMessage(new NameserviceUpdatePeerCachesMessage(peer,
+                            Arrays.copyOfRange(updates.m_ids, i, end), Arrays.copyOfRange(updates.m_chunkIDs, i, end)));
+                } catch (final NetworkException e) {
+                    // peer is not available anymore, ignore it
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indices of the pending ownership changes to send to one peer
+     */
+    private static final class PendingRanges {
+
+        private int[] m_indices = new int[16];
+        private int m_count;
+
+        /**
+         * Appends an index
+         *
+         * @param p_index
+         *         the index of the ownership change
+         */
+        private void add(final int p_index) {
+            if (m_count == m_indices.length) {
+                m_indices = Arrays.copyOf(m_indices, m_indices.length * 2);
+            }
+
+            m_indices[m_count++] = p_index;
+        }
+    }
+
+    /**
+     * Nameservice updates queued for one peer
+     */
+    private static final class NameserviceUpdates {
+
+        private long[] m_ids = new long[16];
+        private long[] m_chunkIDs = new long[16];
+        private int m_count;
+
+        /**
+         * Appends an update
+         *
+         * @param p_id
+         *         the nameservice id
+         * @param p_chunkID
+         *         the ChunkID
+         */
+        private void add(final long p_id, final long p_chunkID) {
+            if (m_count == m_ids.length) {
+                m_ids = Arrays.copyOf(m_ids, m_ids.length * 2);
+                m_chunkIDs = Arrays.copyOf(m_chunkIDs, m_chunkIDs.length * 2);
+            }
+
+            m_ids[m_count] = p_id;
+            m_chunkIDs[m_count] = p_chunkID;
+            m_count++;
+        }
+    }
+}
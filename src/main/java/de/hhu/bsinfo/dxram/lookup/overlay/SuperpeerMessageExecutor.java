@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.overlay;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Bounded thread pool processing one class of incoming superpeer messages. If the queue is full, the submitting
+ * thread, i.e. the network's message handler, waits for a free slot, which slows down message intake instead of
+ * buffering an unlimited number of tasks. Tasks are never dropped: An ordered executor has one single-threaded lane
+ * per thread, processes all tasks with the same key in submission order and keeps the submitting thread waiting
+ * until a slot is free. An unordered executor runs the task in the submitting thread if no slot became free within
+ * the queue timeout, so the requesting node gets its response instead of running into a timeout.
+ */
+class SuperpeerMessageExecutor {
+
+    private static final Logger LOGGER = LogManager.getFormatterLogger(SuperpeerMessageExecutor.class.getSimpleName());
+
+    private final ThreadPoolExecutor[] m_lanes;
+    private final String m_name;
+    private final long m_queueTimeoutMs;
+
+    // Constructors
+
+    /**
+     * Creates an instance of SuperpeerMessageExecutor
+     *
+     * @param p_name
+     *         Identifier for thread names and debug prints
+     * @param p_threads
+     *         Number of threads to create
+     * @param p_queueCapacity
+     *         Max number of queued tasks (per lane if ordered) before the submitting thread has to wait
+     * @param p_queueTimeoutMs
+     *         Time in ms the submitting thread waits for a free slot before it warns (ordered) or runs the task
+     *         itself (unordered)
+     * @param p_ordered
+     *         Whether tasks with the same key have to be processed in submission order
+     */
+    SuperpeerMessageExecutor(final String p_name, final int p_threads, final int p_queueCapacity,
+            final long p_queueTimeoutMs, final boolean p_ordered) {
+        RejectedExecutionHandler waitForSlot;
+
+        m_name = p_name;
+        m_queueTimeoutMs = p_queueTimeoutMs;
+
+        waitForSlot = (p_runnable, p_executor) -> {
+            try {
+                while (!p_executor.isShutdown()) {
+                    if (p_executor.getQueue().offer(p_runnable, m_queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+
+                    if (!p_ordered) {
+                        // Tasks of an unordered executor may overtake queued ones
+                        LOGGER.warn("%s queue full for %d ms, running task in calling thread", m_name,
+                                m_queueTimeoutMs);
+                        p_runnable.run();
+                        return;
+                    }
+
+                    LOGGER.warn("%s queue full for %d ms, still waiting for a free slot", m_name, m_queueTimeoutMs);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue");
+            }
+
+            throw new RejectedExecutionException("Executor is shut down");
+        };
+
+        if (p_ordered) {
+            m_lanes = new ThreadPoolExecutor[p_threads];
+            for (int i = 0; i < p_threads; i++) {
+                m_lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(p_queueCapacity), new ExecutorThreadFactory(), waitForSlot);
+            }
+        } else {
+            m_lanes = new ThreadPoolExecutor[] {new ThreadPoolExecutor(p_threads, p_threads, 0L,
+                    TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(p_queueCapacity), new ExecutorThreadFactory(),
+                    waitForSlot)};
+        }
+    }
+
+    // Methods
+
+    /**
+     * Add a task to the queue to be executed
+     *
+     * @param p_runnable
+     *         the task
+     */
+    void execute(final Runnable p_runnable) {
+        execute(0, p_runnable);
+    }
+
+    /**
+     * Add a task to the queue to be executed after all tasks with the same key (if ordered). Blocks while the queue
+     * is full. A task is only rejected if the executor is shut down or the calling thread is interrupted
+     *
+     * @param p_key
+     *         the key determining the lane (e.g. the NodeID of the requesting node)
+     * @param p_runnable
+     *         the task
+     */
+    void execute(final int p_key, final Runnable p_runnable) {
+        try {
+            m_lanes[(p_key & 0x7FFFFFFF) % m_lanes.length].execute(p_runnable);
+        } catch (final RejectedExecutionException e) {
+            LOGGER.error("%s rejected task: %s", m_name, e.getMessage());
+        }
+    }
+
+    /**
+     * Shuts down the thread pool and waits for queued tasks to be processed
+     */
+    void shutdown() {
+        for (ThreadPoolExecutor lane : m_lanes) {
+            lane.shutdown();
+        }
+
+        try {
+            for (ThreadPoolExecutor lane : m_lanes) {
+                if (!lane.awaitTermination(1, TimeUnit.SECONDS)) {
+                    LOGGER.warn("%s did not finish all queued tasks", m_name);
+                    lane.shutdownNow();
+                }
+            }
+        } catch (final InterruptedException ignored) {
+            for (ThreadPoolExecutor lane : m_lanes) {
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Creates daemon threads for the SuperpeerMessageExecutor
+     */
+    private class ExecutorThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger m_threadNumber;
+
+        /**
+         * Creates a new ExecutorThreadFactory
+         */
+        ExecutorThreadFactory() {
+            m_threadNumber = new AtomicInteger(1);
+        }
+
+        @Override
+        public Thread newThread(final Runnable p_runnable) {
+            Thread thread;
+
+            thread = new Thread(p_runnable, m_name + "-thread-" + m_threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package de.hhu.bsinfo.dxram.lookup.overlay;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.logging.log4j.LogManager;
@@ -39,7 +40,8 @@ import de.hhu.bsinfo.dxram.net.NetworkComponent;
 import de.hhu.bsinfo.dxutils.NodeID;
 
 /**
- * Stabilizes superpeer overlay
+ * Stabilizes superpeer overlay. The break time between two rounds is doubled (up to a max) while the overlay does
+ * not change and reset to the min on joins, failures and detected inconsistencies.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 03.06.2013
  */
@@ -58,12 +60,19 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
     private ReentrantReadWriteLock m_overlayLock;
 
     private short m_nodeID;
+    private int m_minSleepInterval;
+    private int m_maxSleepInterval;
     private int m_sleepInterval;
+    private boolean m_accelerate;
+    private int m_overlayState;
     private int m_next;
     private boolean m_shutdown;
 
     private String m_overlayFigure;
 
+    // Change sequence numbers of superpeers this superpeer is up to date with (for delta replication)
+    private HashMap<Short, Long> m_acknowledgedChanges;
+
     // Constructors
 
     /**
@@ -79,14 +88,17 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
      *         the number of expected superpeers
      * @param p_superpeers
      *         all other superpeers
-     * @param p_sleepInterval
-     *         the ping interval in ms
+     * @param p_minSleepInterval
+     *         the min break time between two rounds in ms
+     * @param p_maxSleepInterval
+     *         the max break time between two rounds in ms
      * @param p_network
      *         the network component
      */
     SuperpeerStabilizationThread(final OverlaySuperpeer p_superpeer, final short p_nodeID,
             final ReentrantReadWriteLock p_overlayLock, final int p_initialNumberOfSuperpeers,
-            final ArrayList<Short> p_superpeers, final int p_sleepInterval, final NetworkComponent p_network) {
+            final ArrayList<Short> p_superpeers, final int p_minSleepInterval, final int p_maxSleepInterval,
+            final NetworkComponent p_network) {
         m_superpeer = p_superpeer;
 
         m_network = p_network;
@@ -96,9 +108,13 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
         m_overlayLock = p_overlayLock;
 
         m_nodeID = p_nodeID;
-        m_sleepInterval = p_sleepInterval;
+        m_minSleepInterval = p_minSleepInterval;
+        m_maxSleepInterval = p_maxSleepInterval;
+        m_sleepInterval = p_minSleepInterval;
         m_next = 0;
 
+        m_acknowledgedChanges = new HashMap<>();
+
         registerNetworkMessageListener();
     }
 
@@ -113,31 +129,47 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
      */
     @Override
     public void run() {
+        boolean accelerated;
+        long lastStabilization = 0;
+
         while (!m_shutdown) {
             try {
-                Thread.sleep(m_sleepInterval);
+                synchronized (this) {
+                    if (!m_accelerate) {
+                        // Peers are pinged with the min break time, only the stabilization backs off
+                        wait(m_minSleepInterval);
+                    }
+                    accelerated = m_accelerate;
+                    m_accelerate = false;
+                }
             } catch (final InterruptedException ignored) {
                 m_shutdown = true;
                 break;
             }
 
-            performStabilization();
+            if (accelerated || System.currentTimeMillis() - lastStabilization >= m_sleepInterval) {
+                performStabilization();
 
-            for (int i = 0; i < m_initialNumberOfSuperpeers / 300 || i < 1; i++) {
-                fixSuperpeers();
-            }
+                for (int i = 0; i < m_initialNumberOfSuperpeers / 300 || i < 1; i++) {
+                    fixSuperpeers();
+                }
 
-            if (!m_otherSuperpeers.isEmpty()) {
-                backupMaintenance();
+                if (!m_otherSuperpeers.isEmpty()) {
+                    backupMaintenance();
 
-                m_overlayLock.writeLock().lock();
-                m_superpeer.takeOverPeers(m_nodeID);
-                m_overlayLock.writeLock().unlock();
+                    m_overlayLock.writeLock().lock();
+                    m_superpeer.takeOverPeers(m_nodeID);
+                    m_overlayLock.writeLock().unlock();
+                }
+
+                printOverlay();
+
+                adaptSleepInterval();
+
+                lastStabilization = System.currentTimeMillis();
             }
 
             pingPeers();
-
-            printOverlay();
         }
     }
 
@@ -183,6 +215,43 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
         m_shutdown = true;
     }
 
+    /**
+     * Starts the next round immediately and resets the break time to the min (e.g. after a join or failure)
+     */
+    void accelerate() {
+        synchronized (this) {
+            m_sleepInterval = m_minSleepInterval;
+            m_accelerate = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Doubles the break time between stabilization rounds if the overlay did not change in the last round, resets it
+     * to the min otherwise
+     */
+    private void adaptSleepInterval() {
+        int overlayState;
+        ArrayList<Short> peers;
+
+        m_overlayLock.readLock().lock();
+        peers = m_superpeer.getPeers();
+        overlayState = 31 * (31 * m_otherSuperpeers.hashCode() + (peers != null ? peers.hashCode() : 0)) +
+                (m_superpeer.getPredecessor() << 16 | m_superpeer.getSuccessor() & 0xFFFF);
+        m_overlayLock.readLock().unlock();
+
+        synchronized (this) {
+            if (overlayState != m_overlayState || m_accelerate) {
+                m_sleepInterval = m_minSleepInterval;
+            } else {
+                m_sleepInterval = Math.min(m_sleepInterval * 2, m_maxSleepInterval);
+            }
+        }
+        m_overlayState = overlayState;
+
+        LOGGER.trace("Next stabilization round in %d ms", m_sleepInterval);
+    }
+
     /**
      * Performs stabilization protocol
      *
@@ -351,14 +420,13 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
         short currentSuperpeer;
         short oldSuperpeer;
         ArrayList<Short> peers;
-        int numberOfNameserviceEntries;
-        int numberOfStorages;
-        int numberOfBarriers;
-        short[] currentResponsibleArea;
+        ArrayList<Short> askedSuperpeers;
+        Long acknowledgedChange;
 
         AskAboutBackupsRequest request;
         AskAboutBackupsResponse response;
 
+        askedSuperpeers = new ArrayList<>();
         m_overlayLock.readLock().lock();
         if (!m_otherSuperpeers.isEmpty()) {
             if (m_otherSuperpeers.size() <= 3) {
@@ -375,12 +443,10 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
                 LOGGER.trace("Gathering backups by requesting all backups in responsible area from 0x%X",
                         currentSuperpeer);
 
-                currentResponsibleArea = new short[] {oldSuperpeer, currentSuperpeer};
-                numberOfNameserviceEntries = m_superpeer.getNumberOfNameserviceEntries(currentResponsibleArea);
-                numberOfStorages = m_superpeer.getNumberOfStorages(currentResponsibleArea);
-                numberOfBarriers = m_superpeer.getNumberOfBarriers(currentResponsibleArea);
-                request = new AskAboutBackupsRequest(currentSuperpeer, peers, numberOfNameserviceEntries,
-                        numberOfStorages, numberOfBarriers);
+                // Only changes since the last round are transferred if the superpeer was asked before
+                acknowledgedChange = m_acknowledgedChanges.get(currentSuperpeer);
+                request = new AskAboutBackupsRequest(currentSuperpeer, peers,
+                        acknowledgedChange != null ? acknowledgedChange : 0);
                 m_overlayLock.readLock().unlock();
 
                 try {
@@ -399,6 +465,8 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
 
                 m_overlayLock.writeLock().lock();
                 m_superpeer.storeIncomingBackups(response.getMissingMetadata());
+                m_acknowledgedChanges.put(currentSuperpeer, response.getChangeSequence());
+                askedSuperpeers.add(currentSuperpeer);
                 // Lock downgrade
                 m_overlayLock.readLock().lock();
                 m_overlayLock.writeLock().unlock();
@@ -417,6 +485,10 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
             }
         }
         m_overlayLock.readLock().unlock();
+
+        // Superpeers not asked in this round are not responsible for backups anymore (or failed) -> request all
+        // metadata if they are asked again
+        m_acknowledgedChanges.keySet().retainAll(askedSuperpeers);
     }
 
     /**
@@ -485,17 +557,20 @@ class SuperpeerStabilizationThread extends Thread implements MessageReceiver {
      */
     private void incomingAskAboutBackupsRequest(final AskAboutBackupsRequest p_askAboutBackupsRequest) {
         byte[] missingMetadata;
+        long changeSequence;
 
         LOGGER.trace("Got request: ASK_ABOUT_SUCCESSOR_REQUEST from 0x%X", p_askAboutBackupsRequest.getSource());
 
         m_overlayLock.readLock().lock();
+        // Read before collecting the metadata: all changes up to this number are included
+        changeSequence = m_superpeer.getChangeSequence();
         missingMetadata = m_superpeer.compareAndReturnBackups(p_askAboutBackupsRequest.getPeers(),
-                p_askAboutBackupsRequest.getNumberOfNameserviceEntries(),
-                p_askAboutBackupsRequest.getNumberOfStorages(), p_askAboutBackupsRequest.getNumberOfBarriers());
+                p_askAboutBackupsRequest.getAcknowledgedChange());
         m_overlayLock.readLock().unlock();
 
         try {
-            m_network.sendMessage(new AskAboutBackupsResponse(p_askAboutBackupsRequest, missingMetadata));
+            m_network.sendMessage(
+                    new AskAboutBackupsResponse(p_askAboutBackupsRequest, missingMetadata, changeSequence));
         } catch (final NetworkException e) {
             // Requesting superpeer is not available anymore, ignore request. Superpeer will be removed by failure
             // handling.
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.overlay.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxram.lookup.LookupComponent;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.stats.ValuePool;
+
+/**
+ * Size-bounded cache for nameservice mappings (application ID -> ChunkID). Entries expire lazily on access after the
+ * TTL. The mappings are stored in primitive open addressing tables (linear probing) split into lock stripes, so
+ * lookups neither box IDs nor allocate and usually run without taking a lock (optimistic read). If the cache (or a
+ * stripe) is full, inserting evicts an entry with a clock (second chance) sweep over the stripe of the new entry.
+ */
+public final class ApplicationIDCache {
+
+    private static final ValuePool SOP_EVICTION = new ValuePool(LookupComponent.class, "AIDCacheEviction");
+
+    static {
+        StatisticsManager.get().registerOperation(ApplicationIDCache.class, SOP_EVICTION);
+    }
+
+    private static final int MAX_STRIPES = 16;
+
+    // Attributes
+    private final int m_maxEntries;
+    private final long m_ttl;
+    private final AtomicInteger m_entryCount;
+
+    private final Stripe[] m_stripes;
+    private final int m_stripeMask;
+    private final int m_stripeBits;
+
+    // Constructors
+
+    /**
+     * Creates an instance of ApplicationIDCache
+     *
+     * @param p_maxEntries
+     *         the maximal number of cache entries (might be exceeded by up to the number of lock stripes because
+     *         inserting into an empty stripe never evicts)
+     * @param p_ttl
+     *         the time to live of an entry in ms
+     */
+    public ApplicationIDCache(final int p_maxEntries, final long p_ttl) {
+        int maxEntries = Math.max(1, p_maxEntries);
+        int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(maxEntries));
+
+        m_maxEntries = maxEntries;
+        m_ttl = p_ttl;
+        m_entryCount = new AtomicInteger(0);
+
+        m_stripes = new Stripe[stripes];
+        m_stripeMask = stripes - 1;
+        m_stripeBits = Integer.numberOfTrailingZeros(stripes);
+        for (int i = 0; i < stripes; i++) {
+            m_stripes[i] = new Stripe((maxEntries + stripes - 1) / stripes);
+        }
+    }
+
+    // Methods
+
+    /**
+     * Returns the cached ChunkID for given application ID
+     *
+     * @param p_id
+     *         the application ID
+     * @return the ChunkID or ChunkID.INVALID_ID if the mapping is not cached or expired
+     */
+    public long get(final long p_id) {
+        int hash = hash(p_id);
+
+        return m_stripes[hash & m_stripeMask].get(p_id, hash >>> m_stripeBits);
+    }
+
+    /**
+     * Caches a mapping
+     *
+     * @param p_id
+     *         the application ID
+     * @param p_chunkID
+     *         the ChunkID
+     */
+    public void put(final long p_id, final long p_chunkID) {
+        int hash = hash(p_id);
+
+        m_stripes[hash & m_stripeMask].put(p_id, hash >>> m_stripeBits, p_chunkID);
+    }
+
+    /**
+     * Replaces a mapping if it is cached already
+     *
+     * @param p_id
+     *         the application ID
+     * @param p_chunkID
+     *         the new ChunkID
+     */
+    public void update(final long p_id, final long p_chunkID) {
+        int hash = hash(p_id);
+
+        m_stripes[hash & m_stripeMask].update(p_id, hash >>> m_stripeBits, p_chunkID);
+    }
+
+    /**
+     * Replaces all given mappings which are cached already. Every stripe is locked once.
+     *
+     * @param p_ids
+     *         the application IDs
+     * @param p_chunkIDs
+     *         the new ChunkID of every application ID
+     */
+    public void updateAll(final long[] p_ids, final long[] p_chunkIDs) {
+        int[] hashes;
+        int touchedStripes;
+
+        hashes = new int[p_ids.length];
+        touchedStripes = 0;
+        for (int i = 0; i < p_ids.length; i++) {
+            hashes[i] = hash(p_ids[i]);
+            touchedStripes |= 1 << (hashes[i] & m_stripeMask);
+        }
+
+        for (int i = 0; i < m_stripes.length; i++) {
+            if ((touchedStripes & 1 << i) != 0) {
+                m_stripes[i].updateAll(i, p_ids, hashes, p_chunkIDs);
+            }
+        }
+    }
+
+    /**
+     * Removes all mappings
+     */
+    public void clear() {
+        for (Stripe stripe : m_stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached mappings
+     *
+     * @return the number of mappings
+     */
+    public int size() {
+        return m_entryCount.get();
+    }
+
+    /**
+     * Spreads the bits of an application ID (the lowest bits select the stripe, the remaining ones the slot)
+     *
+     * @param p_id
+     *         the application ID
+     * @return the hash
+     */
+    private static int hash(final long p_id) {
+        long hash = p_id * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ hash >>> 32);
+    }
+
+    /**
+     * A lock stripe with its own open addressing table. A stripe may hold up to four times its share of the cache
+     * (uneven distribution of the IDs) and its table is at least twice that large, so probe sequences stay short
+     * and always end at a free slot. Entries are removed by shifting the following entries of the probe sequence
+     * back (no tombstones).
+     */
+    private final class Stripe {
+
+        private final StampedLock m_lock;
+        private final int m_maxStripeEntries;
+        private final int m_mask;
+
+        private final boolean[] m_used;
+        private final long[] m_keys;
+        private final long[] m_values;
+        private final long[] m_timestamps;
+        // set by readers without holding the lock, only a hint for the eviction
+        private final boolean[] m_referenced;
+
+        private int m_size;
+        private int m_clockHand;
+
+        /**
+         * Creates an instance of Stripe
+         *
+         * @param p_share
+         *         the share of this stripe of the maximal number of cache entries
+         */
+        private Stripe(final int p_share) {
+            int capacity = Integer.highestOneBit(p_share) << 4;
+
+            m_lock = new StampedLock();
+            m_maxStripeEntries = capacity / 2;
+            m_mask = capacity - 1;
+
+            m_used = new boolean[capacity];
+            m_keys = new long[capacity];
+            m_values = new long[capacity];
+            m_timestamps = new long[capacity];
+            m_referenced = new boolean[capacity];
+        }
+
+        /**
+         * Returns the cached ChunkID for given application ID
+         *
+         * @param p_id
+         *         the application ID
+         * @param p_hash
+         *         the hash of the application ID (without the stripe bits)
+         * @return the ChunkID or ChunkID.INVALID_ID if the mapping is not cached or expired
+         */
+        private long get(final long p_id, final int p_hash) {
+            int slot = -1;
+            long value = ChunkID.INVALID_ID;
+            long timestamp = 0;
+            long stamp;
+
+            stamp = m_lock.tryOptimisticRead();
+            if (stamp != 0) {
+                slot = find(p_id, p_hash);
+                if (slot >= 0) {
+                    value = m_values[slot];
+                    timestamp = m_timestamps[slot];
+                } else {
+                    value = ChunkID.INVALID_ID;
+                }
+
+                if (!m_lock.validate(stamp)) {
+                    stamp = 0;
+                }
+            }
+
+            if (stamp == 0) {
+                // concurrent modification, read again with lock
+                stamp = m_lock.readLock();
+                try {
+                    slot = find(p_id, p_hash);
+                    if (slot >= 0) {
+                        value = m_values[slot];
+                        timestamp = m_timestamps[slot];
+                    } else {
+                        value = ChunkID.INVALID_ID;
+                    }
+                } finally {
+                    m_lock.unlockRead(stamp);
+                }
+            }
+
+            if (value == ChunkID.INVALID_ID) {
+                return ChunkID.INVALID_ID;
+            }
+
+            if (System.currentTimeMillis() - timestamp > m_ttl) {
+                removeExpired(p_id, p_hash);
+
+                return ChunkID.INVALID_ID;
+            }
+
+            // racy (the entry might have been moved meanwhile), but it is only a hint for the eviction
+            m_referenced[slot] = true;
+
+            return value;
+        }
+
+        /**
+         * Caches a mapping
+         *
+         * @param p_id
+         *         the application ID
+         * @param p_hash
+         *         the hash of the application ID (without the stripe bits)
+         * @param p_chunkID
+         *         the ChunkID
+         */
+        private void put(final long p_id, final int p_hash, final long p_chunkID) {
+            int slot;
+            long stamp;
+
+            stamp = m_lock.writeLock();
+            try {
+                slot = find(p_id, p_hash);
+                if (slot < 0) {
+                    if (m_size >= m_maxStripeEntries || m_size > 0 && m_entryCount.get() >= m_maxEntries) {
+                        evict();
+                    }
+
+                    slot = p_hash & m_mask;
+                    while (m_used[slot]) {
+                        slot = slot + 1 & m_mask;
+                    }
+
+                    m_used[slot] = true;
+                    m_keys[slot] = p_id;
+                    m_size++;
+                    m_entryCount.incrementAndGet();
+                }
+
+                m_values[slot] = p_chunkID;
+                m_timestamps[slot] = System.currentTimeMillis();
+                m_referenced[slot] = false;
+            } finally {
+                m_lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Replaces a mapping if it is cached already
+         *
+         * @param p_id
+         *         the application ID
+         * @param p_hash
+         *         the hash of the application ID (without the stripe bits)
+         * @param p_chunkID
+         *         the new ChunkID
+         */
+        private void update(final long p_id, final int p_hash, final long p_chunkID) {
+            int slot;
+            long stamp;
+
+            stamp = m_lock.writeLock();
+            try {
+                slot = find(p_id, p_hash);
+                if (slot >= 0) {
+                    m_values[slot] = p_chunkID;
+                    m_timestamps[slot] = System.currentTimeMillis();
+                    m_referenced[slot] = false;
+                }
+            } finally {
+                m_lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Replaces all given mappings of this stripe which are cached already
+         *
+         * @param p_stripe
+         *         the index of this stripe
+         * @param p_ids
+         *         the application IDs (of all stripes)
+         * @param p_hashes
+         *         the hash of every application ID
+         * @param p_chunkIDs
+         *         the new ChunkID of every application ID
+         */
+        private void updateAll(final int p_stripe, final long[] p_ids, final int[] p_hashes, final long[] p_chunkIDs) {
+            int slot;
+            long now;
+            long stamp;
+
+            now = System.currentTimeMillis();
+            stamp = m_lock.writeLock();
+            try {
+                for (int i = 0; i < p_ids.length; i++) {
+                    if ((p_hashes[i] & m_stripeMask) == p_stripe) {
+                        slot = find(p_ids[i], p_hashes[i] >>> m_stripeBits);
+                        if (slot >= 0) {
+                            m_values[slot] = p_chunkIDs[i];
+                            m_timestamps[slot] = now;
+                            m_referenced[slot] = false;
+                        }
+                    }
+                }
+            } finally {
+                m_lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes all mappings
+         */
+        private void clear() {
+            long stamp;
+
+            stamp = m_lock.writeLock();
+            try {
+                Arrays.fill(m_used, false);
+                Arrays.fill(m_referenced, false);
+                m_entryCount.addAndGet(-m_size);
+                m_size = 0;
+            } finally {
+                m_lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes a mapping if it is (still) expired
+         *
+         * @param p_id
+         *         the application ID
+         * @param p_hash
+         *         the hash of the application ID (without the stripe bits)
+         */
+        private void removeExpired(final long p_id, final int p_hash) {
+            int slot;
+            long stamp;
+
+            stamp = m_lock.writeLock();
+            try {
+                slot = find(p_id, p_hash);
+                if (slot >= 0 && System.currentTimeMillis() - m_timestamps[slot] > m_ttl) {
+                    remove(slot);
+                    SOP_EVICTION.add(1);
+                }
+            } finally {
+                m_lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Returns the slot of an application ID. Might return a wrong slot if called without the lock, the
+         * caller has to validate the result. The probe sequence is bounded, so this terminates even if the
+         * table is modified concurrently.
+         *
+         * @param p_id
+         *         the application ID
+         * @param p_hash
+         *         the hash of the application ID (without the stripe bits)
+         * @return the slot or -1 if the application ID is not cached
+         */
+        private int find(final long p_id, final int p_hash) {
+            int slot = p_hash & m_mask;
+
+            for (int i = 0; i <= m_mask; i++) {
+                if (!m_used[slot]) {
+                    return -1;
+                }
+
+                if (m_keys[slot] == p_id) {
+                    return slot;
+                }
+
+                slot = slot + 1 & m_mask;
+            }
+
+            return -1;
+        }
+
+        /**
+         * Advances the clock hand until one entry was evicted. Referenced entries get a second chance, expired
+         * entries are always evicted. Caller must hold the write lock.
+         */
+        private void evict() {
+            int slot;
+            long time;
+
+            time = System.currentTimeMillis();
+            while (true) {
+                slot = m_clockHand;
+                m_clockHand = m_clockHand + 1 & m_mask;
+
+                if (!m_used[slot]) {
+                    continue;
+                }
+
+                if (m_referenced[slot] && time - m_timestamps[slot] <= m_ttl) {
+                    m_referenced[slot] = false;
+                } else {
+                    remove(slot);
+                    SOP_EVICTION.add(1);
+
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Removes the entry in given slot and shifts back the following entries of the probe sequence.
+         * Caller must hold the write lock.
+         *
+         * @param p_slot
+         *         the slot
+         */
+        private void remove(final int p_slot) {
+            int hole = p_slot;
+            int slot = p_slot;
+            int home;
+
+            while (true) {
+                slot = slot + 1 & m_mask;
+                if (!m_used[slot]) {
+                    break;
+                }
+
+                // move the entry to the hole unless its home slot lies between the hole and the entry
+                home = hash(m_keys[slot]) >>> m_stripeBits & m_mask;
+                if ((slot - home & m_mask) >= (slot - hole & m_mask)) {
+                    m_keys[hole] = m_keys[slot];
+                    m_values[hole] = m_values[slot];
+                    m_timestamps[hole] = m_timestamps[slot];
+                    m_referenced[hole] = m_referenced[slot];
+                    hole = slot;
+                }
+            }
+
+            m_used[hole] = false;
+            m_referenced[hole] = false;
+            m_size--;
+            m_entryCount.decrementAndGet();
+        }
+    }
+}
@@ -17,22 +17,38 @@
 package de.hhu.bsinfo.dxram.lookup.overlay.cache;
 
 import java.util.ArrayList;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxram.lookup.LookupComponent;
 import de.hhu.bsinfo.dxram.lookup.LookupRange;
 import de.hhu.bsinfo.dxram.lookup.LookupState;
 import de.hhu.bsinfo.dxutils.NodeID;
-import de.hhu.bsinfo.dxutils.RandomUtils;
+import de.hhu.bsinfo.dxutils.stats.StatisticsManager;
+import de.hhu.bsinfo.dxutils.stats.ValuePool;
 
 /**
- * Btree to cache ranges
+ * Btree to cache ranges.
+ * Readers do not take a lock in the common case: lookups run optimistically against a version stamp and are only
+ * repeated under the read lock if a writer modified the tree concurrently.
+ * Entries are evicted by a clock sweep over the leaves which only holds the write lock for a few leaves at a time.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 11.07.2014
  */
 public final class CacheTree {
 
+    // Constants
+    private static final int SWEEP_BATCH_SIZE = 8;
+    private static final int SWEEP_LEAVES_PER_RUN = 64;
+    // accesses within this many ms of the last registered one are not written again
+    private static final long ACCESS_RESOLUTION = 10;
+
+    private static final ValuePool SOP_EVICTION = new ValuePool(LookupComponent.class, "ChunkIDCacheEviction");
+
+    static {
+        StatisticsManager.get().registerOperation(CacheTree.class, SOP_EVICTION);
+    }
+
     // Attributes
     private short m_minEntries;
     private short m_minChildren;
@@ -44,9 +60,14 @@ public final class CacheTree {
 
     private Entry m_changedEntry;
 
-    private ReadWriteLock m_lock;
+    private final StampedLock m_lock;
     private TTLHandler m_ttlHandler;
 
+    private final long m_ttl;
+    private final long m_cacheMaxSize;
+    private long m_sweepHand;
+    private long m_rotationStart;
+
     // Constructors
 
     /**
@@ -75,25 +96,32 @@ public final class CacheTree {
 
         createOrReplaceEntry(Long.MAX_VALUE, NodeID.INVALID_ID);
 
-        m_lock = new ReentrantReadWriteLock();
+        m_lock = new StampedLock();
 
-        /*m_ttlHandler = new TTLHandler(p_ttl, p_cacheMaxSize);
+        m_ttl = p_ttl;
+        m_cacheMaxSize = p_cacheMaxSize;
+        m_sweepHand = Long.MIN_VALUE;
+        m_rotationStart = System.currentTimeMillis();
+
+        m_ttlHandler = new TTLHandler(p_ttl);
         Thread thread = new Thread(m_ttlHandler);
         thread.setName(TTLHandler.class.getSimpleName() + " for " + CacheTree.class.getSimpleName());
         thread.setDaemon(true);
-        thread.start();*/
+        thread.start();
     }
 
     // Methods
 
     public void clear() {
-        m_lock.writeLock().lock();
+        long stamp;
+
+        stamp = m_lock.writeLock();
         m_root = null;
         m_size = -1;
         m_changedEntry = null;
 
         createOrReplaceEntry(Long.MAX_VALUE, NodeID.INVALID_ID);
-        m_lock.writeLock().unlock();
+        m_lock.unlockWrite(stamp);
     }
 
     /**
@@ -364,7 +392,7 @@ public final class CacheTree {
      * Stops the TTLHandler
      */
     public void close() {
-        //m_ttlHandler.stop();
+        m_ttlHandler.stop();
     }
 
     /**
@@ -375,13 +403,35 @@ public final class CacheTree {
      * @return the NodeID of the primary peer for given object
      */
     public short getPrimaryPeer(final long p_chunkID) {
-        short ret;
+        short ret = NodeID.INVALID_ID;
+        long stamp;
 
         assert m_root != null;
 
-        m_lock.readLock().lock();
+        stamp = m_lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Node node = null;
+
+            try {
+                // no writes while reading optimistically, the access is registered once the read was validated
+                node = getNodeOrSuccessorsNode(p_chunkID, false);
+                ret = getNodeIDOrSuccessorsNodeID(node, p_chunkID);
+            } catch (final RuntimeException ignored) {
+                // inconsistent view of a node that is modified concurrently, validation fails below
+            }
+
+            if (m_lock.validate(stamp)) {
+                if (node != null) {
+                    node.setLastAccess();
+                }
+
+                return ret;
+            }
+        }
+
+        stamp = m_lock.readLock();
         ret = getNodeIDOrSuccessorsNodeID(p_chunkID);
-        m_lock.readLock().unlock();
+        m_lock.unlockRead(stamp);
 
         return ret;
     }
@@ -395,42 +445,34 @@ public final class CacheTree {
      */
     public LookupRange getMetadata(final long p_chunkID) {
         LookupRange ret = null;
-        long[] range;
-        short nodeID;
-        int index;
-        Node node;
-        Entry predecessorEntry;
+        long stamp;
 
         assert m_root != null;
 
-        m_lock.readLock().lock();
-        node = getNodeOrSuccessorsNode(p_chunkID, true);
-        if (node != null) {
-            index = node.indexOf(p_chunkID);
-            if (index >= 0) {
-                // ChunkID was found: Store NodeID and determine successor
-                range = new long[2];
-                nodeID = node.getNodeID(index);
-                range[1] = p_chunkID;
-                // range[1] = getSuccessorsEntry(p_chunkID, node).getCID();
-            } else {
-                // ChunkID was not found, but successor: Store NodeID and ChunkID of successor
-                range = new long[2];
-                nodeID = node.getNodeID(index * -1 - 1);
-                range[1] = node.getCID(index * -1 - 1);
-            }
-            // Determine ChunkID of predecessor
-            predecessorEntry = getPredecessorsEntry(range[1], node);
-            if (predecessorEntry != null) {
-                range[0] = predecessorEntry.getCID() + 1;
-            } else {
-                range[0] = 0;
+        stamp = m_lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Node node = null;
+
+            try {
+                // no writes while reading optimistically, the access is registered once the read was validated
+                node = getNodeOrSuccessorsNode(p_chunkID, false);
+                ret = getRange(node, p_chunkID);
+            } catch (final RuntimeException ignored) {
+                // inconsistent view of a node that is modified concurrently, validation fails below
             }
-            if (nodeID != NodeID.INVALID_ID) {
-                ret = new LookupRange(nodeID, range, LookupState.OK);
+
+            if (m_lock.validate(stamp)) {
+                if (node != null) {
+                    node.setLastAccess();
+                }
+
+                return ret;
             }
         }
-        m_lock.readLock().unlock();
+
+        stamp = m_lock.readLock();
+        ret = getRange(p_chunkID);
+        m_lock.unlockRead(stamp);
 
         return ret;
     }
@@ -447,24 +489,58 @@ public final class CacheTree {
      * @return true if insertion was successful
      */
     public boolean cacheRange(final long p_startCID, final long p_endCID, final short p_nodeID) {
-        Node startNode;
+        long stamp;
 
-        if (p_startCID == p_endCID) {
-            cacheChunkID(p_startCID, p_nodeID);
-        } else {
-            m_lock.writeLock().lock();
-            startNode = createOrReplaceEntry(p_startCID, p_nodeID);
+        stamp = m_lock.writeLock();
+        cacheRangeInternal(p_startCID, p_endCID, p_nodeID);
+        m_lock.unlockWrite(stamp);
 
-            mergeWithPredecessorOrBound(p_startCID, p_nodeID, startNode);
+        return true;
+    }
 
-            createOrReplaceEntry(p_endCID, p_nodeID);
+    /**
+     * Updates the primary peer of a range if any part of it is cached. All cached ranges overlapping the range are
+     * replaced. Unlike cacheRange, ranges which are not cached at all are not added to avoid filling the cache with
+     * ranges that are never accessed.
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     * @param p_nodeID
+     *         the new primary peer
+     * @return true if the range was cached and has been updated
+     */
+    public boolean updateRange(final long p_startCID, final long p_endCID, final short p_nodeID) {
+        boolean ret = false;
+        long stamp;
 
-            removeEntriesWithinRange(p_startCID, p_endCID);
+        stamp = m_lock.writeLock();
+        if (isCached(p_startCID, p_endCID)) {
+            cacheRangeInternal(p_startCID, p_endCID, p_nodeID);
+            ret = true;
+        }
+        m_lock.unlockWrite(stamp);
 
-            mergeWithSuccessor(p_endCID, p_nodeID);
-            m_lock.writeLock().unlock();
+        return ret;
+    }
+
+    /**
+     * Removes all cached ranges overlapping given range
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     */
+    public void invalidateRange(final long p_startCID, final long p_endCID) {
+        long stamp;
+
+        stamp = m_lock.writeLock();
+        if (isCached(p_startCID, p_endCID)) {
+            uncacheRange(p_startCID, p_endCID);
         }
-        return true;
+        m_lock.unlockWrite(stamp);
     }
 
     /**
@@ -474,9 +550,11 @@ public final class CacheTree {
      *         the ChunkID
      */
     public void invalidateChunkID(final long p_chunkID) {
-        m_lock.writeLock().lock();
+        long stamp;
+
+        stamp = m_lock.writeLock();
         removeEntry(p_chunkID);
-        m_lock.writeLock().unlock();
+        m_lock.unlockWrite(stamp);
     }
 
     /**
@@ -491,8 +569,9 @@ public final class CacheTree {
         long predecessorCID = ChunkID.INVALID_ID;
         int index;
         Node node;
+        long stamp;
 
-        m_lock.writeLock().lock();
+        stamp = m_lock.writeLock();
         // Get end of range
         node = getNodeOrSuccessorsNode(p_chunkID, true);
         if (node != null) {
@@ -517,12 +596,12 @@ public final class CacheTree {
                         }
                     }
                     if (predecessorCID != ChunkID.INVALID_ID) {
-                        cacheRange(predecessorCID, successorCID, NodeID.INVALID_ID);
+                        cacheRangeInternal(predecessorCID, successorCID, NodeID.INVALID_ID);
                     }
                 }
             }
         }
-        m_lock.writeLock().unlock();
+        m_lock.unlockWrite(stamp);
     }
 
     /**
@@ -532,14 +611,41 @@ public final class CacheTree {
      *         the NodeID
      */
     public void invalidatePeer(final short p_nodeID) {
-        m_lock.writeLock().lock();
+        long stamp;
+
+        stamp = m_lock.writeLock();
         ArrayList<CacheNodeElement> allEntries = toListFilteredInverse(p_nodeID);
 
         for (int i = 0; i < allEntries.size(); i++) {
             removeEntry(allEntries.get(i).getChunkId());
 
         }
-        m_lock.writeLock().unlock();
+        m_lock.unlockWrite(stamp);
+    }
+
+    /**
+     * Advances the clock hand over the leaves of the btree and evicts the ranges of leaves which were not accessed
+     * within the TTL. If the cache holds more entries than allowed, leaves which were not accessed since the hand
+     * started its current rotation are evicted as well. The write lock is released after every few leaves so lookups
+     * are never blocked for long.
+     */
+    void sweep() {
+        long time;
+        long stamp;
+        boolean rotated = false;
+        int sweptLeaves = 0;
+
+        time = System.currentTimeMillis();
+
+        while (!rotated && (sweptLeaves < SWEEP_LEAVES_PER_RUN || m_size > m_cacheMaxSize)) {
+            stamp = m_lock.writeLock();
+            for (int i = 0; i < SWEEP_BATCH_SIZE && !rotated; i++) {
+                rotated = sweepLeaf(time);
+            }
+            m_lock.unlockWrite(stamp);
+
+            sweptLeaves += SWEEP_BATCH_SIZE;
+        }
     }
 
     /**
@@ -608,6 +714,39 @@ public final class CacheTree {
 
     }
 
+    /**
+     * Caches a range
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     * @param p_nodeID
+     *         the primary peer
+     * @note assumes m_lock has been locked
+     */
+    private void cacheRangeInternal(final long p_startCID, final long p_endCID, final short p_nodeID) {
+        Node startNode;
+
+        if (p_startCID == p_endCID) {
+            cacheChunkID(p_startCID, p_nodeID);
+        } else {
+            startNode = createOrReplaceEntry(p_startCID, p_nodeID);
+
+            mergeWithPredecessorOrBound(p_startCID, p_nodeID, startNode);
+
+            createOrReplaceEntry(p_endCID, p_nodeID);
+
+            removeEntriesWithinRange(p_startCID, p_endCID);
+
+            mergeWithSuccessor(p_endCID, p_nodeID);
+        }
+
+        // the range might have been cached into idle leaves which would be evicted with the next sweep
+        getLeaf(p_startCID).setLastAccess();
+        getLeaf(p_endCID).setLastAccess();
+    }
+
     /**
      * Caches a single ChunkID
      *
@@ -615,20 +754,16 @@ public final class CacheTree {
      *         the ChunkID
      * @param p_nodeID
      *         the primary peer
-     * @return true if insertion was successful
+     * @note assumes m_lock has been locked
      */
-    private boolean cacheChunkID(final long p_chunkID, final short p_nodeID) {
+    private void cacheChunkID(final long p_chunkID, final short p_nodeID) {
         Node node;
 
-        m_lock.writeLock().lock();
         node = createOrReplaceEntry(p_chunkID, p_nodeID);
 
         mergeWithPredecessorOrBound(p_chunkID, p_nodeID, node);
 
         mergeWithSuccessor(p_chunkID, p_nodeID);
-        m_lock.writeLock().unlock();
-
-        return true;
     }
 
     /**
@@ -931,6 +1066,240 @@ public final class CacheTree {
         return ret;
     }
 
+    /**
+     * Returns the range given ChunkID is in. Does not lock, the caller either holds the lock or validates a stamp
+     * afterwards (any result or exception of an invalidated optimistic read has to be discarded).
+     *
+     * @param p_chunkID
+     *         ChunkID of requested object
+     * @return the first and last ChunkID of the range or null if the range is not cached
+     */
+    private LookupRange getRange(final long p_chunkID) {
+        return getRange(getNodeOrSuccessorsNode(p_chunkID, true), p_chunkID);
+    }
+
+    /**
+     * Returns the range given ChunkID is in. Does not lock, see getRange(long).
+     *
+     * @param p_node
+     *         the node returned by getNodeOrSuccessorsNode for p_chunkID
+     * @param p_chunkID
+     *         ChunkID of requested object
+     * @return the first and last ChunkID of the range or null if the range is not cached
+     */
+    private LookupRange getRange(final Node p_node, final long p_chunkID) {
+        LookupRange ret = null;
+        long[] range;
+        short nodeID;
+        int index;
+        Node node = p_node;
+        Entry predecessorEntry;
+
+        if (node != null) {
+            index = node.indexOf(p_chunkID);
+            if (index >= 0) {
+                // ChunkID was found: Store NodeID and determine successor
+                range = new long[2];
+                nodeID = node.getNodeID(index);
+                range[1] = p_chunkID;
+                // range[1] = getSuccessorsEntry(p_chunkID, node).getCID();
+            } else {
+                // ChunkID was not found, but successor: Store NodeID and ChunkID of successor
+                range = new long[2];
+                nodeID = node.getNodeID(index * -1 - 1);
+                range[1] = node.getCID(index * -1 - 1);
+            }
+            // Determine ChunkID of predecessor
+            predecessorEntry = getPredecessorsEntry(range[1], node);
+            if (predecessorEntry != null) {
+                range[0] = predecessorEntry.getCID() + 1;
+            } else {
+                range[0] = 0;
+            }
+            if (nodeID != NodeID.INVALID_ID) {
+                ret = new LookupRange(nodeID, range, LookupState.OK);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Checks the leaf at the clock hand and evicts its ranges if they are expired or if the cache is too large
+     *
+     * @param p_time
+     *         the current time
+     * @return whether the hand completed a rotation
+     * @note assumes m_lock has been locked
+     */
+    private boolean sweepLeaf(final long p_time) {
+        Node leaf;
+        int size;
+        long firstCID;
+        long lastCID;
+        long lastAccess;
+        boolean lastLeaf;
+
+        leaf = getLeaf(m_sweepHand);
+        size = leaf.getNumberOfEntries();
+        lastCID = leaf.getCID(size - 1);
+        if (lastCID < m_sweepHand) {
+            // Leaf is left of the hand, continue behind the separating entry in the parent
+            m_sweepHand = getCIDOrSuccessorsCID(m_sweepHand) + 1;
+            return false;
+        }
+
+        firstCID = leaf.getCID(0);
+        lastLeaf = lastCID == Long.MAX_VALUE;
+        if (lastLeaf) {
+            // Do not evict the upper bound of the tree
+            lastCID = size > 1 ? leaf.getCID(size - 2) : firstCID;
+        }
+
+        lastAccess = leaf.getLastAccess();
+        if (firstCID != lastCID && (p_time - lastAccess > m_ttl ||
+                m_size > m_cacheMaxSize && lastAccess < m_rotationStart)) {
+            size = m_size;
+            evictRange(firstCID, lastCID);
+            if (size > m_size) {
+                SOP_EVICTION.add(size - m_size);
+            }
+        }
+
+        if (lastLeaf) {
+            m_sweepHand = Long.MIN_VALUE;
+            m_rotationStart = p_time;
+        } else {
+            m_sweepHand = lastCID + 1;
+        }
+
+        return lastLeaf;
+    }
+
+    /**
+     * Returns the leaf in which given ChunkID is or would be inserted
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     * @return the leaf
+     * @note assumes m_lock has been locked
+     */
+    private Node getLeaf(final long p_chunkID) {
+        Node node;
+        int index;
+
+        node = m_root;
+        while (node.getNumberOfChildren() > 0) {
+            index = node.indexOf(p_chunkID);
+            if (index >= 0) {
+                index++;
+            } else {
+                index = index * -1 - 1;
+            }
+            node = node.getChild(index);
+        }
+
+        return node;
+    }
+
+    /**
+     * Removes given range from btree
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     * @note assumes m_lock has been locked
+     */
+    private void evictRange(final long p_startCID, final long p_endCID) {
+        Node node;
+        short startNodeID;
+        Entry successor;
+
+        if (p_startCID == p_endCID) {
+            removeEntry(p_startCID);
+        } else {
+            // Remove all ranges between p_startCID and p_endCID (excluding p_startCID)
+            node = getNodeOrSuccessorsNode(p_endCID, false);
+            if (node.getCID(node.indexOf(p_endCID)) != ChunkID.INVALID_ID) {
+                successor = getSuccessorsEntry(p_endCID, node);
+                if (successor != null && successor.getNodeID() == NodeID.INVALID_ID) {
+                    remove(p_endCID);
+                } else {
+                    node.changeEntry(p_endCID, NodeID.INVALID_ID, node.indexOf(p_endCID));
+                }
+            }
+
+            startNodeID = getNodeIDOrSuccessorsNodeID(p_startCID);
+            removeEntriesWithinRange(p_startCID, p_endCID);
+            if (startNodeID != NodeID.INVALID_ID) {
+                createOrReplaceEntry(p_startCID, startNodeID);
+            }
+        }
+    }
+
+    /**
+     * Turns given range into a gap. The parts of overlapping ranges outside of the range stay cached.
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     * @note assumes m_lock has been locked
+     */
+    private void uncacheRange(final long p_startCID, final long p_endCID) {
+        short predecessorNodeID;
+        long entryCID;
+
+        predecessorNodeID =
+                getNodeIDOrSuccessorsNodeID(getNodeOrSuccessorsNode(p_startCID - 1, false), p_startCID - 1);
+
+        // the entry at p_endCID ends the gap, the successor's range beyond keeps its primary peer
+        createOrReplaceEntry(p_endCID, NodeID.INVALID_ID);
+
+        entryCID = getCIDOrSuccessorsCID(p_startCID);
+        while (entryCID != ChunkID.INVALID_ID && entryCID >= p_startCID && entryCID < p_endCID) {
+            remove(entryCID);
+            entryCID = getCIDOrSuccessorsCID(p_startCID);
+        }
+
+        if (predecessorNodeID != NodeID.INVALID_ID) {
+            // bound the range of the predecessor which covered p_startCID before
+            createOrReplaceEntry(p_startCID - 1, predecessorNodeID);
+        }
+
+        mergeWithSuccessor(p_endCID, NodeID.INVALID_ID);
+    }
+
+    /**
+     * Checks if any ChunkID of given range is cached
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     * @return true if at least one cached range overlaps the range
+     * @note assumes m_lock has been locked
+     */
+    private boolean isCached(final long p_startCID, final long p_endCID) {
+        long chunkID = p_startCID;
+        long entryCID;
+
+        // step from entry to entry, every entry ends a cached range or a gap
+        while (true) {
+            if (getRange(getNodeOrSuccessorsNode(chunkID, false), chunkID) != null) {
+                return true;
+            }
+
+            entryCID = getCIDOrSuccessorsCID(chunkID);
+            if (entryCID == ChunkID.INVALID_ID || entryCID < chunkID || entryCID >= p_endCID) {
+                return false;
+            }
+
+            chunkID = entryCID + 1;
+        }
+    }
+
     /**
      * Returns next ChunkID to given ChunkID (could be the ChunkID itself)
      *
@@ -964,11 +1333,23 @@ public final class CacheTree {
      * @return NodeID for p_chunkID if p_chunkID is in btree or successors NodeID
      */
     private short getNodeIDOrSuccessorsNodeID(final long p_chunkID) {
+        return getNodeIDOrSuccessorsNodeID(getNodeOrSuccessorsNode(p_chunkID, true), p_chunkID);
+    }
+
+    /**
+     * Returns the location of next ChunkID to given ChunkID (could be the ChunkID itself)
+     *
+     * @param p_node
+     *         the node returned by getNodeOrSuccessorsNode for p_chunkID
+     * @param p_chunkID
+     *         the ChunkID whose corresponding NodeID is searched
+     * @return NodeID for p_chunkID if p_chunkID is in btree or successors NodeID
+     */
+    private short getNodeIDOrSuccessorsNodeID(final Node p_node, final long p_chunkID) {
         short ret = NodeID.INVALID_ID;
         int index;
-        Node node;
+        Node node = p_node;
 
-        node = getNodeOrSuccessorsNode(p_chunkID, true);
         if (node != null) {
             index = node.indexOf(p_chunkID);
             if (index >= 0) {
@@ -1180,6 +1561,7 @@ public final class CacheTree {
             if (rightNeighbor.getNumberOfChildren() > 0) {
                 p_node.addChild(rightNeighbor.removeChild(0));
             }
+            p_node.mergeLastAccess(rightNeighbor);
         } else {
             leftNeighbor = null;
             leftNeighborSize = -m_minChildren;
@@ -1203,6 +1585,7 @@ public final class CacheTree {
                 if (leftNeighbor.getNumberOfChildren() > 0) {
                     p_node.addChild(leftNeighbor.removeChild(leftNeighbor.getNumberOfChildren() - 1));
                 }
+                p_node.mergeLastAccess(leftNeighbor);
             } else if (rightNeighbor != null && parent.getNumberOfEntries() > 0) {
                 // Cannot borrow from neighbors, try to combined with right neighbor
                 removeCID = rightNeighbor.getCID(0);
@@ -1214,6 +1597,7 @@ public final class CacheTree {
 
                 p_node.addEntries(rightNeighbor, 0, rightNeighbor.getNumberOfEntries(), p_node.getNumberOfEntries());
                 p_node.addChildren(rightNeighbor, 0, rightNeighbor.getNumberOfChildren(), p_node.getNumberOfChildren());
+                p_node.mergeLastAccess(rightNeighbor);
 
                 if (parent.getParent() != null && parent.getNumberOfEntries() < m_minEntries) {
                     // Removing key made parent too small, combined up tree
@@ -1233,6 +1617,7 @@ public final class CacheTree {
                 p_node.addEntry(parentCID, parentNodeID);
                 p_node.addEntries(leftNeighbor, 0, leftNeighbor.getNumberOfEntries(), -1);
                 p_node.addChildren(leftNeighbor, 0, leftNeighbor.getNumberOfChildren(), -1);
+                p_node.mergeLastAccess(leftNeighbor);
 
                 if (parent.getParent() != null && parent.getNumberOfEntries() < m_minEntries) {
                     // Removing key made parent too small, combined up tree
@@ -1366,7 +1751,7 @@ public final class CacheTree {
         private Node[] m_children;
         private short m_numberOfChildren;
 
-        private long m_lastAccess;
+        private volatile long m_lastAccess;
 
         // Constructors
 
@@ -1538,10 +1923,28 @@ public final class CacheTree {
         }
 
         /**
-         * Sets time of the last access
+         * Sets time of the last access. Skips the write if the last access was registered just now to keep hot
+         * nodes from being written by every lookup
          */
         private void setLastAccess() {
-            m_lastAccess = System.currentTimeMillis();
+            long now = System.currentTimeMillis();
+
+            if (now - m_lastAccess >= ACCESS_RESOLUTION) {
+                m_lastAccess = now;
+            }
+        }
+
+        /**
+         * Keeps the later time of the last access when taking over entries of another node (borrowing or combining)
+         * so recently cached entries are not evicted with the entries of an expired node
+         *
+         * @param p_node
+         *         the node the entries are taken from
+         */
+        private void mergeLastAccess(final Node p_node) {
+            if (p_node.m_lastAccess > m_lastAccess) {
+                m_lastAccess = p_node.m_lastAccess;
+            }
         }
 
         /**
@@ -1993,7 +2396,7 @@ public final class CacheTree {
         private static final long SLEEP_TIME = 1000;
 
         // Attributes
-        private long m_ttl;
+        private long m_sleepTime;
 
         private volatile boolean m_running;
 
@@ -2005,10 +2408,10 @@ public final class CacheTree {
          * @param p_ttl
          *         the TTL value
          */
-        TTLHandler(final long p_ttl, final long p_maxCachedEntries) {
-            m_ttl = p_ttl;
+        TTLHandler(final long p_ttl) {
+            m_sleepTime = Math.max(1, Math.min(SLEEP_TIME, p_ttl / 2));
 
-            m_running = false;
+            m_running = true;
         }
 
         // Methods
@@ -2024,29 +2427,14 @@ public final class CacheTree {
          */
         @Override
         public void run() {
-            long time;
-            Node node;
-
-            m_running = true;
             while (m_running) {
                 try {
-                    Thread.sleep(SLEEP_TIME);
+                    Thread.sleep(m_sleepTime);
                 } catch (final InterruptedException ignored) {
                 }
 
                 if (m_running) {
-                    time = System.currentTimeMillis();
-
-                    m_lock.writeLock().lock();
-                    node = m_root;
-                    while (node != null && node.getNumberOfEntries() > 1) {
-                        if (time - node.getLastAccess() > m_ttl) {
-                            invalidateRange(node.getCID(0), node.getCID(node.getNumberOfEntries() - 1));
-                            break;
-                        }
-                        node = node.getChild(RandomUtils.getRandomValue(0, node.getNumberOfChildren()));
-                    }
-                    m_lock.writeLock().unlock();
+                    sweep();
                 }
             }
         }
@@ -2057,45 +2445,5 @@ public final class CacheTree {
         void stop() {
             m_running = false;
         }
-
-        /**
-         * Removes given range from btree
-         *
-         * @param p_startCID
-         *         the first ChunkID
-         * @param p_endCID
-         *         the last ChunkID
-         */
-        private void invalidateRange(final long p_startCID, final long p_endCID) {
-            Node node;
-            short startNodeID;
-            Entry successor;
-
-            if (p_startCID == p_endCID) {
-                m_lock.writeLock().lock();
-                removeEntry(p_startCID);
-                m_lock.writeLock().unlock();
-            } else {
-                m_lock.writeLock().lock();
-                // Remove all ranges between p_startCID and p_endCID (excluding p_startCID)
-                node = getNodeOrSuccessorsNode(p_endCID, false);
-                if (node.getCID(node.indexOf(p_endCID)) != ChunkID.INVALID_ID) {
-                    successor = getSuccessorsEntry(p_endCID, node);
-                    if (successor != null && successor.getNodeID() == NodeID.INVALID_ID) {
-                        remove(p_endCID);
-                    } else {
-                        node.changeEntry(p_endCID, NodeID.INVALID_ID, node.indexOf(p_endCID));
-                    }
-                }
-
-                startNodeID = getNodeIDOrSuccessorsNodeID(p_startCID);
-                removeEntriesWithinRange(p_startCID, p_endCID);
-                if (startNodeID != NodeID.INVALID_ID) {
-                    createOrReplaceEntry(p_startCID, startNodeID);
-                }
-                m_lock.writeLock().unlock();
-            }
-        }
-
     }
 }
@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxram.lookup.LookupRange;
+import de.hhu.bsinfo.dxram.lookup.LookupState;
+
+/**
+ * Per creator set of migrated ChunkID ranges. A creator is only tracked if the complete set is known (e.g. the
+ * creator's superpeer reported that nothing was migrated or the whole LookupTree was fetched). For tracked creators,
+ * ChunkIDs outside of all migrated ranges are stored on the creator and do not need a superpeer lookup.
+ * Tracked creators expire after a TTL as pushed migrations might get lost.
+ */
+public final class MigrationFilter {
+
+    // Attributes
+    private final ConcurrentHashMap<Short, TrackedCreator> m_creators;
+    private final int m_maxRangesPerCreator;
+    private final long m_ttl;
+    private final AtomicLong m_epoch;
+
+    // Constructors
+
+    /**
+     * Creates an instance of MigrationFilter
+     *
+     * @param p_maxRangesPerCreator
+     *         the maximal number of migrated ranges per creator. Creators with more ranges are not tracked.
+     * @param p_ttl
+     *         the time in ms a creator is tracked
+     */
+    public MigrationFilter(final int p_maxRangesPerCreator, final long p_ttl) {
+        m_creators = new ConcurrentHashMap<>();
+        m_maxRangesPerCreator = p_maxRangesPerCreator;
+        m_ttl = p_ttl;
+        m_epoch = new AtomicLong(0);
+    }
+
+    // Methods
+
+    /**
+     * Returns the range on the creator given ChunkID is in if the ChunkID was never migrated
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     * @return the range (with LocalIDs) owned by the creator or null if the ChunkID was migrated or the creator is
+     * not tracked
+     */
+    public LookupRange getCreatorRange(final long p_chunkID) {
+        short creator = ChunkID.getCreatorID(p_chunkID);
+        long localID = ChunkID.getLocalID(p_chunkID);
+        long start;
+        long end;
+        TrackedCreator tracked;
+        TreeMap<Long, Long> ranges;
+        Map.Entry<Long, Long> entry;
+
+        tracked = m_creators.get(creator);
+        if (tracked == null) {
+            return null;
+        }
+
+        if (System.currentTimeMillis() - tracked.m_timestamp > m_ttl) {
+            m_creators.remove(creator, tracked);
+            return null;
+        }
+
+        ranges = tracked.m_ranges;
+        synchronized (ranges) {
+            entry = ranges.floorEntry(localID);
+            if (entry != null && entry.getValue() >= localID) {
+                // migrated
+                return null;
+            }
+            start = entry == null ? 0 : entry.getValue() + 1;
+
+            entry = ranges.higherEntry(localID);
+            end = entry == null ? ChunkID.MAX_LOCALID : entry.getKey() - 1;
+        }
+
+        return new LookupRange(creator, new long[] {start, end}, LookupState.OK);
+    }
+
+    /**
+     * Returns the current epoch. The epoch changes with every update or invalidation.
+     *
+     * @return the epoch
+     */
+    public long getEpoch() {
+        return m_epoch.get();
+    }
+
+    /**
+     * Starts tracking a creator that has not migrated any chunks. The creator is not tracked if any update or
+     * invalidation happened since given epoch, as the superpeer's answer might be outdated.
+     *
+     * @param p_creator
+     *         the creator
+     * @param p_epoch
+     *         the epoch before the superpeer was asked
+     * @return true if the creator is tracked
+     */
+    public boolean putNeverMigrated(final short p_creator, final long p_epoch) {
+        TrackedCreator tracked;
+
+        if (m_epoch.get() != p_epoch) {
+            return false;
+        }
+
+        tracked = new TrackedCreator(new TreeMap<>());
+        m_creators.put(p_creator, tracked);
+
+        // An update might have missed the new entry -> check again after inserting
+        if (m_epoch.get() != p_epoch) {
+            m_creators.remove(p_creator, tracked);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Starts tracking a creator with all ranges of its LookupTree. The creator is not tracked if any update or
+     * invalidation happened since given epoch, as the LookupTree might be outdated.
+     *
+     * @param p_creator
+     *         the creator
+     * @param p_ranges
+     *         all ranges (with LocalIDs) of the creator's LookupTree
+     * @param p_epoch
+     *         the epoch before the LookupTree was requested
+     * @return true if the creator is tracked
+     */
+    public boolean put(final short p_creator, final List<LookupRange> p_ranges, final long p_epoch) {
+        TreeMap<Long, Long> ranges = new TreeMap<>();
+        TrackedCreator tracked;
+
+        if (m_epoch.get() != p_epoch) {
+            return false;
+        }
+
+        for (LookupRange range : p_ranges) {
+            if (range.getPrimaryPeer() != p_creator) {
+                addRange(ranges, range.getRange()[0], range.getRange()[1]);
+            }
+        }
+
+        if (ranges.size() > m_maxRangesPerCreator) {
+            m_creators.remove(p_creator);
+            return false;
+        }
+
+        tracked = new TrackedCreator(ranges);
+        m_creators.put(p_creator, tracked);
+
+        // An update might have missed the new entry -> check again after inserting
+        if (m_epoch.get() != p_epoch) {
+            m_creators.remove(p_creator, tracked);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Updates the owner of a range if the creator is tracked
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     * @param p_owner
+     *         the new owner
+     */
+    public void update(final long p_startCID, final long p_endCID, final short p_owner) {
+        short creator = ChunkID.getCreatorID(p_startCID);
+        TrackedCreator tracked;
+        TreeMap<Long, Long> ranges;
+        boolean tooLarge;
+
+        m_epoch.incrementAndGet();
+
+        tracked = m_creators.get(creator);
+        if (tracked == null) {
+            return;
+        }
+
+        ranges = tracked.m_ranges;
+        synchronized (ranges) {
+            if (p_owner == creator) {
+                // migrated back
+                removeRange(ranges, ChunkID.getLocalID(p_startCID), ChunkID.getLocalID(p_endCID));
+            } else {
+                addRange(ranges, ChunkID.getLocalID(p_startCID), ChunkID.getLocalID(p_endCID));
+            }
+            tooLarge = ranges.size() > m_maxRangesPerCreator;
+        }
+
+        if (tooLarge) {
+            m_creators.remove(creator, tracked);
+        }
+    }
+
+    /**
+     * Stops tracking a creator
+     *
+     * @param p_creator
+     *         the creator
+     */
+    public void invalidate(final short p_creator) {
+        m_epoch.incrementAndGet();
+        m_creators.remove(p_creator);
+    }
+
+    /**
+     * Stops tracking all creators
+     */
+    public void clear() {
+        m_epoch.incrementAndGet();
+        m_creators.clear();
+    }
+
+    /**
+     * Adds a range and merges it with adjacent ranges
+     *
+     * @param p_ranges
+     *         the ranges
+     * @param p_start
+     *         the first LocalID
+     * @param p_end
+     *         the last LocalID
+     */
+    private static void addRange(final TreeMap<Long, Long> p_ranges, final long p_start, final long p_end) {
+        long start = p_start;
+        long end = p_end;
+        Map.Entry<Long, Long> entry;
+
+        removeRange(p_ranges, p_start, p_end);
+
+        entry = p_ranges.floorEntry(start - 1);
+        if (entry != null && entry.getValue() == start - 1) {
+            start = entry.getKey();
+            p_ranges.remove(entry.getKey());
+        }
+
+        entry = p_ranges.ceilingEntry(end + 1);
+        if (entry != null && entry.getKey() == end + 1) {
+            end = entry.getValue();
+            p_ranges.remove(entry.getKey());
+        }
+
+        p_ranges.put(start, end);
+    }
+
+    /**
+     * Removes a range and cuts overlapping ranges
+     *
+     * @param p_ranges
+     *         the ranges
+     * @param p_start
+     *         the first LocalID
+     * @param p_end
+     *         the last LocalID
+     */
+    private static void removeRange(final TreeMap<Long, Long> p_ranges, final long p_start, final long p_end) {
+        Long from;
+        List<long[]> overlapping;
+
+        from = p_ranges.floorKey(p_start);
+        if (from == null) {
+            from = p_start;
+        }
+
+        // copy, the entries of a TreeMap are reused on removal
+        overlapping = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : p_ranges.subMap(from, true, p_end, true).entrySet()) {
+            if (entry.getValue() >= p_start) {
+                overlapping.add(new long[] {entry.getKey(), entry.getValue()});
+            }
+        }
+
+        for (long[] range : overlapping) {
+            p_ranges.remove(range[0]);
+            if (range[0] < p_start) {
+                p_ranges.put(range[0], p_start - 1);
+            }
+            if (range[1] > p_end) {
+                p_ranges.put(p_end + 1, range[1]);
+            }
+        }
+    }
+
+    /**
+     * Migrated ranges of a tracked creator
+     */
+    private static final class TrackedCreator {
+
+        private final TreeMap<Long, Long> m_ranges;
+        private final long m_timestamp;
+
+        /**
+         * Creates an instance of TrackedCreator
+         *
+         * @param p_ranges
+         *         the migrated ranges (first and last LocalID)
+         */
+        private TrackedCreator(final TreeMap<Long, Long> p_ranges) {
+            m_ranges = p_ranges;
+            m_timestamp = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.overlay.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache for ChunkIDs the superpeers reported as non-existent. Direct-mapped: every ChunkID has exactly one
+ * slot and a newer entry simply replaces an older one. Entries expire after a (short) TTL because the chunk might be
+ * created later on.
+ * Lookups are lock-free. Modifications are serialized and keep a sorted index of all cached ChunkIDs, so
+ * invalidating a range only touches the entries within it.
+ */
+public final class NegativeLookupCache {
+
+    // Attributes
+    private final AtomicReferenceArray<Entry> m_slots;
+    private final int m_mask;
+    private final long m_ttl;
+
+    // all ChunkIDs stored in m_slots, guarded by this
+    private final TreeSet<Long> m_index = new TreeSet<>();
+    private volatile int m_entries;
+
+    // Constructors
+
+    /**
+     * Creates an instance of NegativeLookupCache
+     *
+     * @param p_maxEntries
+     *         the maximal number of cache entries (rounded up to the next power of two)
+     * @param p_ttl
+     *         the time to live of an entry in ms
+     */
+    public NegativeLookupCache(final int p_maxEntries, final long p_ttl) {
+        int size = Integer.highestOneBit(Math.max(1, p_maxEntries - 1)) << 1;
+
+        m_slots = new AtomicReferenceArray<>(size);
+        m_mask = size - 1;
+        m_ttl = p_ttl;
+    }
+
+    // Getters
+
+    /**
+     * Returns the number of cached ChunkIDs (including expired ones not replaced or invalidated, yet)
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return m_entries;
+    }
+
+    // Methods
+
+    /**
+     * Checks if given ChunkID is known to not exist
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     * @return true if the ChunkID was reported as non-existent within the TTL
+     */
+    public boolean contains(final long p_chunkID) {
+        if (m_entries == 0) {
+            return false;
+        }
+
+        Entry entry = m_slots.get(slot(p_chunkID));
+
+        // expired entries are left in place until they are replaced or invalidated
+        return entry != null && entry.m_chunkID == p_chunkID &&
+                System.currentTimeMillis() - entry.m_timestamp <= m_ttl;
+    }
+
+    /**
+     * Caches a non-existent ChunkID
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     */
+    public synchronized void put(final long p_chunkID) {
+        Entry old = m_slots.getAndSet(slot(p_chunkID), new Entry(p_chunkID));
+
+        if (old != null) {
+            m_index.remove(old.m_chunkID);
+        }
+
+        m_index.add(p_chunkID);
+        m_entries = m_index.size();
+    }
+
+    /**
+     * Removes given ChunkID
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     */
+    public void invalidate(final long p_chunkID) {
+        if (m_entries == 0) {
+            return;
+        }
+
+        synchronized (this) {
+            remove(p_chunkID);
+            m_entries = m_index.size();
+        }
+    }
+
+    /**
+     * Removes all ChunkIDs within given range
+     *
+     * @param p_startCID
+     *         the first ChunkID
+     * @param p_endCID
+     *         the last ChunkID
+     */
+    public void invalidateRange(final long p_startCID, final long p_endCID) {
+        if (m_entries == 0 || p_startCID > p_endCID) {
+            return;
+        }
+
+        synchronized (this) {
+            List<Long> chunkIDs = new ArrayList<>(m_index.subSet(p_startCID, true, p_endCID, true));
+
+            for (long chunkID : chunkIDs) {
+                remove(chunkID);
+            }
+
+            m_entries = m_index.size();
+        }
+    }
+
+    /**
+     * Removes all ChunkIDs
+     */
+    public synchronized void clear() {
+        for (int i = 0; i <= m_mask; i++) {
+            m_slots.set(i, null);
+        }
+
+        m_index.clear();
+        m_entries = 0;
+    }
+
+    /**
+     * Removes given ChunkID from its slot and the index
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     * @note assumes this has been locked
+     */
+    private void remove(final long p_chunkID) {
+        int slot = slot(p_chunkID);
+        Entry entry = m_slots.get(slot);
+
+        if (entry != null && entry.m_chunkID == p_chunkID) {
+            m_slots.set(slot, null);
+            m_index.remove(p_chunkID);
+        }
+    }
+
+    /**
+     * Returns the slot for given ChunkID
+     *
+     * @param p_chunkID
+     *         the ChunkID
+     * @return the slot index
+     */
+    private int slot(final long p_chunkID) {
+        long hash = p_chunkID * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ hash >>> 32) & m_mask;
+    }
+
+    /**
+     * A ChunkID reported as non-existent
+     */
+    private static final class Entry {
+
+        private final long m_chunkID;
+        private final long m_timestamp;
+
+        /**
+         * Creates an instance of Entry
+         *
+         * @param p_chunkID
+         *         the ChunkID
+         */
+        private Entry(final long p_chunkID) {
+            m_chunkID = p_chunkID;
+            m_timestamp = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay.storage;
+
+/**
+ * Reduction applied to the custom data of all peers signing on to a barrier. With a reduction, the superpeer
+ * combines the custom data as the sign ons arrive and the barrier is released with the reduced value only
+ * instead of the custom data of every peer.
+ */
+public enum BarrierReduction {
+    NONE, SUM, MIN, MAX, AND, OR;
+
+    /**
+     * Get the identity element of the reduction (reducing any value with it returns the value)
+     *
+     * @return Identity element
+     */
+    public long getIdentity() {
+        switch (this) {
+            case MIN:
+                return Long.MAX_VALUE;
+            case MAX:
+                return Long.MIN_VALUE;
+            case AND:
+                return -1L;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Reduce two values
+     *
+     * @param p_value1
+     *         First value (e.g. the value reduced so far)
+     * @param p_value2
+     *         Second value
+     * @return Reduced value (p_value1 for NONE)
+     */
+    public long reduce(final long p_value1, final long p_value2) {
+        switch (this) {
+            case SUM:
+                return p_value1 + p_value2;
+            case MIN:
+                return Math.min(p_value1, p_value2);
+            case MAX:
+                return Math.max(p_value1, p_value2);
+            case AND:
+                return p_value1 & p_value2;
+            case OR:
+                return p_value1 | p_value2;
+            default:
+                return p_value1;
+        }
+    }
+
+    /**
+     * Reduce multiple values
+     *
+     * @param p_values
+     *         Values to reduce
+     * @param p_count
+     *         Number of values to reduce starting with the first one
+     * @return Reduced value (identity element if no values are given)
+     */
+    public long reduce(final long[] p_values, final int p_count) {
+        long ret = getIdentity();
+
+        for (int i = 0; i < p_count; i++) {
+            ret = reduce(ret, p_values[i]);
+        }
+
+        return ret;
+    }
+}
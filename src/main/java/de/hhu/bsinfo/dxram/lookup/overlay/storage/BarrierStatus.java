@@ -25,14 +25,19 @@ import de.hhu.bsinfo.dxutils.serialization.Importer;
 import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
 
 /**
- * Result object for sign on to a barrier
+ * Result object for sign on to a barrier. If the peers signed on with a reduction, the status released to them
+ * contains the reduced value only (no node ids and custom data of the single peers).
  *
  * @author Stefan Nothaas, stefan.nothaas@hhu.de, 13.01.2017
  */
 public class BarrierStatus implements Importable, Exportable {
+    private static final short FAILED = -1;
+
     private short m_numSignedOnPeers;
     private short[] m_signedOnNodeIDs = new short[0];
     private long[] m_customData = new long[0];
+    private BarrierReduction m_reduction = BarrierReduction.NONE;
+    private long m_reducedValue;
 
     /**
      * Default constructor
@@ -57,10 +62,53 @@ public class BarrierStatus implements Importable, Exportable {
         m_customData = p_customData;
     }
 
+    /**
+     * Constructor
+     *
+     * @param p_numSignedOnPeers
+     *         Number of peers that signed on so far
+     * @param p_signedOnNodeIDs
+     *         Array of Node IDs that signed on to the barrier
+     * @param p_customData
+     *         Array of custom data received from the signed on nodes
+     * @param p_reduction
+     *         Reduction the peers signed on with
+     * @param p_reducedValue
+     *         Custom data of all signed on nodes reduced
+     */
+    public BarrierStatus(final short p_numSignedOnPeers, final short[] p_signedOnNodeIDs, final long[] p_customData,
+            final BarrierReduction p_reduction, final long p_reducedValue) {
+        m_numSignedOnPeers = p_numSignedOnPeers;
+        m_signedOnNodeIDs = p_signedOnNodeIDs;
+        m_customData = p_customData;
+        m_reduction = p_reduction;
+        m_reducedValue = p_reducedValue;
+    }
+
+    /**
+     * Create a status to release peers of a failed sign on (e.g. to pass a failure down a combining tree)
+     *
+     * @return Failure status
+     */
+    public static BarrierStatus createFailureStatus() {
+        return new BarrierStatus(FAILED, new short[0], new long[0]);
+    }
+
+    /**
+     * Check if this status releases peers of a failed sign on
+     *
+     * @return True if the sign on failed, false otherwise
+     */
+    public boolean isFailure() {
+        return m_numSignedOnPeers == FAILED;
+    }
+
     /**
      * Get the number of actually signed on peers. This can be less than
      * the array sizes of signed on node ids and custom data if the sign
-     * on process is still ongoing
+     * on process is still ongoing. For a status released with a reduction,
+     * this is the number of peers the value was reduced from (the node ids
+     * and custom data of the single peers are not included, see containsSignedOnPeers)
      *
      * @return Number of currently signed on peers of this status
      */
@@ -71,7 +119,7 @@ public class BarrierStatus implements Importable, Exportable {
     /**
      * Get the array of signed on node IDs
      *
-     * @return Array of node IDs
+     * @return Array of node IDs (empty if the status does not contain the signed on peers)
      */
     public short[] getSignedOnNodeIDs() {
         return m_signedOnNodeIDs;
@@ -80,21 +128,66 @@ public class BarrierStatus implements Importable, Exportable {
     /**
      * Get the array of custom data delivered by the signed on nodes
      *
-     * @return Array of custom data (indices match node id array)
+     * @return Array of custom data (indices match node id array, empty if the status does not contain the
+     * signed on peers)
      */
     public long[] getCustomData() {
         return m_customData;
     }
 
+    /**
+     * Get the reduction the peers signed on with
+     *
+     * @return Reduction (NONE if signed on without)
+     */
+    public BarrierReduction getReduction() {
+        return m_reduction;
+    }
+
+    /**
+     * Get the custom data of all signed on peers reduced
+     *
+     * @return Reduced value (only valid if the reduction is not NONE)
+     */
+    public long getReducedValue() {
+        return m_reducedValue;
+    }
+
+    /**
+     * Get a status containing the number of signed on peers and the reduced value only (e.g. to release peers
+     * signed on with a reduction). The reduced status does not contain the node ids and custom data of the
+     * single peers (containsSignedOnPeers returns false).
+     *
+     * @return Reduced status
+     */
+    public BarrierStatus toReducedStatus() {
+        return new BarrierStatus(m_numSignedOnPeers, new short[0], new long[0], m_reduction, m_reducedValue);
+    }
+
+    /**
+     * Check if the status contains the node ids and custom data of all signed on peers
+     *
+     * @return True if the node ids and custom data are included, false for a reduced status
+     */
+    public boolean containsSignedOnPeers() {
+        return m_signedOnNodeIDs.length >= m_numSignedOnPeers && m_customData.length >= m_numSignedOnPeers;
+    }
+
     /**
      * Find custom data provided by a specific node
      *
      * @param p_nodeId
      *         Node id to find custom data for
      * @return If the node id signed on with custom data returns the data, null otherwise
+     * @throws IllegalStateException
+     *         if the status does not contain the signed on peers (use getReducedValue instead)
      */
     public Long findCustomData(final short p_nodeId) {
-        for (int i = 0; i < m_signedOnNodeIDs.length; i++) {
+        if (!containsSignedOnPeers()) {
+            throw new IllegalStateException("Status does not contain the custom data of the signed on peers");
+        }
+
+        for (int i = 0; i < m_numSignedOnPeers; i++) {
             if (m_signedOnNodeIDs[i] == p_nodeId) {
                 return m_customData[i];
             }
@@ -108,8 +201,14 @@ public class BarrierStatus implements Importable, Exportable {
      *
      * @param p_consumer
      *         Block to execute for every signed on peer
+     * @throws IllegalStateException
+     *         if the status does not contain the signed on peers (use getReducedValue instead)
      */
     public void forEachSignedOnPeer(final Consumer p_consumer) {
+        if (!containsSignedOnPeers()) {
+            throw new IllegalStateException("Status does not contain the custom data of the signed on peers");
+        }
+
         for (int i = 0; i < m_numSignedOnPeers; i++) {
             p_consumer.forEach(m_signedOnNodeIDs[i], m_customData[i]);
         }
@@ -118,7 +217,8 @@ public class BarrierStatus implements Importable, Exportable {
     @Override
     public String toString() {
         return "m_numSignedOnPeers " + m_numSignedOnPeers + ", m_signedOnNodeIDs " + NodeID.nodeIDArrayToString(
-                m_signedOnNodeIDs) + ", m_customData " + ChunkID.chunkIDArrayToString(m_customData);
+                m_signedOnNodeIDs) + ", m_customData " + ChunkID.chunkIDArrayToString(m_customData) + ", m_reduction " +
+                m_reduction + ", m_reducedValue " + m_reducedValue;
     }
 
     @Override
@@ -126,6 +226,10 @@ public class BarrierStatus implements Importable, Exportable {
         p_exporter.writeShort(m_numSignedOnPeers);
         p_exporter.writeShortArray(m_signedOnNodeIDs);
         p_exporter.writeLongArray(m_customData);
+        p_exporter.writeByte((byte) m_reduction.ordinal());
+        if (m_reduction != BarrierReduction.NONE) {
+            p_exporter.writeLong(m_reducedValue);
+        }
     }
 
     @Override
@@ -133,12 +237,21 @@ public class BarrierStatus implements Importable, Exportable {
         m_numSignedOnPeers = p_importer.readShort(m_numSignedOnPeers);
         m_signedOnNodeIDs = p_importer.readShortArray(m_signedOnNodeIDs);
         m_customData = p_importer.readLongArray(m_customData);
+        m_reduction = BarrierReduction.values()[p_importer.readByte((byte) m_reduction.ordinal())];
+        if (m_reduction != BarrierReduction.NONE) {
+            m_reducedValue = p_importer.readLong(m_reducedValue);
+        }
     }
 
     @Override
     public int sizeofObject() {
-        return Short.BYTES + ObjectSizeUtil.sizeofShortArray(m_signedOnNodeIDs) + ObjectSizeUtil.sizeofLongArray(
-                m_customData);
+        int size = Short.BYTES + ObjectSizeUtil.sizeofShortArray(m_signedOnNodeIDs) +
+                ObjectSizeUtil.sizeofLongArray(m_customData) + Byte.BYTES;
+        if (m_reduction != BarrierReduction.NONE) {
+            size += Long.BYTES;
+        }
+
+        return size;
     }
 
     @FunctionalInterface
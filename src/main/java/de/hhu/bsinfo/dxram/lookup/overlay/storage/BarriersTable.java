@@ -81,6 +81,11 @@ public class BarriersTable implements MetadataInterface {
 
             for (int i = 0; i < allSize; i++) {
                 size = data.getInt();
+                if (size == 0) {
+                    // barrier id not allocated
+                    continue;
+                }
+
                 barrierData[i] = new long[size];
                 barrierState[i] = new short[size + 1];
 
@@ -88,11 +93,11 @@ public class BarriersTable implements MetadataInterface {
                     barrierData[i][j] = data.getLong();
                     barrierState[i][j] = data.getShort();
                 }
-                barrierState[i][allSize] = data.getShort();
+                barrierState[i][size] = data.getShort();
+                ret++;
             }
 
             m_barrierNodes[nodeId & 0xFFFF] = new BarrierNode(nodeId, m_maxNumBarriers, barrierData, barrierState);
-            ret += allSize;
         }
 
         return ret;
@@ -100,6 +105,8 @@ public class BarriersTable implements MetadataInterface {
 
     @Override
     public byte[] receiveAllMetadata() {
+        int currentSize = 0;
+        byte[] currentData;
         BarrierNode barrierNode;
 
         int size = m_allBarrierEntriesCount * (Long.BYTES + Short.SIZE) + m_allBarriersCount * Short.SIZE;
@@ -111,11 +118,14 @@ public class BarriersTable implements MetadataInterface {
 
                 LOGGER.trace("Including barriers of 0x%X", (short) i);
 
-                data.put(barrierNode.toByteArray());
+                currentData = barrierNode.toByteArray();
+                data = ensureCapacity(data, currentData.length);
+                data.put(currentData);
+                currentSize += currentData.length;
             }
         }
 
-        return data.array();
+        return Arrays.copyOfRange(data.array(), 0, currentSize);
     }
 
     @Override
@@ -135,6 +145,7 @@ public class BarriersTable implements MetadataInterface {
                     LOGGER.trace("Including barriers of 0x%X", (short) i);
 
                     currentData = barrierNode.toByteArray();
+                    data = ensureCapacity(data, currentData.length);
                     data.put(currentData);
                     currentSize += currentData.length;
                 }
@@ -193,6 +204,27 @@ public class BarriersTable implements MetadataInterface {
         return count;
     }
 
+    /**
+     * Grows a buffer if the remaining space is too small (e.g. if many barrier ids of a node are not allocated)
+     *
+     * @param p_buffer
+     *         the buffer
+     * @param p_size
+     *         the number of bytes to put next
+     * @return the buffer to put the bytes in
+     */
+    private static ByteBuffer ensureCapacity(final ByteBuffer p_buffer, final int p_size) {
+        if (p_buffer.remaining() >= p_size) {
+            return p_buffer;
+        }
+
+        ByteBuffer ret = ByteBuffer.allocate(Math.max(p_buffer.capacity() * 2, p_buffer.position() + p_size));
+        p_buffer.flip();
+        ret.put(p_buffer);
+
+        return ret;
+    }
+
     /**
      * Reset an existing barrier for reuse.
      *
@@ -278,10 +310,34 @@ public class BarriersTable implements MetadataInterface {
      *         Id of the peer node signing on
      * @param p_barrierData
      *         Additional custom data to pass along to the barrier
+     * @param p_reduction
+     *         Reduction to apply to the custom data (must be the same for all peers signing on)
+     * @return On success returns the number of peers left to sign on, -1 on failure
+     */
+    int signOn(final short p_nodeId, final int p_barrierId, final short p_nodeIdToSignOn, final long p_barrierData,
+            final BarrierReduction p_reduction) {
+        return m_barrierNodes[p_nodeId & 0xFFFF].signOn(p_barrierId, new short[] {p_nodeIdToSignOn},
+                new long[] {p_barrierData}, p_reduction);
+    }
+
+    /**
+     * Sign on multiple peers to a barrier using a barrier id. Either all peers are signed on or none.
+     *
+     * @param p_nodeId
+     *         the creator
+     * @param p_barrierId
+     *         Barrier id to sign on to.
+     * @param p_nodeIdsToSignOn
+     *         Ids of the peer nodes signing on
+     * @param p_barrierData
+     *         Additional custom data of every peer (missing entries are the reduction's identity)
+     * @param p_reduction
+     *         Reduction to apply to the custom data (must be the same for all peers signing on)
      * @return On success returns the number of peers left to sign on, -1 on failure
      */
-    int signOn(final short p_nodeId, final int p_barrierId, final short p_nodeIdToSignOn, final long p_barrierData) {
-        return m_barrierNodes[p_nodeId & 0xFFFF].signOn(p_barrierId, p_nodeIdToSignOn, p_barrierData);
+    int signOn(final short p_nodeId, final int p_barrierId, final short[] p_nodeIdsToSignOn, final long[] p_barrierData,
+            final BarrierReduction p_reduction) {
+        return m_barrierNodes[p_nodeId & 0xFFFF].signOn(p_barrierId, p_nodeIdsToSignOn, p_barrierData, p_reduction);
     }
 
     /**
@@ -310,6 +366,10 @@ public class BarriersTable implements MetadataInterface {
         private long[][] m_barrierData;
         private short[][] m_barrierState;
         private ReentrantLock[] m_barrierLocks;
+        // reduction of the current sign on round and the custom data reduced so far (not replicated, restored
+        // from the custom data on the next sign on)
+        private BarrierReduction[] m_barrierReductions;
+        private long[] m_reducedData;
         private int m_allocatedBarriersCount;
 
         // Constructors
@@ -326,6 +386,8 @@ public class BarriersTable implements MetadataInterface {
             m_barrierData = new long[p_maxNumBarriers][];
             m_barrierState = new short[p_maxNumBarriers][];
             m_barrierLocks = new ReentrantLock[p_maxNumBarriers];
+            m_barrierReductions = new BarrierReduction[p_maxNumBarriers];
+            m_reducedData = new long[p_maxNumBarriers];
             m_allocatedBarriersCount = 0;
 
             m_allocationLock = new ReentrantLock(false);
@@ -350,7 +412,15 @@ public class BarriersTable implements MetadataInterface {
             m_barrierData = p_barrierData;
             m_barrierState = p_barrierState;
             m_barrierLocks = new ReentrantLock[p_maxNumBarriers];
-            m_allocatedBarriersCount = m_barrierData.length;
+            m_barrierReductions = new BarrierReduction[p_maxNumBarriers];
+            m_reducedData = new long[p_maxNumBarriers];
+            m_allocatedBarriersCount = 0;
+            for (int i = 0; i < m_barrierState.length; i++) {
+                if (m_barrierState[i] != null) {
+                    m_barrierLocks[i] = new ReentrantLock(false);
+                    m_allocatedBarriersCount++;
+                }
+            }
 
             m_allocationLock = new ReentrantLock(false);
 
@@ -388,6 +458,7 @@ public class BarriersTable implements MetadataInterface {
                     m_barrierData[i] = new long[p_size];
                     m_barrierState[i] = new short[p_size + 1];
                     m_barrierLocks[i] = new ReentrantLock(false);
+                    m_barrierReductions[i] = null;
                     m_barrierState[i][0] = 0;
                     for (int j = 1; j < p_size; j++) {
                         m_barrierState[i][j] = NodeID.INVALID_ID;
@@ -443,6 +514,7 @@ public class BarriersTable implements MetadataInterface {
 
             m_barrierData[id] = null;
             m_barrierState[id] = null;
+            m_barrierReductions[id] = null;
             m_barrierLocks[id].unlock();
 
             m_barrierLocks[id] = null;
@@ -491,6 +563,7 @@ public class BarriersTable implements MetadataInterface {
 
             m_barrierData[id] = new long[p_newSize];
             m_barrierState[id] = new short[p_newSize + 1];
+            m_barrierReductions[id] = null;
             m_barrierState[id][0] = 0;
             for (int i = 1; i < m_barrierState[id].length; i++) {
                 m_barrierState[id][i] = NodeID.INVALID_ID;
@@ -501,18 +574,22 @@ public class BarriersTable implements MetadataInterface {
         }
 
         /**
-         * Sign on to a barrier using a barrier id.
+         * Sign on multiple peers to a barrier using a barrier id. The whole batch is checked before any peer is
+         * signed on, so a failed sign on leaves the barrier unchanged.
          *
          * @param p_barrierId
          *         Barrier id to sign on to.
-         * @param p_nodeId
-         *         Id of the peer node signing on
+         * @param p_nodeIds
+         *         Ids of the peer nodes signing on
          * @param p_barrierData
-         *         Additional custom data to pass along to the barrier
+         *         Additional custom data of every peer (missing entries are the reduction's identity)
+         * @param p_reduction
+         *         Reduction to apply to the custom data (must be the same for all peers signing on)
          * @return On success returns the number of peers left to sign on, -1 on failure
          */
-        private int signOn(final int p_barrierId, final short p_nodeId, final long p_barrierData) {
-            if (p_barrierId == BarrierID.INVALID_ID) {
+        private int signOn(final int p_barrierId, final short[] p_nodeIds, final long[] p_barrierData,
+                final BarrierReduction p_reduction) {
+            if (p_barrierId == BarrierID.INVALID_ID || p_nodeIds.length == 0) {
                 return -1;
             }
 
@@ -529,14 +606,31 @@ public class BarriersTable implements MetadataInterface {
 
             m_barrierLocks[id].lock();
 
-            if (m_barrierState[id][0] == m_barrierState[id].length - 1) {
+            int signedOn = m_barrierState[id][0] & 0xFFFF;
+            if (signedOn + p_nodeIds.length > m_barrierState[id].length - 1) {
+                m_barrierLocks[id].unlock();
+                return -1;
+            }
+
+            if (signedOn != 0 && m_barrierReductions[id] != null && m_barrierReductions[id] != p_reduction) {
                 m_barrierLocks[id].unlock();
                 return -1;
             }
 
-            m_barrierData[id][m_barrierState[id][0] & 0xFFFF] = p_barrierData;
-            m_barrierState[id][0]++;
-            m_barrierState[id][m_barrierState[id][0] & 0xFFFF] = p_nodeId;
+            if (signedOn == 0 || m_barrierReductions[id] == null) {
+                // first sign on of this round or the barrier was taken over from another superpeer
+                m_barrierReductions[id] = p_reduction;
+                m_reducedData[id] = p_reduction.reduce(m_barrierData[id], signedOn);
+            }
+
+            for (int i = 0; i < p_nodeIds.length; i++) {
+                long barrierData = i < p_barrierData.length ? p_barrierData[i] : p_reduction.getIdentity();
+
+                m_reducedData[id] = p_reduction.reduce(m_reducedData[id], barrierData);
+                m_barrierData[id][m_barrierState[id][0] & 0xFFFF] = barrierData;
+                m_barrierState[id][0]++;
+                m_barrierState[id][m_barrierState[id][0] & 0xFFFF] = p_nodeIds[i];
+            }
 
             int ret = m_barrierState[id].length - 1 - m_barrierState[id][0];
             m_barrierLocks[id].unlock();
@@ -569,6 +663,7 @@ public class BarriersTable implements MetadataInterface {
             m_barrierLocks[id].lock();
 
             m_barrierState[id][0] = 0;
+            m_barrierReductions[id] = null;
             for (int i = 1; i < m_barrierState[id].length; i++) {
                 m_barrierData[id][i - 1] = 0;
                 m_barrierState[id][i] = NodeID.INVALID_ID;
@@ -611,9 +706,13 @@ public class BarriersTable implements MetadataInterface {
             System.arraycopy(m_barrierState[id], 1, nodeIds, 0, m_barrierState[id].length - 1);
             System.arraycopy(m_barrierData[id], 0, data, 0, m_barrierData[id].length);
 
+            BarrierReduction reduction = m_barrierReductions[id] != null ? m_barrierReductions[id] :
+                    BarrierReduction.NONE;
+            long reducedData = m_reducedData[id];
+
             m_barrierLocks[id].unlock();
 
-            return new BarrierStatus(signedOnPeers, nodeIds, data);
+            return new BarrierStatus(signedOnPeers, nodeIds, data, reduction, reducedData);
         }
 
         /**
@@ -624,19 +723,31 @@ public class BarriersTable implements MetadataInterface {
         private byte[] toByteArray() {
             byte[] ret;
             int size = Short.BYTES + Integer.BYTES;
+            int count = 0;
             ByteBuffer data;
 
-            for (int i = 0; i < m_allocatedBarriersCount; i++) {
-                size += m_barrierData[i].length * Long.BYTES;
-                size += (m_barrierState[i].length + 1) * Short.BYTES;
-                size += Integer.BYTES;
+            m_allocationLock.lock();
+
+            // barrier ids are indices: include all up to the last allocated one (size 0 if not allocated)
+            for (int i = 0; i < m_barrierState.length; i++) {
+                if (m_barrierState[i] != null) {
+                    size += m_barrierData[i].length * Long.BYTES;
+                    size += m_barrierState[i].length * Short.BYTES;
+                    count = i + 1;
+                }
             }
+            size += count * Integer.BYTES;
 
             ret = new byte[size];
             data = ByteBuffer.wrap(ret);
             data.putShort(m_nodeId);
-            data.putInt(m_barrierData.length);
-            for (int i = 0; i < m_allocatedBarriersCount; i++) {
+            data.putInt(count);
+            for (int i = 0; i < count; i++) {
+                if (m_barrierState[i] == null) {
+                    data.putInt(0);
+                    continue;
+                }
+
                 data.putInt(m_barrierData[i].length);
 
                 LOGGER.trace("Including barrier with id %d", i);
@@ -648,6 +759,8 @@ public class BarriersTable implements MetadataInterface {
                 data.putShort(m_barrierState[i][m_barrierState[i].length - 1]);
             }
 
+            m_allocationLock.unlock();
+
             return ret;
         }
     }
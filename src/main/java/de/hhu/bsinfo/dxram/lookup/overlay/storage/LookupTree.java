@@ -17,6 +17,8 @@
 package de.hhu.bsinfo.dxram.lookup.overlay.storage;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import de.hhu.bsinfo.dxmem.data.ChunkID;
 import de.hhu.bsinfo.dxram.lookup.LookupRange;
@@ -28,7 +30,10 @@ import de.hhu.bsinfo.dxutils.serialization.Importable;
 import de.hhu.bsinfo.dxutils.serialization.Importer;
 
 /**
- * Btree to store ranges. Backup nodes are stored in an ArrayList to improve access times.
+ * Stores the ranges of migrated chunks of one creator. Every entry (LocalID, NodeID) defines the end of a range: the
+ * range starts after the LocalID of the previous entry and is stored on the NodeID. The entries are kept in sorted
+ * primitive arrays (binary search, no object per range). Inserts and removals of single entries go to a small
+ * sorted delta buffer which is merged into the arrays in place once it is full.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 13.06.2013
  * @author Michael Birkhoff, michael.birkhoff@hhu.de
@@ -37,20 +42,25 @@ public final class LookupTree implements Serializable, Importable, Exportable {
 
     private static final long serialVersionUID = -3992560499375457216L;
 
+    private static final int DELTA_CAPACITY = 256;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long NO_ENTRY = Long.MIN_VALUE;
+
     // Attributes
-    private short m_minEntries;
-    private short m_minChildren;
-    private short m_maxEntries;
-    private short m_maxChildren;
+    private short m_creator;
 
-    private Node m_root;
+    // merged entries, sorted by LocalID
+    private long[] m_localIDs;
+    private short[] m_nodeIDs;
     private int m_size;
 
-    private short m_creator;
-
-    private Entry m_changedEntry;
+    // pending entries, sorted by LocalID. NodeID.INVALID_ID marks a removed entry of the merged arrays
+    private long[] m_deltaLocalIDs;
+    private short[] m_deltaNodeIDs;
+    private int m_deltaSize;
 
-    private int m_elementsInTree; // Used for serialization, only
+    // number of entries (merged and pending)
+    private int m_entries;
 
     // Constructors
 
@@ -58,378 +68,167 @@ public final class LookupTree implements Serializable, Importable, Exportable {
      * Creates an instance of LookupTree
      */
     public LookupTree() {
-        m_root = null;
-        m_size = 0;
+        m_localIDs = new long[0];
+        m_nodeIDs = new short[0];
 
-        m_changedEntry = null;
+        m_deltaLocalIDs = new long[DELTA_CAPACITY];
+        m_deltaNodeIDs = new short[DELTA_CAPACITY];
     }
 
     /**
      * Creates an instance of LookupTree
      *
-     * @param p_order
-     *         order of the btree
+     * @param p_creator
+     *         the creator of the chunks
      */
-    LookupTree(final short p_order, final short p_creator) {
-        // too small order for BTree
-        assert p_order > 1;
-
-        m_minEntries = p_order;
-        m_minChildren = (short) (m_minEntries + 1);
-        m_maxEntries = (short) (2 * m_minEntries);
-        m_maxChildren = (short) (m_maxEntries + 1);
-
-        m_root = null;
-        m_size = 0;
+    LookupTree(final short p_creator) {
+        this();
 
         m_creator = p_creator;
-
-        m_changedEntry = null;
     }
 
     /**
-     * Prints one node of the btree and walks down the btree recursively
+     * Returns the first index of a sorted array with a LocalID not smaller than given one
      *
-     * @param p_node
-     *         the current node
-     * @param p_prefix
-     *         the prefix to use
-     * @param p_isTail
-     *         defines wheter the node is the tail
-     * @return String interpretation of the tree
+     * @param p_localIDs
+     *         the sorted array
+     * @param p_size
+     *         the number of used elements
+     * @param p_localID
+     *         the LocalID
+     * @return the index (p_size if all LocalIDs are smaller)
      */
-    private static String getString(final Node p_node, final String p_prefix, final boolean p_isTail) {
-        StringBuilder ret;
-        Node obj;
-
-        ret = new StringBuilder();
+    private static int lowerBound(final long[] p_localIDs, final int p_size, final long p_localID) {
+        int index = Arrays.binarySearch(p_localIDs, 0, p_size, p_localID);
 
-        ret.append(p_prefix);
-        if (p_isTail) {
-            ret.append("└── ");
-        } else {
-            ret.append("├── ");
-        }
-        ret.append('[');
-        ret.append(p_node.getNumberOfEntries());
-        ret.append(", ");
-        ret.append(p_node.getNumberOfChildren());
-        ret.append("] ");
-        for (int i = 0; i < p_node.getNumberOfEntries(); i++) {
-            ret.append("(LocalID: ");
-            ret.append(ChunkID.toHexString(p_node.getLocalID(i)));
-            ret.append(" NodeID: ");
-            ret.append(NodeID.toHexString(p_node.getNodeID(i)));
-            ret.append(')');
-            if (i < p_node.getNumberOfEntries() - 1) {
-                ret.append(", ");
-            }
-        }
-        ret.append('\n');
-
-        if (p_node.getChild(0) != null) {
-            for (int i = 0; i < p_node.getNumberOfChildren() - 1; i++) {
-                obj = p_node.getChild(i);
-                if (p_isTail) {
-                    ret.append(getString(obj, p_prefix + "    ", false));
-                } else {
-                    ret.append(getString(obj, p_prefix + "│   ", false));
-                }
-            }
-            if (p_node.getNumberOfChildren() >= 1) {
-                obj = p_node.getChild(p_node.getNumberOfChildren() - 1);
-                if (p_isTail) {
-                    ret.append(getString(obj, p_prefix + "    ", true));
-                } else {
-                    ret.append(getString(obj, p_prefix + "│   ", true));
-                }
-            }
-        }
-        return ret.toString();
+        return index >= 0 ? index : -index - 1;
     }
 
-    /**
-     * Adds one node as pair of long and short from the btree to the byte buffer and walks down the btree recursively
-     *
-     * @param p_node
-     *         the current node
-     * @param p_exporter
-     *         bytebuffer to write into
-     */
-    private static void serialize(final Node p_node, final Exporter p_exporter) {
-        Node obj;
-
-        for (int i = 0; i < p_node.getNumberOfEntries(); i++) {
+    @Override
+    public void importObject(final Importer p_importer) {
+        int high;
+        int low;
 
-            p_exporter.writeLong(p_node.getLocalID(i));
-            p_exporter.writeShort(p_node.getNodeID(i));
+        m_creator = p_importer.readShort(m_creator);
+        m_size = p_importer.readInt(m_size);
 
+        if (m_localIDs.length < m_size) {
+            m_localIDs = new long[m_size];
+            m_nodeIDs = new short[m_size];
         }
 
-        for (int i = 0; i < p_node.getNumberOfChildren() - 1; i++) {
-            obj = p_node.getChild(i);
-
-            if (obj != null) {
-                serialize(obj, p_exporter);
-            }
-
+        for (int i = 0; i < m_size; i++) {
+            high = p_importer.readShort((short) (m_localIDs[i] >>> 32)) & 0xFFFF;
+            low = p_importer.readInt((int) m_localIDs[i]);
+            m_localIDs[i] = (long) high << 32 | low & 0xFFFFFFFFL;
+            m_nodeIDs[i] = p_importer.readShort(m_nodeIDs[i]);
         }
-        if (p_node.getNumberOfChildren() >= 1) {
-            obj = p_node.getChild(p_node.getNumberOfChildren() - 1);
 
-            serialize(obj, p_exporter);
-        }
+        m_deltaSize = 0;
+        m_entries = m_size;
     }
 
-    /**
-     * Returns the node in which the predecessor is
-     *
-     * @param p_localID
-     *         LocalID whose predecessor's node is searched
-     * @param p_node
-     *         anchor node
-     * @return the node in which the predecessor of p_localID is or null if there is no predecessor
-     */
-    private static Node getPredecessorsNode(final long p_localID, final Node p_node) {
-        int index;
-        Node ret = null;
-        Node node;
-        Node parent;
-
-        assert p_node != null;
-
-        node = p_node;
-
-        if (p_localID == node.getLocalID(0)) {
-            if (node.getNumberOfChildren() > 0) {
-                // Get maximum in child tree
-                node = node.getChild(0);
-                while (node.getNumberOfEntries() < node.getNumberOfChildren()) {
-                    node = node.getChild(node.getNumberOfChildren() - 1);
-                }
-                ret = node;
-            } else {
-                parent = node.getParent();
-                if (parent != null) {
-                    while (parent != null && p_localID < parent.getLocalID(0)) {
-                        parent = parent.getParent();
-                    }
-                    ret = parent;
-                }
-            }
-        } else {
-            index = node.indexOf(p_localID);
-            if (index >= 0) {
-                if (index <= node.getNumberOfChildren()) {
-                    // Get maximum in child tree
-                    node = node.getChild(index);
-                    while (node.getNumberOfEntries() < node.getNumberOfChildren()) {
-                        node = node.getChild(node.getNumberOfChildren() - 1);
-                    }
-                }
-                ret = node;
-            }
-        }
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        p_exporter.writeShort(m_creator);
+        p_exporter.writeInt(m_entries);
 
-        return ret;
+        // LocalIDs have 48 bits
+        forEachEntry((localID, nodeID) -> {
+            p_exporter.writeShort((short) (localID >>> 32));
+            p_exporter.writeInt((int) localID);
+            p_exporter.writeShort(nodeID);
+        });
     }
 
-    /**
-     * Returns the entry of the predecessor
-     *
-     * @param p_localID
-     *         the LocalID whose predecessor is searched
-     * @param p_node
-     *         anchor node
-     * @return the entry of p_localID's predecessor or null if there is no predecessor
-     */
-    private static Entry getPredecessorsEntry(final long p_localID, final Node p_node) {
-        Entry ret = null;
-        Node predecessorsNode;
-        long predecessorsLID;
-
-        predecessorsNode = getPredecessorsNode(p_localID, p_node);
-        if (predecessorsNode != null) {
-            for (int i = predecessorsNode.getNumberOfEntries() - 1; i >= 0; i--) {
-                predecessorsLID = predecessorsNode.getLocalID(i);
-                if (p_localID > predecessorsLID) {
-                    ret = new Entry(predecessorsLID, predecessorsNode.getNodeID(i));
-                    break;
-                }
-            }
-        }
-
-        return ret;
+    @Override
+    public int sizeofObject() {
+        return Short.BYTES + Integer.BYTES + m_entries * (2 * Short.BYTES + Integer.BYTES);
     }
 
     /**
-     * Returns the node in which the successor is
+     * Returns all ranges stored in the tree in ascending order
      *
-     * @param p_localID
-     *         LocalID whose successor's node is searched
-     * @param p_node
-     *         anchor node
-     * @return the node in which the successor of p_localID is or null if there is no successor
+     * @return the ranges (with LocalIDs) covering the whole LocalID space
      */
-    private static Node getSuccessorsNode(final long p_localID, final Node p_node) {
-        int index;
-        Node ret = null;
-        Node node;
-        Node parent;
-
-        assert p_node != null;
+    public ArrayList<LookupRange> getRanges() {
+        ArrayList<LookupRange> ret;
 
-        node = p_node;
+        if (m_entries > 0) {
+            ret = new ArrayList<>(m_entries);
+            forEachEntry((localID, nodeID) -> {
+                long start = ret.isEmpty() ? 0 : ret.get(ret.size() - 1).getRange()[1] + 1;
 
-        if (p_localID == node.getLocalID(node.getNumberOfEntries() - 1)) {
-            if (node.getNumberOfEntries() < node.getNumberOfChildren()) {
-                // Get minimum in child tree
-                node = node.getChild(node.getNumberOfEntries());
-                while (node.getNumberOfChildren() > 0) {
-                    node = node.getChild(0);
-                }
-                ret = node;
-            } else {
-                parent = node.getParent();
-                if (parent != null) {
-                    while (parent != null && p_localID > parent.getLocalID(parent.getNumberOfEntries() - 1)) {
-                        parent = parent.getParent();
-                    }
-                    ret = parent;
-                }
-            }
+                ret.add(new LookupRange(nodeID, new long[] {start, localID}, LookupState.OK));
+            });
         } else {
-            index = node.indexOf(p_localID);
-            if (index >= 0) {
-                if (index < node.getNumberOfChildren()) {
-                    // Get minimum in child tree
-                    node = node.getChild(index + 1);
-                    while (node.getNumberOfChildren() > 0) {
-                        node = node.getChild(0);
-                    }
-                }
-                ret = node;
-            }
+            // Lookup tree is empty -> no migrations
+            ret = new ArrayList<>(1);
+            ret.add(new LookupRange(m_creator, new long[] {0, ChunkID.MAX_LOCALID}, LookupState.OK));
         }
 
         return ret;
     }
 
     /**
-     * Returns the entry of the successor
+     * Creates a compact copy of the tree which does not share any state with this tree, e.g. to export it
+     * without holding the lock protecting this tree
      *
-     * @param p_localID
-     *         the LocalID whose successor is searched
-     * @param p_node
-     *         anchor node
-     * @return the entry of p_localID's successor or null if there is no successor
+     * @return the copy
      */
-    private static Entry getSuccessorsEntry(final long p_localID, final Node p_node) {
-        Entry ret = null;
-        Node successorsNode;
-        long successorsLID;
-
-        successorsNode = getSuccessorsNode(p_localID, p_node);
-        if (successorsNode != null) {
-            for (int i = 0; i < successorsNode.getNumberOfEntries(); i++) {
-                successorsLID = successorsNode.getLocalID(i);
-                if (p_localID < successorsLID) {
-                    ret = new Entry(successorsLID, successorsNode.getNodeID(i));
-                    break;
-                }
-            }
-        }
+    LookupTree copy() {
+        LookupTree ret;
+
+        ret = new LookupTree(m_creator);
+        ret.m_localIDs = new long[m_entries];
+        ret.m_nodeIDs = new short[m_entries];
+        forEachEntry((localID, nodeID) -> {
+            ret.m_localIDs[ret.m_size] = localID;
+            ret.m_nodeIDs[ret.m_size] = nodeID;
+            ret.m_size++;
+        });
+        ret.m_entries = ret.m_size;
 
         return ret;
     }
 
-    @Override
-    public void importObject(final Importer p_importer) {
-        m_creator = p_importer.readShort(m_creator);
-        m_minEntries = p_importer.readShort(m_minEntries);
-        m_minChildren = (short) (m_minEntries + 1);
-        m_maxEntries = (short) (2 * m_minEntries);
-        m_maxChildren = (short) (m_maxEntries + 1);
-
-        m_elementsInTree = p_importer.readInt(m_elementsInTree);
-        if (m_elementsInTree > 0) {
-            for (int i = 0; i < m_elementsInTree; i++) {
-                long lid = p_importer.readLong(ChunkID.INVALID_ID);
-                short nid = p_importer.readShort(NodeID.INVALID_ID);
-
-                if (lid != ChunkID.INVALID_ID) {
-                    createOrReplaceEntry(lid, nid);
-                }
-            }
-        }
-    }
-
-    @Override
-    public void exportObject(final Exporter p_exporter) {
-        p_exporter.writeShort(m_creator);
-        p_exporter.writeShort(m_minEntries);
-
-        if (m_root != null) {
-            // Push Size
-            int numberOfTreeElements = m_size;
-            p_exporter.writeInt(numberOfTreeElements);
-
-            // Push elements
-            serialize(m_root, p_exporter);
-        } else {
-            p_exporter.writeInt(-1);
-        }
-    }
-
-    @Override
-    public int sizeofObject() {
-        int numberOfBytesWritten = 2 * Short.BYTES;
-
-        numberOfBytesWritten += Integer.BYTES;
-
-        // Size of the b tree list
-        // Integer represents the bytes where the size of the list is stored, m_size + 1 for number of
-        // entries including the
-        // default (LocalID: 0x1000000000000 NodeID: 0xNID), long and short for key and value
-        if (m_root != null) {
-            numberOfBytesWritten += m_size * (Long.BYTES + Short.BYTES);
-        }
-
-        return numberOfBytesWritten;
-    }
-
     /**
-     * Validates the btree
+     * Validates the tree
      *
      * @return whether the tree is valid or not
      */
     @SuppressWarnings("unused")
     public boolean validate() {
-        boolean ret = true;
+        long[] previous = {NO_ENTRY};
+        boolean[] ret = {true};
 
-        if (m_root != null) {
-            ret = validateNode(m_root);
-        }
+        forEachEntry((localID, nodeID) -> {
+            if (localID <= previous[0] || nodeID == NodeID.INVALID_ID) {
+                ret[0] = false;
+            }
+            previous[0] = localID;
+        });
 
-        return ret;
+        return ret[0];
     }
 
     /**
-     * Prints the btree
+     * Prints the tree
      *
      * @return String interpretation of the tree
      */
     @Override
     public String toString() {
-        String ret;
+        StringBuilder ret;
 
-        if (m_root == null) {
-            ret = "Btree has no nodes";
-        } else {
-            ret = "Size: " + m_size + '\n' + getString(m_root, "", true);
+        if (m_entries == 0) {
+            return "Tree has no entries";
         }
 
-        return ret;
+        ret = new StringBuilder("Size: " + m_entries + '\n');
+        forEachEntry((localID, nodeID) -> ret.append(String.format("(0x%X, 0x%X)\n", localID, nodeID)));
+
+        return ret.toString();
     }
 
     /**
@@ -443,17 +242,17 @@ public final class LookupTree implements Serializable, Importable, Exportable {
      */
     boolean migrate(final long p_chunkID, final short p_nodeID) {
         long localID;
-        Node node;
+        short replaced;
 
         localID = p_chunkID & 0x0000FFFFFFFFFFFFL;
 
-        if (m_root == null) {
-            createOrReplaceEntry(ChunkID.MAX_LOCALID, m_creator);
+        if (m_entries == 0) {
+            put(ChunkID.MAX_LOCALID, m_creator);
         }
 
-        node = createOrReplaceEntry(localID, p_nodeID);
+        replaced = put(localID, p_nodeID);
 
-        mergeWithPredecessorOrBound(localID, p_nodeID, node);
+        mergeWithPredecessorOrBound(localID, p_nodeID, replaced);
 
         mergeWithSuccessor(localID, p_nodeID);
 
@@ -474,27 +273,27 @@ public final class LookupTree implements Serializable, Importable, Exportable {
     boolean migrateRange(final long p_startCID, final long p_endCID, final short p_nodeID) {
         long startLID;
         long endLID;
-        Node startNode;
+        short replaced;
 
         startLID = p_startCID & 0x0000FFFFFFFFFFFFL;
         endLID = p_endCID & 0x0000FFFFFFFFFFFFL;
         // end larger than start or start smaller than 1
         assert startLID <= endLID && startLID > 0;
 
-        if (m_root == null) {
-            createOrReplaceEntry(ChunkID.MAX_LOCALID, m_creator);
+        if (m_entries == 0) {
+            put(ChunkID.MAX_LOCALID, m_creator);
         }
 
         if (startLID == endLID) {
             migrate(p_startCID, p_nodeID);
         } else {
-            startNode = createOrReplaceEntry(startLID, p_nodeID);
+            replaced = put(startLID, p_nodeID);
 
-            mergeWithPredecessorOrBound(startLID, p_nodeID, startNode);
+            mergeWithPredecessorOrBound(startLID, p_nodeID, replaced);
 
-            createOrReplaceEntry(endLID, p_nodeID);
+            put(endLID, p_nodeID);
 
-            removeEntriesWithinRange(startLID, endLID);
+            removeRange(startLID, endLID);
 
             mergeWithSuccessor(endLID, p_nodeID);
         }
@@ -509,58 +308,36 @@ public final class LookupTree implements Serializable, Importable, Exportable {
      * @return the first and last ChunkID of the range
      */
     LookupRange getMetadata(final long p_chunkID) {
-        LookupRange ret;
-        long[] range;
-        short nodeID;
-        int index;
         long localID;
-        Node node;
-        Entry predecessorEntry;
+        long end;
+        long predecessor;
 
-        if (m_root != null) {
-            localID = p_chunkID & 0x0000FFFFFFFFFFFFL;
-            node = getNodeOrSuccessorsNode(localID);
-            index = node.indexOf(localID);
-            if (index >= 0) {
-                // LocalID was found: Store NodeID and determine successor
-                range = new long[2];
-                nodeID = node.getNodeID(index);
-                Entry successor = getSuccessorsEntry(localID, node);
-                if (successor != null) {
-                    range[1] = successor.getLocalID();
-                } else {
-                    range[1] = localID;
-                }
-            } else {
-                // LocalID was not found, but successor: Store NodeID and LocalID of successor
-                range = new long[2];
-                nodeID = node.getNodeID(index * -1 - 1);
-                range[1] = node.getLocalID(index * -1 - 1);
-            }
-            // Determine LocalID of predecessor
-            predecessorEntry = getPredecessorsEntry(range[1], node);
-            if (predecessorEntry != null) {
-                range[0] = predecessorEntry.getLocalID() + 1;
-            } else {
-                range[0] = 0;
-            }
-            ret = new LookupRange(nodeID, range, LookupState.OK);
-        } else {
+        if (m_entries == 0) {
             // Lookup tree is empty -> no migrations
-            ret = new LookupRange(m_creator, new long[] {0, (long) (Math.pow(2, 48) - 1)}, LookupState.OK);
+            return new LookupRange(m_creator, new long[] {0, ChunkID.MAX_LOCALID}, LookupState.OK);
         }
 
-        return ret;
+        localID = p_chunkID & 0x0000FFFFFFFFFFFFL;
+
+        // the range ends with the LocalID itself or its successor
+        end = ceiling(localID);
+        if (end == NO_ENTRY) {
+            return new LookupRange(m_creator, new long[] {localID, ChunkID.MAX_LOCALID}, LookupState.OK);
+        }
+
+        predecessor = lower(end);
+
+        return new LookupRange(get(end), new long[] {predecessor == NO_ENTRY ? 0 : predecessor + 1, end},
+                LookupState.OK);
     }
 
     /**
-     * Removes multiple chunks from btree
+     * Removes multiple chunks from tree
      *
      * @param p_chunkIDs
      *         ChunkIDs of deleted objects
      * @note should always be called if an object is deleted
      */
-
     void removeObjects(final long... p_chunkIDs) {
         for (long chunkId : p_chunkIDs) {
             remove(chunkId);
@@ -568,156 +345,77 @@ public final class LookupTree implements Serializable, Importable, Exportable {
     }
 
     /**
-     * Removes given chunk from btree
+     * Removes given chunk from tree
      *
      * @param p_chunkID
      *         ChunkID of deleted object
      * @note should always be called if an object is deleted
      */
     void remove(final long p_chunkID) {
-        int index;
-        Node node;
         long localID;
-        long currentLID;
-        Entry currentEntry;
-        Entry predecessor;
-        Entry successor;
+        long predecessor;
+        long successor;
+        short predecessorNodeID;
+        short successorNodeID;
+        short currentNodeID;
 
         localID = p_chunkID & 0x0000FFFFFFFFFFFFL;
-        if (m_root != null) {
-            node = getNodeOrSuccessorsNode(localID);
-            if (node != null) {
-                index = node.indexOf(localID);
-                if (index >= 0) {
-                    // Entry was found
-                    currentLID = node.getLocalID(index);
-                    predecessor = getPredecessorsEntry(localID, node);
-                    currentEntry = new Entry(currentLID, node.getNodeID(index));
-                    successor = getSuccessorsEntry(localID, node);
-                    if (m_creator != currentEntry.getNodeID() && predecessor != null) {
-                        if (localID - 1 == predecessor.getLocalID()) {
-                            // Predecessor is direct neighbor: AB
-                            // Successor might be direct neighbor or not: ABC or AB___C
-                            if (m_creator == successor.getNodeID()) {
-                                // Successor is barrier: ABC -> A_C or AB___C -> A___C
-                                removeInternal(localID);
-                            } else {
-                                // Successor is no barrier: ABC -> AXC or AB___C -> AX___C
-                                node.changeEntry(localID, m_creator, index);
-                            }
-                            if (m_creator == predecessor.getNodeID()) {
-                                // Predecessor is barrier: A_C -> ___C or AXC -> ___XC
-                                // or A___C -> ___C or AX___C -> ___X___C
-                                removeInternal(predecessor.getLocalID());
-                            }
-                        } else {
-                            // Predecessor is no direct neighbor: A___B
-                            if (m_creator == successor.getNodeID()) {
-                                // Successor is barrier: A___BC -> A___C or A___B___C -> A___'___C
-                                removeInternal(localID);
-                            } else {
-                                // Successor is no barrier: A___BC -> A___XC or A___B___C -> A___X___C
-                                node.changeEntry(localID, m_creator, index);
-                            }
-                            // Predecessor is barrier: A___C -> A___(B-1)_C or A___XC -> ___(B-1)XC
-                            // or A___'___C -> A___(B-1)___C or A___X___C -> A___(B-1)X___C
-                            createOrReplaceEntry(localID - 1, currentEntry.getNodeID());
-                        }
-                    }
+        if (m_entries == 0) {
+            return;
+        }
+
+        currentNodeID = get(localID);
+        if (currentNodeID != NodeID.INVALID_ID) {
+            // Entry was found
+            predecessor = lower(localID);
+            successor = higher(localID);
+            if (m_creator != currentNodeID && predecessor != NO_ENTRY && successor != NO_ENTRY) {
+                predecessorNodeID = get(predecessor);
+                successorNodeID = get(successor);
+
+                if (m_creator == successorNodeID) {
+                    // Successor is barrier: ABC -> A_C or A___BC -> A___C
+                    removeEntry(localID);
                 } else {
-                    // Entry was not found
-                    index = index * -1 - 1;
-                    successor = new Entry(node.getLocalID(index), node.getNodeID(index));
-                    predecessor = getPredecessorsEntry(successor.getLocalID(), node);
-                    if (m_creator != successor.getNodeID() && predecessor != null) {
-                        // Entry is in range
-                        if (localID - 1 == predecessor.getLocalID()) {
-                            // Predecessor is direct neighbor: A'B'
-                            // Successor might be direct neighbor or not: A'B'C -> AXC or A'B'___C -> AX___C
-                            createOrReplaceEntry(localID, m_creator);
-                            if (m_creator == predecessor.getNodeID()) {
-                                // Predecessor is barrier: AXC -> ___XC or AX___C -> ___X___C
-                                removeInternal(localID - 1);
-                            }
-                        } else {
-                            // Predecessor is no direct neighbor: A___'B'
-                            // Successor might be direct neighbor or not: A___'B'C -> A___(B-1)XC
-                            // or A___'B'___C -> A___(B-1)X___C
-                            createOrReplaceEntry(localID, m_creator);
-                            createOrReplaceEntry(localID - 1, successor.getNodeID());
-                        }
+                    // Successor is no barrier: ABC -> AXC or A___BC -> A___XC
+                    put(localID, m_creator);
+                }
+
+                if (localID - 1 == predecessor) {
+                    // Predecessor is direct neighbor
+                    if (m_creator == predecessorNodeID) {
+                        // Predecessor is barrier: A_C -> ___C or AXC -> ___XC
+                        removeEntry(predecessor);
                     }
+                } else {
+                    // Predecessor is no direct neighbor: A___C -> A___(B-1)_C or A___XC -> A___(B-1)XC
+                    put(localID - 1, currentNodeID);
                 }
             }
-        }
-    }
-
-    /**
-     * Creates a new entry or replaces the old one
-     *
-     * @param p_localID
-     *         the LocalID
-     * @param p_nodeID
-     *         the NodeID
-     * @return the node in which the entry is stored
-     */
-    private Node createOrReplaceEntry(final long p_localID, final short p_nodeID) {
-        Node ret;
-        Node node;
-        int index;
-        int size;
-
-        if (m_root == null) {
-            m_root = new Node(null, m_maxEntries, m_maxChildren);
-            m_root.addEntry(p_localID, p_nodeID);
-            ret = m_root;
         } else {
-            node = m_root;
-            while (true) {
-                if (node.getNumberOfChildren() == 0) {
-                    index = node.indexOf(p_localID);
-                    if (index >= 0) {
-                        m_changedEntry = new Entry(node.getLocalID(index), node.getNodeID(index));
-                        node.changeEntry(p_localID, p_nodeID, index);
-                    } else {
-                        m_changedEntry = null;
-                        node.addEntry(p_localID, p_nodeID, index * -1 - 1);
-                        if (m_maxEntries < node.getNumberOfEntries()) {
-                            // Need to split up
-                            node = split(p_localID, node);
-                        }
+            // Entry was not found
+            successor = ceiling(localID);
+            if (successor == NO_ENTRY) {
+                return;
+            }
+
+            successorNodeID = get(successor);
+            predecessor = lower(successor);
+            if (m_creator != successorNodeID && predecessor != NO_ENTRY) {
+                // Entry is in range
+                put(localID, m_creator);
+
+                if (localID - 1 == predecessor) {
+                    // Predecessor is direct neighbor: AXC -> ___XC or AX___C -> ___X___C
+                    if (m_creator == get(predecessor)) {
+                        removeEntry(localID - 1);
                     }
-                    break;
                 } else {
-                    if (p_localID < node.getLocalID(0)) {
-                        node = node.getChild(0);
-                        continue;
-                    }
-
-                    size = node.getNumberOfEntries();
-                    if (p_localID > node.getLocalID(size - 1)) {
-                        node = node.getChild(size);
-                        continue;
-                    }
-
-                    index = node.indexOf(p_localID);
-                    if (index >= 0) {
-                        m_changedEntry = new Entry(node.getLocalID(index), node.getNodeID(index));
-                        node.changeEntry(p_localID, p_nodeID, index);
-                        break;
-                    } else {
-                        node = node.getChild(index * -1 - 1);
-                    }
+                    // Predecessor is no direct neighbor: A___'B'C -> A___(B-1)XC
+                    put(localID - 1, successorNodeID);
                 }
             }
-
-            ret = node;
         }
-        if (m_changedEntry == null) {
-            m_size++;
-        }
-
-        return ret;
     }
 
     /**
@@ -727,34 +425,37 @@ public final class LookupTree implements Serializable, Importable, Exportable {
      *         the LocalID
      * @param p_nodeID
      *         the NodeID
-     * @param p_node
-     *         anchor node
+     * @param p_replacedNodeID
+     *         the NodeID of the replaced entry of p_localID or NodeID.INVALID_ID if the entry was new
      */
-    private void mergeWithPredecessorOrBound(final long p_localID, final short p_nodeID, final Node p_node) {
-        Entry predecessor;
-        Entry successor;
+    private void mergeWithPredecessorOrBound(final long p_localID, final short p_nodeID,
+            final short p_replacedNodeID) {
+        long predecessor;
 
-        predecessor = getPredecessorsEntry(p_localID, p_node);
-        if (predecessor == null) {
-            createOrReplaceEntry(p_localID - 1, m_creator);
+        predecessor = lower(p_localID);
+        if (predecessor == NO_ENTRY) {
+            if (p_localID > 0) {
+                put(p_localID - 1, m_creator);
+            }
         } else {
-            if (p_localID - 1 == predecessor.getLocalID()) {
-                if (p_nodeID == predecessor.getNodeID()) {
-                    removeInternal(predecessor.getLocalID(), getPredecessorsNode(p_localID, p_node));
+            if (p_localID - 1 == predecessor) {
+                if (p_nodeID == get(predecessor)) {
+                    removeEntry(predecessor);
                 }
             } else {
-                successor = getSuccessorsEntry(p_localID, p_node);
-                if (m_changedEntry == null) {
+                if (p_replacedNodeID == NodeID.INVALID_ID) {
                     // Successor is end of range
-                    if (p_nodeID != successor.getNodeID()) {
-                        createOrReplaceEntry(p_localID - 1, successor.getNodeID());
+                    short successorNodeID = get(higher(p_localID));
+
+                    if (p_nodeID != successorNodeID) {
+                        put(p_localID - 1, successorNodeID);
                     } else {
                         // New Object is in range that already was migrated to the same destination
-                        removeInternal(p_localID, p_node);
+                        removeEntry(p_localID);
                     }
                 } else {
-                    if (p_nodeID != m_changedEntry.getNodeID()) {
-                        createOrReplaceEntry(p_localID - 1, m_changedEntry.getNodeID());
+                    if (p_nodeID != p_replacedNodeID) {
+                        put(p_localID - 1, p_replacedNodeID);
                     }
                 }
             }
@@ -770,1079 +471,363 @@ public final class LookupTree implements Serializable, Importable, Exportable {
      *         the NodeID
      */
     private void mergeWithSuccessor(final long p_localID, final short p_nodeID) {
-        Node node;
-        Entry successor;
-
-        node = getNodeOrSuccessorsNode(p_localID);
-        successor = getSuccessorsEntry(p_localID, node);
-        if (successor != null && p_nodeID == successor.getNodeID()) {
-            removeInternal(p_localID, node);
-        }
-    }
-
-    /**
-     * Removes all entries between start (inclusive) and end
-     *
-     * @param p_start
-     *         the first object in range
-     * @param p_end
-     *         the last object in range
-     */
-    private void removeEntriesWithinRange(final long p_start, final long p_end) {
         long successor;
 
-        removeInternal(p_start, getNodeOrSuccessorsNode(p_start));
-
-        successor = getLIDOrSuccessorsLID(p_start);
-        while (successor != -1 && successor < p_end) {
-            removeInternal(successor);
-            successor = getLIDOrSuccessorsLID(p_start);
+        if (get(p_localID) != NodeID.INVALID_ID) {
+            successor = higher(p_localID);
+            if (successor != NO_ENTRY && p_nodeID == get(successor)) {
+                removeEntry(p_localID);
+            }
         }
     }
 
     /**
-     * Returns the node in which the next entry to given LocalID (could be the LocalID itself) is stored
+     * Returns the NodeID of an entry
      *
      * @param p_localID
-     *         LocalID whose node is searched
-     * @return node in which LocalID is stored if LocalID is in tree or successors node, null if there is no successor
+     *         the LocalID of the entry
+     * @return the NodeID or NodeID.INVALID_ID if there is no entry for p_localID
      */
-    private Node getNodeOrSuccessorsNode(final long p_localID) {
-        Node ret;
-        int size;
+    private short get(final long p_localID) {
         int index;
-        long greater;
-
-        ret = m_root;
-
-        while (true) {
-            if (p_localID < ret.getLocalID(0)) {
-                if (ret.getNumberOfChildren() > 0) {
-                    ret = ret.getChild(0);
-                    continue;
-                } else {
-                    break;
-                }
-            }
-
-            size = ret.getNumberOfEntries();
-            greater = ret.getLocalID(size - 1);
-            if (p_localID > greater) {
-                if (size < ret.getNumberOfChildren()) {
-                    ret = ret.getChild(size);
-                    continue;
-                } else {
-                    ret = getSuccessorsNode(greater, ret);
-                    break;
-                }
-            }
 
-            index = ret.indexOf(p_localID);
-            if (index >= 0) {
-                break;
-            } else {
-                index = index * -1 - 1;
-                if (index < ret.getNumberOfChildren()) {
-                    ret = ret.getChild(index);
-                } else {
-                    break;
-                }
-            }
+        index = Arrays.binarySearch(m_deltaLocalIDs, 0, m_deltaSize, p_localID);
+        if (index >= 0) {
+            return m_deltaNodeIDs[index];
         }
 
-        return ret;
+        index = Arrays.binarySearch(m_localIDs, 0, m_size, p_localID);
+
+        return index >= 0 ? m_nodeIDs[index] : NodeID.INVALID_ID;
     }
 
     /**
-     * Returns next LocalID to given LocalID (could be the LocalID itself)
+     * Checks if an entry of the merged arrays was removed
      *
      * @param p_localID
-     *         the LocalID
-     * @return p_localID if p_localID is in btree or successor of p_localID, (-1) if there is no successor
+     *         the LocalID of the entry
+     * @return true if the delta buffer marks the entry as removed
      */
-    private long getLIDOrSuccessorsLID(final long p_localID) {
-        long ret = -1;
-        int index;
-        Node node;
+    private boolean isRemoved(final long p_localID) {
+        int index = Arrays.binarySearch(m_deltaLocalIDs, 0, m_deltaSize, p_localID);
 
-        node = getNodeOrSuccessorsNode(p_localID);
-        if (node != null) {
-            index = node.indexOf(p_localID);
-            if (index >= 0) {
-                ret = node.getLocalID(index);
-            } else {
-                ret = node.getLocalID(index * -1 - 1);
-            }
-        }
-
-        return ret;
+        return index >= 0 && m_deltaNodeIDs[index] == NodeID.INVALID_ID;
     }
 
     /**
-     * Returns the location and backup nodes of next LocalID to given LocalID (could be the LocalID itself)
+     * Returns the LocalID of the entry for given LocalID or of its successor
      *
      * @param p_localID
-     *         the LocalID whose corresponding NodeID is searched
-     * @return NodeID for p_localID if p_localID is in btree or successors NodeID
+     *         the LocalID
+     * @return the LocalID or NO_ENTRY if there is no such entry
      */
-    private short getNodeIDOrSuccessorsNodeID(final long p_localID) {
-        short ret = m_creator;
+    private long ceiling(final long p_localID) {
         int index;
-        Node node;
+        int deltaIndex;
+        long ret = NO_ENTRY;
 
-        node = getNodeOrSuccessorsNode(p_localID);
-        if (node != null) {
-            index = node.indexOf(p_localID);
-            if (index >= 0) {
-                ret = node.getNodeID(index);
-            } else {
-                ret = node.getNodeID(index * -1 - 1);
-            }
+        index = lowerBound(m_localIDs, m_size, p_localID);
+        while (index < m_size && isRemoved(m_localIDs[index])) {
+            index++;
         }
-
-        return ret;
-    }
-
-    /**
-     * Splits down the middle if node is greater than maxEntries
-     *
-     * @param p_localID
-     *         the new LocalID that causes the splitting
-     * @param p_node
-     *         the node that has to be split
-     * @return the node in which p_localID must be inserted
-     */
-    private Node split(final long p_localID, final Node p_node) {
-        Node ret;
-        Node node;
-
-        int size;
-        int medianIndex;
-        long medianLID;
-        short medianNodeID;
-
-        Node left;
-        Node right;
-        Node parent;
-        Node newRoot;
-
-        node = p_node;
-
-        size = node.getNumberOfEntries();
-        medianIndex = size / 2;
-        medianLID = node.getLocalID(medianIndex);
-        medianNodeID = node.getNodeID(medianIndex);
-
-        left = new Node(null, m_maxEntries, m_maxChildren);
-        left.addEntries(node, 0, medianIndex, 0);
-        if (node.getNumberOfChildren() > 0) {
-            left.addChildren(node, 0, medianIndex + 1, 0);
+        if (index < m_size) {
+            ret = m_localIDs[index];
         }
 
-        right = new Node(null, m_maxEntries, m_maxChildren);
-        right.addEntries(node, medianIndex + 1, size, 0);
-        if (node.getNumberOfChildren() > 0) {
-            right.addChildren(node, medianIndex + 1, node.getNumberOfChildren(), 0);
-        }
-        if (node.getParent() == null) {
-            // New root, height of tree is increased
-            newRoot = new Node(null, m_maxEntries, m_maxChildren);
-            newRoot.addEntry(medianLID, medianNodeID, 0);
-            node.setParent(newRoot);
-            m_root = newRoot;
-            node = m_root;
-            node.addChild(left);
-            node.addChild(right);
-            parent = newRoot;
-        } else {
-            // Move the median LocalID up to the parent
-            parent = node.getParent();
-            parent.addEntry(medianLID, medianNodeID);
-            parent.removeChild(node);
-            parent.addChild(left);
-            parent.addChild(right);
-
-            if (parent.getNumberOfEntries() > m_maxEntries) {
-                split(p_localID, parent);
-            }
+        deltaIndex = lowerBound(m_deltaLocalIDs, m_deltaSize, p_localID);
+        while (deltaIndex < m_deltaSize && m_deltaNodeIDs[deltaIndex] == NodeID.INVALID_ID) {
+            deltaIndex++;
         }
-
-        if (p_localID < medianLID) {
-            ret = left;
-        } else if (p_localID > medianLID) {
-            ret = right;
-        } else {
-            ret = parent;
+        if (deltaIndex < m_deltaSize && (ret == NO_ENTRY || m_deltaLocalIDs[deltaIndex] < ret)) {
+            ret = m_deltaLocalIDs[deltaIndex];
         }
 
         return ret;
     }
 
     /**
-     * Removes given p_localID
+     * Returns the LocalID of the successor of given LocalID
      *
      * @param p_localID
      *         the LocalID
-     * @return p_localID or (-1) if there is no entry for p_localID
+     * @return the LocalID of the successor or NO_ENTRY if there is no successor
      */
-    private long removeInternal(final long p_localID) {
-        long ret;
-        Node node;
-
-        node = getNodeOrSuccessorsNode(p_localID);
-        ret = removeInternal(p_localID, node);
-
-        return ret;
+    private long higher(final long p_localID) {
+        return p_localID == Long.MAX_VALUE ? NO_ENTRY : ceiling(p_localID + 1);
     }
 
     /**
-     * Removes the p_localID from given node and checks invariants
+     * Returns the LocalID of the predecessor of given LocalID
      *
      * @param p_localID
      *         the LocalID
-     * @param p_node
-     *         the node in which p_localID should be stored
-     * @return p_localID or (-1) if there is no entry for p_localID
+     * @return the LocalID of the predecessor or NO_ENTRY if there is no predecessor
      */
-    private long removeInternal(final long p_localID, final Node p_node) {
-        long ret = -1;
+    private long lower(final long p_localID) {
         int index;
-        Node greatest;
-        long replaceLID;
-        short replaceNodeID;
+        int deltaIndex;
+        long ret = NO_ENTRY;
 
-        if (p_node != null) {
-            index = p_node.indexOf(p_localID);
-            if (index >= 0) {
-                ret = p_node.removeEntry(p_localID);
-                if (p_node.getNumberOfChildren() == 0) {
-                    // Leaf node
-                    if (p_node.getParent() != null && p_node.getNumberOfEntries() < m_minEntries) {
-                        combined(p_node);
-                    } else if (p_node.getParent() == null && p_node.getNumberOfEntries() == 0) {
-                        // Removing root node with no keys or children
-                        m_root = null;
-                    }
-                } else {
-                    // Internal node
-                    greatest = p_node.getChild(index);
-                    while (greatest.getNumberOfChildren() > 0) {
-                        greatest = greatest.getChild(greatest.getNumberOfChildren() - 1);
-                    }
-                    replaceLID = -1;
-                    replaceNodeID = m_creator;
-                    if (greatest.getNumberOfEntries() > 0) {
-                        replaceNodeID = greatest.getNodeID(greatest.getNumberOfEntries() - 1);
-                        replaceLID = greatest.removeEntry(greatest.getNumberOfEntries() - 1);
-                    }
-                    p_node.addEntry(replaceLID, replaceNodeID);
-                    if (greatest.getParent() != null && greatest.getNumberOfEntries() < m_minEntries) {
-                        combined(greatest);
-                    }
-                    if (greatest.getNumberOfChildren() > m_maxChildren) {
-                        split(p_localID, greatest);
-                    }
-                }
-                m_size--;
-            }
+        index = lowerBound(m_localIDs, m_size, p_localID) - 1;
+        while (index >= 0 && isRemoved(m_localIDs[index])) {
+            index--;
+        }
+        if (index >= 0) {
+            ret = m_localIDs[index];
+        }
+
+        deltaIndex = lowerBound(m_deltaLocalIDs, m_deltaSize, p_localID) - 1;
+        while (deltaIndex >= 0 && m_deltaNodeIDs[deltaIndex] == NodeID.INVALID_ID) {
+            deltaIndex--;
+        }
+        if (deltaIndex >= 0 && m_deltaLocalIDs[deltaIndex] > ret) {
+            ret = m_deltaLocalIDs[deltaIndex];
         }
 
         return ret;
     }
 
     /**
-     * Combines children entries with parent when size is less than minEntries
+     * Creates a new entry or replaces the old one
      *
-     * @param p_node
-     *         the node
+     * @param p_localID
+     *         the LocalID
+     * @param p_nodeID
+     *         the NodeID
+     * @return the NodeID of the replaced entry or NodeID.INVALID_ID if the entry is new
      */
-    private void combined(final Node p_node) {
-        Node parent;
+    private short put(final long p_localID, final short p_nodeID) {
         int index;
-        int indexOfLeftNeighbor;
-        int indexOfRightNeighbor;
-        Node rightNeighbor;
-        int rightNeighborSize;
-        Node leftNeighbor;
-        int leftNeighborSize;
-
-        long removeLID;
-        int prev;
-        short parentNodeID;
-        long parentLID;
-
-        short neighborNodeID;
-        long neighborLID;
-
-        parent = p_node.getParent();
-        index = parent.indexOf(p_node);
-        indexOfLeftNeighbor = index - 1;
-        indexOfRightNeighbor = index + 1;
-
-        rightNeighbor = null;
-        rightNeighborSize = -m_minChildren;
-        if (indexOfRightNeighbor < parent.getNumberOfChildren()) {
-            rightNeighbor = parent.getChild(indexOfRightNeighbor);
-            rightNeighborSize = rightNeighbor.getNumberOfEntries();
-        }
+        short ret;
 
-        // Try to borrow neighbor
-        if (rightNeighbor != null && rightNeighborSize > m_minEntries) {
-            // Try to borrow from right neighbor
-            removeLID = rightNeighbor.getLocalID(0);
-            prev = parent.indexOf(removeLID) * -1 - 2;
-            parentNodeID = parent.getNodeID(prev);
-            parentLID = parent.removeEntry(prev);
-
-            neighborNodeID = rightNeighbor.getNodeID(0);
-            neighborLID = rightNeighbor.removeEntry(0);
-
-            p_node.addEntry(parentLID, parentNodeID);
-            parent.addEntry(neighborLID, neighborNodeID);
-            if (rightNeighbor.getNumberOfChildren() > 0) {
-                p_node.addChild(rightNeighbor.removeChild(0));
-            }
+        index = Arrays.binarySearch(m_deltaLocalIDs, 0, m_deltaSize, p_localID);
+        if (index >= 0) {
+            ret = m_deltaNodeIDs[index];
+            m_deltaNodeIDs[index] = p_nodeID;
         } else {
-            leftNeighbor = null;
-            leftNeighborSize = -m_minChildren;
-            if (indexOfLeftNeighbor >= 0) {
-                leftNeighbor = parent.getChild(indexOfLeftNeighbor);
-                leftNeighborSize = leftNeighbor.getNumberOfEntries();
-            }
+            index = Arrays.binarySearch(m_localIDs, 0, m_size, p_localID);
+            if (index >= 0) {
+                // replace in place, the delta buffer is only needed for changes of the structure
+                ret = m_nodeIDs[index];
+                m_nodeIDs[index] = p_nodeID;
 
-            if (leftNeighbor != null && leftNeighborSize > m_minEntries) {
-                // Try to borrow from left neighbor
-                removeLID = leftNeighbor.getLocalID(leftNeighbor.getNumberOfEntries() - 1);
-                prev = parent.indexOf(removeLID) * -1 - 1;
-                parentNodeID = parent.getNodeID(prev);
-                parentLID = parent.removeEntry(prev);
+                return ret;
+            }
 
-                neighborNodeID = leftNeighbor.getNodeID(leftNeighbor.getNumberOfEntries() - 1);
-                neighborLID = leftNeighbor.removeEntry(leftNeighbor.getNumberOfEntries() - 1);
+            ret = NodeID.INVALID_ID;
+            insertDelta(p_localID, p_nodeID);
+        }
 
-                p_node.addEntry(parentLID, parentNodeID);
-                parent.addEntry(neighborLID, neighborNodeID);
-                if (leftNeighbor.getNumberOfChildren() > 0) {
-                    p_node.addChild(leftNeighbor.removeChild(leftNeighbor.getNumberOfChildren() - 1));
-                }
-            } else if (rightNeighbor != null && parent.getNumberOfEntries() > 0) {
-                // Cannot borrow from neighbors, try to combined with right neighbor
-                removeLID = rightNeighbor.getLocalID(0);
-                prev = parent.indexOf(removeLID) * -1 - 2;
-                parentNodeID = parent.getNodeID(prev);
-                parentLID = parent.removeEntry(prev);
-                parent.removeChild(rightNeighbor);
-                p_node.addEntry(parentLID, parentNodeID);
-
-                p_node.addEntries(rightNeighbor, 0, rightNeighbor.getNumberOfEntries(), p_node.getNumberOfEntries());
-                p_node.addChildren(rightNeighbor, 0, rightNeighbor.getNumberOfChildren(), p_node.getNumberOfChildren());
-
-                if (parent.getParent() != null && parent.getNumberOfEntries() < m_minEntries) {
-                    // Removing key made parent too small, combined up tree
-                    combined(parent);
-                } else if (parent.getNumberOfEntries() == 0) {
-                    // Parent no longer has keys, make this node the new root which decreases the height of the tree
-                    p_node.setParent(null);
-                    m_root = p_node;
-                }
-            } else if (leftNeighbor != null && parent.getNumberOfEntries() > 0) {
-                // Cannot borrow from neighbors, try to combined with left neighbor
-                removeLID = leftNeighbor.getLocalID(leftNeighbor.getNumberOfEntries() - 1);
-                prev = parent.indexOf(removeLID) * -1 - 1;
-                parentNodeID = parent.getNodeID(prev);
-                parentLID = parent.removeEntry(prev);
-                parent.removeChild(leftNeighbor);
-                p_node.addEntry(parentLID, parentNodeID);
-                p_node.addEntries(leftNeighbor, 0, leftNeighbor.getNumberOfEntries(), -1);
-                p_node.addChildren(leftNeighbor, 0, leftNeighbor.getNumberOfChildren(), -1);
-
-                if (parent.getParent() != null && parent.getNumberOfEntries() < m_minEntries) {
-                    // Removing key made parent too small, combined up tree
-                    combined(parent);
-                } else if (parent.getNumberOfEntries() == 0) {
-                    // Parent no longer has keys, make this node the new root which decreases the height of the tree
-                    p_node.setParent(null);
-                    m_root = p_node;
-                }
-            }
+        if (ret == NodeID.INVALID_ID) {
+            m_entries++;
         }
+
+        return ret;
     }
 
     /**
-     * Validates the node according to the btree invariants
+     * Removes an entry
      *
-     * @param p_node
-     *         the node
-     * @return whether the node is valid or not
+     * @param p_localID
+     *         the LocalID of the entry
      */
-    private boolean validateNode(final Node p_node) {
-        boolean ret = true;
-        int numberOfEntries;
-        long prev;
-        long next;
-        int childrenSize;
-        Node first;
-        Node last;
-        Node child;
-
-        numberOfEntries = p_node.getNumberOfEntries();
-
-        if (numberOfEntries > 1) {
-            // Make sure the keys are sorted
-            for (int i = 1; i < numberOfEntries; i++) {
-                prev = p_node.getLocalID(i - 1);
-                next = p_node.getLocalID(i);
-                if (prev > next) {
-                    ret = false;
-                    break;
-                }
-            }
-        } else {
-            childrenSize = p_node.getNumberOfChildren();
-            if (p_node.getParent() == null) {
-                // Root
-                if (numberOfEntries > m_maxEntries) {
-                    // Check max key size. Root does not have a minimum key size
-                    ret = false;
-                } else if (childrenSize == 0) {
-                    // If root, no children, and keys are valid
-                    ret = true;
-                } else if (childrenSize < 2) {
-                    // Root should have zero or at least two children
-                    ret = false;
-                } else if (childrenSize > m_maxChildren) {
-                    ret = false;
-                }
-            } else {
-                // Non-root
-                if (numberOfEntries < m_minEntries) {
-                    ret = false;
-                } else if (numberOfEntries > m_maxEntries) {
-                    ret = false;
-                } else if (childrenSize == 0) {
-                    ret = true;
-                } else if (numberOfEntries != childrenSize - 1) {
-                    // If there are children, there should be one more child then keys
-                    ret = false;
-                } else if (childrenSize < m_minChildren) {
-                    ret = false;
-                } else if (childrenSize > m_maxChildren) {
-                    ret = false;
-                }
-            }
+    private void removeEntry(final long p_localID) {
+        int index;
 
-            first = p_node.getChild(0);
-            // The first child's last key should be less than the node's first key
-            if (first.getLocalID(first.getNumberOfEntries() - 1) > p_node.getLocalID(0)) {
-                ret = false;
+        index = Arrays.binarySearch(m_deltaLocalIDs, 0, m_deltaSize, p_localID);
+        if (index >= 0) {
+            if (m_deltaNodeIDs[index] == NodeID.INVALID_ID) {
+                return;
             }
 
-            last = p_node.getChild(p_node.getNumberOfChildren() - 1);
-            // The last child's first key should be greater than the node's last key
-            if (last.getLocalID(0) < p_node.getLocalID(p_node.getNumberOfEntries() - 1)) {
-                ret = false;
+            if (Arrays.binarySearch(m_localIDs, 0, m_size, p_localID) >= 0) {
+                m_deltaNodeIDs[index] = NodeID.INVALID_ID;
+            } else {
+                System.arraycopy(m_deltaLocalIDs, index + 1, m_deltaLocalIDs, index, m_deltaSize - index - 1);
+                System.arraycopy(m_deltaNodeIDs, index + 1, m_deltaNodeIDs, index, m_deltaSize - index - 1);
+                m_deltaSize--;
             }
-
-            // Check that each node's first and last key holds it's invariance
-            for (int i = 1; i < p_node.getNumberOfEntries(); i++) {
-                prev = p_node.getLocalID(i - 1);
-                next = p_node.getLocalID(i);
-                child = p_node.getChild(i);
-                if (prev > child.getLocalID(0)) {
-                    ret = false;
-                    break;
-                }
-                if (next < child.getLocalID(child.getNumberOfEntries() - 1)) {
-                    ret = false;
-                    break;
-                }
+        } else {
+            if (Arrays.binarySearch(m_localIDs, 0, m_size, p_localID) < 0) {
+                return;
             }
 
-            for (int i = 0; i < p_node.getNumberOfChildren(); i++) {
-                child = p_node.getChild(i);
-                if (!validateNode(child)) {
-                    ret = false;
-                    break;
-                }
-            }
+            insertDelta(p_localID, NodeID.INVALID_ID);
         }
 
-        return ret;
+        m_entries--;
     }
 
     /**
-     * Auxiliary object to return LocalID and NodeID at once
+     * Removes all entries between start (inclusive) and end (exclusive)
      *
-     * @author Kevin Beineke
-     * 13.06.2013
+     * @param p_start
+     *         the first LocalID
+     * @param p_end
+     *         the LocalID after the last one to remove
      */
-    private static final class Entry implements Serializable {
-
-        private static final long serialVersionUID = -3247514337685593792L;
-
-        // Attributes
-        private long m_localID;
-        private short m_nodeID;
+    private void removeRange(final long p_start, final long p_end) {
+        int from;
+        int to;
 
-        // Constructors
+        merge();
 
-        /**
-         * Creates an instance of Entry
-         *
-         * @param p_localID
-         *         the LocalID
-         * @param p_nodeID
-         *         the NodeID
-         */
-        Entry(final long p_localID, final short p_nodeID) {
-            m_localID = p_localID;
-            m_nodeID = p_nodeID;
-        }
-
-        /**
-         * Returns the LocalID
-         *
-         * @return the LocalID
-         */
-        public long getLocalID() {
-            return m_localID;
-        }
-
-        /**
-         * Returns the location
-         *
-         * @return the location
-         */
-        public short getNodeID() {
-            return m_nodeID;
-        }
-
-        /**
-         * Prints the entry
-         *
-         * @return String interpretation of the entry
-         */
-        @Override
-        public String toString() {
-            return "(LocalID: " + m_localID + ", location: " + m_nodeID + ')';
+        from = lowerBound(m_localIDs, m_size, p_start);
+        to = lowerBound(m_localIDs, m_size, p_end);
+        if (from < to) {
+            System.arraycopy(m_localIDs, to, m_localIDs, from, m_size - to);
+            System.arraycopy(m_nodeIDs, to, m_nodeIDs, from, m_size - to);
+            m_size -= to - from;
+            m_entries = m_size;
         }
     }
 
     /**
-     * A single node of the btree
+     * Inserts an entry into the delta buffer which does not contain it yet. Merges the buffer first if it is full.
      *
-     * @author Kevin Beineke
-     * 13.06.2013
+     * @param p_localID
+     *         the LocalID
+     * @param p_nodeID
+     *         the NodeID or NodeID.INVALID_ID to mark a merged entry as removed
      */
-    private static final class Node implements Comparable<Node>, Serializable {
-
-        private static final long serialVersionUID = 7768073624509268941L;
-
-        private Node m_parent;
-
-        private long[] m_keys;
-        private short[] m_dataLeafs;
-        private short m_numberOfEntries;
-
-        private Node[] m_children;
-        private short m_numberOfChildren;
-
-        // Constructors
-
-        /**
-         * Creates an instance of Node
-         *
-         * @param p_parent
-         *         the parent
-         * @param p_maxEntries
-         *         the number of entries that can be stored
-         * @param p_maxChildren
-         *         the number of children that can be stored
-         */
-        private Node(final Node p_parent, final short p_maxEntries, final int p_maxChildren) {
-            m_parent = p_parent;
-            m_keys = new long[p_maxEntries + 1];
-            m_dataLeafs = new short[p_maxEntries + 1];
-            m_numberOfEntries = 0;
-            m_children = new Node[p_maxChildren + 1];
-            m_numberOfChildren = 0;
-        }
-
-        /**
-         * Compares two nodes
-         *
-         * @param p_cmp
-         *         the node to compare with
-         * @return 0 if the nodes are equal, (-1) if p_cmp is larger, 1 otherwise
-         */
-        @Override
-        public int compareTo(final Node p_cmp) {
-            int ret;
-
-            if (getLocalID(0) < p_cmp.getLocalID(0)) {
-                ret = -1;
-            } else if (getLocalID(0) > p_cmp.getLocalID(0)) {
-                ret = 1;
-            } else {
-                ret = 0;
-            }
-
-            return ret;
-        }
-
-        @Override
-        public boolean equals(final Object p_cmp) {
+    private void insertDelta(final long p_localID, final short p_nodeID) {
+        int index;
 
-            return p_cmp instanceof Node && compareTo((Node) p_cmp) == 0;
-        }
+        if (m_deltaSize == DELTA_CAPACITY) {
+            merge();
 
-        /**
-         * Prints the node
-         *
-         * @return String interpretation of the node
-         */
-        @Override
-        public String toString() {
-            StringBuilder ret;
-
-            ret = new StringBuilder();
-
-            ret.append("entries=[");
-            for (int i = 0; i < getNumberOfEntries(); i++) {
-                ret.append("(LocalID: ");
-                ret.append(getLocalID(i));
-                ret.append(" location: ");
-                ret.append(getNodeID(i));
-                ret.append(')');
-                if (i < getNumberOfEntries() - 1) {
-                    ret.append(", ");
-                }
-            }
-            ret.append("]\n");
-
-            if (m_parent != null) {
-                ret.append("parent=[");
-                for (int i = 0; i < m_parent.getNumberOfEntries(); i++) {
-                    ret.append("(LocalID: ");
-                    ret.append(getLocalID(i));
-                    ret.append(" location: ");
-                    ret.append(getNodeID(i));
-                    ret.append(')');
-                    if (i < m_parent.getNumberOfEntries() - 1) {
-                        ret.append(", ");
-                    }
-                }
-                ret.append("]\n");
-            }
+            if (p_nodeID == NodeID.INVALID_ID) {
+                // the entry to remove is merged now, remove it directly
+                index = Arrays.binarySearch(m_localIDs, 0, m_size, p_localID);
+                System.arraycopy(m_localIDs, index + 1, m_localIDs, index, m_size - index - 1);
+                System.arraycopy(m_nodeIDs, index + 1, m_nodeIDs, index, m_size - index - 1);
+                m_size--;
 
-            if (m_children != null) {
-                ret.append("numberOfEntries=");
-                ret.append(getNumberOfEntries());
-                ret.append(" children=");
-                ret.append(getNumberOfChildren());
-                ret.append('\n');
+                return;
             }
-
-            return ret.toString();
-        }
-
-        /**
-         * Returns the parent node
-         *
-         * @return the parent node
-         */
-        private Node getParent() {
-            return m_parent;
         }
 
-        /**
-         * Returns the parent node
-         *
-         * @param p_parent
-         *         the parent node
-         */
-        private void setParent(final Node p_parent) {
-            m_parent = p_parent;
-        }
-
-        /**
-         * Returns the number of entries
-         *
-         * @return the number of entries
-         */
-        private int getNumberOfEntries() {
-            return m_numberOfEntries;
-        }
-
-        /**
-         * Returns the number of children
-         *
-         * @return the number of children
-         */
-        private int getNumberOfChildren() {
-            return m_numberOfChildren;
-        }
+        index = -Arrays.binarySearch(m_deltaLocalIDs, 0, m_deltaSize, p_localID) - 1;
+        System.arraycopy(m_deltaLocalIDs, index, m_deltaLocalIDs, index + 1, m_deltaSize - index);
+        System.arraycopy(m_deltaNodeIDs, index, m_deltaNodeIDs, index + 1, m_deltaSize - index);
+        m_deltaLocalIDs[index] = p_localID;
+        m_deltaNodeIDs[index] = p_nodeID;
+        m_deltaSize++;
+    }
 
-        /**
-         * Returns the LocalID to given index
-         *
-         * @param p_index
-         *         the index
-         * @return the LocalID to given index
-         */
-        private long getLocalID(final int p_index) {
-            return m_keys[p_index];
-        }
+    /**
+     * Merges the delta buffer into the sorted arrays (in place, growing the arrays if necessary)
+     */
+    private void merge() {
+        int index;
+        int inserts;
+        int removals;
+        int i;
+        int j;
+        int k;
 
-        /**
-         * Returns the data leaf to given index
-         *
-         * @param p_index
-         *         the index
-         * @return the data leaf to given index
-         */
-        private short getNodeID(final int p_index) {
-            return m_dataLeafs[p_index];
+        if (m_deltaSize == 0) {
+            return;
         }
 
-        /**
-         * Returns the index for given LocalID. Uses the binary search algorithm from
-         * java.util.Arrays adapted to our needs
-         *
-         * @param p_localID
-         *         the LocalID
-         * @return the index for given LocalID, if it is contained in the array, (-(insertion point) - 1) otherwise
-         */
-        private int indexOf(final long p_localID) {
-            int ret = -1;
-            int low;
-            int high;
-            int mid;
-            long midVal;
-
-            low = 0;
-            high = m_numberOfEntries - 1;
-
-            while (low <= high) {
-                mid = low + high >>> 1;
-                midVal = m_keys[mid];
-
-                if (midVal < p_localID) {
-                    low = mid + 1;
-                } else if (midVal > p_localID) {
-                    high = mid - 1;
-                } else {
-                    ret = mid;
-                    break;
+        // apply removals of merged entries and keep the new entries only
+        inserts = 0;
+        removals = 0;
+        for (j = 0; j < m_deltaSize; j++) {
+            index = Arrays.binarySearch(m_localIDs, 0, m_size, m_deltaLocalIDs[j]);
+            if (index >= 0) {
+                m_nodeIDs[index] = m_deltaNodeIDs[j];
+                if (m_deltaNodeIDs[j] == NodeID.INVALID_ID) {
+                    removals++;
                 }
-            }
-            if (ret == -1) {
-                ret = -(low + 1);
-            }
-
-            return ret;
-        }
-
-        /**
-         * Adds an entry
-         *
-         * @param p_localID
-         *         the LocalID
-         * @param p_nodeID
-         *         the NodeID
-         */
-        private void addEntry(final long p_localID, final short p_nodeID) {
-            int index;
-
-            index = indexOf(p_localID) * -1 - 1;
-
-            System.arraycopy(m_keys, index, m_keys, index + 1, m_numberOfEntries - index);
-            System.arraycopy(m_dataLeafs, index, m_dataLeafs, index + 1, m_numberOfEntries - index);
-
-            m_keys[index] = p_localID;
-            m_dataLeafs[index] = p_nodeID;
-
-            m_numberOfEntries++;
-        }
-
-        /**
-         * Adds an entry
-         *
-         * @param p_localID
-         *         the LocalID
-         * @param p_nodeID
-         *         the NodeID
-         * @param p_index
-         *         the index to store the element at
-         */
-        private void addEntry(final long p_localID, final short p_nodeID, final int p_index) {
-            System.arraycopy(m_keys, p_index, m_keys, p_index + 1, m_numberOfEntries - p_index);
-            System.arraycopy(m_dataLeafs, p_index, m_dataLeafs, p_index + 1, m_numberOfEntries - p_index);
-
-            m_keys[p_index] = p_localID;
-            m_dataLeafs[p_index] = p_nodeID;
-
-            m_numberOfEntries++;
-        }
-
-        /**
-         * Adds entries from another node
-         *
-         * @param p_node
-         *         the other node
-         * @param p_offsetSrc
-         *         the offset in source array
-         * @param p_endSrc
-         *         the end of source array
-         * @param p_offsetDst
-         *         the offset in destination array or -1 if the source array has to be prepended
-         */
-        private void addEntries(final Node p_node, final int p_offsetSrc, final int p_endSrc, final int p_offsetDst) {
-            long[] aux1;
-            short[] aux2;
-
-            if (p_offsetDst != -1) {
-                System.arraycopy(p_node.m_keys, p_offsetSrc, m_keys, p_offsetDst, p_endSrc - p_offsetSrc);
-                System.arraycopy(p_node.m_dataLeafs, p_offsetSrc, m_dataLeafs, p_offsetDst, p_endSrc - p_offsetSrc);
-                m_numberOfEntries = (short) (p_offsetDst + p_endSrc - p_offsetSrc);
             } else {
-                aux1 = new long[m_keys.length];
-                System.arraycopy(p_node.m_keys, 0, aux1, 0, p_node.m_numberOfEntries);
-                System.arraycopy(m_keys, 0, aux1, p_node.m_numberOfEntries, m_numberOfEntries);
-                m_keys = aux1;
-
-                aux2 = new short[m_dataLeafs.length];
-                System.arraycopy(p_node.m_dataLeafs, 0, aux2, 0, p_node.m_numberOfEntries);
-                System.arraycopy(m_dataLeafs, 0, aux2, p_node.m_numberOfEntries, m_numberOfEntries);
-                m_dataLeafs = aux2;
-
-                m_numberOfEntries += p_node.m_numberOfEntries;
-            }
-        }
-
-        /**
-         * Changes an entry
-         *
-         * @param p_localID
-         *         the LocalID
-         * @param p_nodeID
-         *         the NodeID
-         * @param p_index
-         *         the index of given entry in this node
-         */
-        private void changeEntry(final long p_localID, final short p_nodeID, final int p_index) {
-
-            if (p_localID == getLocalID(p_index)) {
-                m_keys[p_index] = p_localID;
-                m_dataLeafs[p_index] = p_nodeID;
+                m_deltaLocalIDs[inserts] = m_deltaLocalIDs[j];
+                m_deltaNodeIDs[inserts] = m_deltaNodeIDs[j];
+                inserts++;
             }
         }
 
-        /**
-         * Removes the entry with given LocalID
-         *
-         * @param p_localID
-         *         LocalID of the entry that has to be deleted
-         * @return p_localID or (-1) if there is no entry for p_localID in this node
-         */
-        private long removeEntry(final long p_localID) {
-            long ret = -1;
-            int index;
-
-            index = indexOf(p_localID);
-            if (index >= 0) {
-                ret = getLocalID(index);
-
-                System.arraycopy(m_keys, index + 1, m_keys, index, m_numberOfEntries - index - 1);
-                System.arraycopy(m_dataLeafs, index + 1, m_dataLeafs, index, m_numberOfEntries - index - 1);
-
-                m_numberOfEntries--;
+        if (removals > 0) {
+            k = 0;
+            for (i = 0; i < m_size; i++) {
+                if (m_nodeIDs[i] != NodeID.INVALID_ID) {
+                    m_localIDs[k] = m_localIDs[i];
+                    m_nodeIDs[k] = m_nodeIDs[i];
+                    k++;
+                }
             }
-
-            return ret;
+            m_size = k;
         }
 
-        /**
-         * Removes the entry with given index
-         *
-         * @param p_index
-         *         the index of the entry that has to be deleted
-         * @return p_localID or (-1) if p_index is to large
-         */
-        private long removeEntry(final int p_index) {
-            long ret = -1;
-
-            if (p_index < m_numberOfEntries) {
-                ret = getLocalID(p_index);
+        if (m_size + inserts > m_localIDs.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, Math.max(m_size + inserts, m_localIDs.length * 3 / 2));
 
-                System.arraycopy(m_keys, p_index + 1, m_keys, p_index, m_numberOfEntries - p_index);
-                System.arraycopy(m_dataLeafs, p_index + 1, m_dataLeafs, p_index, m_numberOfEntries - p_index);
-                m_numberOfEntries--;
-            }
-
-            return ret;
+            m_localIDs = Arrays.copyOf(m_localIDs, capacity);
+            m_nodeIDs = Arrays.copyOf(m_nodeIDs, capacity);
         }
 
-        /**
-         * Returns the child with given index
-         *
-         * @param p_index
-         *         the index
-         * @return the child with given index
-         */
-        private Node getChild(final int p_index) {
-            Node ret;
-
-            if (p_index >= m_numberOfChildren) {
-                ret = null;
+        // merge new entries from the back
+        i = m_size - 1;
+        j = inserts - 1;
+        k = m_size + inserts - 1;
+        while (j >= 0) {
+            if (i >= 0 && m_localIDs[i] > m_deltaLocalIDs[j]) {
+                m_localIDs[k] = m_localIDs[i];
+                m_nodeIDs[k] = m_nodeIDs[i];
+                i--;
             } else {
-                ret = m_children[p_index];
+                m_localIDs[k] = m_deltaLocalIDs[j];
+                m_nodeIDs[k] = m_deltaNodeIDs[j];
+                j--;
             }
-
-            return ret;
+            k--;
         }
 
-        /**
-         * Returns the index of the given child. Uses the binary search algorithm from
-         * java.util.Arrays adapted to our needs
-         *
-         * @param p_child
-         *         the child
-         * @return the index of the given child, if it is contained in the array, (-(insertion point) - 1) otherwise
-         */
-        private int indexOf(final Node p_child) {
-            int ret = -1;
-            int low;
-            int high;
-            int mid;
-            long localID;
-            long midVal;
-
-            localID = p_child.getLocalID(0);
-            low = 0;
-            high = m_numberOfChildren - 1;
-
-            while (low <= high) {
-                mid = low + high >>> 1;
-                midVal = m_children[mid].getLocalID(0);
-
-                if (midVal < localID) {
-                    low = mid + 1;
-                } else if (midVal > localID) {
-                    high = mid - 1;
-                } else {
-                    ret = mid;
-                    break;
-                }
-            }
-            if (ret == -1) {
-                ret = -(low + 1);
-            }
-
-            return ret;
-        }
-
-        /**
-         * Adds a child
-         *
-         * @param p_child
-         *         the child
-         */
-        private void addChild(final Node p_child) {
-            int index;
-
-            index = indexOf(p_child) * -1 - 1;
-
-            System.arraycopy(m_children, index, m_children, index + 1, m_numberOfChildren - index);
-            m_children[index] = p_child;
-            p_child.m_parent = this;
-
-            m_numberOfChildren++;
-        }
-
-        /**
-         * Adds children of another node
-         *
-         * @param p_node
-         *         the other node
-         * @param p_offsetSrc
-         *         the offset in source array
-         * @param p_endSrc
-         *         the end of source array
-         * @param p_offsetDst
-         *         the offset in destination array or -1 if the source array has to be prepended
-         */
-        private void addChildren(final Node p_node, final int p_offsetSrc, final int p_endSrc, final int p_offsetDst) {
-            Node[] aux;
-
-            if (p_offsetDst != -1) {
-                System.arraycopy(p_node.m_children, p_offsetSrc, m_children, p_offsetDst, p_endSrc - p_offsetSrc);
+        m_size += inserts;
+        m_deltaSize = 0;
+    }
 
-                for (final Node child : m_children) {
-                    if (child == null) {
-                        break;
-                    }
-                    child.m_parent = this;
-                }
-                m_numberOfChildren = (short) (p_offsetDst + p_endSrc - p_offsetSrc);
+    /**
+     * Calls the consumer for all entries in ascending order (merged and pending ones)
+     *
+     * @param p_consumer
+     *         the consumer
+     */
+    private void forEachEntry(final EntryConsumer p_consumer) {
+        int i = 0;
+        int j = 0;
+
+        while (i < m_size || j < m_deltaSize) {
+            if (j == m_deltaSize || i < m_size && m_localIDs[i] < m_deltaLocalIDs[j]) {
+                p_consumer.accept(m_localIDs[i], m_nodeIDs[i]);
+                i++;
             } else {
-                aux = new Node[m_children.length];
-                System.arraycopy(p_node.m_children, 0, aux, 0, p_node.m_numberOfChildren);
-
-                for (final Node child : aux) {
-                    if (child == null) {
-                        break;
-                    }
-                    child.m_parent = this;
+                if (i < m_size && m_localIDs[i] == m_deltaLocalIDs[j]) {
+                    // overridden or removed entry
+                    i++;
                 }
-
-                System.arraycopy(m_children, 0, aux, p_node.m_numberOfChildren, m_numberOfChildren);
-                m_children = aux;
-
-                m_numberOfChildren += p_node.m_numberOfChildren;
+                if (m_deltaNodeIDs[j] != NodeID.INVALID_ID) {
+                    p_consumer.accept(m_deltaLocalIDs[j], m_deltaNodeIDs[j]);
+                }
+                j++;
             }
         }
+    }
 
-        /**
-         * Removes the given child
-         *
-         * @param p_child
-         *         the child
-         * @return true if the child was found and deleted, false otherwise
-         */
-        private boolean removeChild(final Node p_child) {
-            boolean ret = false;
-            int index;
-
-            index = indexOf(p_child);
-            if (index >= 0) {
-                System.arraycopy(m_children, index + 1, m_children, index, m_numberOfChildren - index);
-
-                m_numberOfChildren--;
-                ret = true;
-            }
-
-            return ret;
-        }
+    /**
+     * Consumer for the entries of the tree
+     */
+    @FunctionalInterface
+    private interface EntryConsumer {
 
         /**
-         * Removes the child with given index
+         * Consumes an entry
          *
-         * @param p_index
-         *         the index
-         * @return the deleted child
+         * @param p_localID
+         *         the LocalID
+         * @param p_nodeID
+         *         the NodeID
          */
-        private Node removeChild(final int p_index) {
-            Node ret = null;
-
-            if (p_index < m_numberOfChildren) {
-                ret = m_children[p_index];
-                System.arraycopy(m_children, p_index + 1, m_children, p_index, m_numberOfChildren - p_index);
-
-                m_numberOfChildren--;
-            }
-
-            return ret;
-        }
+        void accept(long p_localID, short p_nodeID);
     }
 }
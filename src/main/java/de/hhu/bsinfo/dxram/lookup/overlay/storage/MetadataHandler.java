@@ -20,6 +20,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -32,10 +33,15 @@ import de.hhu.bsinfo.dxram.lookup.LookupRange;
 import de.hhu.bsinfo.dxram.lookup.LookupState;
 import de.hhu.bsinfo.dxram.lookup.overlay.OverlayHelper;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.SuperpeerStorage.Status;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
 import de.hhu.bsinfo.dxutils.NodeID;
 
 /**
- * Wrapper class for all data of one superpeer
+ * Wrapper class for all data of one superpeer.
+ * Every metadata type has its own lock and the lookup trees are locked in stripes by creator, so operations on
+ * unrelated peers or metadata types do not block each other. Only (de-)serialization of whole areas locks everything.
+ * All modifications are numbered by a change sequence to replicate only the changes since the last replication round
+ * to backup superpeers.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 06.10.2016
  */
@@ -43,6 +49,13 @@ public final class MetadataHandler {
 
     private static final Logger LOGGER = LogManager.getFormatterLogger(MetadataHandler.class.getSimpleName());
 
+    // Lookup trees are locked in stripes by creator (power of two)
+    private static final int PEER_LOCK_STRIPES = 64;
+    // Number of logged nameservice changes (power of two)
+    private static final int NAMESERVICE_LOG_SIZE = 4096;
+    // Number of hash table slots examined per requested entry when listing nameservice entries page by page
+    private static final int MAX_SLOTS_PER_PAGE_ENTRY = 16;
+
     // Attributes
     private PeerHandler[] m_peerHandlers;
     private NameserviceHashTable m_nameservice;
@@ -51,7 +64,24 @@ public final class MetadataHandler {
 
     private ArrayList<Short> m_assignedPeersIncludingBackups;
 
-    private ReadWriteLock m_dataLock;
+    private ReadWriteLock[] m_peerLocks;
+    private ReadWriteLock m_nameserviceLock;
+    private ReadWriteLock m_storageLock;
+    private ReadWriteLock m_barriersLock;
+
+    // Change tracking. Changes are numbered after being applied (while holding the corresponding lock) so a
+    // change with a number up to the sequence read before serializing is always included in the serialized data
+    private AtomicLong m_changeSequence;
+    // Changes before this number are not tracked completely (e.g. the area changed)
+    private volatile long m_firstTrackedChange;
+    private AtomicLong m_storageLastChange;
+    private AtomicLong m_barriersLastChange;
+    // Ring buffer of nameservice changes, guarded by the nameservice lock
+    private long[] m_nameserviceLogIDs;
+    private long[] m_nameserviceLogChunkIDs;
+    private long[] m_nameserviceLogChanges;
+    private long m_nameserviceLogCount;
+    private long m_nameserviceLogDroppedChange;
 
     // Constructors
 
@@ -79,7 +109,39 @@ public final class MetadataHandler {
 
         m_assignedPeersIncludingBackups = p_assignedPeersIncludingBackups;
 
-        m_dataLock = new ReentrantReadWriteLock(false);
+        m_peerLocks = new ReadWriteLock[PEER_LOCK_STRIPES];
+        for (int i = 0; i < PEER_LOCK_STRIPES; i++) {
+            m_peerLocks[i] = new ReentrantReadWriteLock(false);
+        }
+        m_nameserviceLock = new ReentrantReadWriteLock(false);
+        m_storageLock = new ReentrantReadWriteLock(false);
+        m_barriersLock = new ReentrantReadWriteLock(false);
+
+        m_changeSequence = new AtomicLong(1);
+        m_firstTrackedChange = 1;
+        m_storageLastChange = new AtomicLong(0);
+        m_barriersLastChange = new AtomicLong(0);
+        m_nameserviceLogIDs = new long[NAMESERVICE_LOG_SIZE];
+        m_nameserviceLogChunkIDs = new long[NAMESERVICE_LOG_SIZE];
+        m_nameserviceLogChanges = new long[NAMESERVICE_LOG_SIZE];
+    }
+
+    /**
+     * Returns the current change sequence number. All changes up to this number are included in metadata
+     * serialized afterwards.
+     *
+     * @return the change sequence number
+     */
+    public long getChangeSequence() {
+        return m_changeSequence.get();
+    }
+
+    /**
+     * Invalidates the tracked changes, backup superpeers have to fetch all metadata of the area. Must be called
+     * whenever the responsible area changes.
+     */
+    public void resetChangeTracking() {
+        m_firstTrackedChange = nextChange();
     }
 
     /**
@@ -114,24 +176,37 @@ public final class MetadataHandler {
     public Status getStorageStatus() {
         Status ret;
 
-        m_dataLock.readLock().lock();
+        m_storageLock.readLock().lock();
         ret = m_storage.getStatus();
-        m_dataLock.readLock().unlock();
+        m_storageLock.readLock().unlock();
 
         return ret;
     }
 
     /**
-     * Gets all nameservice entries of this superpeer.
+     * Gets one page of the nameservice entries of this superpeer.
      *
-     * @return all nameservice entries in a byte array
+     * @param p_predecessor
+     *         the predecessor
+     * @param p_nodeID
+     *         the own NodeID
+     * @param p_cursor
+     *         the position to continue from (0 for the first page)
+     * @param p_maxEntries
+     *         the maximum number of entries
+     * @param p_entries
+     *         the list to add the ids and ChunkIDs to (alternating)
+     * @return the position to continue from or -1 if all entries were returned
      */
-    public byte[] getAllNameserviceEntries(final short p_predecessor, final short p_nodeID) {
-        byte[] ret;
+    public int getNameserviceEntries(final short p_predecessor, final short p_nodeID, final int p_cursor,
+            final int p_maxEntries, final ArrayListLong p_entries) {
+        int ret;
 
-        m_dataLock.readLock().lock();
-        ret = m_nameservice.receiveMetadataInRange(p_predecessor, p_nodeID);
-        m_dataLock.readLock().unlock();
+        m_nameserviceLock.readLock().lock();
+        // Limit the examined slots as well to keep the lock short if most entries are out of range
+        ret = m_nameservice.getEntriesInRange(p_predecessor, p_nodeID, p_cursor, p_maxEntries,
+                p_maxEntries * MAX_SLOTS_PER_PAGE_ENTRY, p_entries);
+        m_nameserviceLock.readLock().unlock();
 
         return ret;
     }
@@ -159,7 +234,7 @@ public final class MetadataHandler {
         ByteBuffer data;
         PeerHandler peerHandler;
 
-        m_dataLock.readLock().lock();
+        readLockAll();
 
         LOGGER.trace("Serializing metadata of area: 0x%X, 0x%X", p_beginOfArea, p_endOfArea);
 
@@ -248,7 +323,7 @@ public final class MetadataHandler {
             data.putInt(barriers.length);
             data.put(barriers);
         }
-        m_dataLock.readLock().unlock();
+        readUnlockAll();
 
         // If there is no metadata in given area, return an empty array
         if (ret.length == Integer.BYTES * 4) {
@@ -273,7 +348,7 @@ public final class MetadataHandler {
         PeerHandler peerHandler;
         ByteBuffer data;
 
-        m_dataLock.readLock().lock();
+        readLockAll();
 
         LOGGER.trace("Serializing all metadata");
 
@@ -320,7 +395,7 @@ public final class MetadataHandler {
                 peerHandler.receiveMetadata(data);
             }
         }
-        m_dataLock.readLock().unlock();
+        readUnlockAll();
 
         // If there is no metadata, return an empty array
         if (ret.length == Integer.BYTES * 4) {
@@ -330,57 +405,6 @@ public final class MetadataHandler {
         return ret;
     }
 
-    /**
-     * Returns the number of nameservice entries in given area
-     *
-     * @param p_responsibleArea
-     *         the area
-     * @return the number of nameservice entries
-     */
-    public int getNumberOfNameserviceEntries(final short[] p_responsibleArea) {
-        int ret;
-
-        m_dataLock.readLock().lock();
-        ret = m_nameservice.quantifyMetadata(p_responsibleArea[0], p_responsibleArea[1]);
-        m_dataLock.readLock().unlock();
-
-        return ret;
-    }
-
-    /**
-     * Returns the number of storages in given area
-     *
-     * @param p_responsibleArea
-     *         the area
-     * @return the number of storages
-     */
-    public int getNumberOfStorages(final short[] p_responsibleArea) {
-        int ret;
-
-        m_dataLock.readLock().lock();
-        ret = m_storage.quantifyMetadata(p_responsibleArea[0], p_responsibleArea[1]);
-        m_dataLock.readLock().unlock();
-
-        return ret;
-    }
-
-    /**
-     * Returns the number of barriers in given area
-     *
-     * @param p_responsibleArea
-     *         the area
-     * @return the number of barriers
-     */
-    public int getNumberOfBarriers(final short[] p_responsibleArea) {
-        int ret;
-
-        m_dataLock.readLock().lock();
-        ret = m_barriers.quantifyMetadata(p_responsibleArea[0], p_responsibleArea[1]);
-        m_dataLock.readLock().unlock();
-
-        return ret;
-    }
-
     /**
      * Get a summary of this superpeer's metadata
      *
@@ -395,7 +419,7 @@ public final class MetadataHandler {
         StringBuilder ret = new StringBuilder();
         PeerHandler peerHandler;
 
-        m_dataLock.readLock().lock();
+        readLockAll();
 
         ret.append("Number of nameservice entries: ").append(m_nameservice.quantifyMetadata(p_nodeID, p_nodeID))
                 .append(", assigned: ").append(m_nameservice.quantifyMetadata(p_predecessor, p_nodeID)).append('\n');
@@ -420,72 +444,67 @@ public final class MetadataHandler {
             }
         }
 
-        m_dataLock.readLock().unlock();
+        readUnlockAll();
 
         return ret.toString();
     }
 
     /**
-     * Compares given peer list with local list and returns all missing backup data between this superpeer and his
-     * predecessor.
+     * Returns all backup data between this superpeer and his predecessor that changed since given change sequence
+     * number or belongs to a peer missing in given peer list. All data of the area is returned if the changes since
+     * given number are not tracked completely (first request, area changed, too many nameservice changes in between).
      *
      * @param p_peers
      *         all peers the requesting superpeer stores backups for
-     * @param p_numberOfNameserviceEntries
-     *         the number of expected nameservice entries
-     * @param p_numberOfStorages
-     *         the number of expected storages
-     * @param p_numberOfBarriers
-     *         the number of expected barriers
+     * @param p_acknowledgedChange
+     *         the change sequence number the requesting superpeer is up to date with (0 if unknown)
      * @param p_predecessor
      *         the predecessor
      * @param p_nodeID
      *         the own NodeID
-     * @return the backup data of missing peers in given peer list
+     * @return the changed and missing backup data
      * @lock overlay lock must be read-locked
      */
-    public byte[] compareAndReturnBackups(final ArrayList<Short> p_peers, final int p_numberOfNameserviceEntries,
-            final int p_numberOfStorages, final int p_numberOfBarriers, final short p_predecessor,
-            final short p_nodeID) {
+    public byte[] compareAndReturnBackups(final ArrayList<Short> p_peers, final long p_acknowledgedChange,
+            final short p_predecessor, final short p_nodeID) {
         int size;
-        int count = 0;
         int index;
         int startIndex;
         short currentPeer;
+        boolean complete;
         byte[] ret;
-        byte[] nameserviceEntries = null;
+        byte[] nameserviceEntries;
         byte[] storages = null;
         byte[] barriers = null;
+        ArrayList<Short> peersToSend;
         ByteBuffer data;
         PeerHandler peerHandler;
 
-        m_dataLock.readLock().lock();
+        readLockAll();
+
+        complete = p_acknowledgedChange < m_firstTrackedChange || p_acknowledgedChange > m_changeSequence.get();
 
-        LOGGER.trace("Compare and return metadata of area: 0x%X, 0x%X", p_predecessor, p_nodeID);
+        LOGGER.trace("Compare and return metadata of area: 0x%X, 0x%X, changes since %d (complete: %b)", p_predecessor,
+                p_nodeID, p_acknowledgedChange, complete);
 
-        // TODO: Inefficient to send all data (nameservice, storages, barriers) in corresponding area if quantity
-        // differs
         size = 4 * Integer.BYTES;
-        // Compare number of actual nameservice entries with expected number
-        if (m_nameservice.quantifyMetadata(p_predecessor, p_nodeID) != p_numberOfNameserviceEntries) {
-            // Get all corresponding nameservice entries
+        if (complete || p_acknowledgedChange < m_nameserviceLogDroppedChange) {
             nameserviceEntries = m_nameservice.receiveMetadataInRange(p_predecessor, p_nodeID);
-            size += nameserviceEntries.length;
+        } else {
+            nameserviceEntries = getLoggedNameserviceEntries(p_acknowledgedChange, p_predecessor, p_nodeID);
         }
-        // Compare number of actual storages with expected number
-        if (m_storage.quantifyMetadata(p_predecessor, p_nodeID) != p_numberOfStorages) {
-            // Get all corresponding storages
+        size += nameserviceEntries.length;
+        if (complete || m_storageLastChange.get() > p_acknowledgedChange) {
             storages = m_storage.receiveMetadataInRange(p_predecessor, p_nodeID);
             size += storages.length;
         }
-        // Compare number of actual barriers with expected number
-        if (m_barriers.quantifyMetadata(p_predecessor, p_nodeID) != p_numberOfBarriers) {
-            // Get all corresponding barriers
+        if (complete || m_barriersLastChange.get() > p_acknowledgedChange) {
             barriers = m_barriers.receiveMetadataInRange(p_predecessor, p_nodeID);
             size += barriers.length;
         }
 
-        // Get all corresponding lookup trees
+        // Collect changed and missing lookup trees
+        peersToSend = new ArrayList<>();
         if (!m_assignedPeersIncludingBackups.isEmpty()) {
             // Find beginning
             index = Collections.binarySearch(m_assignedPeersIncludingBackups, p_predecessor);
@@ -496,17 +515,15 @@ public final class MetadataHandler {
                 }
             }
 
-            // Iterate over assigned peers and count lookup tree sizes
             startIndex = index;
             currentPeer = m_assignedPeersIncludingBackups.get(index++);
             while (OverlayHelper.isPeerInSuperpeerRange(currentPeer, p_predecessor, p_nodeID)) {
-                if (Collections.binarySearch(p_peers, currentPeer) < 0) {
-                    peerHandler = getPeerHandler(currentPeer);
-                    // no tree available -> no chunks were created or backup system is deactivated
-                    if (peerHandler != null) {
-                        size += peerHandler.getSize();
-                        count++;
-                    }
+                peerHandler = getPeerHandler(currentPeer);
+                // no tree available -> no chunks were created or backup system is deactivated
+                if (peerHandler != null && (complete || peerHandler.getLastChange() > p_acknowledgedChange ||
+                        Collections.binarySearch(p_peers, currentPeer) < 0)) {
+                    size += peerHandler.getSize();
+                    peersToSend.add(currentPeer);
                 }
 
                 if (index == m_assignedPeersIncludingBackups.size()) {
@@ -517,82 +534,36 @@ public final class MetadataHandler {
                 }
                 currentPeer = m_assignedPeersIncludingBackups.get(index++);
             }
+        }
 
-            // Allocate array for all data and copy already gathered data
-            ret = new byte[size];
-            data = ByteBuffer.wrap(ret);
-            if (nameserviceEntries != null) {
-                data.putInt(nameserviceEntries.length);
-                data.put(nameserviceEntries);
-            } else {
-                data.putInt(0);
-            }
-            if (storages != null) {
-                data.putInt(storages.length);
-                data.put(storages);
-            } else {
-                data.putInt(0);
-            }
-            if (barriers != null) {
-                data.putInt(barriers.length);
-                data.put(barriers);
-            } else {
-                data.putInt(0);
-            }
-
-            // Iterate over assigned peers and write lookup trees
-            data.putInt(count);
-            index = startIndex;
-            currentPeer = m_assignedPeersIncludingBackups.get(index++);
-            while (OverlayHelper.isPeerInSuperpeerRange(currentPeer, p_predecessor, p_nodeID)) {
-                if (Collections.binarySearch(p_peers, currentPeer) < 0) {
+        ret = new byte[size];
+        data = ByteBuffer.wrap(ret);
+        data.putInt(nameserviceEntries.length);
+        data.put(nameserviceEntries);
+        if (storages != null) {
+            data.putInt(storages.length);
+            data.put(storages);
+        } else {
+            data.putInt(0);
+        }
+        if (barriers != null) {
+            data.putInt(barriers.length);
+            data.put(barriers);
+        } else {
+            data.putInt(0);
+        }
 
-                    LOGGER.trace("Including LookupTree of 0x%X", currentPeer);
+        data.putInt(peersToSend.size());
+        for (short peer : peersToSend) {
 
-                    peerHandler = getPeerHandler(currentPeer);
-                    // no tree available -> no chunks were created or backup system is deactivated
-                    if (peerHandler != null) {
-                        data.putShort(currentPeer);
-                        peerHandler.receiveMetadata(data);
-                    }
-                }
+            LOGGER.trace("Including LookupTree of 0x%X", peer);
 
-                if (index == m_assignedPeersIncludingBackups.size()) {
-                    index = 0;
-                }
-                if (index == startIndex) {
-                    break;
-                }
-                currentPeer = m_assignedPeersIncludingBackups.get(index++);
-            }
-        } else {
-            // There might be data in given area even without any assigned peer
-
-            // Allocate array for all data and copy gathered data
-            ret = new byte[size];
-            data = ByteBuffer.wrap(ret);
-            if (nameserviceEntries != null) {
-                data.putInt(nameserviceEntries.length);
-                data.put(nameserviceEntries);
-            } else {
-                data.putInt(0);
-            }
-            if (storages != null) {
-                data.putInt(storages.length);
-                data.put(storages);
-            } else {
-                data.putInt(0);
-            }
-            if (barriers != null) {
-                data.putInt(barriers.length);
-                data.put(barriers);
-            } else {
-                data.putInt(0);
-            }
+            data.putShort(peer);
+            getPeerHandler(peer).receiveMetadata(data);
         }
-        m_dataLock.readLock().unlock();
+        readUnlockAll();
 
-        // If there is no missing metadata, return an empty array
+        // If there is no changed or missing metadata, return an empty array
         if (ret.length == Integer.BYTES * 4) {
             ret = new byte[0];
         }
@@ -615,7 +586,7 @@ public final class MetadataHandler {
         int startIndex;
         int count = 0;
 
-        m_dataLock.writeLock().lock();
+        writeLockAll();
 
         LOGGER.trace("Deleting all uneccessary metadata outside of area: 0x%X, 0x%X", p_responsibleArea[0],
                 p_responsibleArea[1]);
@@ -656,7 +627,7 @@ public final class MetadataHandler {
         // Remove barriers
         m_barriers.removeMetadataOutsideOfRange(p_responsibleArea[0], p_responsibleArea[1]);
 
-        m_dataLock.writeLock().unlock();
+        writeUnlockAll();
 
         return ret;
     }
@@ -679,7 +650,7 @@ public final class MetadataHandler {
         if (p_metadata != null && p_metadata.length != 0) {
             data = ByteBuffer.wrap(p_metadata);
 
-            m_dataLock.writeLock().lock();
+            writeLockAll();
 
             LOGGER.trace("Storing metadata. Length: %d", p_metadata.length);
 
@@ -690,6 +661,9 @@ public final class MetadataHandler {
             LOGGER.trace("Storing nameservice entries. Length: %d", size);
 
             m_nameservice.storeMetadata(p_metadata, pos, size);
+            for (int i = 0; i < size / NameserviceHashTable.ENTRY_SIZE; i++) {
+                logNameserviceChange(data.getLong(), data.getLong());
+            }
             data.position(pos + size);
 
             // Put all storages
@@ -699,6 +673,9 @@ public final class MetadataHandler {
             LOGGER.trace("Storing superpeer storages. Length: %d", size);
 
             m_storage.storeMetadata(p_metadata, pos, size);
+            if (size > 0) {
+                m_storageLastChange.accumulateAndGet(nextChange(), Math::max);
+            }
             data.position(pos + size);
 
             // Put all barriers
@@ -708,6 +685,9 @@ public final class MetadataHandler {
             LOGGER.trace("Storing barriers. Length: %d", size);
 
             m_barriers.storeMetadata(p_metadata, pos, size);
+            if (size > 0) {
+                m_barriersLastChange.accumulateAndGet(nextChange(), Math::max);
+            }
             data.position(pos + size);
 
             // Put all lookup trees
@@ -721,13 +701,14 @@ public final class MetadataHandler {
 
                 LOGGER.trace("Storing lookup tree of 0x%X", nodeID);
 
-                peerHandler = new PeerHandler(OverlayHelper.ORDER, nodeID);
+                peerHandler = new PeerHandler(nodeID);
                 peerHandler.storeMetadata(data);
+                peerHandler.setLastChange(nextChange());
 
                 m_peerHandlers[nodeID & 0xFFFF] = peerHandler;
                 ret[i] = nodeID;
             }
-            m_dataLock.writeLock().unlock();
+            writeUnlockAll();
         }
 
         return ret;
@@ -748,12 +729,13 @@ public final class MetadataHandler {
     public void updateMetadataAfterRecovery(final short p_rangeID, final short p_creator, final short p_recoveryPeer,
             final long[] p_chunkIDRanges) {
 
-        m_dataLock.writeLock().lock();
+        getPeerLock(p_creator).writeLock().lock();
         PeerHandler peerHandler = m_peerHandlers[p_creator & 0xFFFF];
         if (peerHandler != null) {
             peerHandler.updateMetadataAfterRecovery(p_rangeID, p_recoveryPeer, p_chunkIDRanges);
+            peerHandler.setLastChange(nextChange());
         }
-        m_dataLock.writeLock().unlock();
+        getPeerLock(p_creator).writeLock().unlock();
     }
 
     /**
@@ -769,39 +751,60 @@ public final class MetadataHandler {
         boolean ret = false;
         PeerHandler peerHandler;
 
-        m_dataLock.writeLock().lock();
+        getPeerLock(p_rangeOwner).writeLock().lock();
         peerHandler = getPeerHandler(p_rangeOwner);
         // no tree available -> no chunks were created yet
         if (peerHandler == null) {
             // With backup activated this is the place to initialize a lookup tree
-            peerHandler = new PeerHandler(OverlayHelper.ORDER, p_rangeOwner);
+            peerHandler = new PeerHandler(p_rangeOwner);
             m_peerHandlers[p_rangeOwner & 0xFFFF] = peerHandler;
             ret = true;
         }
 
         peerHandler.initRange(p_backupRange);
-        m_dataLock.writeLock().unlock();
+        peerHandler.setLastChange(nextChange());
+        getPeerLock(p_rangeOwner).writeLock().unlock();
 
         return ret;
     }
 
     /**
-     * Gets corresponding lookup tree.
+     * Checks if there is a lookup tree for given creator.
      *
      * @param p_nodeID
      *         lookup tree's creator
-     * @return the lookup tree
+     * @return whether the lookup tree is stored here
+     */
+    public boolean hasLookupTree(final short p_nodeID) {
+        boolean ret;
+        PeerHandler peerHandler;
+
+        getPeerLock(p_nodeID).readLock().lock();
+        peerHandler = m_peerHandlers[p_nodeID & 0xFFFF];
+        ret = peerHandler != null && peerHandler.getLookupTree() != null;
+        getPeerLock(p_nodeID).readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets a snapshot of the corresponding lookup tree. The snapshot is not changed by later migrations and can be
+     * serialized without holding the lock.
+     *
+     * @param p_nodeID
+     *         lookup tree's creator
+     * @return a copy of the lookup tree
      */
     public LookupTree getLookupTree(final short p_nodeID) {
         LookupTree ret = null;
         PeerHandler peerHandler;
 
-        m_dataLock.readLock().lock();
+        getPeerLock(p_nodeID).readLock().lock();
         peerHandler = m_peerHandlers[p_nodeID & 0xFFFF];
-        if (peerHandler != null) {
-            ret = peerHandler.getLookupTree();
+        if (peerHandler != null && peerHandler.getLookupTree() != null) {
+            ret = peerHandler.getLookupTree().copy();
         }
-        m_dataLock.readLock().unlock();
+        getPeerLock(p_nodeID).readLock().unlock();
 
         return ret;
     }
@@ -816,8 +819,10 @@ public final class MetadataHandler {
     public LookupRange getLookupRangeFromLookupTree(final long p_chunkID, boolean p_backupActive) {
         LookupRange ret;
         PeerHandler peerHandler;
+        ReadWriteLock lock;
 
-        m_dataLock.readLock().lock();
+        lock = getPeerLock(ChunkID.getCreatorID(p_chunkID));
+        lock.readLock().lock();
         peerHandler = getPeerHandler(ChunkID.getCreatorID(p_chunkID));
         // no tree available -> no chunks were created or backup system is deactivated
         if (peerHandler != null) {
@@ -832,7 +837,7 @@ public final class MetadataHandler {
                 ret = new LookupRange(LookupState.DOES_NOT_EXIST);
             }
         }
-        m_dataLock.readLock().unlock();
+        lock.readLock().unlock();
 
         return ret;
     }
@@ -847,30 +852,33 @@ public final class MetadataHandler {
      * @return whether the ChunkID could be put or not
      */
     public boolean putChunkIDInLookupTree(final long p_chunkID, final short p_owner, final boolean p_backupActive) {
-        boolean ret;
+        boolean ret = false;
+        short creator;
         PeerHandler peerHandler;
+        ReadWriteLock lock;
 
-        m_dataLock.writeLock().lock();
-        peerHandler = getPeerHandler(ChunkID.getCreatorID(p_chunkID));
+        creator = ChunkID.getCreatorID(p_chunkID);
+        lock = getPeerLock(creator);
+        lock.writeLock().lock();
+        peerHandler = getPeerHandler(creator);
         // no tree available -> no chunks were created or backup system is deactivated
         if (peerHandler == null) {
             if (!p_backupActive) {
                 // With backup deactivated this is the place to initialize a peer handler
-                short creator = ChunkID.getCreatorID(p_chunkID);
-                peerHandler = new PeerHandler(OverlayHelper.ORDER, creator);
+                peerHandler = new PeerHandler(creator);
 
                 m_peerHandlers[creator & 0xFFFF] = peerHandler;
-                return peerHandler.migrate(p_chunkID, p_owner);
+                ret = peerHandler.migrate(p_chunkID, p_owner);
             }
-            m_dataLock.writeLock().unlock();
-
-            return false;
         } else {
             ret = peerHandler.migrate(p_chunkID, p_owner);
-            m_dataLock.writeLock().unlock();
-
-            return ret;
         }
+        if (ret) {
+            peerHandler.setLastChange(nextChange());
+        }
+        lock.writeLock().unlock();
+
+        return ret;
     }
 
     /**
@@ -886,30 +894,33 @@ public final class MetadataHandler {
      */
     public boolean putChunkIDRangeInLookupTree(final long p_firstChunkID, final long p_lastChunkID, final short p_owner,
             final boolean p_backupActive) {
-        boolean ret;
+        boolean ret = false;
+        short creator;
         PeerHandler peerHandler;
+        ReadWriteLock lock;
 
-        m_dataLock.writeLock().lock();
-        peerHandler = getPeerHandler(ChunkID.getCreatorID(p_firstChunkID));
+        creator = ChunkID.getCreatorID(p_firstChunkID);
+        lock = getPeerLock(creator);
+        lock.writeLock().lock();
+        peerHandler = getPeerHandler(creator);
         // no tree available -> no chunks were created or backup system is deactivated
         if (peerHandler == null) {
             if (!p_backupActive) {
                 // With backup deactivated this is the place to initialize a peer handler
-                short creator = ChunkID.getCreatorID(p_firstChunkID);
-                peerHandler = new PeerHandler(OverlayHelper.ORDER, creator);
+                peerHandler = new PeerHandler(creator);
 
                 m_peerHandlers[creator & 0xFFFF] = peerHandler;
-                return peerHandler.migrateRange(p_firstChunkID, p_lastChunkID, p_owner);
+                ret = peerHandler.migrateRange(p_firstChunkID, p_lastChunkID, p_owner);
             }
-            m_dataLock.writeLock().unlock();
-
-            return false;
         } else {
             ret = peerHandler.migrateRange(p_firstChunkID, p_lastChunkID, p_owner);
-            m_dataLock.writeLock().unlock();
-
-            return ret;
         }
+        if (ret) {
+            peerHandler.setLastChange(nextChange());
+        }
+        lock.writeLock().unlock();
+
+        return ret;
     }
 
     /**
@@ -921,23 +932,26 @@ public final class MetadataHandler {
      */
     public boolean removeChunkIDsFromLookupTree(final boolean p_backupActive, final long... p_chunkIDs) {
         PeerHandler peerHandler;
+        ReadWriteLock lock;
 
         if (p_chunkIDs.length == 0) {
             return false;
         }
 
-        m_dataLock.writeLock().lock();
+        lock = getPeerLock(ChunkID.getCreatorID(p_chunkIDs[0]));
+        lock.writeLock().lock();
         peerHandler = getPeerHandler(ChunkID.getCreatorID(p_chunkIDs[0]));
         // no tree available -> no chunks were created or backup system is deactivated
         if (peerHandler == null) {
-            m_dataLock.writeLock().unlock();
+            lock.writeLock().unlock();
 
             // Backup activated and no tree -> error
             // Backup deactivated and no migrations (-> tree is null) -> no need to remove ChunkIDs
             return !p_backupActive;
         } else {
             peerHandler.removeObjects(p_chunkIDs);
-            m_dataLock.writeLock().unlock();
+            peerHandler.setLastChange(nextChange());
+            lock.writeLock().unlock();
 
             return true;
         }
@@ -954,13 +968,13 @@ public final class MetadataHandler {
         BackupRange[] ret = null;
         PeerHandler peerHandler;
 
-        m_dataLock.readLock().lock();
+        getPeerLock(p_nodeID).readLock().lock();
         peerHandler = getPeerHandler(p_nodeID);
         // no tree available -> no chunks were created or backup system is deactivated
         if (peerHandler != null) {
             ret = peerHandler.getAllBackupRanges();
         }
-        m_dataLock.readLock().unlock();
+        getPeerLock(p_nodeID).readLock().unlock();
 
         return ret;
     }
@@ -981,14 +995,15 @@ public final class MetadataHandler {
             final short p_newBackupPeer) {
         PeerHandler peerHandler;
 
-        m_dataLock.writeLock().lock();
+        getPeerLock(p_nodeID).writeLock().lock();
         peerHandler = getPeerHandler(p_nodeID);
         // no tree available -> no chunks were created or backup system is deactivated
         if (peerHandler != null) {
             // Replace failedPeer from specific backup peer lists
             peerHandler.replaceBackupPeer(p_rangeID, p_failedPeer, p_newBackupPeer);
+            peerHandler.setLastChange(nextChange());
         }
-        m_dataLock.writeLock().unlock();
+        getPeerLock(p_nodeID).writeLock().unlock();
     }
 
     /**
@@ -998,12 +1013,31 @@ public final class MetadataHandler {
      *         the nameservice ID
      * @return the ChunkID
      */
-    public long getNameserviceEntry(final int p_nameserviceID) {
+    public long getNameserviceEntry(final long p_nameserviceID) {
         long ret;
 
-        m_dataLock.readLock().lock();
+        m_nameserviceLock.readLock().lock();
         ret = m_nameservice.getChunkID(p_nameserviceID);
-        m_dataLock.readLock().unlock();
+        m_nameserviceLock.readLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Gets multiple nameservice entries under a single lock acquisition.
+     *
+     * @param p_nameserviceIDs
+     *         the nameservice IDs
+     * @return the ChunkID of every nameservice ID (ChunkID.INVALID_ID if not registered)
+     */
+    public long[] getNameserviceEntries(final long[] p_nameserviceIDs) {
+        long[] ret = new long[p_nameserviceIDs.length];
+
+        m_nameserviceLock.readLock().lock();
+        for (int i = 0; i < p_nameserviceIDs.length; i++) {
+            ret[i] = m_nameservice.getChunkID(p_nameserviceIDs[i]);
+        }
+        m_nameserviceLock.readLock().unlock();
 
         return ret;
     }
@@ -1016,10 +1050,28 @@ public final class MetadataHandler {
      * @param p_chunkID
      *         the ChunkID
      */
-    public void putNameserviceEntry(final int p_nameserviceID, final long p_chunkID) {
-        m_dataLock.writeLock().lock();
+    public void putNameserviceEntry(final long p_nameserviceID, final long p_chunkID) {
+        m_nameserviceLock.writeLock().lock();
         m_nameservice.putChunkID(p_nameserviceID, p_chunkID);
-        m_dataLock.writeLock().unlock();
+        logNameserviceChange(p_nameserviceID, p_chunkID);
+        m_nameserviceLock.writeLock().unlock();
+    }
+
+    /**
+     * Puts multiple nameservice entries under a single lock acquisition.
+     *
+     * @param p_nameserviceIDs
+     *         the nameservice IDs
+     * @param p_chunkIDs
+     *         the ChunkID of every nameservice ID
+     */
+    public void putNameserviceEntries(final long[] p_nameserviceIDs, final long[] p_chunkIDs) {
+        m_nameserviceLock.writeLock().lock();
+        for (int i = 0; i < p_nameserviceIDs.length; i++) {
+            m_nameservice.putChunkID(p_nameserviceIDs[i], p_chunkIDs[i]);
+            logNameserviceChange(p_nameserviceIDs[i], p_chunkIDs[i]);
+        }
+        m_nameserviceLock.writeLock().unlock();
     }
 
     /**
@@ -1034,9 +1086,9 @@ public final class MetadataHandler {
     public int countNameserviceEntries(final short p_bound1, final short p_bound2) {
         int ret;
 
-        m_dataLock.readLock().lock();
+        m_nameserviceLock.readLock().lock();
         ret = m_nameservice.quantifyMetadata(p_bound1, p_bound2);
-        m_dataLock.readLock().unlock();
+        m_nameserviceLock.readLock().unlock();
 
         return ret;
     }
@@ -1055,9 +1107,10 @@ public final class MetadataHandler {
     public int createStorage(final int p_storageID, final int p_size) {
         int ret;
 
-        m_dataLock.writeLock().lock();
+        m_storageLock.writeLock().lock();
         ret = m_storage.create(p_storageID, p_size);
-        m_dataLock.writeLock().unlock();
+        m_storageLastChange.accumulateAndGet(nextChange(), Math::max);
+        m_storageLock.writeLock().unlock();
 
         return ret;
     }
@@ -1072,9 +1125,9 @@ public final class MetadataHandler {
     public byte[] getStorage(final int p_storageID) {
         byte[] ret;
 
-        m_dataLock.readLock().lock();
+        m_storageLock.readLock().lock();
         ret = m_storage.get(p_storageID);
-        m_dataLock.readLock().unlock();
+        m_storageLock.readLock().unlock();
 
         return ret;
     }
@@ -1091,9 +1144,10 @@ public final class MetadataHandler {
     public int putStorage(final int p_storageID, final byte[] p_data) {
         int ret;
 
-        m_dataLock.readLock().lock();
+        m_storageLock.readLock().lock();
         ret = m_storage.put(p_storageID, p_data);
-        m_dataLock.readLock().unlock();
+        m_storageLastChange.accumulateAndGet(nextChange(), Math::max);
+        m_storageLock.readLock().unlock();
 
         return ret;
     }
@@ -1108,9 +1162,10 @@ public final class MetadataHandler {
     public boolean removeStorage(final int p_storageID) {
         boolean ret;
 
-        m_dataLock.writeLock().lock();
+        m_storageLock.writeLock().lock();
         ret = m_storage.remove(p_storageID);
-        m_dataLock.writeLock().unlock();
+        m_storageLastChange.accumulateAndGet(nextChange(), Math::max);
+        m_storageLock.writeLock().unlock();
 
         return ret;
     }
@@ -1127,9 +1182,10 @@ public final class MetadataHandler {
     public int createBarrier(final short p_nodeID, final int p_size) {
         int ret;
 
-        m_dataLock.writeLock().lock();
+        m_barriersLock.writeLock().lock();
         ret = m_barriers.allocateBarrier(p_nodeID, p_size);
-        m_dataLock.writeLock().unlock();
+        m_barriersLastChange.accumulateAndGet(nextChange(), Math::max);
+        m_barriersLock.writeLock().unlock();
 
         return ret;
     }
@@ -1150,9 +1206,10 @@ public final class MetadataHandler {
     public boolean changeSizeOfBarrier(final short p_nodeID, final int p_barrierID, final int p_newSize) {
         boolean ret;
 
-        m_dataLock.writeLock().lock();
+        m_barriersLock.writeLock().lock();
         ret = m_barriers.changeBarrierSize(p_nodeID, p_barrierID, p_newSize);
-        m_dataLock.writeLock().unlock();
+        m_barriersLastChange.accumulateAndGet(nextChange(), Math::max);
+        m_barriersLock.writeLock().unlock();
 
         return ret;
     }
@@ -1169,9 +1226,10 @@ public final class MetadataHandler {
     public boolean removeBarrier(final short p_nodeID, final int p_barrierID) {
         boolean ret;
 
-        m_dataLock.writeLock().lock();
+        m_barriersLock.writeLock().lock();
         ret = m_barriers.freeBarrier(p_nodeID, p_barrierID);
-        m_dataLock.writeLock().unlock();
+        m_barriersLastChange.accumulateAndGet(nextChange(), Math::max);
+        m_barriersLock.writeLock().unlock();
 
         return ret;
     }
@@ -1188,9 +1246,9 @@ public final class MetadataHandler {
     public boolean resetBarrier(final short p_nodeID, final int p_barrierID) {
         boolean ret;
 
-        m_dataLock.writeLock().lock();
+        m_barriersLock.writeLock().lock();
         ret = m_barriers.reset(p_nodeID, p_barrierID);
-        m_dataLock.writeLock().unlock();
+        m_barriersLock.writeLock().unlock();
 
         return ret;
     }
@@ -1206,15 +1264,44 @@ public final class MetadataHandler {
      *         the NodeID
      * @param p_barrierData
      *         the barrier data
+     * @param p_reduction
+     *         the reduction to apply to the barrier data
      * @return the number of peers left to sign on, -1 on failure
      */
     public int signOnBarrier(final short p_nodeID, final int p_barrierID, final short p_nodeIDToSignOn,
-            final long p_barrierData) {
+            final long p_barrierData, final BarrierReduction p_reduction) {
+        int ret;
+
+        m_barriersLock.writeLock().lock();
+        ret = m_barriers.signOn(p_nodeID, p_barrierID, p_nodeIDToSignOn, p_barrierData, p_reduction);
+        m_barriersLock.writeLock().unlock();
+
+        return ret;
+    }
+
+    /**
+     * Signs-on multiple peers on barrier (aggregated sign on of a combining tree barrier). Either all peers are
+     * signed on or none.
+     *
+     * @param p_nodeID
+     *         the creator
+     * @param p_barrierID
+     *         the barrier ID
+     * @param p_nodeIDsToSignOn
+     *         the NodeIDs
+     * @param p_barrierData
+     *         the barrier data of every NodeID (with a reduction, missing entries are the reduction's identity)
+     * @param p_reduction
+     *         the reduction to apply to the barrier data
+     * @return the number of peers left to sign on, -1 on failure
+     */
+    public int signOnBarrier(final short p_nodeID, final int p_barrierID, final short[] p_nodeIDsToSignOn,
+            final long[] p_barrierData, final BarrierReduction p_reduction) {
         int ret;
 
-        m_dataLock.writeLock().lock();
-        ret = m_barriers.signOn(p_nodeID, p_barrierID, p_nodeIDToSignOn, p_barrierData);
-        m_dataLock.writeLock().unlock();
+        m_barriersLock.writeLock().lock();
+        ret = m_barriers.signOn(p_nodeID, p_barrierID, p_nodeIDsToSignOn, p_barrierData, p_reduction);
+        m_barriersLock.writeLock().unlock();
 
         return ret;
     }
@@ -1231,13 +1318,78 @@ public final class MetadataHandler {
     public BarrierStatus getSignOnStatusOfBarrier(final short p_nodeID, final int p_barrierID) {
         BarrierStatus ret;
 
-        m_dataLock.readLock().lock();
+        m_barriersLock.readLock().lock();
         ret = m_barriers.getBarrierSignOnStatus(p_nodeID, p_barrierID);
-        m_dataLock.readLock().unlock();
+        m_barriersLock.readLock().unlock();
 
         return ret;
     }
 
+    /**
+     * Assigns the next change sequence number
+     *
+     * @return the change sequence number
+     */
+    private long nextChange() {
+        return m_changeSequence.incrementAndGet();
+    }
+
+    /**
+     * Logs a nameservice change. The oldest change is dropped if the log is full.
+     *
+     * @param p_nameserviceID
+     *         the nameservice ID
+     * @param p_chunkID
+     *         the ChunkID
+     * @lock nameservice lock must be write-locked
+     */
+    private void logNameserviceChange(final long p_nameserviceID, final long p_chunkID) {
+        int slot = (int) (m_nameserviceLogCount & (NAMESERVICE_LOG_SIZE - 1));
+
+        if (m_nameserviceLogCount >= NAMESERVICE_LOG_SIZE) {
+            m_nameserviceLogDroppedChange = m_nameserviceLogChanges[slot];
+        }
+
+        m_nameserviceLogIDs[slot] = p_nameserviceID;
+        m_nameserviceLogChunkIDs[slot] = p_chunkID;
+        m_nameserviceLogChanges[slot] = nextChange();
+        m_nameserviceLogCount++;
+    }
+
+    /**
+     * Serializes all logged nameservice changes in given area since given change sequence number (in order)
+     *
+     * @param p_sinceChange
+     *         the change sequence number
+     * @param p_bound1
+     *         lowest NodeID
+     * @param p_bound2
+     *         highest NodeID
+     * @return the nameservice entries in the format of NameserviceHashTable
+     * @lock nameservice lock must be read-locked
+     */
+    private byte[] getLoggedNameserviceEntries(final long p_sinceChange, final short p_bound1,
+            final short p_bound2) {
+        int slot;
+        int count = 0;
+        ByteBuffer data;
+
+        data = ByteBuffer.allocate((int) Math.min(m_nameserviceLogCount, NAMESERVICE_LOG_SIZE) *
+                NameserviceHashTable.ENTRY_SIZE);
+        for (long i = Math.max(0, m_nameserviceLogCount - NAMESERVICE_LOG_SIZE); i < m_nameserviceLogCount; i++) {
+            slot = (int) (i & (NAMESERVICE_LOG_SIZE - 1));
+            if (m_nameserviceLogChanges[slot] > p_sinceChange &&
+                    OverlayHelper.isHashInSuperpeerRange(NameserviceHashTable.hash(m_nameserviceLogIDs[slot]), p_bound1,
+                            p_bound2)) {
+                data.putLong(m_nameserviceLogIDs[slot]);
+                data.putLong(m_nameserviceLogChunkIDs[slot]);
+                count++;
+            }
+        }
+
+        return Arrays.copyOf(data.array(), count * NameserviceHashTable.ENTRY_SIZE);
+    }
+
     /**
      * Gets corresponding peer handler.
      *
@@ -1249,4 +1401,64 @@ public final class MetadataHandler {
         return m_peerHandlers[p_nodeID & 0xFFFF];
     }
 
+    /**
+     * Gets the lock guarding the peer handler (lookup tree) of given creator.
+     *
+     * @param p_nodeID
+     *         the creator
+     * @return the lock
+     */
+    private ReadWriteLock getPeerLock(final short p_nodeID) {
+        return m_peerLocks[(p_nodeID ^ p_nodeID >> 8) & PEER_LOCK_STRIPES - 1];
+    }
+
+    /**
+     * Read-locks all metadata. Locks are always acquired in the same order: nameservice, storage, barriers and all
+     * lookup tree stripes in ascending order.
+     */
+    private void readLockAll() {
+        m_nameserviceLock.readLock().lock();
+        m_storageLock.readLock().lock();
+        m_barriersLock.readLock().lock();
+        for (int i = 0; i < PEER_LOCK_STRIPES; i++) {
+            m_peerLocks[i].readLock().lock();
+        }
+    }
+
+    /**
+     * Releases all read locks acquired with readLockAll.
+     */
+    private void readUnlockAll() {
+        for (int i = PEER_LOCK_STRIPES - 1; i >= 0; i--) {
+            m_peerLocks[i].readLock().unlock();
+        }
+        m_barriersLock.readLock().unlock();
+        m_storageLock.readLock().unlock();
+        m_nameserviceLock.readLock().unlock();
+    }
+
+    /**
+     * Write-locks all metadata (same order as readLockAll).
+     */
+    private void writeLockAll() {
+        m_nameserviceLock.writeLock().lock();
+        m_storageLock.writeLock().lock();
+        m_barriersLock.writeLock().lock();
+        for (int i = 0; i < PEER_LOCK_STRIPES; i++) {
+            m_peerLocks[i].writeLock().lock();
+        }
+    }
+
+    /**
+     * Releases all write locks acquired with writeLockAll.
+     */
+    private void writeUnlockAll() {
+        for (int i = PEER_LOCK_STRIPES - 1; i >= 0; i--) {
+            m_peerLocks[i].writeLock().unlock();
+        }
+        m_barriersLock.writeLock().unlock();
+        m_storageLock.writeLock().unlock();
+        m_nameserviceLock.writeLock().unlock();
+    }
+
 }
@@ -22,7 +22,7 @@ package de.hhu.bsinfo.dxram.lookup.overlay.storage;
  * @author Stefan Nothaas, stefan.nothaas@hhu.de, 10.04.2017
  */
 public class NameserviceEntry {
-    private int m_id;
+    private long m_id;
     private long m_value;
 
     /**
@@ -33,7 +33,7 @@ public class NameserviceEntry {
      * @param p_value
      *         Value of the entry
      */
-    public NameserviceEntry(final int p_id, final long p_value) {
+    public NameserviceEntry(final long p_id, final long p_value) {
         m_id = p_id;
         m_value = p_value;
     }
@@ -43,7 +43,7 @@ public class NameserviceEntry {
      *
      * @return Id of the entry
      */
-    public int getId() {
+    public long getId() {
         return m_id;
     }
 
@@ -25,18 +25,29 @@ import org.apache.logging.log4j.Logger;
 
 import de.hhu.bsinfo.dxmem.data.ChunkID;
 import de.hhu.bsinfo.dxram.lookup.overlay.OverlayHelper;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
 import de.hhu.bsinfo.dxutils.CRC16;
-import de.hhu.bsinfo.dxutils.hashtable.HashFunctionCollection;
-import de.hhu.bsinfo.dxutils.hashtable.IntLongHashTable;
 
 /**
- * HashTable to store ID-Mappings (Linear probing)
+ * HashTable to store ID-Mappings (Linear probing). Keys and values are stored in primitive arrays to keep 64-bit
+ * nameservice IDs compact.
+ * The IDs are stored as they are: with converter type HASH, two names hashed to the same ID on different nodes map
+ * to the same entry (the last insert wins). Collisions are only detected on the registering node.
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 27.01.2014
  */
-public class NameserviceHashTable extends IntLongHashTable implements MetadataInterface {
+public class NameserviceHashTable implements MetadataInterface {
+
+    public static final int ENTRY_SIZE = 2 * Long.BYTES;
 
     private static final Logger LOGGER = LogManager.getFormatterLogger(NameserviceHashTable.class.getSimpleName());
+    private static final float LOAD_FACTOR = 0.75f;
+
+    // Keys are incremented before insertion to avoid 0 (free slot)
+    private long[] m_keys;
+    private long[] m_values;
+    private int m_size;
+    private int m_threshold;
 
     /**
      * Creates an instance of IDHashTable
@@ -45,7 +56,23 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
      *         the initial capacity of IDHashTable
      */
     public NameserviceHashTable(final int p_initialElementCapacity) {
-        super(p_initialElementCapacity);
+        int capacity = Math.max(2, (int) (p_initialElementCapacity / LOAD_FACTOR) + 1);
+
+        m_keys = new long[capacity];
+        m_values = new long[capacity];
+        m_threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Hashes a nameservice ID to determine the responsible superpeer. IDs up to 2^31 - 1 are hashed like the
+     * former 32-bit IDs.
+     *
+     * @param p_id
+     *         the nameservice ID
+     * @return the hash
+     */
+    public static short hash(final long p_id) {
+        return CRC16.hash((int) (p_id ^ p_id >>> 32));
     }
 
     /**
@@ -57,16 +84,25 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
      */
     public static ArrayList<NameserviceEntry> convert(final byte[] p_array) {
         ArrayList<NameserviceEntry> ret;
-        int count = p_array.length / 12;
+        int count = p_array.length / ENTRY_SIZE;
         ByteBuffer buffer = ByteBuffer.wrap(p_array);
 
         ret = new ArrayList<>(count);
         for (int i = 0; i < count; i++) {
-            ret.add(new NameserviceEntry(buffer.getInt(i * 12), buffer.getLong(i * 12 + 4)));
+            ret.add(new NameserviceEntry(buffer.getLong(i * ENTRY_SIZE), buffer.getLong(i * ENTRY_SIZE + Long.BYTES)));
         }
         return ret;
     }
 
+    /**
+     * Returns the number of entries
+     *
+     * @return the number of entries
+     */
+    public final int size() {
+        return m_size;
+    }
+
     @Override
     public int storeMetadata(final byte[] p_data, final int p_offset, final int p_size) {
         int ret = 0;
@@ -75,11 +111,11 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
         if (p_data != null) {
             data = ByteBuffer.wrap(p_data, p_offset, p_size);
 
-            for (int i = 0; i < data.limit() / 12; i++) {
+            for (int i = 0; i < p_size / ENTRY_SIZE; i++) {
 
                 LOGGER.trace("Storing nameservice entry");
 
-                putChunkID(data.getInt(), data.getLong());
+                putChunkID(data.getLong(), data.getLong());
                 ret++;
             }
         }
@@ -90,18 +126,16 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
     @Override
     public byte[] receiveAllMetadata() {
         ByteBuffer data;
-        int iter;
 
-        data = ByteBuffer.allocate(size() * 12);
+        data = ByteBuffer.allocate(m_size * ENTRY_SIZE);
 
-        for (int i = 0; i < capacity(); i++) {
-            iter = getKey(i);
-            if (iter != 0) {
+        for (int i = 0; i < m_keys.length; i++) {
+            if (m_keys[i] != 0) {
 
-                LOGGER.trace("Including nameservice entry: %s <-> %s", iter - 1, getValue(i));
+                LOGGER.trace("Including nameservice entry: %s <-> %s", m_keys[i] - 1, m_values[i]);
 
-                data.putInt(iter - 1);
-                data.putLong(getValue(i));
+                data.putLong(m_keys[i] - 1);
+                data.putLong(m_values[i]);
             }
         }
         return data.array();
@@ -110,41 +144,73 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
     @Override
     public byte[] receiveMetadataInRange(final short p_bound1, final short p_bound2) {
         int count = 0;
-        int iter;
         ByteBuffer data;
 
-        data = ByteBuffer.allocate(size() * 12);
+        data = ByteBuffer.allocate(m_size * ENTRY_SIZE);
 
-        for (int i = 0; i < capacity(); i++) {
-            iter = getKey(i);
-            if (iter != 0) {
-                if (OverlayHelper.isHashInSuperpeerRange(CRC16.hash(iter - 1), p_bound1, p_bound2)) {
+        for (int i = 0; i < m_keys.length; i++) {
+            if (m_keys[i] != 0) {
+                if (OverlayHelper.isHashInSuperpeerRange(hash(m_keys[i] - 1), p_bound1, p_bound2)) {
 
-                    LOGGER.trace("Including nameservice entry: %s <-> %s", iter - 1, getValue(i));
+                    LOGGER.trace("Including nameservice entry: %s <-> %s", m_keys[i] - 1, m_values[i]);
 
-                    data.putInt(iter - 1);
-                    data.putLong(getValue(i));
+                    data.putLong(m_keys[i] - 1);
+                    data.putLong(m_values[i]);
                     count++;
                 }
             }
         }
-        return Arrays.copyOfRange(data.array(), 0, count * (Integer.BYTES + Long.BYTES));
+        return Arrays.copyOfRange(data.array(), 0, count * ENTRY_SIZE);
+    }
+
+    /**
+     * Collects one page of entries in given area. Iterates the slots of the table starting at the cursor; entries
+     * added, removed or moved by a resize between two pages might be missed or returned twice.
+     *
+     * @param p_bound1
+     *         the first bound
+     * @param p_bound2
+     *         the second bound
+     * @param p_cursor
+     *         the slot to start at (0 for the first page)
+     * @param p_maxEntries
+     *         the maximum number of entries to collect
+     * @param p_maxSlots
+     *         the maximum number of slots to examine (the page might be empty if no entry was found)
+     * @param p_entries
+     *         the list to add the ids and ChunkIDs to (alternating)
+     * @return the slot to continue at or -1 if the end of the table was reached
+     */
+    public int getEntriesInRange(final short p_bound1, final short p_bound2, final int p_cursor,
+            final int p_maxEntries, final int p_maxSlots, final ArrayListLong p_entries) {
+        int count = 0;
+        int i = Math.max(0, p_cursor);
+        int end = (int) Math.min(m_keys.length, (long) i + p_maxSlots);
+
+        while (i < end && count < p_maxEntries) {
+            if (m_keys[i] != 0 && OverlayHelper.isHashInSuperpeerRange(hash(m_keys[i] - 1), p_bound1, p_bound2)) {
+                p_entries.add(m_keys[i] - 1);
+                p_entries.add(m_values[i]);
+                count++;
+            }
+            i++;
+        }
+
+        return i < m_keys.length ? i : -1;
     }
 
     @Override
     public int removeMetadataOutsideOfRange(final short p_bound1, final short p_bound2) {
         int count = 0;
-        int iter;
 
-        for (int i = 0; i < capacity(); i++) {
-            iter = getKey(i);
-            if (iter != 0) {
-                if (!OverlayHelper.isHashInSuperpeerRange(CRC16.hash(iter - 1), p_bound1, p_bound2)) {
+        for (int i = 0; i < m_keys.length; i++) {
+            if (m_keys[i] != 0) {
+                if (!OverlayHelper.isHashInSuperpeerRange(hash(m_keys[i] - 1), p_bound1, p_bound2)) {
 
-                    LOGGER.trace("Removing nameservice entry: %s <-> %s", iter - 1, getValue(i));
+                    LOGGER.trace("Removing nameservice entry: %s <-> %s", m_keys[i] - 1, m_values[i]);
 
                     count++;
-                    remove(iter);
+                    remove(m_keys[i] - 1);
                     // Try this index again as removing might have filled this slot with different data
                     i--;
                 }
@@ -157,12 +223,10 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
     @Override
     public int quantifyMetadata(final short p_bound1, final short p_bound2) {
         int count = 0;
-        int iter;
 
-        for (int i = 0; i < capacity(); i++) {
-            iter = getKey(i);
-            if (iter != 0) {
-                if (OverlayHelper.isHashInSuperpeerRange(CRC16.hash(iter - 1), p_bound1, p_bound2)) {
+        for (int i = 0; i < m_keys.length; i++) {
+            if (m_keys[i] != 0) {
+                if (OverlayHelper.isHashInSuperpeerRange(hash(m_keys[i] - 1), p_bound1, p_bound2)) {
                     count++;
                 }
             }
@@ -175,10 +239,21 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
      *
      * @param p_key
      *         the searched key (is incremented before insertion to avoid 0)
-     * @return the value to which the key is mapped in IDHashTable
+     * @return the value to which the key is mapped in IDHashTable or ChunkID.INVALID_ID if not available
      */
-    public final long getChunkID(final int p_key) {
-        return get(p_key + 1);
+    public final long getChunkID(final long p_key) {
+        final long key = p_key + 1;
+        int index;
+
+        index = slot(key, m_keys.length);
+        while (m_keys[index] != 0) {
+            if (m_keys[index] == key) {
+                return m_values[index];
+            }
+            index = (index + 1) % m_keys.length;
+        }
+
+        return ChunkID.INVALID_ID;
     }
 
     /**
@@ -189,8 +264,13 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
      * @param p_value
      *         the value
      */
-    final void putChunkID(final int p_key, final long p_value) {
-        put(p_key + 1, p_value);
+    final void putChunkID(final long p_key, final long p_value) {
+        if (insert(m_keys, m_values, p_key + 1, p_value)) {
+            m_size++;
+            if (m_size > m_threshold) {
+                resize();
+            }
+        }
     }
 
     /**
@@ -198,32 +278,36 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
      *
      * @param p_key
      *         the key (is incremented before insertion to avoid 0)
-     * @return the value
+     * @return the value or ChunkID.INVALID_ID if not available
      */
-    public final long remove(final int p_key) {
-        long ret = -1;
+    public final long remove(final long p_key) {
+        long ret = ChunkID.INVALID_ID;
+        long key = p_key + 1;
+        long value;
         int index;
-        int iter;
-        final int key = p_key + 1;
-
-        index = (HashFunctionCollection.hash(key) & 0x7FFFFFFF) % capacity();
 
-        iter = getKey(index);
-        while (iter != 0) {
-            if (iter == key) {
-                ret = getValue(index);
-                set(index, 0, 0);
+        index = slot(key, m_keys.length);
+        while (m_keys[index] != 0) {
+            if (m_keys[index] == key) {
+                ret = m_values[index];
+                m_keys[index] = 0;
+                m_values[index] = 0;
+                m_size--;
+
+                // Re-insert all following entries of the cluster to close the gap
+                index = (index + 1) % m_keys.length;
+                while (m_keys[index] != 0) {
+                    key = m_keys[index];
+                    value = m_values[index];
+                    m_keys[index] = 0;
+                    m_values[index] = 0;
+                    insert(m_keys, m_values, key, value);
+
+                    index = (index + 1) % m_keys.length;
+                }
                 break;
             }
-            iter = getKey(++index);
-        }
-
-        iter = getKey(++index);
-        while (iter != 0) {
-            set(index, 0, 0);
-            putChunkID(iter, getValue(index));
-
-            iter = getKey(++index);
+            index = (index + 1) % m_keys.length;
         }
 
         return ret;
@@ -233,13 +317,73 @@ public class NameserviceHashTable extends IntLongHashTable implements MetadataIn
      * Print all tuples in IDHashTable
      */
     public final void print() {
-        int iter;
+        for (int i = 0; i < m_keys.length; i++) {
+            if (m_keys[i] != 0) {
+                System.out.println("Key: " + (m_keys[i] - 1) + ", value: " + ChunkID.toHexString(m_values[i]));
+            }
+        }
+    }
+
+    /**
+     * Doubles the capacity and re-inserts all entries
+     */
+    private void resize() {
+        long[] keys = new long[m_keys.length * 2];
+        long[] values = new long[m_keys.length * 2];
+
+        for (int i = 0; i < m_keys.length; i++) {
+            if (m_keys[i] != 0) {
+                insert(keys, values, m_keys[i], m_values[i]);
+            }
+        }
+
+        m_keys = keys;
+        m_values = values;
+        m_threshold = (int) (keys.length * LOAD_FACTOR);
+    }
+
+    /**
+     * Inserts or overwrites an entry
+     *
+     * @param p_keys
+     *         the key array
+     * @param p_values
+     *         the value array
+     * @param p_key
+     *         the incremented key
+     * @param p_value
+     *         the value
+     * @return true if a new entry was added, false if an existing entry was overwritten
+     */
+    private static boolean insert(final long[] p_keys, final long[] p_values, final long p_key, final long p_value) {
+        int index = slot(p_key, p_keys.length);
 
-        for (int i = 0; i < capacity(); i++) {
-            iter = getKey(i);
-            if (iter != 0) {
-                System.out.println("Key: " + iter + ", value: " + ChunkID.toHexString(getValue(i)));
+        while (p_keys[index] != 0) {
+            if (p_keys[index] == p_key) {
+                p_values[index] = p_value;
+                return false;
             }
+            index = (index + 1) % p_keys.length;
         }
+
+        p_keys[index] = p_key;
+        p_values[index] = p_value;
+
+        return true;
+    }
+
+    /**
+     * Determines the home slot of a key
+     *
+     * @param p_key
+     *         the incremented key
+     * @param p_capacity
+     *         the capacity
+     * @return the slot
+     */
+    private static int slot(final long p_key, final int p_capacity) {
+        long hash = p_key * 0x9E3779B97F4A7C15L;
+
+        return (int) ((hash ^ hash >>> 32) & 0x7FFFFFFF) % p_capacity;
     }
 }
@@ -39,18 +39,21 @@ public final class PeerHandler {
     private LookupTree m_lookupTree;
     private ArrayListLong m_backupRanges;
 
+    // Change sequence number of the last modification (for delta replication to backup superpeers)
+    private volatile long m_lastChange;
+
     // Constructors
 
     /**
      * Creates an instance of LookupTree
      *
-     * @param p_order
-     *         order of the btree
+     * @param p_creator
+     *         the creator of the chunks
      */
-    PeerHandler(final short p_order, final short p_creator) {
+    PeerHandler(final short p_creator) {
         m_state = PeerState.ONLINE;
 
-        m_lookupTree = new LookupTree(p_order, p_creator);
+        m_lookupTree = new LookupTree(p_creator);
         m_backupRanges = new ArrayListLong();
     }
 
@@ -73,6 +76,25 @@ public final class PeerHandler {
         m_state = p_state;
     }
 
+    /**
+     * Gets the change sequence number of the last modification
+     *
+     * @return the change sequence number
+     */
+    long getLastChange() {
+        return m_lastChange;
+    }
+
+    /**
+     * Sets the change sequence number of the last modification
+     *
+     * @param p_change
+     *         the change sequence number
+     */
+    void setLastChange(final long p_change) {
+        m_lastChange = p_change;
+    }
+
     /**
      * Returns the lookup tree
      *
@@ -22,7 +22,7 @@ import de.hhu.bsinfo.dxutils.serialization.Exporter;
 import de.hhu.bsinfo.dxutils.serialization.Importer;
 
 /**
- * Index data chunk for the nameservice.
+ * Index data chunk for the nameservice. Every bucket of the index is a list of index data chunks.
  *
  * @author Stefan Nothaas, stefan.nothaas@hhu.de, 03.02.2016
  */
@@ -30,7 +30,7 @@ public class NameServiceIndexData extends AbstractChunk {
     private static final int MS_NUM_INDICES = 10000;
 
     private short m_numEntries;
-    private int[] m_keys = new int[MS_NUM_INDICES];
+    private long[] m_keys = new long[MS_NUM_INDICES];
     private long[] m_chunkIDs = new long[MS_NUM_INDICES];
     private long m_nextIndexDataChunkId = ChunkID.INVALID_ID;
 
@@ -42,7 +42,7 @@ public class NameServiceIndexData extends AbstractChunk {
     }
 
     /**
-     * Chain multiple indices for expansion creating a linked list.
+     * Chain multiple indices of a bucket for expansion creating a linked list.
      *
      * @param p_chunkID
      *         ChunkID of the next data index to chain to this one.
@@ -51,6 +51,46 @@ public class NameServiceIndexData extends AbstractChunk {
         m_nextIndexDataChunkId = p_chunkID;
     }
 
+    /**
+     * Get the next index data chunk of the bucket.
+     *
+     * @return ChunkID of the next index data chunk or ChunkID.INVALID_ID if this is the last one.
+     */
+    public long getNextIndexDataChunk() {
+        return m_nextIndexDataChunkId;
+    }
+
+    /**
+     * Get the number of mappings stored in this chunk.
+     *
+     * @return Number of mappings.
+     */
+    public int getNumEntries() {
+        return m_numEntries;
+    }
+
+    /**
+     * Get the key of a mapping.
+     *
+     * @param p_index
+     *         Index of the mapping (less than getNumEntries()).
+     * @return Key of the mapping.
+     */
+    public long getKey(final int p_index) {
+        return m_keys[p_index];
+    }
+
+    /**
+     * Get the chunk id of a mapping.
+     *
+     * @param p_index
+     *         Index of the mapping (less than getNumEntries()).
+     * @return Chunk id of the mapping.
+     */
+    public long getChunkID(final int p_index) {
+        return m_chunkIDs[p_index];
+    }
+
     /**
      * Insert a new mapping into the index.
      *
@@ -60,7 +100,7 @@ public class NameServiceIndexData extends AbstractChunk {
      *         Chunk id to map to the key.
      * @return True if adding successful, false if index is full.
      */
-    public boolean insertMapping(final int p_key, final long p_chunkId) {
+    public boolean insertMapping(final long p_key, final long p_chunkId) {
         if (m_numEntries == MS_NUM_INDICES) {
             return false;
         }
@@ -75,7 +115,7 @@ public class NameServiceIndexData extends AbstractChunk {
     public void importObject(final Importer p_importer) {
         m_numEntries = p_importer.readShort(m_numEntries);
         for (int i = 0; i < MS_NUM_INDICES; i++) {
-            m_keys[i] = p_importer.readInt(m_keys[i]);
+            m_keys[i] = p_importer.readLong(m_keys[i]);
             m_chunkIDs[i] = p_importer.readLong(m_chunkIDs[i]);
         }
         m_nextIndexDataChunkId = p_importer.readLong(m_nextIndexDataChunkId);
@@ -85,7 +125,7 @@ public class NameServiceIndexData extends AbstractChunk {
     public void exportObject(final Exporter p_exporter) {
         p_exporter.writeShort(m_numEntries);
         for (int i = 0; i < MS_NUM_INDICES; i++) {
-            p_exporter.writeInt(m_keys[i]);
+            p_exporter.writeLong(m_keys[i]);
             p_exporter.writeLong(m_chunkIDs[i]);
         }
         p_exporter.writeLong(m_nextIndexDataChunkId);
@@ -93,6 +133,6 @@ public class NameServiceIndexData extends AbstractChunk {
 
     @Override
     public int sizeofObject() {
-        return Short.BYTES + (Integer.BYTES + Long.BYTES) * MS_NUM_INDICES + Long.BYTES;
+        return Short.BYTES + 2 * Long.BYTES * MS_NUM_INDICES + Long.BYTES;
     }
 }
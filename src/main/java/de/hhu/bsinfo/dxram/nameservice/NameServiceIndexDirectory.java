@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.nameservice;
+
+import java.util.Arrays;
+
+import de.hhu.bsinfo.dxmem.data.AbstractChunk;
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxutils.serialization.Exporter;
+import de.hhu.bsinfo.dxutils.serialization.Importer;
+import de.hhu.bsinfo.dxutils.serialization.ObjectSizeUtil;
+
+/**
+ * Directory chunk of the nameservice index. Holds the ChunkID of the first index chunk of every bucket. The
+ * directory is the first chunk created by the nameservice, so it can be found again after a failure.
+ */
+public class NameServiceIndexDirectory extends AbstractChunk {
+    private long[] m_bucketChunkIDs;
+
+    /**
+     * Default constructor (for reading the directory)
+     */
+    public NameServiceIndexDirectory() {
+        m_bucketChunkIDs = new long[0];
+    }
+
+    /**
+     * Constructor
+     *
+     * @param p_buckets
+     *         Number of buckets
+     */
+    public NameServiceIndexDirectory(final int p_buckets) {
+        m_bucketChunkIDs = new long[p_buckets];
+        Arrays.fill(m_bucketChunkIDs, ChunkID.INVALID_ID);
+    }
+
+    /**
+     * Get the number of buckets
+     *
+     * @return Number of buckets
+     */
+    public int getNumBuckets() {
+        return m_bucketChunkIDs.length;
+    }
+
+    /**
+     * Get the first index chunk of a bucket
+     *
+     * @param p_bucket
+     *         Bucket
+     * @return ChunkID of the first index chunk or ChunkID.INVALID_ID if the bucket is empty
+     */
+    public long getBucketChunkID(final int p_bucket) {
+        return m_bucketChunkIDs[p_bucket];
+    }
+
+    /**
+     * Set the first index chunk of a bucket
+     *
+     * @param p_bucket
+     *         Bucket
+     * @param p_chunkID
+     *         ChunkID of the first index chunk
+     */
+    public void setBucketChunkID(final int p_bucket, final long p_chunkID) {
+        m_bucketChunkIDs[p_bucket] = p_chunkID;
+    }
+
+    @Override
+    public void importObject(final Importer p_importer) {
+        m_bucketChunkIDs = p_importer.readLongArray(m_bucketChunkIDs);
+    }
+
+    @Override
+    public void exportObject(final Exporter p_exporter) {
+        p_exporter.writeLongArray(m_bucketChunkIDs);
+    }
+
+    @Override
+    public int sizeofObject() {
+        return ObjectSizeUtil.sizeofLongArray(m_bucketChunkIDs);
+    }
+}
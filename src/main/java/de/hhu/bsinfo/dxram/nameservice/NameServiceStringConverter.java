@@ -16,12 +16,14 @@
 
 package de.hhu.bsinfo.dxram.nameservice;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Methods for converting Strings into integers
  * The character set is very limited. Make sure to use valid characters only to avoid undefined behaviour.
+ * Type HASH accepts arbitrary Strings and hashes them to 63-bit IDs (not reversible).
  *
  * @author Kevin Beineke, kevin.beineke@hhu.de, 14.02.2014
  */
@@ -210,6 +212,61 @@ public final class NameServiceStringConverter {
         return ret;
     }
 
+    /**
+     * Converts a String into a nameservice ID
+     *
+     * @param p_name
+     *         the String
+     * @return the nameservice ID
+     */
+    public long convertToID(final String p_name) {
+        if ("HASH".equals(m_nameserviceType)) {
+            return hash(p_name);
+        }
+
+        return convert(p_name);
+    }
+
+    /**
+     * Converts a nameservice ID to a String. Hashed IDs cannot be converted back and are returned as hex string.
+     *
+     * @param p_id
+     *         the nameservice ID
+     * @return String representation
+     */
+    public String convertToName(final long p_id) {
+        if ("HASH".equals(m_nameserviceType)) {
+            return "0x" + Long.toHexString(p_id);
+        }
+
+        return convert((int) p_id);
+    }
+
+    /**
+     * Hashes the UTF-8 representation of a String to a non-negative 64-bit ID (FNV-1a with a final avalanche
+     * step). With n registered names, the probability of any collision is about n^2 / 2^64.
+     *
+     * @param p_name
+     *         the String
+     * @return the ID
+     */
+    private static long hash(final String p_name) {
+        long hash = 0xCBF29CE484222325L;
+
+        for (byte b : p_name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+
+        return hash & Long.MAX_VALUE;
+    }
+
     /**
      * Converts an integer index to a string. String length is is 5 chars.
      *
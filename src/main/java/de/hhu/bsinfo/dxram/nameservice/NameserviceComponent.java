@@ -17,6 +17,14 @@
 package de.hhu.bsinfo.dxram.nameservice;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -30,10 +38,11 @@ import de.hhu.bsinfo.dxram.engine.DXRAMContext;
 import de.hhu.bsinfo.dxram.engine.DXRAMJNIManager;
 import de.hhu.bsinfo.dxram.lookup.LookupComponent;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.NameserviceEntry;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
 
 /**
  * Nameservice component providing mappings of string identifiers to chunkIDs.
- * Note: The character set and length of the string are limited. Refer to
+ * Note: The character set and length of the string are limited unless type HASH is used. Refer to
  * the convert class for details.
  *
  * @author Stefan Nothaas, stefan.nothaas@hhu.de, 26.01.2016
@@ -44,10 +53,14 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
     private ChunkIndexComponent m_chunkIndex;
 
     private NameServiceStringConverter m_converter;
+    // Latest names registered on this node by hashed ID (type HASH only) to detect collisions, not recovered
+    private Map<Long, String> m_hashedNames;
 
-    private NameServiceIndexData m_indexData;
-    private boolean m_indexDataRegistered;
-    private Lock m_indexDataLock;
+    // Local index (for backup): a directory chunk referencing one list of index chunks per bucket
+    private NameServiceIndexDirectory m_indexDirectory;
+    private boolean m_indexDirectoryRegistered;
+    private NameServiceIndexData[] m_indexBucketTails;
+    private Lock[] m_indexBucketLocks;
 
     /**
      * Constructor
@@ -79,10 +92,19 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
      */
     public void register(final long p_chunkId, final String p_name) {
         try {
-            final int id = m_converter.convert(p_name);
+            final long id = m_converter.convertToID(p_name);
 
             LOGGER.trace("Registering chunkID 0x%X, name %s, id %d", p_chunkId, p_name, id);
 
+            if (m_hashedNames != null) {
+                String registeredName = m_hashedNames.putIfAbsent(id, p_name);
+                if (registeredName != null && !registeredName.equals(p_name)) {
+                    LOGGER.error("Registering name %s failed, hash collides with registered name %s", p_name,
+                            registeredName);
+                    return;
+                }
+            }
+
             m_lookup.insertNameserviceEntry(id, p_chunkId);
             insertMapping(id, p_chunkId);
         } catch (final IllegalArgumentException e) {
@@ -104,7 +126,7 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
         long ret = ChunkID.INVALID_ID;
 
         try {
-            final int id = m_converter.convert(p_name);
+            final long id = m_converter.convertToID(p_name);
 
             LOGGER.trace("Lookup name %s, id %d", p_name, id);
 
@@ -118,6 +140,97 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
         return ret;
     }
 
+    /**
+     * Register multiple chunk ids for specific names. The entries are sent to the superpeers in batches (one request
+     * per responsible superpeer) and the index chunks are updated once per batch.
+     *
+     * @param p_names
+     *         Names to associate with the chunk ids.
+     * @param p_chunkIDs
+     *         Chunk id of every name.
+     */
+    public void registerAll(final String[] p_names, final long[] p_chunkIDs) {
+        long[] ids = new long[p_names.length];
+        long[] chunkIDs = new long[p_names.length];
+        int count = 0;
+
+        for (int i = 0; i < p_names.length; i++) {
+            try {
+                final long id = m_converter.convertToID(p_names[i]);
+
+                LOGGER.trace("Registering chunkID 0x%X, name %s, id %d", p_chunkIDs[i], p_names[i], id);
+
+                if (m_hashedNames != null) {
+                    String registeredName = m_hashedNames.putIfAbsent(id, p_names[i]);
+                    if (registeredName != null && !registeredName.equals(p_names[i])) {
+                        LOGGER.error("Registering name %s failed, hash collides with registered name %s",
+                                p_names[i], registeredName);
+                        continue;
+                    }
+                }
+
+                ids[count] = id;
+                chunkIDs[count] = p_chunkIDs[i];
+                count++;
+            } catch (final IllegalArgumentException e) {
+                LOGGER.error("Lookup in name service failed", e);
+            }
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        if (count < ids.length) {
+            ids = Arrays.copyOf(ids, count);
+            chunkIDs = Arrays.copyOf(chunkIDs, count);
+        }
+
+        m_lookup.insertNameserviceEntries(ids, chunkIDs);
+        insertMappings(ids, chunkIDs);
+    }
+
+    /**
+     * Get the chunk IDs of multiple names from the service. The names are resolved in batches (one request per
+     * responsible superpeer).
+     *
+     * @param p_names
+     *         Registered names to get the chunk IDs for.
+     * @param p_timeoutMs
+     *         Timeout for trying to get the entries (if they do not exist, yet).
+     *         set this to -1 for infinite loop if you know for sure, that all entries have to exist
+     * @return The chunk ID of every name or -1 for names that are not registered (or invalid).
+     */
+    public long[] getChunkIDs(final String[] p_names, final int p_timeoutMs) {
+        long[] ret = new long[p_names.length];
+        long[] ids = new long[p_names.length];
+        int[] indices = new int[p_names.length];
+        int count = 0;
+
+        Arrays.fill(ret, ChunkID.INVALID_ID);
+
+        for (int i = 0; i < p_names.length; i++) {
+            try {
+                ids[count] = m_converter.convertToID(p_names[i]);
+                indices[count] = i;
+                count++;
+            } catch (final IllegalArgumentException e) {
+                LOGGER.error("Lookup in name service failed", e);
+            }
+        }
+
+        if (count == 0) {
+            return ret;
+        }
+
+        long[] chunkIDs = m_lookup.getChunkIDsForNameserviceEntries(Arrays.copyOf(ids, count), p_timeoutMs);
+        for (int i = 0; i < count; i++) {
+            ret[indices[i]] = chunkIDs[i];
+        }
+
+        return ret;
+    }
+
     public void reinit() {
 
         LOGGER.warn("Re-initializing");
@@ -166,20 +279,163 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
     /**
      * Get all available name mappings
      *
-     * @return List of available name mappings
+     * @return List of available name mappings or null on error
      */
     ArrayList<NameserviceEntryStr> getAllEntries() {
         ArrayList<NameserviceEntryStr> list = new ArrayList<>();
-        ArrayList<NameserviceEntry> entries = m_lookup.getNameserviceEntries();
+        long cursor = LookupComponent.NAMESERVICE_CURSOR_START;
 
-        // convert index representation
-        for (NameserviceEntry entry : entries) {
-            list.add(new NameserviceEntryStr(m_converter.convert(entry.getId()), entry.getValue()));
+        while (cursor != LookupComponent.NAMESERVICE_CURSOR_END) {
+            cursor = getEntries(cursor, LookupComponent.NAMESERVICE_MAX_PAGE_SIZE, null, list);
+
+            if (cursor == LookupComponent.NAMESERVICE_CURSOR_ERROR) {
+                return null;
+            }
         }
 
         return list;
     }
 
+    /**
+     * Get one page of the available name mappings
+     *
+     * @param p_cursor
+     *         LookupComponent.NAMESERVICE_CURSOR_START for the first page or the cursor returned for the previous page
+     * @param p_pageSize
+     *         Maximum number of mappings of the page
+     * @param p_prefix
+     *         Only include names starting with this prefix (null for all). Hashed names (type HASH) can only be
+     *         matched if they were registered on this node.
+     * @param p_entries
+     *         List to add the mappings of the page to
+     * @return Cursor for the next page, LookupComponent.NAMESERVICE_CURSOR_END if all mappings were returned or
+     *         LookupComponent.NAMESERVICE_CURSOR_ERROR on error
+     */
+    long getEntries(final long p_cursor, final int p_pageSize, final String p_prefix,
+            final ArrayList<NameserviceEntryStr> p_entries) {
+        ArrayList<NameserviceEntry> entries = new ArrayList<>();
+        long cursor = m_lookup.getNameserviceEntries(p_cursor, p_pageSize, entries);
+
+        // convert index representation (hashed IDs can only be resolved for names registered on this node)
+        for (NameserviceEntry entry : entries) {
+            String name = m_hashedNames != null ? m_hashedNames.get(entry.getId()) : null;
+            if (name == null) {
+                name = m_converter.convertToName(entry.getId());
+            }
+
+            if (p_prefix == null || name.startsWith(p_prefix)) {
+                p_entries.add(new NameserviceEntryStr(name, entry.getValue()));
+            }
+        }
+
+        return cursor;
+    }
+
+    /**
+     * Get the directory chunk of the local nameservice index. It is the first chunk created on this node, so
+     * it can be found again after a failure of this node.
+     *
+     * @return ChunkID of the directory chunk
+     */
+    public long getIndexDirectoryChunkID() {
+        return m_indexDirectory.getID();
+    }
+
+    /**
+     * Restore nameservice entries from a (recovered) nameservice index, e.g. the one of a failed peer. The buckets
+     * are read in parallel and the entries are re-inserted into the superpeer overlay in batches.
+     *
+     * @param p_directoryChunkID
+     *         ChunkID of the index directory chunk (must be stored on this node)
+     * @return Number of restored entries or -1 on error
+     */
+    public int restoreIndex(final long p_directoryChunkID) {
+        NameServiceIndexDirectory directory = new NameServiceIndexDirectory();
+        directory.setID(p_directoryChunkID);
+
+        if (!m_chunkIndex.getIndexChunk(directory)) {
+            LOGGER.error("Reading index directory chunk 0x%X failed", p_directoryChunkID);
+            return -1;
+        }
+
+        int buckets = directory.getNumBuckets();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(buckets, Runtime.getRuntime().availableProcessors())), p_runnable -> {
+                    Thread thread = new Thread(p_runnable, "NameserviceIndexRestore");
+                    thread.setDaemon(true);
+
+                    return thread;
+                });
+
+        ArrayList<Future<ArrayListLong>> futures = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            final long bucketChunkID = directory.getBucketChunkID(i);
+            futures.add(executor.submit(() -> readIndexBucket(bucketChunkID)));
+        }
+
+        int restored = 0;
+        try {
+            for (Future<ArrayListLong> future : futures) {
+                ArrayListLong mappings = future.get();
+                if (mappings == null) {
+                    restored = -1;
+                    break;
+                }
+
+                int count = mappings.getSize() / 2;
+                long[] ids = new long[count];
+                long[] chunkIDs = new long[count];
+                for (int i = 0; i < count; i++) {
+                    ids[i] = mappings.get(2 * i);
+                    chunkIDs[i] = mappings.get(2 * i + 1);
+                }
+
+                if (count > 0) {
+                    m_lookup.insertNameserviceEntries(ids, chunkIDs);
+                    restored += count;
+                }
+            }
+        } catch (final InterruptedException | ExecutionException e) {
+            LOGGER.error("Restoring index from directory chunk 0x%X failed", p_directoryChunkID, e);
+            restored = -1;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return restored;
+    }
+
+    /**
+     * Read all mappings of an index bucket by walking its list of index chunks
+     *
+     * @param p_chunkID
+     *         ChunkID of the first index chunk of the bucket (ChunkID.INVALID_ID for an empty bucket)
+     * @return Keys and chunk ids (alternating) or null on error
+     */
+    private ArrayListLong readIndexBucket(final long p_chunkID) {
+        ArrayListLong ret = new ArrayListLong();
+        long chunkID = p_chunkID;
+
+        while (chunkID != ChunkID.INVALID_ID) {
+            NameServiceIndexData indexData = new NameServiceIndexData();
+            indexData.setID(chunkID);
+
+            if (!m_chunkIndex.getIndexChunk(indexData)) {
+                LOGGER.error("Reading index chunk 0x%X failed", chunkID);
+                return null;
+            }
+
+            for (int i = 0; i < indexData.getNumEntries(); i++) {
+                ret.add(indexData.getKey(i));
+                ret.add(indexData.getChunkID(i));
+            }
+
+            chunkID = indexData.getNextIndexDataChunk();
+        }
+
+        return ret;
+    }
+
     /**
      * Initialize the nameservice
      *
@@ -187,19 +443,37 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
      */
     private boolean initName() {
         m_converter = new NameServiceStringConverter(getConfig().getType());
+        if ("HASH".equals(getConfig().getType())) {
+            final int maxNames = getConfig().getHashedNamesEntries();
+
+            // bounded, the oldest names are dropped first
+            m_hashedNames = Collections.synchronizedMap(new LinkedHashMap<Long, String>() {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Long, String> p_eldest) {
+                    return size() > maxNames;
+                }
+            });
+        }
 
-        m_indexData = new NameServiceIndexData();
+        int buckets = getConfig().getIndexBuckets();
 
-        m_indexData.setID(m_chunkIndex.createIndexChunk(m_indexData.sizeofObject()));
+        // create the directory first to get the first ChunkID of this node
+        m_indexDirectory = new NameServiceIndexDirectory(buckets);
+        m_indexDirectory.setID(m_chunkIndex.createIndexChunk(m_indexDirectory.sizeofObject()));
 
-        if (m_indexData.getID() == ChunkID.INVALID_ID) {
-            LOGGER.error("Creating root index chunk failed");
+        if (m_indexDirectory.getID() == ChunkID.INVALID_ID) {
+            LOGGER.error("Creating index directory chunk failed");
             return false;
         }
 
-        m_indexDataRegistered = false;
+        m_indexDirectoryRegistered = false;
 
-        m_indexDataLock = new ReentrantLock(false);
+        // bucket chunks are created on first insert
+        m_indexBucketTails = new NameServiceIndexData[buckets];
+        m_indexBucketLocks = new Lock[buckets];
+        for (int i = 0; i < buckets; i++) {
+            m_indexBucketLocks[i] = new ReentrantLock(false);
+        }
 
         return true;
     }
@@ -209,13 +483,15 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
      */
     private void shutdownName() {
         m_converter = null;
+        m_hashedNames = null;
 
-        m_indexData = null;
-        m_indexDataLock = null;
+        m_indexDirectory = null;
+        m_indexBucketTails = null;
+        m_indexBucketLocks = null;
     }
 
     /**
-     * Inserts the nameservice entry to chunk with LocalID 0 for backup
+     * Inserts the nameservice entry into the local index for backup
      *
      * @param p_key
      *         the key
@@ -223,49 +499,180 @@ public class NameserviceComponent extends AbstractDXRAMComponent<NameserviceComp
      *         the ChunkID
      * @return whether this operation was successful
      */
-    private boolean insertMapping(final int p_key, final long p_chunkID) {
-        m_indexDataLock.lock();
+    private boolean insertMapping(final long p_key, final long p_chunkID) {
+        return insertMappings(new long[] {p_key}, new long[] {p_chunkID});
+    }
+
+    /**
+     * Inserts multiple nameservice entries into the local index for backup. The entries are grouped by bucket
+     * and every touched index chunk is put once.
+     *
+     * @param p_keys
+     *         the keys
+     * @param p_chunkIDs
+     *         the ChunkID of every key
+     * @return whether this operation was successful
+     */
+    private boolean insertMappings(final long[] p_keys, final long[] p_chunkIDs) {
+        int buckets = m_indexBucketLocks.length;
+        boolean ret = true;
 
-        if (!m_indexDataRegistered) {
-            m_chunkIndex.registerIndexChunk(m_indexData.getID(), m_indexData.sizeofObject());
+        if (p_keys.length == 1) {
+            return insertIntoBucket(getIndexBucket(p_keys[0]), p_keys, p_chunkIDs, new int[] {0}, 1);
         }
 
-        if (!m_indexData.insertMapping(p_key, p_chunkID)) {
-            // index chunk full, create new one
-            final NameServiceIndexData nextIndexChunk = new NameServiceIndexData();
-            nextIndexChunk.setID(m_chunkIndex.createIndexChunk(nextIndexChunk.sizeofObject()));
+        int[] counts = new int[buckets];
+        int[] bucketOfEntry = new int[p_keys.length];
+        for (int i = 0; i < p_keys.length; i++) {
+            bucketOfEntry[i] = getIndexBucket(p_keys[i]);
+            counts[bucketOfEntry[i]]++;
+        }
 
-            if (nextIndexChunk.getID() == ChunkID.INVALID_ID) {
-                LOGGER.error("Creating next index chunk failed");
+        int[][] indices = new int[buckets][];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            indices[bucket] = new int[counts[bucket]];
+            counts[bucket] = 0;
+        }
+        for (int i = 0; i < p_keys.length; i++) {
+            indices[bucketOfEntry[i]][counts[bucketOfEntry[i]]++] = i;
+        }
 
-                m_indexDataLock.unlock();
-                return false;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (counts[bucket] > 0 && !insertIntoBucket(bucket, p_keys, p_chunkIDs, indices[bucket], counts[bucket])) {
+                ret = false;
             }
+        }
 
-            // link previous to new and update
-            m_indexData.setNextIndexDataChunk(nextIndexChunk.getID());
+        return ret;
+    }
 
-            if (!m_chunkIndex.putIndexChunk(m_indexData)) {
-                LOGGER.error("Updating current index chunk with successor failed");
+    /**
+     * Inserts nameservice entries into one bucket of the local index
+     *
+     * @param p_bucket
+     *         the bucket
+     * @param p_keys
+     *         the keys
+     * @param p_chunkIDs
+     *         the ChunkID of every key
+     * @param p_indices
+     *         the indices of the entries belonging to the bucket
+     * @param p_count
+     *         the number of indices
+     * @return whether this operation was successful
+     */
+    private boolean insertIntoBucket(final int p_bucket, final long[] p_keys, final long[] p_chunkIDs,
+            final int[] p_indices, final int p_count) {
+        m_indexBucketLocks[p_bucket].lock();
+
+        NameServiceIndexData indexData = m_indexBucketTails[p_bucket];
+        if (indexData == null) {
+            // first entry of bucket, create its first index chunk and link it in the directory
+            indexData = createIndexData();
 
-                m_indexDataLock.unlock();
+            if (indexData == null || !setIndexBucketHead(p_bucket, indexData.getID())) {
+                LOGGER.error("Creating first index chunk of bucket %d failed", p_bucket);
+
+                m_indexBucketLocks[p_bucket].unlock();
                 return false;
             }
 
-            m_indexData = nextIndexChunk;
+            m_indexBucketTails[p_bucket] = indexData;
         }
 
-        // insert mapping into current chunk and update
-        m_indexData.insertMapping(p_key, p_chunkID);
+        for (int i = 0; i < p_count; i++) {
+            int index = p_indices[i];
+
+            if (!indexData.insertMapping(p_keys[index], p_chunkIDs[index])) {
+                // index chunk full, create new one
+                final NameServiceIndexData nextIndexChunk = createIndexData();
+
+                if (nextIndexChunk == null) {
+                    LOGGER.error("Creating next index chunk failed");
+
+                    m_indexBucketLocks[p_bucket].unlock();
+                    return false;
+                }
 
-        if (!m_chunkIndex.putIndexChunk(m_indexData)) {
+                // link previous to new and update
+                indexData.setNextIndexDataChunk(nextIndexChunk.getID());
+
+                if (!m_chunkIndex.putIndexChunk(indexData)) {
+                    LOGGER.error("Updating current index chunk with successor failed");
+
+                    m_indexBucketLocks[p_bucket].unlock();
+                    return false;
+                }
+
+                indexData = nextIndexChunk;
+                m_indexBucketTails[p_bucket] = indexData;
+
+                // insert mapping into new chunk
+                indexData.insertMapping(p_keys[index], p_chunkIDs[index]);
+            }
+        }
+
+        // update current chunk once for all mappings inserted into it
+        if (!m_chunkIndex.putIndexChunk(indexData)) {
             LOGGER.error("Updating current index chunk failed");
 
-            m_indexDataLock.unlock();
+            m_indexBucketLocks[p_bucket].unlock();
             return false;
         }
 
-        m_indexDataLock.unlock();
+        m_indexBucketLocks[p_bucket].unlock();
         return true;
     }
+
+    /**
+     * Creates and registers (for backup) a new index chunk
+     *
+     * @return the new index chunk or null on error
+     */
+    private NameServiceIndexData createIndexData() {
+        NameServiceIndexData indexData = new NameServiceIndexData();
+        indexData.setID(m_chunkIndex.createIndexChunk(indexData.sizeofObject()));
+
+        if (indexData.getID() == ChunkID.INVALID_ID) {
+            return null;
+        }
+
+        m_chunkIndex.registerIndexChunk(indexData.getID(), indexData.sizeofObject());
+
+        return indexData;
+    }
+
+    /**
+     * Links the first index chunk of a bucket in the directory chunk
+     *
+     * @param p_bucket
+     *         the bucket
+     * @param p_chunkID
+     *         ChunkID of the first index chunk of the bucket
+     * @return whether this operation was successful
+     */
+    private boolean setIndexBucketHead(final int p_bucket, final long p_chunkID) {
+        synchronized (m_indexDirectory) {
+            if (!m_indexDirectoryRegistered) {
+                m_chunkIndex.registerIndexChunk(m_indexDirectory.getID(), m_indexDirectory.sizeofObject());
+                m_indexDirectoryRegistered = true;
+            }
+
+            m_indexDirectory.setBucketChunkID(p_bucket, p_chunkID);
+
+            return m_chunkIndex.putIndexChunk(m_indexDirectory);
+        }
+    }
+
+    /**
+     * Determines the bucket of the local index for a key
+     *
+     * @param p_key
+     *         the key
+     * @return the bucket
+     */
+    private int getIndexBucket(final long p_key) {
+        // keys of type NAME/INT are not uniformly distributed, mix them
+        return (int) ((p_key * 0x9E3779B97F4A7C15L) >>> 32) & (m_indexBucketLocks.length - 1);
+    }
 }
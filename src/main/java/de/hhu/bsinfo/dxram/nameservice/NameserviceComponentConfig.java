@@ -7,6 +7,7 @@ import lombok.experimental.Accessors;
 import com.google.gson.annotations.Expose;
 
 import de.hhu.bsinfo.dxram.engine.DXRAMComponentConfig;
+import de.hhu.bsinfo.dxram.engine.DXRAMContext;
 
 /**
  * Config for the NameserviceComponent
@@ -19,7 +20,9 @@ import de.hhu.bsinfo.dxram.engine.DXRAMComponentConfig;
 @DXRAMComponentConfig.Settings(component = NameserviceComponent.class, supportsSuperpeer = false, supportsPeer = true)
 public class NameserviceComponentConfig extends DXRAMComponentConfig {
     /**
-     * Type of name service string converter to use to convert name service keys (available: NAME and INT)
+     * Type of name service string converter to use to convert name service keys (available: NAME, INT and HASH).
+     * NAME is limited to five characters, HASH accepts arbitrary keys. With HASH, two different keys registered on
+     * different nodes whose 64-bit IDs collide overwrite each other's mapping (probability about n^2 / 2^64).
      */
     @Expose
     private String m_type = "NAME";
@@ -29,4 +32,34 @@ public class NameserviceComponentConfig extends DXRAMComponentConfig {
      */
     @Expose
     private int m_nameserviceCacheEntries = 1000000;
+
+    /**
+     * Number of buckets of the local nameservice index (power of two). Every bucket is a separate list of index
+     * chunks with its own lock.
+     */
+    @Expose
+    private int m_indexBuckets = 16;
+
+    /**
+     * The maximum number of names registered on this node kept to detect hash collisions and to print names (type
+     * HASH only). The oldest names are dropped first. The names are not restored after a restart or recovery.
+     */
+    @Expose
+    private int m_hashedNamesEntries = 100000;
+
+    @Override
+    protected boolean verify(final DXRAMContext.Config p_config) {
+        if (m_indexBuckets < 1 || m_indexBuckets > 4096 || Integer.bitCount(m_indexBuckets) != 1) {
+            LOGGER.error("Invalid value (%d) for m_indexBuckets, must be a power of two between 1 and 4096",
+                    m_indexBuckets);
+            return false;
+        }
+
+        if (m_hashedNamesEntries < 0) {
+            LOGGER.error("Invalid value (%d) for m_hashedNamesEntries", m_hashedNamesEntries);
+            return false;
+        }
+
+        return true;
+    }
 }
@@ -22,15 +22,22 @@ import de.hhu.bsinfo.dxmem.data.AbstractChunk;
 import de.hhu.bsinfo.dxram.engine.AbstractDXRAMService;
 import de.hhu.bsinfo.dxram.engine.DXRAMComponentAccessor;
 import de.hhu.bsinfo.dxram.engine.DXRAMContext;
+import de.hhu.bsinfo.dxram.lookup.LookupComponent;
 
 /**
  * Nameservice service providing mappings of string identifiers to chunkIDs.
- * Note: The character set and length of the string are limited. Refer to
+ * Note: The character set and length of the string are limited unless type HASH is used. Refer to
  * the convert class for details.
  *
  * @author Stefan Nothaas, stefan.nothaas@hhu.de, 26.01.2016
  */
 public class NameserviceService extends AbstractDXRAMService<NameserviceServiceConfig> {
+    // Cursors for listing entries page by page (see getEntries)
+    public static final long CURSOR_START = LookupComponent.NAMESERVICE_CURSOR_START;
+    public static final long CURSOR_END = LookupComponent.NAMESERVICE_CURSOR_END;
+    public static final long CURSOR_ERROR = LookupComponent.NAMESERVICE_CURSOR_ERROR;
+    public static final int MAX_PAGE_SIZE = LookupComponent.NAMESERVICE_MAX_PAGE_SIZE;
+
     // component dependencies
     private NameserviceComponent m_nameservice;
 
@@ -60,16 +67,40 @@ public class NameserviceService extends AbstractDXRAMService<NameserviceServiceC
     }
 
     /**
-     * Get all available name mappings
+     * Get all available name mappings. Use getEntries to list many mappings page by page.
      *
-     * @return List of available name mappings
+     * @return List of available name mappings or null on error
      */
     public ArrayList<NameserviceEntryStr> getAllEntries() {
         return m_nameservice.getAllEntries();
     }
 
     /**
-     * Register a chunk id for a specific name.
+     * Get one page of the available name mappings. Call with CURSOR_START first and then with the returned cursor
+     * until CURSOR_END is returned. Pages might contain fewer mappings (even none) than requested although more
+     * are left. Mappings registered while iterating might be missed or returned twice.
+     *
+     * @param p_cursor
+     *         CURSOR_START for the first page or the cursor returned for the previous page
+     * @param p_pageSize
+     *         Maximum number of mappings of the page (at most MAX_PAGE_SIZE)
+     * @param p_prefix
+     *         Only include names starting with this prefix (null for all). Hashed names (type HASH) can only be
+     *         matched if they were registered on this node.
+     * @param p_entries
+     *         List to add the mappings of the page to
+     * @return Cursor for the next page, CURSOR_END if all mappings were returned or CURSOR_ERROR on error
+     */
+    public long getEntries(final long p_cursor, final int p_pageSize, final String p_prefix,
+            final ArrayList<NameserviceEntryStr> p_entries) {
+        return m_nameservice.getEntries(p_cursor, p_pageSize, p_prefix, p_entries);
+    }
+
+    /**
+     * Register a chunk id for a specific name. With converter type HASH, names are stored as 64-bit hashes. A
+     * collision with a name registered on this node is detected and the registration is refused (as long as that
+     * name is still remembered, see m_hashedNamesEntries). Colliding names registered on different nodes are not
+     * detected and overwrite each other's mapping.
      *
      * @param p_chunkId
      *         Chunk id to register.
@@ -106,6 +137,52 @@ public class NameserviceService extends AbstractDXRAMService<NameserviceServiceC
         return m_nameservice.getChunkID(p_name, p_timeoutMs);
     }
 
+    /**
+     * Register multiple chunk ids for specific names in batches. Hash collisions are handled like in register.
+     *
+     * @param p_names
+     *         Names to associate with the chunk ids.
+     * @param p_chunkIDs
+     *         Chunk id of every name.
+     */
+    public void registerAll(final String[] p_names, final long[] p_chunkIDs) {
+        m_nameservice.registerAll(p_names, p_chunkIDs);
+    }
+
+    /**
+     * Get the chunk IDs of multiple names from the service in batches.
+     *
+     * @param p_names
+     *         Registered names to get the chunk IDs for.
+     * @param p_timeoutMs
+     *         Timeout for trying to get the entries (if they do not exist, yet).
+     *         set this to -1 for infinite loop if you know for sure, that all entries have to exist
+     * @return The chunk ID of every name or -1 for names that are not registered.
+     */
+    public long[] getChunkIDs(final String[] p_names, final int p_timeoutMs) {
+        return m_nameservice.getChunkIDs(p_names, p_timeoutMs);
+    }
+
+    /**
+     * Get the directory chunk of the local nameservice index (needed to restore the entries of this node).
+     *
+     * @return ChunkID of the index directory chunk.
+     */
+    public long getIndexDirectoryChunkID() {
+        return m_nameservice.getIndexDirectoryChunkID();
+    }
+
+    /**
+     * Restore nameservice entries from a recovered nameservice index (e.g. of a failed peer).
+     *
+     * @param p_directoryChunkID
+     *         ChunkID of the index directory chunk (must be stored on this node).
+     * @return Number of restored entries or -1 on error.
+     */
+    public int restoreIndex(final long p_directoryChunkID) {
+        return m_nameservice.restoreIndex(p_directoryChunkID);
+    }
+
     @Override
     protected boolean supportsSuperpeer() {
         return false;
@@ -20,6 +20,7 @@ import de.hhu.bsinfo.dxram.engine.AbstractDXRAMService;
 import de.hhu.bsinfo.dxram.engine.DXRAMComponentAccessor;
 import de.hhu.bsinfo.dxram.engine.DXRAMContext;
 import de.hhu.bsinfo.dxram.lookup.LookupComponent;
+import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierReduction;
 import de.hhu.bsinfo.dxram.lookup.overlay.storage.BarrierStatus;
 
 /**
@@ -103,6 +104,62 @@ public class SynchronizationService extends AbstractDXRAMService<Synchronization
         return m_lookup.barrierSignOn(p_barrierId, p_customData, p_waitForRelease);
     }
 
+    /**
+     * Sign on to a barrier and wait for it getting released. Instead of every peer signing on at the superpeer, the
+     * participants are arranged in a tree (fan out configurable) and only the root contacts the superpeer. Use this
+     * for barriers with many participants. All participants must pass the same set of participants.
+     *
+     * @param p_barrierId
+     *         Id of the barrier to sign on to.
+     * @param p_customData
+     *         Custom data to pass along with the sign on
+     * @param p_participants
+     *         Node ids of all peers signing on to the barrier (including this one)
+     * @return BarrierStatus, null on error like barrier does not exist
+     */
+    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData, final short[] p_participants) {
+        return barrierSignOn(p_barrierId, p_customData, p_participants, BarrierReduction.NONE);
+    }
+
+    /**
+     * Sign on to a barrier and wait for it getting released. The custom data of all peers is reduced (e.g. sum of
+     * local results or convergence flags) on the superpeer as the sign ons arrive and every peer gets the reduced
+     * value only (BarrierStatus.getReducedValue) instead of the custom data of all peers.
+     *
+     * @param p_barrierId
+     *         Id of the barrier to sign on to.
+     * @param p_customData
+     *         Custom data to reduce
+     * @param p_reduction
+     *         Reduction to apply, must be the same for all peers signing on
+     * @return BarrierStatus with the reduced value, null on error like barrier does not exist
+     */
+    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData,
+            final BarrierReduction p_reduction) {
+        return m_lookup.barrierSignOn(p_barrierId, p_customData, p_reduction);
+    }
+
+    /**
+     * Sign on to a barrier using a combining tree over the participants and reduce the custom data of
+     * all peers. Every peer in the tree passes on the reduced value of its subtree only.
+     *
+     * @param p_barrierId
+     *         Id of the barrier to sign on to.
+     * @param p_customData
+     *         Custom data to reduce
+     * @param p_participants
+     *         Node ids of all peers signing on to the barrier (including this one)
+     * @param p_reduction
+     *         Reduction to apply, must be the same for all peers signing on
+     * @return BarrierStatus with the reduced value, null on error like barrier does not exist or if a peer of the
+     * tree did not sign on in time
+     */
+    public BarrierStatus barrierSignOn(final int p_barrierId, final long p_customData, final short[] p_participants,
+            final BarrierReduction p_reduction) {
+        return m_lookup.barrierSignOn(p_barrierId, p_customData, p_participants, getConfig().getBarrierTreeFanOut(),
+                p_reduction, getConfig().getBarrierTreeTimeout().getMs());
+    }
+
     /**
      * Get the status of a specific barrier.
      *
@@ -8,6 +8,7 @@ import com.google.gson.annotations.Expose;
 
 import de.hhu.bsinfo.dxram.engine.DXRAMContext;
 import de.hhu.bsinfo.dxram.engine.DXRAMServiceConfig;
+import de.hhu.bsinfo.dxutils.unit.TimeUnit;
 
 /**
  * Config for the SynchronizationService
@@ -27,6 +28,19 @@ public class SynchronizationServiceConfig extends DXRAMServiceConfig {
     @Expose
     private int m_maxBarriersPerSuperpeer = 1000;
 
+    /**
+     * Max number of children of a peer when signing on to a barrier using a combining tree
+     */
+    @Expose
+    private int m_barrierTreeFanOut = 8;
+
+    /**
+     * Max time a peer of a combining tree waits for the sign ons of its children and for the release (each).
+     * On timeout, the sign on fails and the failure is passed down the tree.
+     */
+    @Expose
+    private TimeUnit m_barrierTreeTimeout = new TimeUnit(60, TimeUnit.SEC);
+
     @Override
     protected boolean verify(final DXRAMContext.Config p_config) {
         if (m_maxBarriersPerSuperpeer < 0) {
@@ -39,6 +53,16 @@ public class SynchronizationServiceConfig extends DXRAMServiceConfig {
             return false;
         }
 
+        if (m_barrierTreeFanOut < 2) {
+            LOGGER.error("Invalid value m_barrierTreeFanOut: %d", m_barrierTreeFanOut);
+            return false;
+        }
+
+        if (m_barrierTreeTimeout.getMs() <= 0) {
+            LOGGER.error("Invalid value m_barrierTreeTimeout: %d", m_barrierTreeTimeout.getMs());
+            return false;
+        }
+
         return true;
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.chunk.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+
+import static org.junit.Assert.*;
+
+public class ChunkByteBufferTest {
+
+    // larger than the copy slice to cover multiple slices
+    private static final int SIZE = 10000;
+
+    private static ByteBuffer pattern(final ByteBuffer p_buffer, final int p_seed) {
+        for (int i = 0; i < p_buffer.limit(); i++) {
+            p_buffer.put(i, (byte) (i * 31 + p_seed));
+        }
+
+        return p_buffer;
+    }
+
+    private static void roundTrip(final ByteBuffer p_source, final ByteBuffer p_target) {
+        byte[] transfer = new byte[SIZE];
+
+        new ByteBufferImExporter(ByteBuffer.wrap(transfer)).exportObject(new ChunkByteBuffer(1, p_source));
+        new ByteBufferImExporter(ByteBuffer.wrap(transfer)).importObject(new ChunkByteBuffer(1, p_target));
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(p_source.get(i), p_target.get(i));
+        }
+    }
+
+    @Test
+    public void heapToDirect() {
+        roundTrip(pattern(ByteBuffer.allocate(SIZE), 1), ByteBuffer.allocateDirect(SIZE));
+    }
+
+    @Test
+    public void directToHeap() {
+        roundTrip(pattern(ByteBuffer.allocateDirect(SIZE), 2), ByteBuffer.allocate(SIZE));
+    }
+
+    @Test
+    public void readOnlyToHeap() {
+        roundTrip(pattern(ByteBuffer.allocate(SIZE), 3).asReadOnlyBuffer(), ByteBuffer.allocate(SIZE));
+        roundTrip(pattern(ByteBuffer.allocateDirect(SIZE), 4).asReadOnlyBuffer(), ByteBuffer.allocateDirect(SIZE));
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void importToReadOnly() {
+        byte[] transfer = new byte[SIZE];
+
+        new ByteBufferImExporter(ByteBuffer.wrap(transfer)).importObject(
+                new ChunkByteBuffer(1, ByteBuffer.allocate(SIZE).asReadOnlyBuffer()));
+    }
+
+    @Test
+    public void movedWindow() {
+        ByteBuffer records = ByteBuffer.allocateDirect(4 * Long.BYTES);
+        ChunkByteBuffer record = new ChunkByteBuffer(1, records, 0, Long.BYTES);
+        byte[] transfer = new byte[Long.BYTES];
+
+        for (int i = 0; i < 4; i++) {
+            ByteBuffer.wrap(transfer).putLong(0, i + 100);
+            record.moveTo(i + 1, i * Long.BYTES);
+            new ByteBufferImExporter(ByteBuffer.wrap(transfer)).importObject(record);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 100, records.getLong(i * Long.BYTES));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.chunk.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxram.chunk.data.ScanPredicate.FieldType;
+import de.hhu.bsinfo.dxram.chunk.data.ScanPredicate.Operator;
+
+import static org.junit.Assert.*;
+
+public class ScanPredicateTest {
+
+    private static byte[] intPayload(final int p_value) {
+        return ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.nativeOrder()).putInt(p_value).array();
+    }
+
+    private static boolean matches(final int p_field, final Operator p_operator, final double p_value) {
+        return ScanPredicate.compare(FieldType.INT, 0, p_operator, p_value).evaluate(intPayload(p_field));
+    }
+
+    @Test
+    public void integralFieldWithFraction() {
+        assertTrue(matches(2, Operator.LESS, 2.5));
+        assertFalse(matches(3, Operator.LESS, 2.5));
+        assertTrue(matches(2, Operator.LESS_EQUALS, 2.5));
+        assertFalse(matches(3, Operator.LESS_EQUALS, 2.5));
+        assertTrue(matches(3, Operator.GREATER, 2.5));
+        assertFalse(matches(2, Operator.GREATER, 2.5));
+        assertTrue(matches(3, Operator.GREATER_EQUALS, 2.5));
+        assertFalse(matches(2, Operator.GREATER_EQUALS, 2.5));
+
+        assertFalse(matches(2, Operator.EQUALS, 2.5));
+        assertFalse(matches(3, Operator.EQUALS, 2.5));
+        assertTrue(matches(2, Operator.NOT_EQUALS, 2.5));
+    }
+
+    @Test
+    public void integralFieldWithNegativeFraction() {
+        assertTrue(matches(-3, Operator.LESS, -2.5));
+        assertFalse(matches(-2, Operator.LESS, -2.5));
+        assertTrue(matches(-2, Operator.GREATER, -2.5));
+        assertFalse(matches(-3, Operator.GREATER, -2.5));
+        assertTrue(matches(-2, Operator.GREATER_EQUALS, -2.5));
+        assertFalse(matches(-3, Operator.GREATER_EQUALS, -2.5));
+    }
+
+    @Test
+    public void integralFieldWithIntegralDouble() {
+        assertTrue(matches(2, Operator.EQUALS, 2.0));
+        assertTrue(matches(2, Operator.LESS_EQUALS, 2.0));
+        assertFalse(matches(2, Operator.LESS, 2.0));
+    }
+
+    @Test
+    public void integralFieldOutOfRange() {
+        assertTrue(matches(Integer.MAX_VALUE, Operator.LESS, 1e30));
+        assertFalse(matches(Integer.MAX_VALUE, Operator.GREATER, 1e30));
+        assertTrue(matches(Integer.MIN_VALUE, Operator.GREATER, -1e30));
+        assertFalse(matches(0, Operator.EQUALS, Double.NaN));
+        assertFalse(matches(0, Operator.LESS, Double.NaN));
+        assertTrue(matches(0, Operator.NOT_EQUALS, Double.NaN));
+    }
+
+    @Test
+    public void fieldExceedingPayload() {
+        assertFalse(ScanPredicate.compare(FieldType.LONG, 0, Operator.NOT_EQUALS, 2.5).evaluate(intPayload(1)));
+    }
+}
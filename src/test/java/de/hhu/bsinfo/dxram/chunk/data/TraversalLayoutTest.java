@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.chunk.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxutils.ArrayListLong;
+
+import static org.junit.Assert.*;
+
+public class TraversalLayoutTest {
+
+    private static byte[] payload(final int p_count, final long... p_neighbors) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + p_neighbors.length * Long.BYTES)
+                .order(ByteOrder.nativeOrder());
+        buffer.putInt(p_count);
+
+        for (long neighbor : p_neighbors) {
+            buffer.putLong(neighbor);
+        }
+
+        return buffer.array();
+    }
+
+    @Test
+    public void countField() {
+        ArrayListLong neighbors = new ArrayListLong();
+
+        TraversalLayout.withCountField(0, Integer.BYTES).readNeighbors(payload(2, 10, -1, 30), neighbors);
+        assertEquals(1, neighbors.getSize());
+        assertEquals(10, neighbors.get(0));
+    }
+
+    @Test
+    public void countExceedingPayload() {
+        ArrayListLong neighbors = new ArrayListLong();
+
+        TraversalLayout.withCountField(0, Integer.BYTES).readNeighbors(payload(Integer.MAX_VALUE, 10, 20),
+                neighbors);
+        assertEquals(2, neighbors.getSize());
+
+        neighbors = new ArrayListLong();
+        TraversalLayout.withCountField(0, Integer.BYTES).readNeighbors(payload(-5, 10, 20), neighbors);
+        assertEquals(0, neighbors.getSize());
+
+        neighbors = new ArrayListLong();
+        TraversalLayout.withCountField(100, Integer.BYTES).readNeighbors(payload(2, 10, 20), neighbors);
+        assertEquals(0, neighbors.getSize());
+
+        neighbors = new ArrayListLong();
+        TraversalLayout.withFixedCount(3, Integer.MAX_VALUE - 4).readNeighbors(payload(2, 10, 20), neighbors);
+        assertEquals(0, neighbors.getSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeOffset() {
+        TraversalLayout.withFixedCount(1, -8);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.chunk.operation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxmem.data.ChunkState;
+import de.hhu.bsinfo.dxutils.NodeID;
+
+import static org.junit.Assert.*;
+
+public class BulkRecordsTest {
+
+    private static final short LOCAL = 0x1000;
+    private static final short PEER_A = 0x2000;
+    private static final short PEER_B = 0x3000;
+
+    /**
+     * Nodes with their stored chunks, the owners known to the lookup and unreachable peers
+     */
+    private static class FakeAccess implements BulkRecords.Access {
+        private final Set<Long> m_localChunks = new HashSet<>();
+        private final Map<Short, Set<Long>> m_remoteChunks = new HashMap<>();
+        private final Map<Long, Short> m_owners = new HashMap<>();
+        private final Set<Short> m_unreachable = new HashSet<>();
+
+        private final List<Integer> m_batchSizes = new ArrayList<>();
+        private final List<Long> m_invalidated = new ArrayList<>();
+        private final List<Long> m_relookups = new ArrayList<>();
+        // owners known to the responsible superpeer, if different from the (cached) m_owners
+        private final Map<Long, Short> m_currentOwners = new HashMap<>();
+
+        private void store(final short p_node, final long p_chunkID) {
+            if (p_node == LOCAL) {
+                m_localChunks.add(p_chunkID);
+            } else {
+                m_remoteChunks.computeIfAbsent(p_node, k -> new HashSet<>()).add(p_chunkID);
+            }
+
+            m_owners.put(p_chunkID, p_node);
+        }
+
+        @Override
+        public ChunkState local(final long p_chunkID, final int p_index) {
+            return m_localChunks.contains(p_chunkID) ? ChunkState.OK : ChunkState.DOES_NOT_EXIST;
+        }
+
+        @Override
+        public short getOwner(final long p_chunkID) {
+            Short owner = m_owners.get(p_chunkID);
+
+            return owner != null ? owner : NodeID.INVALID_ID;
+        }
+
+        @Override
+        public long[] remote(final short p_peer, final long[] p_chunkIDs, final int[] p_indices) {
+            m_batchSizes.add(p_chunkIDs.length);
+
+            if (m_unreachable.contains(p_peer)) {
+                return null;
+            }
+
+            long[] status = new long[(p_chunkIDs.length + Long.SIZE - 1) / Long.SIZE];
+            Set<Long> stored = m_remoteChunks.getOrDefault(p_peer, new HashSet<>());
+
+            for (int i = 0; i < p_chunkIDs.length; i++) {
+                assertEquals(p_chunkIDs[i], chunk(p_indices[i]));
+
+                if (stored.contains(p_chunkIDs[i])) {
+                    status[i >>> 6] |= 1L << i;
+                }
+            }
+
+            return status;
+        }
+
+        @Override
+        public void invalidate(final long[] p_chunkIDs) {
+            for (long chunkID : p_chunkIDs) {
+                m_invalidated.add(chunkID);
+            }
+        }
+
+        @Override
+        public short relookupOwner(final long p_chunkID, final short p_failedPeer) {
+            m_relookups.add(p_chunkID);
+
+            Short owner = m_currentOwners.get(p_chunkID);
+
+            return owner != null && owner != p_failedPeer ? owner : NodeID.INVALID_ID;
+        }
+    }
+
+    private static long chunk(final int p_index) {
+        return ChunkID.getChunkID(PEER_A, p_index + 1);
+    }
+
+    private static long[] chunks(final int p_count) {
+        long[] chunkIDs = new long[p_count];
+
+        for (int i = 0; i < p_count; i++) {
+            chunkIDs[i] = chunk(i);
+        }
+
+        return chunkIDs;
+    }
+
+    private static boolean isSet(final long[] p_status, final int p_index) {
+        return (p_status[p_index >>> 6] & 1L << p_index) != 0;
+    }
+
+    @Test
+    public void mixedLocalAndRemote() {
+        FakeAccess access = new FakeAccess();
+        long[] chunkIDs = chunks(4);
+
+        access.store(LOCAL, chunkIDs[0]);
+        access.store(PEER_A, chunkIDs[1]);
+        access.store(PEER_B, chunkIDs[2]);
+        access.store(LOCAL, chunkIDs[3]);
+
+        long[] status = new long[1];
+
+        assertEquals(4, BulkRecords.transfer(access, LOCAL, chunkIDs, 64, status));
+        assertEquals(0xFL, status[0]);
+        assertEquals(2, access.m_batchSizes.size());
+        assertTrue(access.m_invalidated.isEmpty());
+        assertTrue(access.m_relookups.isEmpty());
+    }
+
+    @Test
+    public void missingChunks() {
+        FakeAccess access = new FakeAccess();
+        long[] chunkIDs = chunks(3);
+
+        access.store(LOCAL, chunkIDs[0]);
+        // unknown to the lookup
+        // known to the lookup but removed on the owner
+        access.m_owners.put(chunkIDs[2], PEER_A);
+
+        long[] status = new long[1];
+
+        assertEquals(1, BulkRecords.transfer(access, LOCAL, chunkIDs, 64, status));
+        assertTrue(isSet(status, 0));
+        assertFalse(isSet(status, 1));
+        assertFalse(isSet(status, 2));
+        assertEquals(1, access.m_batchSizes.size());
+        assertEquals(1, access.m_relookups.size());
+        assertEquals(chunkIDs[2], (long) access.m_relookups.get(0));
+    }
+
+    @Test
+    public void staleOwnerRetriedOnce() {
+        FakeAccess access = new FakeAccess();
+        long[] chunkIDs = chunks(3);
+
+        // chunk 0 moved from A to B, chunk 1 is not stored on the owner the superpeer reports, chunk 2 is on A
+        access.store(PEER_B, chunkIDs[0]);
+        access.m_owners.put(chunkIDs[0], PEER_A);
+        access.m_currentOwners.put(chunkIDs[0], PEER_B);
+        access.m_owners.put(chunkIDs[1], PEER_A);
+        access.m_currentOwners.put(chunkIDs[1], PEER_B);
+        access.store(PEER_A, chunkIDs[2]);
+
+        long[] status = new long[1];
+
+        assertEquals(2, BulkRecords.transfer(access, LOCAL, chunkIDs, 64, status));
+        assertEquals(0x5L, status[0]);
+        // A, then B for the retried chunks
+        assertEquals(2, access.m_batchSizes.size());
+        assertEquals(2, access.m_relookups.size());
+        // no further lookup after the retry
+        assertEquals(1, access.m_invalidated.size());
+        assertEquals(chunkIDs[1], (long) access.m_invalidated.get(0));
+    }
+
+    @Test
+    public void invalidIDsSkipped() {
+        FakeAccess access = new FakeAccess();
+        long[] chunkIDs = chunks(2);
+
+        access.store(LOCAL, chunkIDs[1]);
+        chunkIDs[0] = ChunkID.INVALID_ID;
+
+        long[] status = new long[1];
+
+        assertEquals(1, BulkRecords.transfer(access, LOCAL, chunkIDs, 64, status));
+        assertEquals(0x2L, status[0]);
+        assertTrue(access.m_batchSizes.isEmpty());
+    }
+
+    @Test
+    public void partialFailure() {
+        FakeAccess access = new FakeAccess();
+        long[] chunkIDs = chunks(4);
+
+        access.store(PEER_A, chunkIDs[0]);
+        access.store(PEER_B, chunkIDs[1]);
+        access.store(PEER_A, chunkIDs[2]);
+        access.store(PEER_B, chunkIDs[3]);
+        access.m_unreachable.add(PEER_B);
+
+        long[] status = new long[1];
+
+        assertEquals(2, BulkRecords.transfer(access, LOCAL, chunkIDs, 64, status));
+        assertEquals(0x5L, status[0]);
+        assertEquals(2, access.m_invalidated.size());
+        assertTrue(access.m_invalidated.contains(chunkIDs[1]));
+        assertTrue(access.m_invalidated.contains(chunkIDs[3]));
+        assertTrue(access.m_relookups.isEmpty());
+    }
+
+    @Test
+    public void batchesLimitedByMessageSize() {
+        FakeAccess access = new FakeAccess();
+        int recordSize = BulkRecords.MAX_BYTES_PER_MESSAGE / 4;
+        long[] chunkIDs = chunks(10);
+
+        for (long chunkID : chunkIDs) {
+            access.store(PEER_A, chunkID);
+        }
+
+        long[] status = new long[1];
+
+        assertEquals(10, BulkRecords.transfer(access, LOCAL, chunkIDs, recordSize, status));
+        assertEquals(0x3FFL, status[0]);
+        assertEquals(3, access.m_batchSizes.size());
+        assertEquals(4, (int) access.m_batchSizes.get(0));
+        assertEquals(4, (int) access.m_batchSizes.get(1));
+        assertEquals(2, (int) access.m_batchSizes.get(2));
+    }
+
+    @Test
+    public void recordLargerThanMessage() {
+        FakeAccess access = new FakeAccess();
+        long[] chunkIDs = chunks(2);
+
+        access.store(PEER_A, chunkIDs[0]);
+        access.store(PEER_A, chunkIDs[1]);
+
+        long[] status = new long[1];
+
+        assertEquals(2, BulkRecords.transfer(access, LOCAL, chunkIDs, BulkRecords.MAX_BYTES_PER_MESSAGE * 2, status));
+        assertEquals(2, access.m_batchSizes.size());
+    }
+
+    @Test
+    public void manyRecordsStatusBitmap() {
+        FakeAccess access = new FakeAccess();
+        long[] chunkIDs = chunks(130);
+
+        for (int i = 0; i < chunkIDs.length; i++) {
+            access.store(i % 2 == 0 ? LOCAL : PEER_B, chunkIDs[i]);
+        }
+
+        long[] status = new long[3];
+
+        assertEquals(130, BulkRecords.transfer(access, LOCAL, chunkIDs, 8, status));
+        assertEquals(-1L, status[0]);
+        assertEquals(-1L, status[1]);
+        assertEquals(0x3L, status[2]);
+    }
+
+    @Test
+    public void migratedToCurrentNode() {
+        FakeAccess access = new FakeAccess() {
+            private boolean m_first = true;
+
+            @Override
+            public ChunkState local(final long p_chunkID, final int p_index) {
+                // not there on the first access, migrated to the current node before the lookup
+                if (m_first) {
+                    m_first = false;
+
+                    return ChunkState.DOES_NOT_EXIST;
+                }
+
+                return ChunkState.OK;
+            }
+        };
+        long[] chunkIDs = chunks(1);
+
+        access.m_owners.put(chunkIDs[0], LOCAL);
+
+        long[] status = new long[1];
+
+        assertEquals(1, BulkRecords.transfer(access, LOCAL, chunkIDs, 64, status));
+        assertEquals(0x1L, status[0]);
+        assertTrue(access.m_batchSizes.isEmpty());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.chunk.operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxutils.NodeID;
+
+import static org.junit.Assert.*;
+
+public class TraversalRoundsTest {
+
+    private static final short PEER_A = 0x1000;
+    private static final short PEER_B = 0x2000;
+    private static final short PEER_C = 0x3000;
+
+    private static final long CHUNK_1 = ChunkID.getChunkID(PEER_A, 1);
+    private static final long CHUNK_2 = ChunkID.getChunkID(PEER_B, 2);
+    private static final long CHUNK_3 = ChunkID.getChunkID(PEER_B, 3);
+    private static final long CHUNK_4 = ChunkID.getChunkID(PEER_C, 4);
+
+    /**
+     * Peers of a chain 1 -> 2 -> 3 -> 4 with cached (possibly outdated) and actual locations
+     */
+    private static final class FakePeers implements TraversalRounds.Peers {
+        private final Map<Long, long[]> m_neighbors = new HashMap<>();
+        private final Map<Long, Short> m_owners = new HashMap<>();
+        private final Map<Long, Short> m_cachedOwners = new HashMap<>();
+        private final List<Long> m_invalidated = new ArrayList<>();
+
+        private FakePeers() {
+            m_neighbors.put(CHUNK_1, new long[] {CHUNK_2});
+            m_neighbors.put(CHUNK_2, new long[] {CHUNK_3});
+            m_neighbors.put(CHUNK_3, new long[] {CHUNK_4});
+            m_neighbors.put(CHUNK_4, new long[0]);
+
+            m_owners.put(CHUNK_1, PEER_A);
+            m_owners.put(CHUNK_2, PEER_B);
+            m_owners.put(CHUNK_3, PEER_B);
+            m_owners.put(CHUNK_4, PEER_C);
+        }
+
+        @Override
+        public short getOwner(final long p_chunkID) {
+            Short owner = m_cachedOwners.get(p_chunkID);
+
+            if (owner == null) {
+                owner = m_owners.get(p_chunkID);
+            }
+
+            return owner != null ? owner : NodeID.INVALID_ID;
+        }
+
+        @Override
+        public void invalidate(final long p_chunkID) {
+            m_invalidated.add(p_chunkID);
+            m_cachedOwners.remove(p_chunkID);
+        }
+
+        @Override
+        public boolean traverse(final short p_peer, final long[] p_chunkIDs, final int[] p_depths,
+                final Map<Long, Integer> p_visited, final Map<Long, Integer> p_frontier) {
+            for (int i = 0; i < p_chunkIDs.length; i++) {
+                Short owner = m_owners.get(p_chunkIDs[i]);
+
+                if (owner == null || owner != p_peer) {
+                    // not stored on this peer (anymore)
+                    continue;
+                }
+
+                p_visited.merge(p_chunkIDs[i], p_depths[i], Math::max);
+
+                if (p_depths[i] > 0) {
+                    for (long neighbor : m_neighbors.get(p_chunkIDs[i])) {
+                        p_frontier.merge(neighbor, p_depths[i] - 1, Math::max);
+                    }
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private static long[] sorted(final long... p_chunkIDs) {
+        long[] ret = Arrays.copyOf(p_chunkIDs, p_chunkIDs.length);
+        Arrays.sort(ret);
+
+        return ret;
+    }
+
+    @Test
+    public void chain() {
+        FakePeers peers = new FakePeers();
+
+        assertArrayEquals(sorted(CHUNK_1, CHUNK_2, CHUNK_3, CHUNK_4),
+                sorted(TraversalRounds.traverse(peers, 10, new long[] {CHUNK_1})));
+        assertArrayEquals(sorted(CHUNK_1, CHUNK_2),
+                sorted(TraversalRounds.traverse(peers, 1, new long[] {CHUNK_1})));
+        assertArrayEquals(new long[] {CHUNK_1}, TraversalRounds.traverse(peers, 0, new long[] {CHUNK_1}));
+        assertTrue(peers.m_invalidated.isEmpty());
+    }
+
+    @Test
+    public void migratedNeighbor() {
+        FakePeers peers = new FakePeers();
+
+        // chunk 3 migrated from B to C, the cache still points to B
+        peers.m_owners.put(CHUNK_3, PEER_C);
+        peers.m_cachedOwners.put(CHUNK_3, PEER_B);
+
+        assertArrayEquals(sorted(CHUNK_1, CHUNK_2, CHUNK_3, CHUNK_4),
+                sorted(TraversalRounds.traverse(peers, 10, new long[] {CHUNK_1})));
+        assertEquals(Arrays.asList(CHUNK_3), peers.m_invalidated);
+    }
+
+    @Test
+    public void removedNeighbor() {
+        FakePeers peers = new FakePeers();
+
+        // chunk 3 was removed: looked up again once, then skipped
+        peers.m_owners.remove(CHUNK_3);
+        peers.m_cachedOwners.put(CHUNK_3, PEER_B);
+
+        assertArrayEquals(sorted(CHUNK_1, CHUNK_2),
+                sorted(TraversalRounds.traverse(peers, 10, new long[] {CHUNK_1})));
+        assertEquals(Arrays.asList(CHUNK_3), peers.m_invalidated);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BarrierTreeTest {
+
+    private static final int[] FAN_OUTS = {2, 3, 8, 16};
+    private static final int[] PARTICIPANTS = {1, 2, 3, 7, 8, 9, 17, 64, 100, 1000};
+
+    @Test
+    public void smallTree() {
+        // 0 -> 1, 2; 1 -> 3, 4; 2 -> 5
+        assertEquals(-1, BarrierTree.getParent(0, 2));
+        assertEquals(0, BarrierTree.getParent(1, 2));
+        assertEquals(0, BarrierTree.getParent(2, 2));
+        assertEquals(1, BarrierTree.getParent(4, 2));
+        assertEquals(2, BarrierTree.getParent(5, 2));
+
+        assertEquals(1, BarrierTree.getFirstChild(0, 2, 6));
+        assertEquals(2, BarrierTree.getNumberOfChildren(0, 2, 6));
+        assertEquals(3, BarrierTree.getFirstChild(1, 2, 6));
+        assertEquals(2, BarrierTree.getNumberOfChildren(1, 2, 6));
+        assertEquals(5, BarrierTree.getFirstChild(2, 2, 6));
+        assertEquals(1, BarrierTree.getNumberOfChildren(2, 2, 6));
+        assertEquals(0, BarrierTree.getNumberOfChildren(3, 2, 6));
+    }
+
+    @Test
+    public void singleParticipant() {
+        assertEquals(-1, BarrierTree.getParent(0, 8));
+        assertEquals(0, BarrierTree.getNumberOfChildren(0, 8, 1));
+    }
+
+    @Test
+    public void childrenAndParentsMatch() {
+        for (int fanOut : FAN_OUTS) {
+            for (int numParticipants : PARTICIPANTS) {
+                int[] parentOf = new int[numParticipants];
+                Arrays.fill(parentOf, -1);
+
+                for (int i = 0; i < numParticipants; i++) {
+                    int firstChild = BarrierTree.getFirstChild(i, fanOut, numParticipants);
+                    int numChildren = BarrierTree.getNumberOfChildren(i, fanOut, numParticipants);
+
+                    assertTrue(numChildren >= 0 && numChildren <= fanOut);
+                    assertTrue(firstChild + numChildren <= numParticipants);
+
+                    for (int child = firstChild; child < firstChild + numChildren; child++) {
+                        // every participant is the child of a single parent
+                        assertEquals(-1, parentOf[child]);
+                        parentOf[child] = i;
+                        assertEquals(i, BarrierTree.getParent(child, fanOut));
+                    }
+                }
+
+                // every participant but the root is in the tree
+                assertEquals(-1, parentOf[0]);
+                for (int i = 1; i < numParticipants; i++) {
+                    assertTrue(parentOf[i] < i);
+                    assertEquals(BarrierTree.getParent(i, fanOut), parentOf[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void logarithmicDepth() {
+        for (int fanOut : FAN_OUTS) {
+            for (int numParticipants : PARTICIPANTS) {
+                int maxDepth = 0;
+                int capacity = 1;
+                while (capacity < numParticipants) {
+                    capacity = capacity * fanOut + 1;
+                    maxDepth++;
+                }
+
+                for (int i = 0; i < numParticipants; i++) {
+                    int depth = 0;
+                    for (int node = i; node != 0; node = BarrierTree.getParent(node, fanOut)) {
+                        depth++;
+                    }
+
+                    assertTrue(depth <= maxDepth);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void largeIndex() {
+        // the first child must not overflow for large indices
+        assertEquals(Short.MAX_VALUE, BarrierTree.getFirstChild(Short.MAX_VALUE - 1, Integer.MAX_VALUE,
+                Short.MAX_VALUE));
+        assertEquals(0, BarrierTree.getNumberOfChildren(Short.MAX_VALUE - 1, Integer.MAX_VALUE, Short.MAX_VALUE));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.overlay.cache;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+
+import static org.junit.Assert.*;
+
+public class ApplicationIDCacheTest {
+
+    @Test
+    public void putGetUpdate() {
+        ApplicationIDCache cache = new ApplicationIDCache(1000, 10000);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, ChunkID.getChunkID((short) 1, i));
+        }
+
+        assertEquals(1000, cache.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ChunkID.getChunkID((short) 1, i), cache.get(i));
+        }
+
+        cache.update(5, ChunkID.getChunkID((short) 2, 5));
+        cache.update(5000, ChunkID.getChunkID((short) 2, 5000));
+        assertEquals(ChunkID.getChunkID((short) 2, 5), cache.get(5));
+        assertEquals(ChunkID.INVALID_ID, cache.get(5000));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(ChunkID.INVALID_ID, cache.get(5));
+    }
+
+    @Test
+    public void updateAll() {
+        ApplicationIDCache cache = new ApplicationIDCache(1000, 10000);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, ChunkID.getChunkID((short) 1, i));
+        }
+
+        long[] ids = new long[200];
+        long[] chunkIDs = new long[200];
+        for (int i = 0; i < 200; i++) {
+            ids[i] = i * 2;
+            chunkIDs[i] = ChunkID.getChunkID((short) 2, i * 2);
+        }
+
+        cache.updateAll(ids, chunkIDs);
+
+        // only cached mappings are replaced
+        assertEquals(100, cache.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(ChunkID.getChunkID((short) (i % 2 == 0 ? 2 : 1), i), cache.get(i));
+        }
+        assertEquals(ChunkID.INVALID_ID, cache.get(150));
+    }
+
+    @Test
+    public void evictionKeepsBound() {
+        ApplicationIDCache cache = new ApplicationIDCache(64, 10000);
+
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i * 7919, i);
+        }
+
+        // an insert into an empty stripe never evicts, so the bound may be exceeded by the number of stripes
+        assertTrue(cache.size() >= 64 && cache.size() <= 64 + 16);
+
+        // all remaining entries must still be reachable after the backward shifts of the evictions
+        int found = 0;
+        for (int i = 0; i < 10000; i++) {
+            long chunkID = cache.get(i * 7919);
+            if (chunkID != ChunkID.INVALID_ID) {
+                assertEquals(i, chunkID);
+                found++;
+            }
+        }
+
+        assertEquals(cache.size(), found);
+    }
+
+    @Test
+    public void expiredEntry() throws InterruptedException {
+        ApplicationIDCache cache = new ApplicationIDCache(16, 1);
+
+        cache.put(42, 4711);
+        Thread.sleep(10);
+
+        assertEquals(ChunkID.INVALID_ID, cache.get(42));
+        assertEquals(0, cache.size());
+    }
+}
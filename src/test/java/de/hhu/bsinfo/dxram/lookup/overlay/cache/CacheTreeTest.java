@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.overlay.cache;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxram.lookup.LookupRange;
+import de.hhu.bsinfo.dxutils.NodeID;
+
+import static org.junit.Assert.*;
+
+public class CacheTreeTest {
+
+    private static final short ORDER = 10;
+    private static final short OWNER = 0x1234;
+    private static final short OTHER_OWNER = 0x4321;
+    private static final long RANGES = 1000;
+    private static final long RANGE_SIZE = 100;
+    private static final long RANGE_GAP = 10;
+
+    @Test
+    public void cacheAndInvalidate() {
+        CacheTree tree = new CacheTree(ORDER, 10000, 1000);
+        long start = ((long) OWNER << 48) + 1;
+
+        tree.cacheRange(start, start + RANGE_SIZE - 1, OWNER);
+
+        LookupRange range = tree.getMetadata(start + RANGE_SIZE / 2);
+        assertNotNull(range);
+        assertEquals(OWNER, range.getPrimaryPeer());
+        assertEquals(OWNER, tree.getPrimaryPeer(start));
+        assertTrue(tree.validate());
+
+        tree.invalidateChunkID(start + RANGE_SIZE / 2);
+
+        assertNull(tree.getMetadata(start + RANGE_SIZE / 2));
+        assertEquals(OWNER, tree.getPrimaryPeer(start));
+        assertTrue(tree.validate());
+
+        tree.close();
+    }
+
+    @Test
+    public void updateCachedRangesOnly() {
+        CacheTree tree = new CacheTree(ORDER, 10000, 1000);
+        short newOwner = (short) (OWNER + 1);
+        long start = ((long) OWNER << 48) + 1;
+        long uncached = start + 2 * RANGE_SIZE;
+
+        tree.cacheRange(start, start + RANGE_SIZE - 1, OWNER);
+
+        assertTrue(tree.updateRange(start + RANGE_SIZE / 2, start + RANGE_SIZE / 2, newOwner));
+        assertEquals(newOwner, tree.getPrimaryPeer(start + RANGE_SIZE / 2));
+        assertEquals(OWNER, tree.getPrimaryPeer(start + RANGE_SIZE / 2 - 1));
+        assertEquals(OWNER, tree.getPrimaryPeer(start + RANGE_SIZE / 2 + 1));
+
+        assertFalse(tree.updateRange(uncached, uncached + RANGE_SIZE - 1, newOwner));
+        assertNull(tree.getMetadata(uncached));
+        assertTrue(tree.validate());
+
+        tree.close();
+    }
+
+    @Test
+    public void updateOverlappingRanges() {
+        CacheTree tree = new CacheTree(ORDER, 10000, 1000);
+        short newOwner = (short) (OWNER + 1);
+        long start = ((long) OWNER << 48) + 1;
+
+        // two cached ranges strictly inside the updated range, neither start nor end is cached
+        tree.cacheRange(start + 10, start + 19, OWNER);
+        tree.cacheRange(start + 30, start + 39, OWNER);
+
+        assertTrue(tree.updateRange(start, start + 99, newOwner));
+        assertEquals(newOwner, tree.getPrimaryPeer(start + 15));
+        assertEquals(newOwner, tree.getPrimaryPeer(start + 35));
+        assertTrue(tree.validate());
+
+        assertFalse(tree.updateRange(start + 200, start + 299, OWNER));
+        assertNull(tree.getMetadata(start + 250));
+
+        tree.close();
+    }
+
+    @Test
+    public void invalidateOverlappingRanges() {
+        CacheTree tree = new CacheTree(ORDER, 10000, 1000);
+        long start = ((long) OWNER << 48) + 1;
+
+        tree.cacheRange(start, start + 9, OWNER);
+        tree.cacheRange(start + 20, start + 29, OWNER);
+        tree.cacheRange(start + 40, start + 49, OWNER);
+        tree.cacheRange(start + 60, start + 69, OWNER);
+
+        tree.invalidateRange(start + 15, start + 55);
+
+        assertNotNull(tree.getMetadata(start + 5));
+        assertNull(tree.getMetadata(start + 25));
+        assertNull(tree.getMetadata(start + 45));
+        assertNotNull(tree.getMetadata(start + 65));
+        assertTrue(tree.validate());
+
+        // nothing cached within the range
+        tree.invalidateRange(start + 100, start + 199);
+        assertNotNull(tree.getMetadata(start + 65));
+
+        tree.close();
+    }
+
+    @Test
+    public void sweepEvictsColdRanges() throws InterruptedException {
+        CacheTree tree = new CacheTree(ORDER, 60000, RANGES / 2);
+        long base = (long) OWNER << 48;
+        long hot = base + RANGE_SIZE / 2;
+
+        for (long i = 0; i < RANGES; i++) {
+            tree.cacheRange(base + i * RANGE_SIZE + 1, base + (i + 1) * RANGE_SIZE - RANGE_GAP, OWNER);
+        }
+
+        assertTrue(tree.size() > RANGES / 2);
+
+        // first rotation only starts the clock, everything was touched on insertion
+        tree.sweep();
+        Thread.sleep(10);
+        assertNotNull(tree.getMetadata(hot));
+
+        // the hot range is accessed between the rotations, the others are evicted
+        while (tree.size() > RANGES / 2) {
+            tree.sweep();
+            Thread.sleep(10);
+            assertNotNull(tree.getMetadata(hot));
+        }
+
+        assertTrue(tree.validate());
+        assertNotNull(tree.getMetadata(hot));
+
+        tree.close();
+    }
+
+    @Test
+    public void sweepEvictsExpiredRanges() throws InterruptedException {
+        CacheTree tree = new CacheTree(ORDER, 1, Long.MAX_VALUE);
+        long base = (long) OWNER << 48;
+
+        for (long i = 0; i < RANGES; i++) {
+            tree.cacheRange(base + i * RANGE_SIZE + 1, base + (i + 1) * RANGE_SIZE - RANGE_GAP, OWNER);
+        }
+
+        Thread.sleep(10);
+
+        for (int i = 0; i < RANGES; i++) {
+            tree.sweep();
+        }
+
+        assertTrue(tree.size() < RANGES);
+        assertNull(tree.getMetadata(base + RANGES / 2 * RANGE_SIZE + RANGE_SIZE / 2));
+
+        tree.close();
+    }
+
+    @Test
+    public void cacheIntoIdleLeafSurvivesSweep() throws InterruptedException {
+        CacheTree tree = new CacheTree(ORDER, 300, Long.MAX_VALUE);
+        long base = (long) OWNER << 48;
+        long start = base + RANGES / 2 * RANGE_SIZE + 1;
+
+        for (long i = 0; i < RANGES; i++) {
+            tree.cacheRange(base + i * RANGE_SIZE + 1, base + (i + 1) * RANGE_SIZE - RANGE_GAP, OWNER);
+        }
+
+        // let all leaves expire
+        Thread.sleep(400);
+
+        tree.cacheRange(start, start + RANGE_SIZE - 1, OTHER_OWNER);
+
+        // a full rotation over all leaves, evicting the expired neighbors
+        for (int i = 0; i < 10; i++) {
+            tree.sweep();
+        }
+
+        LookupRange range = tree.getMetadata(start + RANGE_SIZE / 2);
+        assertNotNull(range);
+        assertEquals(OTHER_OWNER, range.getPrimaryPeer());
+
+        tree.close();
+    }
+
+    @Test
+    public void concurrentReadInvalidate() throws InterruptedException {
+        final CacheTree tree = new CacheTree(ORDER, 10000, 1000);
+        final long base = (long) OWNER << 48;
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        for (long i = 0; i < RANGES; i++) {
+            tree.cacheRange(base + i * RANGE_SIZE + 1, base + (i + 1) * RANGE_SIZE - RANGE_GAP, ownerOf(i));
+        }
+
+        Thread[] threads = new Thread[Math.max(4, Runtime.getRuntime().availableProcessors())];
+
+        // one writer constantly dropping and re-adding batches of ranges (merging and splitting nodes), all others
+        // read optimistically
+        threads[0] = new Thread(() -> {
+            long i = 0;
+
+            while (running.get()) {
+                for (long j = i; j < i + RANGES / 10; j++) {
+                    long start = base + j % RANGES * RANGE_SIZE + 1;
+
+                    tree.invalidateChunkID(start + RANGE_SIZE - RANGE_GAP - 1);
+                }
+
+                for (long j = i; j < i + RANGES / 10; j++) {
+                    long start = base + j % RANGES * RANGE_SIZE + 1;
+
+                    tree.cacheRange(start, start + RANGE_SIZE - RANGE_GAP - 1, ownerOf(j % RANGES));
+                }
+
+                i += 7;
+            }
+        });
+
+        for (int t = 1; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                long i = 0;
+
+                try {
+                    while (running.get()) {
+                        long offset = i % (RANGES * RANGE_SIZE);
+                        long cid = base + offset + 1;
+
+                        i += 31;
+
+                        if (offset % RANGE_SIZE >= RANGE_SIZE - RANGE_GAP) {
+                            // not cached, resolved to the successor's entry
+                            continue;
+                        }
+
+                        // neighboring ranges belong to different peers: a torn read across a concurrent split or
+                        // merge shows up as the neighbor's owner
+                        short expected = ownerOf(offset / RANGE_SIZE);
+                        LookupRange range = tree.getMetadata(cid);
+
+                        // a concurrent invalidation may remove the range, but never map it to another peer
+                        if (range != null && range.getPrimaryPeer() != expected) {
+                            throw new IllegalStateException("Wrong owner for " + Long.toHexString(cid));
+                        }
+
+                        short owner = tree.getPrimaryPeer(cid);
+
+                        if (owner != expected && owner != NodeID.INVALID_ID) {
+                            throw new IllegalStateException("Wrong owner for " + Long.toHexString(cid));
+                        }
+                    }
+                } catch (final Throwable e) {
+                    error.compareAndSet(null, e);
+                }
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        Thread.sleep(2000);
+        running.set(false);
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(error.get());
+        assertTrue(tree.validate());
+
+        tree.close();
+    }
+
+    /**
+     * Owner of the range with given index, alternating between two peers
+     */
+    private static short ownerOf(final long p_range) {
+        return p_range % 2 == 0 ? OWNER : OTHER_OWNER;
+    }
+}
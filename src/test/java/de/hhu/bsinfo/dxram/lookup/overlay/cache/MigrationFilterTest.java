@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay.cache;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxram.lookup.LookupRange;
+import de.hhu.bsinfo.dxram.lookup.LookupState;
+
+import static org.junit.Assert.*;
+
+public class MigrationFilterTest {
+
+    private static final short CREATOR = 0x1234;
+    private static final short OWNER = 0x4321;
+    private static final long TTL = 10000;
+
+    @Test
+    public void untrackedCreator() {
+        MigrationFilter filter = new MigrationFilter(16, TTL);
+
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 1)));
+        filter.update(ChunkID.getChunkID(CREATOR, 1), ChunkID.getChunkID(CREATOR, 1), OWNER);
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 1)));
+    }
+
+    @Test
+    public void migrateAndMigrateBack() {
+        MigrationFilter filter = new MigrationFilter(16, TTL);
+
+        assertTrue(filter.putNeverMigrated(CREATOR, filter.getEpoch()));
+        LookupRange range = filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 50));
+        assertNotNull(range);
+        assertEquals(CREATOR, range.getPrimaryPeer());
+        assertEquals(0, range.getRange()[0]);
+        assertEquals(ChunkID.MAX_LOCALID, range.getRange()[1]);
+
+        filter.update(ChunkID.getChunkID(CREATOR, 10), ChunkID.getChunkID(CREATOR, 20), OWNER);
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 10)));
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 20)));
+
+        range = filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 5));
+        assertEquals(0, range.getRange()[0]);
+        assertEquals(9, range.getRange()[1]);
+
+        range = filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 21));
+        assertEquals(21, range.getRange()[0]);
+        assertEquals(ChunkID.MAX_LOCALID, range.getRange()[1]);
+
+        // migrate part of the range back
+        filter.update(ChunkID.getChunkID(CREATOR, 15), ChunkID.getChunkID(CREATOR, 15), CREATOR);
+        range = filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 15));
+        assertEquals(15, range.getRange()[0]);
+        assertEquals(15, range.getRange()[1]);
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 14)));
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 16)));
+
+        // adjacent ranges are merged
+        filter.update(ChunkID.getChunkID(CREATOR, 15), ChunkID.getChunkID(CREATOR, 15), OWNER);
+        filter.update(ChunkID.getChunkID(CREATOR, 21), ChunkID.getChunkID(CREATOR, 30), OWNER);
+        range = filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 31));
+        assertEquals(31, range.getRange()[0]);
+        range = filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 9));
+        assertEquals(9, range.getRange()[1]);
+    }
+
+    @Test
+    public void fromLookupTreeRanges() {
+        MigrationFilter filter = new MigrationFilter(1, TTL);
+        ArrayList<LookupRange> ranges = new ArrayList<>();
+
+        ranges.add(new LookupRange(CREATOR, new long[] {0, 99}, LookupState.OK));
+        ranges.add(new LookupRange(OWNER, new long[] {100, 199}, LookupState.OK));
+        ranges.add(new LookupRange(CREATOR, new long[] {200, ChunkID.MAX_LOCALID}, LookupState.OK));
+        assertTrue(filter.put(CREATOR, ranges, filter.getEpoch()));
+
+        assertNotNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 99)));
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 100)));
+        assertNotNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 200)));
+
+        // exceeding the limit stops tracking the creator
+        filter.update(ChunkID.getChunkID(CREATOR, 300), ChunkID.getChunkID(CREATOR, 300), OWNER);
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 200)));
+    }
+
+    @Test
+    public void updateSinceLookupPreventsTracking() {
+        MigrationFilter filter = new MigrationFilter(16, TTL);
+
+        long epoch = filter.getEpoch();
+        // a migration is pushed while the superpeer's answer is on its way
+        filter.update(ChunkID.getChunkID(CREATOR, 10), ChunkID.getChunkID(CREATOR, 20), OWNER);
+        assertFalse(filter.putNeverMigrated(CREATOR, epoch));
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 10)));
+
+        epoch = filter.getEpoch();
+        filter.invalidate(OWNER);
+        assertFalse(filter.putNeverMigrated(CREATOR, epoch));
+
+        assertTrue(filter.putNeverMigrated(CREATOR, filter.getEpoch()));
+        assertNotNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 10)));
+    }
+
+    @Test
+    public void updateSinceTreeRequestPreventsTracking() {
+        MigrationFilter filter = new MigrationFilter(16, TTL);
+        ArrayList<LookupRange> ranges = new ArrayList<>();
+
+        ranges.add(new LookupRange(CREATOR, new long[] {0, ChunkID.MAX_LOCALID}, LookupState.OK));
+
+        long epoch = filter.getEpoch();
+        // a migration is pushed while the LookupTree is on its way
+        filter.update(ChunkID.getChunkID(CREATOR, 10), ChunkID.getChunkID(CREATOR, 20), OWNER);
+        assertFalse(filter.put(CREATOR, ranges, epoch));
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 10)));
+
+        assertTrue(filter.put(CREATOR, ranges, filter.getEpoch()));
+        assertNotNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 10)));
+    }
+
+    @Test
+    public void trackedCreatorExpires() throws InterruptedException {
+        MigrationFilter filter = new MigrationFilter(16, 10);
+
+        assertTrue(filter.putNeverMigrated(CREATOR, filter.getEpoch()));
+        assertNotNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 1)));
+
+        Thread.sleep(50);
+        assertNull(filter.getCreatorRange(ChunkID.getChunkID(CREATOR, 1)));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.overlay.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NegativeLookupCacheTest {
+
+    private static final long BASE = 0x1234L << 48;
+
+    @Test
+    public void insertAndHit() {
+        NegativeLookupCache cache = new NegativeLookupCache(16, 10000);
+
+        assertFalse(cache.contains(BASE + 1));
+
+        cache.put(BASE + 1);
+
+        assertTrue(cache.contains(BASE + 1));
+        assertFalse(cache.contains(BASE + 2));
+        assertEquals(1, cache.size());
+
+        cache.put(BASE + 1);
+
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void expiry() throws InterruptedException {
+        NegativeLookupCache cache = new NegativeLookupCache(16, 5);
+
+        cache.put(BASE + 1);
+        Thread.sleep(20);
+
+        assertFalse(cache.contains(BASE + 1));
+
+        cache.put(BASE + 1);
+
+        assertTrue(cache.contains(BASE + 1));
+    }
+
+    @Test
+    public void boundedByCapacity() {
+        NegativeLookupCache cache = new NegativeLookupCache(16, 10000);
+
+        for (long i = 0; i < 1000; i++) {
+            cache.put(BASE + i);
+        }
+
+        assertTrue(cache.size() <= 16);
+        assertTrue(cache.contains(BASE + 999));
+    }
+
+    @Test
+    public void invalidate() {
+        NegativeLookupCache cache = new NegativeLookupCache(16, 10000);
+
+        cache.put(BASE + 1);
+        cache.put(BASE + 2);
+        cache.invalidate(BASE + 1);
+        cache.invalidate(BASE + 3);
+
+        assertFalse(cache.contains(BASE + 1));
+        assertTrue(cache.contains(BASE + 2));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void invalidateRange() {
+        NegativeLookupCache cache = new NegativeLookupCache(1024, 10000);
+
+        for (long i = 0; i < 100; i++) {
+            cache.put(BASE + i);
+        }
+
+        // colliding ChunkIDs replace each other, remember which ones made it
+        boolean[] cached = new boolean[100];
+        int remaining = 0;
+
+        for (int i = 0; i < 100; i++) {
+            cached[i] = cache.contains(BASE + i);
+        }
+
+        cache.invalidateRange(BASE + 10, BASE + 19);
+
+        for (int i = 0; i < 100; i++) {
+            if (i >= 10 && i <= 19) {
+                assertFalse(cache.contains(BASE + i));
+            } else {
+                assertEquals(cached[i], cache.contains(BASE + i));
+
+                if (cached[i]) {
+                    remaining++;
+                }
+            }
+        }
+
+        assertEquals(remaining, cache.size());
+
+        // a huge range only touches the cached entries
+        cache.invalidateRange(BASE, BASE + Long.MAX_VALUE / 2);
+
+        assertEquals(0, cache.size());
+        assertFalse(cache.contains(BASE + 99));
+
+        // nothing cached
+        cache.invalidateRange(BASE, BASE + 10);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void clear() {
+        NegativeLookupCache cache = new NegativeLookupCache(16, 10000);
+
+        cache.put(BASE + 1);
+        cache.clear();
+
+        assertFalse(cache.contains(BASE + 1));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay.storage;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BarrierReductionTest {
+
+    private static final long[] VALUES = {0, 1, -1, 42, -42, Long.MAX_VALUE, Long.MIN_VALUE, 0x5555555555555555L};
+
+    @Test
+    public void identities() {
+        for (BarrierReduction reduction : BarrierReduction.values()) {
+            if (reduction == BarrierReduction.NONE) {
+                continue;
+            }
+
+            for (long value : VALUES) {
+                assertEquals(reduction.name(), value, reduction.reduce(reduction.getIdentity(), value));
+                assertEquals(reduction.name(), value, reduction.reduce(value, reduction.getIdentity()));
+            }
+        }
+    }
+
+    @Test
+    public void reduceTwoValues() {
+        assertEquals(5, BarrierReduction.SUM.reduce(2, 3));
+        assertEquals(2, BarrierReduction.MIN.reduce(2, 3));
+        assertEquals(3, BarrierReduction.MAX.reduce(2, 3));
+        assertEquals(0x2, BarrierReduction.AND.reduce(0x6, 0x3));
+        assertEquals(0x7, BarrierReduction.OR.reduce(0x6, 0x3));
+        assertEquals(2, BarrierReduction.NONE.reduce(2, 3));
+    }
+
+    @Test
+    public void fold() {
+        long[] values = {7, -3, 12, 5};
+
+        assertEquals(21, BarrierReduction.SUM.reduce(values, values.length));
+        assertEquals(-3, BarrierReduction.MIN.reduce(values, values.length));
+        assertEquals(12, BarrierReduction.MAX.reduce(values, values.length));
+        assertEquals(7 & -3 & 12 & 5, BarrierReduction.AND.reduce(values, values.length));
+        assertEquals(7 | -3 | 12 | 5, BarrierReduction.OR.reduce(values, values.length));
+
+        // only the first values are reduced
+        assertEquals(4, BarrierReduction.SUM.reduce(values, 2));
+        assertEquals(7, BarrierReduction.MAX.reduce(values, 1));
+    }
+
+    @Test
+    public void foldNothing() {
+        for (BarrierReduction reduction : BarrierReduction.values()) {
+            assertEquals(reduction.name(), reduction.getIdentity(), reduction.reduce(new long[0], 0));
+        }
+    }
+
+    @Test
+    public void foldInParts() {
+        // reducing partially reduced values (e.g. of subtrees) equals reducing all values
+        long[] values = {3, 9, -4, 0x70, 1, 6};
+
+        for (BarrierReduction reduction : BarrierReduction.values()) {
+            if (reduction == BarrierReduction.NONE) {
+                continue;
+            }
+
+            long left = reduction.reduce(values, 2);
+            long right = reduction.reduce(new long[] {values[2], values[3], values[4], values[5]}, 4);
+
+            assertEquals(reduction.name(), reduction.reduce(values, values.length), reduction.reduce(left, right));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay.storage;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BarriersTableTest {
+
+    private static final short SUPERPEER = (short) 0xC0C1;
+    private static final short NEW_SUPERPEER = (short) 0xC0C2;
+    private static final short CREATOR = 0x1234;
+
+    @Test
+    public void reduceSignOns() {
+        BarriersTable table = new BarriersTable(16, SUPERPEER);
+        int barrierId = table.allocateBarrier(CREATOR, 3);
+
+        assertEquals(2, table.signOn(CREATOR, barrierId, (short) 0x1, 5, BarrierReduction.SUM));
+        assertEquals(1, table.signOn(CREATOR, barrierId, (short) 0x2, 7, BarrierReduction.SUM));
+        assertEquals(0, table.signOn(CREATOR, barrierId, (short) 0x3, 10, BarrierReduction.SUM));
+
+        BarrierStatus status = table.getBarrierSignOnStatus(CREATOR, barrierId);
+        assertEquals(3, status.getNumberOfSignedOnPeers());
+        assertEquals(BarrierReduction.SUM, status.getReduction());
+        assertEquals(22, status.getReducedValue());
+        assertEquals(Long.valueOf(7), status.findCustomData((short) 0x2));
+    }
+
+    @Test
+    public void reductionMismatch() {
+        BarriersTable table = new BarriersTable(16, SUPERPEER);
+        int barrierId = table.allocateBarrier(CREATOR, 3);
+
+        assertEquals(2, table.signOn(CREATOR, barrierId, (short) 0x1, 5, BarrierReduction.SUM));
+        assertEquals(-1, table.signOn(CREATOR, barrierId, (short) 0x2, 7, BarrierReduction.MAX));
+        assertEquals(-1, table.signOn(CREATOR, barrierId, (short) 0x2, 7, BarrierReduction.NONE));
+
+        // the rejected sign ons did not change the barrier
+        BarrierStatus status = table.getBarrierSignOnStatus(CREATOR, barrierId);
+        assertEquals(1, status.getNumberOfSignedOnPeers());
+        assertEquals(5, status.getReducedValue());
+
+        assertEquals(1, table.signOn(CREATOR, barrierId, (short) 0x2, 7, BarrierReduction.SUM));
+    }
+
+    @Test
+    public void aggregatedSignOnIsAtomic() {
+        BarriersTable table = new BarriersTable(16, SUPERPEER);
+        int barrierId = table.allocateBarrier(CREATOR, 4);
+
+        assertEquals(2, table.signOn(CREATOR, barrierId, new short[] {0x1, 0x2}, new long[] {5, 7},
+                BarrierReduction.SUM));
+
+        // the subtree does not fit into the barrier anymore
+        assertEquals(-1, table.signOn(CREATOR, barrierId, new short[] {0x3, 0x4, 0x5}, new long[] {1, 2, 3},
+                BarrierReduction.SUM));
+
+        BarrierStatus status = table.getBarrierSignOnStatus(CREATOR, barrierId);
+        assertEquals(2, status.getNumberOfSignedOnPeers());
+        assertEquals(12, status.getReducedValue());
+        assertNull(status.findCustomData((short) 0x3));
+
+        // missing custom data is the identity of the reduction
+        assertEquals(0, table.signOn(CREATOR, barrierId, new short[] {0x3, 0x4}, new long[] {10},
+                BarrierReduction.SUM));
+        assertEquals(22, table.getBarrierSignOnStatus(CREATOR, barrierId).getReducedValue());
+    }
+
+    @Test
+    public void reductionOfNextRound() {
+        BarriersTable table = new BarriersTable(16, SUPERPEER);
+        int barrierId = table.allocateBarrier(CREATOR, 2);
+
+        assertEquals(1, table.signOn(CREATOR, barrierId, (short) 0x1, 5, BarrierReduction.SUM));
+        assertEquals(0, table.signOn(CREATOR, barrierId, (short) 0x2, 7, BarrierReduction.SUM));
+        assertTrue(table.reset(CREATOR, barrierId));
+
+        // a reset barrier can be used with another reduction
+        assertEquals(1, table.signOn(CREATOR, barrierId, (short) 0x1, 5, BarrierReduction.MIN));
+        assertEquals(0, table.signOn(CREATOR, barrierId, (short) 0x2, 7, BarrierReduction.MIN));
+        assertEquals(5, table.getBarrierSignOnStatus(CREATOR, barrierId).getReducedValue());
+    }
+
+    @Test
+    public void takeoverRecomputesReduction() {
+        BarriersTable table = new BarriersTable(16, SUPERPEER);
+        table.allocateBarrier(CREATOR, 1);
+        int freedId = table.allocateBarrier(CREATOR, 2);
+        int barrierId = table.allocateBarrier(CREATOR, 3);
+        assertTrue(table.freeBarrier(CREATOR, freedId));
+
+        assertEquals(2, table.signOn(CREATOR, barrierId, (short) 0x1, 5, BarrierReduction.SUM));
+        assertEquals(1, table.signOn(CREATOR, barrierId, (short) 0x2, 7, BarrierReduction.SUM));
+
+        // the reduced value is not replicated and restored from the custom data of the replicated sign ons
+        BarriersTable newTable = new BarriersTable(16, NEW_SUPERPEER);
+        byte[] metadata = table.receiveAllMetadata();
+        assertEquals(2, newTable.storeMetadata(metadata, 0, metadata.length));
+
+        BarrierStatus status = newTable.getBarrierSignOnStatus(CREATOR, barrierId);
+        assertEquals(2, status.getNumberOfSignedOnPeers());
+        assertEquals(Long.valueOf(5), status.findCustomData((short) 0x1));
+        assertNull(newTable.getBarrierSignOnStatus(CREATOR, freedId));
+
+        assertEquals(0, newTable.signOn(CREATOR, barrierId, (short) 0x3, 10, BarrierReduction.SUM));
+        assertEquals(22, newTable.getBarrierSignOnStatus(CREATOR, barrierId).getReducedValue());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay.storage;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxram.lookup.LookupRange;
+
+import static org.junit.Assert.*;
+
+public class LookupTreeTest {
+
+    private static final short CREATOR = 0x1234;
+    private static final short OWNER = 0x4321;
+    private static final long MIGRATIONS = 1000;
+
+    @Test
+    public void rangesOfEmptyTree() {
+        LookupTree tree = new LookupTree(CREATOR);
+
+        ArrayList<LookupRange> ranges = tree.getRanges();
+
+        assertEquals(1, ranges.size());
+        assertEquals(CREATOR, ranges.get(0).getPrimaryPeer());
+        assertEquals(0, ranges.get(0).getRange()[0]);
+        assertEquals(ChunkID.MAX_LOCALID, ranges.get(0).getRange()[1]);
+    }
+
+    @Test
+    public void rangesMatchMetadata() {
+        LookupTree tree = new LookupTree(CREATOR);
+        long base = (long) CREATOR << 48;
+
+        // migrate every second chunk to get many ranges and several merges of the delta buffer
+        for (long i = 1; i <= MIGRATIONS; i++) {
+            tree.migrate(base + i * 2, OWNER);
+        }
+
+        ArrayList<LookupRange> ranges = tree.getRanges();
+        long expectedStart = 0;
+
+        for (LookupRange range : ranges) {
+            assertEquals(expectedStart, range.getRange()[0]);
+            assertTrue(range.getRange()[0] <= range.getRange()[1]);
+
+            LookupRange metadata = tree.getMetadata(base + range.getRange()[1]);
+            assertEquals(metadata.getPrimaryPeer(), range.getPrimaryPeer());
+
+            expectedStart = range.getRange()[1] + 1;
+        }
+
+        assertEquals(ChunkID.MAX_LOCALID + 1, expectedStart);
+        assertEquals(OWNER, ranges.get(1).getPrimaryPeer());
+        assertEquals(CREATOR, ranges.get(ranges.size() - 1).getPrimaryPeer());
+    }
+
+    @Test
+    public void metadataOfRangeEnd() {
+        LookupTree tree = new LookupTree(CREATOR);
+        long base = (long) CREATOR << 48;
+
+        tree.migrateRange(base + 10, base + 20, OWNER);
+
+        LookupRange metadata = tree.getMetadata(base + 20);
+        assertEquals(OWNER, metadata.getPrimaryPeer());
+        assertEquals(10, metadata.getRange()[0]);
+        assertEquals(20, metadata.getRange()[1]);
+
+        metadata = tree.getMetadata(base + 21);
+        assertEquals(CREATOR, metadata.getPrimaryPeer());
+        assertEquals(21, metadata.getRange()[0]);
+        assertEquals(ChunkID.MAX_LOCALID, metadata.getRange()[1]);
+    }
+
+    @Test
+    public void removeMigratedChunks() {
+        LookupTree tree = new LookupTree(CREATOR);
+        long base = (long) CREATOR << 48;
+
+        for (long i = 1; i <= MIGRATIONS; i++) {
+            tree.migrate(base + i * 2, OWNER);
+        }
+
+        for (long i = 1; i <= MIGRATIONS; i++) {
+            tree.remove(base + i * 2);
+        }
+
+        assertTrue(tree.validate());
+        for (LookupRange range : tree.getRanges()) {
+            assertEquals(CREATOR, range.getPrimaryPeer());
+        }
+    }
+}
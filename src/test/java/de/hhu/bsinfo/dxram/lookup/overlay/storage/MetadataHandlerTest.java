@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package de.hhu.bsinfo.dxram.lookup.overlay.storage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxram.lookup.LookupRange;
+import de.hhu.bsinfo.dxutils.serialization.ByteBufferImExporter;
+
+import static org.junit.Assert.*;
+
+public class MetadataHandlerTest {
+
+    private static final short CREATOR = 0x1234;
+    private static final short OWNER = 0x4321;
+    // enough range migrations and removals to merge the delta buffer of the tree many times
+    private static final long MIGRATIONS = 20000;
+
+    @Test
+    public void exportLookupTreeDuringMigrations() throws InterruptedException {
+        MetadataHandler metadata = new MetadataHandler(new PeerHandler[65536], null, null, null, new ArrayList<>());
+        long base = (long) CREATOR << 48;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        metadata.putChunkIDInLookupTree(base + 1, OWNER, false);
+
+        Thread migrations = new Thread(() -> {
+            try {
+                for (long i = 1; i <= MIGRATIONS; i++) {
+                    metadata.putChunkIDRangeInLookupTree(base + i * 4, base + i * 4 + 1, OWNER, false);
+
+                    if (i % 3 == 0) {
+                        metadata.removeChunkIDsFromLookupTree(false, base + i * 4 - 4);
+                    }
+                }
+            } catch (final Throwable e) {
+                failure.set(e);
+            }
+        });
+
+        migrations.start();
+
+        while (migrations.isAlive()) {
+            LookupTree tree = metadata.getLookupTree(CREATOR);
+            byte[] transfer = new byte[tree.sizeofObject()];
+
+            // the snapshot is exported without any lock held, like a GetLookupTreeResponse
+            new ByteBufferImExporter(ByteBuffer.wrap(transfer)).exportObject(tree);
+
+            LookupTree received = new LookupTree();
+            new ByteBufferImExporter(ByteBuffer.wrap(transfer)).importObject(received);
+
+            assertTrue(received.validate());
+
+            long expectedStart = 0;
+            for (LookupRange range : received.getRanges()) {
+                assertEquals(expectedStart, range.getRange()[0]);
+                expectedStart = range.getRange()[1] + 1;
+            }
+            assertEquals(ChunkID.MAX_LOCALID + 1, expectedStart);
+        }
+
+        migrations.join();
+        assertNull(failure.get());
+    }
+}
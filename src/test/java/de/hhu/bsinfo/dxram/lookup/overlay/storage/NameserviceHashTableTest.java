@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 Heinrich-Heine-Universitaet Duesseldorf, Institute of Computer Science,
+ * Department Operating Systems
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+
+package de.hhu.bsinfo.dxram.lookup.overlay.storage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import de.hhu.bsinfo.dxmem.data.ChunkID;
+import de.hhu.bsinfo.dxutils.ArrayListLong;
+import de.hhu.bsinfo.dxutils.NodeID;
+
+import static org.junit.Assert.*;
+
+public class NameserviceHashTableTest {
+
+    private static final int ENTRIES = 10000;
+
+    @Test
+    public void putAndGet64BitIDs() {
+        NameserviceHashTable table = new NameserviceHashTable(10);
+
+        for (int i = 0; i < ENTRIES; i++) {
+            table.putChunkID(id(i), i);
+        }
+
+        assertEquals(ENTRIES, table.size());
+        for (int i = 0; i < ENTRIES; i++) {
+            assertEquals(i, table.getChunkID(id(i)));
+        }
+        assertEquals(ChunkID.INVALID_ID, table.getChunkID(id(ENTRIES)));
+
+        // overwriting does not add entries
+        table.putChunkID(id(0), 42);
+        assertEquals(ENTRIES, table.size());
+        assertEquals(42, table.getChunkID(id(0)));
+    }
+
+    @Test
+    public void remove() {
+        NameserviceHashTable table = new NameserviceHashTable(10);
+
+        for (int i = 0; i < ENTRIES; i++) {
+            table.putChunkID(id(i), i);
+        }
+
+        for (int i = 0; i < ENTRIES; i += 2) {
+            assertEquals(i, table.remove(id(i)));
+        }
+        assertEquals(ChunkID.INVALID_ID, table.remove(id(0)));
+
+        assertEquals(ENTRIES / 2, table.size());
+        for (int i = 0; i < ENTRIES; i++) {
+            assertEquals(i % 2 == 0 ? ChunkID.INVALID_ID : i, table.getChunkID(id(i)));
+        }
+    }
+
+    @Test
+    public void serialization() {
+        NameserviceHashTable table = new NameserviceHashTable(10);
+        NameserviceHashTable copy = new NameserviceHashTable(10);
+
+        for (int i = 0; i < 100; i++) {
+            table.putChunkID(id(i), i);
+        }
+
+        byte[] data = table.receiveAllMetadata();
+        assertEquals(100 * NameserviceHashTable.ENTRY_SIZE, data.length);
+        assertEquals(100, copy.storeMetadata(data, 0, data.length));
+
+        ArrayList<NameserviceEntry> entries = NameserviceHashTable.convert(data);
+        assertEquals(100, entries.size());
+        for (NameserviceEntry entry : entries) {
+            assertEquals(entry.getValue(), copy.getChunkID(entry.getId()));
+        }
+    }
+
+    @Test
+    public void pages() {
+        NameserviceHashTable table = new NameserviceHashTable(10);
+        HashSet<Long> ids = new HashSet<>();
+
+        for (int i = 0; i < ENTRIES; i++) {
+            table.putChunkID(id(i), i);
+        }
+
+        // a single superpeer is responsible for all entries
+        int cursor = 0;
+        do {
+            ArrayListLong page = new ArrayListLong();
+            cursor = table.getEntriesInRange(NodeID.INVALID_ID, NodeID.INVALID_ID, cursor, 100, Integer.MAX_VALUE,
+                    page);
+
+            assertTrue(page.getSize() <= 2 * 100);
+            for (int i = 0; i < page.getSize(); i += 2) {
+                assertTrue(ids.add(page.get(i)));
+                assertEquals(table.getChunkID(page.get(i)), page.get(i + 1));
+            }
+        } while (cursor != -1);
+
+        assertEquals(ENTRIES, ids.size());
+    }
+
+    private static long id(final int p_index) {
+        return (long) p_index << 32 | p_index;
+    }
+}